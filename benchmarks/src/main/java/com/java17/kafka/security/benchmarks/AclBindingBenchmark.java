@@ -0,0 +1,48 @@
+package com.java17.kafka.security.benchmarks;
+
+import com.java17.kafka.security.config.KafkaAclManager;
+import org.apache.kafka.common.acl.AclBinding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the binding lists sent to createAcls
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AclBindingBenchmark {
+
+    @Benchmark
+    public List<AclBinding> superUserBindings() {
+        return KafkaAclManager.superUserAclBindings("super_user");
+    }
+
+    @Benchmark
+    public List<AclBinding> producerBindings() {
+        return KafkaAclManager.producerAclBindings("producer_user", "notifications");
+    }
+
+    @Benchmark
+    public List<AclBinding> consumerBindings() {
+        return KafkaAclManager.consumerAclBindings("consumer_user", "notifications", "notification-group");
+    }
+
+    @Benchmark
+    public List<AclBinding> adminBindings() {
+        return KafkaAclManager.adminAclBindings("admin_user");
+    }
+}
@@ -0,0 +1,103 @@
+package com.java17.kafka.security.benchmarks;
+
+import com.java17.kafka.security.config.KafkaAclManager;
+import com.java17.kafka.security.service.AclCache;
+import com.java17.kafka.security.service.AuthorizationDecisionCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.acl.AccessControlEntryFilter;
+import org.apache.kafka.common.acl.AclBinding;
+import org.apache.kafka.common.acl.AclBindingFilter;
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.acl.AclPermissionType;
+import org.apache.kafka.common.resource.PatternType;
+import org.apache.kafka.common.resource.ResourcePatternFilter;
+import org.apache.kafka.common.resource.ResourceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authorization lookup over N principals: a linear AclBindingFilter scan, which is what a
+ * describeAcls result gives you, against the indexed AclCache, and against the decision
+ * cache in front of it that the admin API filter consults.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AclMatchingBenchmark {
+
+    @Param({"100", "10000"})
+    public int principals;
+
+    private List<AclBinding> bindings;
+    private AclBindingFilter filter;
+    private String principal;
+    private KafkaAclManager aclManager;
+    private AclCache aclCache;
+    private AuthorizationDecisionCache decisionCache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bindings = new ArrayList<>();
+        for (int i = 0; i < principals; i++) {
+            bindings.addAll(KafkaAclManager.producerAclBindings("user_" + i, "topic_" + i));
+            bindings.addAll(KafkaAclManager.consumerAclBindings("user_" + i, "topic_" + i, "group_" + i));
+        }
+        int target = principals / 2;
+        principal = "User:user_" + target;
+        filter = new AclBindingFilter(
+                new ResourcePatternFilter(ResourceType.TOPIC, "topic_" + target, PatternType.MATCH),
+                new AccessControlEntryFilter(principal, null, AclOperation.READ, AclPermissionType.ALLOW));
+
+        // The cache is only fed through onAclsCreated here; refresh() would need a cluster
+        aclManager = new KafkaAclManager(new Properties());
+        aclCache = new AclCache(aclManager, "", 30000);
+        aclCache.onAclsCreated(bindings);
+        decisionCache = new AuthorizationDecisionCache(aclCache, 10_000, 60_000, new SimpleMeterRegistry());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        aclManager.close();
+    }
+
+    @Benchmark
+    public boolean filterScan() {
+        for (AclBinding binding : bindings) {
+            if (filter.matches(binding)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean cacheLookup() {
+        return aclCache.isAllowed(principal, "10.0.0.1", AclOperation.READ,
+                ResourceType.TOPIC, "topic_" + (principals / 2));
+    }
+
+    @Benchmark
+    public boolean decisionCacheLookup() {
+        return decisionCache.isAllowed(principal, "10.0.0.1", AclOperation.READ,
+                ResourceType.TOPIC, "topic_" + (principals / 2));
+    }
+}
@@ -0,0 +1,101 @@
+package com.java17.kafka.security.benchmarks;
+
+import com.java17.kafka.security.config.KafkaAclManager;
+import com.java17.kafka.security.config.KafkaAdminClientProvider;
+import com.java17.kafka.security.service.AclProvisioningEngine;
+import com.java17.kafka.security.service.AclProvisioningReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.AclMockAdminClient;
+import org.apache.kafka.common.acl.AclBinding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provisioning {@code principals} producers through each admin path, against an in-memory
+ * admin client. There is no network, so the numbers are the client-side overhead of each
+ * path: per-call futures, batching and the provisioning report.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdminRoundTripBenchmark {
+
+    @Param({"10", "1000"})
+    public int principals;
+
+    private AclMockAdminClient adminClient;
+    private KafkaAclManager aclManager;
+    private AclProvisioningEngine provisioningEngine;
+    private List<AclBinding> bindings;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        adminClient = new AclMockAdminClient();
+        aclManager = new KafkaAclManager(
+                new KafkaAdminClientProvider(() -> adminClient, "mock", new SimpleMeterRegistry(), 3));
+        provisioningEngine = new AclProvisioningEngine(aclManager, 500, 4);
+        bindings = new ArrayList<>();
+        for (int i = 0; i < principals; i++) {
+            bindings.addAll(KafkaAclManager.producerAclBindings("user_" + i, "topic_" + i));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clear() {
+        adminClient.clearAcls();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        adminClient.close();
+    }
+
+    @Benchmark
+    public int syncPerPrincipal() throws Exception {
+        for (int i = 0; i < principals; i++) {
+            aclManager.createProducerAcl("user_" + i, "topic_" + i);
+        }
+        return adminClient.aclCount();
+    }
+
+    @Benchmark
+    public int asyncSingleCall() throws Exception {
+        aclManager.createAclsAsync(bindings).get();
+        return adminClient.aclCount();
+    }
+
+    @Benchmark
+    public AclProvisioningReport provisioningEngine() throws Exception {
+        return provisioningEngine.provision(bindings);
+    }
+
+    @Benchmark
+    public int superUserReconcile() throws Exception {
+        // describe + diff + create of the missing bindings only
+        aclManager.createSuperUserAcl("super_user");
+        return adminClient.aclCount();
+    }
+
+    @Benchmark
+    public int describePrincipal() throws Exception {
+        return aclManager.describeAclsAsync(KafkaAclManager.principalFilter("User:user_0")).get().size();
+    }
+}
@@ -0,0 +1,78 @@
+package com.java17.kafka.security.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The value serde pair configured in KafkaProducerConfig and KafkaConsumerConfig
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerdeBenchmark {
+
+    private static final String TOPIC = "notifications";
+
+    private JsonSerializer<Object> serializer;
+    private JsonDeserializer<String> deserializer;
+    private String stringPayload;
+    private Map<String, Object> notificationPayload;
+    private byte[] serializedString;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializer = new JsonSerializer<>();
+        deserializer = new JsonDeserializer<>(String.class, false);
+
+        stringPayload = "Course 'Distributed Systems' starts on Monday at 09:00, room 4.12";
+        notificationPayload = new LinkedHashMap<>();
+        notificationPayload.put("id", "8c1f5b7e-62a4-4f0c-9d0e-0d7f1a3b2c11");
+        notificationPayload.put("userId", "student_4711");
+        notificationPayload.put("type", "COURSE_REMINDER");
+        notificationPayload.put("message", stringPayload);
+        notificationPayload.put("timestamp", 1729155600000L);
+        notificationPayload.put("read", false);
+
+        serializedString = serializer.serialize(TOPIC, stringPayload);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serializeString() {
+        return serializer.serialize(TOPIC, stringPayload);
+    }
+
+    @Benchmark
+    public byte[] serializeNotification() {
+        return serializer.serialize(TOPIC, notificationPayload);
+    }
+
+    @Benchmark
+    public String deserializeString() {
+        return deserializer.deserialize(TOPIC, serializedString);
+    }
+}
@@ -0,0 +1,84 @@
+package com.java17.kafka.security.benchmarks;
+
+import com.java17.kafka.security.config.KeyStoreRegistry;
+import com.java17.kafka.security.service.JwtClaims;
+import com.java17.kafka.security.service.JwtTokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens signed and verified per second with the application's RS256 key (RSA-2048 from
+ * keys/keystore.p12) and with a P-256 key for ES256. {@code verify} checks the signature on
+ * every call, with the verification cache off; {@code verifyCached} presents the same token
+ * again, as a client does between refreshes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class JwtTokenBenchmark {
+
+    @Param({"RS256", "ES256"})
+    public String algorithm;
+
+    private JwtTokenService uncached;
+    private JwtTokenService cached;
+    private String token;
+    private final Map<String, Object> claims = Map.of("roles", List.of("ADMIN"));
+
+    @Setup(Level.Trial)
+    public void setUp() throws GeneralSecurityException {
+        KeyPair rsaKeys = KeyStoreRegistry.getDefault()
+                .get("classpath:keys/keystore.p12", "PKCS12", "abhimanyu".toCharArray())
+                .getKeyPair("signjwt");
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair ecKeys = generator.generateKeyPair();
+        JwtTokenService.Algorithm signing = JwtTokenService.Algorithm.valueOf(algorithm);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        uncached = new JwtTokenService(() -> rsaKeys, () -> ecKeys, signing, "learn", Duration.ofHours(1),
+                Duration.ofDays(7), 0, meterRegistry);
+        cached = new JwtTokenService(() -> rsaKeys, () -> ecKeys, signing, "learn", Duration.ofHours(1),
+                Duration.ofDays(7), 10_000, meterRegistry);
+        token = uncached.issueAccessToken("admin_user", claims);
+    }
+
+    @Benchmark
+    public String sign() {
+        return uncached.issueAccessToken("admin_user", claims);
+    }
+
+    @Benchmark
+    public JwtClaims verify() {
+        return uncached.verify(token);
+    }
+
+    @Benchmark
+    public JwtClaims verifyCached() {
+        return cached.verify(token);
+    }
+}
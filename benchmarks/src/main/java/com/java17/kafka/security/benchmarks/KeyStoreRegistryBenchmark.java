@@ -0,0 +1,78 @@
+package com.java17.kafka.security.benchmarks;
+
+import com.java17.kafka.security.config.KeyStoreRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What KeyStoreUtil paid per call before the registry, a full PKCS12 load and key recovery,
+ * against a lookup in the registry once the store is cached. The store is the application's
+ * JWT signing keystore, copied to a file so the cached path includes its modification check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeyStoreRegistryBenchmark {
+
+    private static final String TYPE = "PKCS12";
+    private static final char[] PASSWORD = "abhimanyu".toCharArray();
+    private static final String ALIAS = "signjwt";
+
+    private Path file;
+    private String location;
+    private KeyStoreRegistry cold;
+    private KeyStoreRegistry cached;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("keystore", ".p12");
+        try (InputStream in = KeyStoreRegistry.class.getClassLoader().getResourceAsStream("keys/keystore.p12")) {
+            if (in == null) {
+                throw new IllegalStateException("keys/keystore.p12 is not on the classpath");
+            }
+            Files.write(file, in.readAllBytes());
+        }
+        location = file.toUri().toString();
+        cold = new KeyStoreRegistry(Duration.ZERO);
+        // The default interval: a lookup stats the file at most once a second
+        cached = new KeyStoreRegistry(Duration.ofSeconds(1));
+        cached.get(location, TYPE, PASSWORD).getKeyPair(ALIAS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public KeyPair coldLoad() {
+        cold.invalidateAll();
+        return cold.get(location, TYPE, PASSWORD).getKeyPair(ALIAS);
+    }
+
+    @Benchmark
+    public KeyPair cachedLookup() {
+        return cached.get(location, TYPE, PASSWORD).getKeyPair(ALIAS);
+    }
+}
@@ -0,0 +1,82 @@
+package com.java17.kafka.security.benchmarks;
+
+import com.java17.kafka.security.config.NotificationCodecs;
+import com.java17.kafka.security.config.NotificationEventDeserializer;
+import com.java17.kafka.security.config.NotificationEventSerializer;
+import com.java17.kafka.security.dto.NotificationEvent;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notification serde cost per codec, against Spring's JsonSerializer/JsonDeserializer pair
+ * used before the codecs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotificationCodecBenchmark {
+
+    private static final String TOPIC = "notifications";
+
+    @Param({"spring-json", "json", "binary"})
+    public String codec;
+
+    private Serializer<NotificationEvent> serializer;
+    private Deserializer<NotificationEvent> deserializer;
+    private NotificationEvent event;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (codec.equals("spring-json")) {
+            serializer = new JsonSerializer<>();
+            deserializer = new JsonDeserializer<>(NotificationEvent.class, false);
+        } else {
+            NotificationEventSerializer notificationSerializer = new NotificationEventSerializer();
+            notificationSerializer.configure(
+                    Map.of(NotificationEventSerializer.CODEC_CONFIG, NotificationCodecs.forName(codec).name()), false);
+            serializer = notificationSerializer;
+            deserializer = new NotificationEventDeserializer();
+        }
+        event = new NotificationEvent("8c1f5b7e-62a4-4f0c-9d0e-0d7f1a3b2c11", "student_4711", "COURSE_REMINDER",
+                "Course 'Distributed Systems' starts on Monday at 09:00, room 4.12", 1729155600000L, false);
+        payload = serializer.serialize(TOPIC, event);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public NotificationEvent deserialize() {
+        return deserializer.deserialize(TOPIC, payload);
+    }
+}
@@ -0,0 +1,87 @@
+package com.java17.kafka.security.benchmarks;
+
+import com.java17.kafka.security.config.NotificationEventDeserializer;
+import com.java17.kafka.security.config.NotificationEventSerializer;
+import com.java17.kafka.security.config.NotificationEventView;
+import com.java17.kafka.security.config.NotificationEventViewDeserializer;
+import com.java17.kafka.security.dto.NotificationEvent;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A listener that only needs the notification type, fed the way the consumer feeds
+ * deserializers: a ByteBuffer slice of the fetched batch. Compares the lazy view with full
+ * decoding and with the Spring JSON pair, whose deserializer gets a copied {@code byte[]}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotificationViewBenchmark {
+
+    private static final String TOPIC = "notifications";
+
+    @Param({"256", "65536"})
+    public int messageLength;
+
+    private final RecordHeaders headers = new RecordHeaders();
+    private NotificationEventViewDeserializer viewDeserializer;
+    private NotificationEventDeserializer eventDeserializer;
+    private JsonDeserializer<NotificationEvent> springDeserializer;
+    private ByteBuffer binaryValue;
+    private ByteBuffer jsonValue;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        viewDeserializer = new NotificationEventViewDeserializer();
+        eventDeserializer = new NotificationEventDeserializer();
+        springDeserializer = new JsonDeserializer<>(NotificationEvent.class, false);
+        NotificationEvent event = new NotificationEvent("8c1f5b7e-62a4-4f0c-9d0e-0d7f1a3b2c11", "student_4711",
+                "COURSE_REMINDER", "m".repeat(messageLength), 1729155600000L, false);
+        binaryValue = inFetchBuffer(new NotificationEventSerializer().serialize(TOPIC, event));
+        try (JsonSerializer<NotificationEvent> jsonSerializer = new JsonSerializer<>()) {
+            jsonValue = inFetchBuffer(jsonSerializer.serialize(TOPIC, event));
+        }
+    }
+
+    private static ByteBuffer inFetchBuffer(byte[] value) {
+        ByteBuffer fetched = ByteBuffer.allocate(value.length + 64);
+        fetched.position(32);
+        fetched.put(value);
+        return fetched.position(32).slice().limit(value.length);
+    }
+
+    @Benchmark
+    public String viewType() {
+        NotificationEventView view = viewDeserializer.deserialize(TOPIC, headers, binaryValue.duplicate());
+        return view.getType();
+    }
+
+    @Benchmark
+    public String decodeBinaryType() {
+        return eventDeserializer.deserialize(TOPIC, headers, binaryValue.duplicate()).getType();
+    }
+
+    @Benchmark
+    public String springJsonType() {
+        return springDeserializer.deserialize(TOPIC, headers, jsonValue.duplicate()).getType();
+    }
+}
@@ -0,0 +1,117 @@
+package com.java17.kafka.security.benchmarks;
+
+import com.java17.kafka.security.config.KafkaProducerConfig;
+import com.java17.kafka.security.config.KafkaProducerProfile;
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records per second through each {@link KafkaProducerProfile}. Needs a running broker:
+ * {@code -p bootstrapServers=host:9092 -p securityProtocol=PLAINTEXT}; transactions need a
+ * broker whose transaction state log can be created (replication factor 1 on a single node).
+ * <p>
+ * The transactional profile sends {@code records} in one transaction per invocation, which is
+ * the cheapest way to use it; sending one record per transaction is far slower still.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProducerProfileBenchmark {
+
+    private static final int RECORDS = 1000;
+
+    @Param({"localhost:9092"})
+    public String bootstrapServers;
+
+    @Param({"PLAINTEXT"})
+    public String securityProtocol;
+
+    @Param({"TRANSACTIONAL", "THROUGHPUT"})
+    public String profile;
+
+    @Param({"512"})
+    public int payloadBytes;
+
+    @Param({"lz4", "zstd"})
+    public String compressionType;
+
+    private DefaultKafkaProducerFactory<String, String> producerFactory;
+    private KafkaTemplate<String, String> template;
+    private String topic;
+    private String[] payloads;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String prefix = "bench-tx-" + UUID.randomUUID() + "-";
+        Map<String, Object> base = KafkaProducerConfig.baseProducerConfig(bootstrapServers,
+                Map.of(CommonClientConfigs.SECURITY_PROTOCOL_CONFIG, securityProtocol), prefix);
+        if (KafkaProducerProfile.parse(profile) == KafkaProducerProfile.THROUGHPUT) {
+            producerFactory = new DefaultKafkaProducerFactory<>(
+                    KafkaProducerConfig.throughputConfig(base, compressionType, 50, 256 * 1024, 64L * 1024 * 1024));
+        } else {
+            producerFactory = new DefaultKafkaProducerFactory<>(base);
+            producerFactory.setTransactionIdPrefix(prefix);
+        }
+        template = new KafkaTemplate<>(producerFactory);
+        topic = "bench-producer-profile";
+        // Semi-random text so compression has something realistic to work with
+        payloads = new String[64];
+        String alphabet = "abcdefghij0123456789 {}\":,";
+        for (int i = 0; i < payloads.length; i++) {
+            StringBuilder builder = new StringBuilder(payloadBytes);
+            for (int j = 0; j < payloadBytes; j++) {
+                builder.append(alphabet.charAt(ThreadLocalRandom.current().nextInt(alphabet.length())));
+            }
+            payloads[i] = builder.toString();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        producerFactory.destroy();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void send() {
+        if (template.isTransactional()) {
+            template.executeInTransaction(operations -> {
+                sendAll(operations);
+                return null;
+            });
+        } else {
+            sendAll(template);
+            template.flush();
+        }
+    }
+
+    private void sendAll(KafkaOperations<String, String> operations) {
+        for (int i = 0; i < RECORDS; i++) {
+            operations.send(topic, "key-" + (i & 255), payloads[i & (payloads.length - 1)]);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.apache.kafka.clients.admin;
+
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.acl.AclBinding;
+import org.apache.kafka.common.acl.AclBindingFilter;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MockAdminClient with an in-memory ACL store. Kafka's mock does not implement the ACL calls,
+ * and the result types only have package-private constructors, hence the package.
+ * Futures complete immediately, so benchmarks measure the client-side cost of each path.
+ */
+public class AclMockAdminClient extends MockAdminClient {
+
+    private final Set<AclBinding> acls = ConcurrentHashMap.newKeySet();
+
+    public int aclCount() {
+        return acls.size();
+    }
+
+    public void clearAcls() {
+        acls.clear();
+    }
+
+    @Override
+    public synchronized CreateAclsResult createAcls(Collection<AclBinding> aclBindings, CreateAclsOptions options) {
+        Map<AclBinding, KafkaFuture<Void>> results = new HashMap<>();
+        for (AclBinding aclBinding : aclBindings) {
+            acls.add(aclBinding);
+            results.put(aclBinding, KafkaFuture.completedFuture(null));
+        }
+        return new CreateAclsResult(results);
+    }
+
+    @Override
+    public synchronized DescribeAclsResult describeAcls(AclBindingFilter filter, DescribeAclsOptions options) {
+        List<AclBinding> matches = new ArrayList<>();
+        for (AclBinding aclBinding : acls) {
+            if (filter.matches(aclBinding)) {
+                matches.add(aclBinding);
+            }
+        }
+        KafkaFutureImpl<Collection<AclBinding>> future = new KafkaFutureImpl<>();
+        future.complete(matches);
+        return new DescribeAclsResult(future);
+    }
+
+    @Override
+    public synchronized DeleteAclsResult deleteAcls(Collection<AclBindingFilter> filters, DeleteAclsOptions options) {
+        Map<AclBindingFilter, KafkaFuture<DeleteAclsResult.FilterResults>> results = new HashMap<>();
+        for (AclBindingFilter filter : filters) {
+            List<DeleteAclsResult.FilterResult> deleted = new ArrayList<>();
+            acls.removeIf(aclBinding -> {
+                if (filter.matches(aclBinding)) {
+                    deleted.add(new DeleteAclsResult.FilterResult(aclBinding, null));
+                    return true;
+                }
+                return false;
+            });
+            KafkaFutureImpl<DeleteAclsResult.FilterResults> future = new KafkaFutureImpl<>();
+            future.complete(new DeleteAclsResult.FilterResults(deleted));
+            results.put(filter, future);
+        }
+        return new DeleteAclsResult(results);
+    }
+}
@@ -0,0 +1,18 @@
+package com.java17.kafka.security.config;
+
+import org.apache.kafka.common.acl.AclBinding;
+
+import java.util.Collection;
+
+/**
+ * Callback for ACL writes made through {@link KafkaAclManager}.
+ * Invoked on the admin client's callback thread once the broker has applied the change, with
+ * the MDC of the thread that requested it, so implementations must be quick and must not block.
+ */
+public interface AclChangeListener {
+
+    void onAclsCreated(Collection<AclBinding> aclBindings);
+
+    default void onAclsDeleted(Collection<AclBinding> aclBindings) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.java17.kafka.security.config;
+
+import org.apache.kafka.common.acl.AclBinding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Minimal set of changes that turns the current ACLs into the desired ones
+ */
+public final class AclDiff {
+
+    private final List<AclBinding> toAdd;
+    private final List<AclBinding> toRemove;
+    private final int unchanged;
+
+    private AclDiff(List<AclBinding> toAdd, List<AclBinding> toRemove, int unchanged) {
+        this.toAdd = Collections.unmodifiableList(toAdd);
+        this.toRemove = Collections.unmodifiableList(toRemove);
+        this.unchanged = unchanged;
+    }
+
+    /**
+     * Compare by hash-set membership. Without {@code prune} bindings that exist but are not
+     * desired are left alone; with it they are scheduled for removal.
+     */
+    public static AclDiff between(Collection<AclBinding> desired, Collection<AclBinding> current, boolean prune) {
+        Set<AclBinding> desiredSet = new LinkedHashSet<>(desired);
+        Set<AclBinding> currentSet = new HashSet<>(current);
+
+        List<AclBinding> toAdd = new ArrayList<>();
+        int unchanged = 0;
+        for (AclBinding aclBinding : desiredSet) {
+            if (currentSet.contains(aclBinding)) {
+                unchanged++;
+            } else {
+                toAdd.add(aclBinding);
+            }
+        }
+
+        List<AclBinding> toRemove = new ArrayList<>();
+        if (prune) {
+            for (AclBinding aclBinding : current) {
+                if (!desiredSet.contains(aclBinding)) {
+                    toRemove.add(aclBinding);
+                }
+            }
+        }
+        return new AclDiff(toAdd, toRemove, unchanged);
+    }
+
+    public List<AclBinding> getToAdd() {
+        return toAdd;
+    }
+
+    public List<AclBinding> getToRemove() {
+        return toRemove;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    public boolean isEmpty() {
+        return toAdd.isEmpty() && toRemove.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "add=" + toAdd.size() + ", remove=" + toRemove.size() + ", unchanged=" + unchanged;
+    }
+}
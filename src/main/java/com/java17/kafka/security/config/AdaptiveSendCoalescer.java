@@ -0,0 +1,252 @@
+package com.java17.kafka.security.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends through a template whose producer lingers for {@code maxLinger}, and flushes it
+ * earlier when waiting that long would not pay off. The effective linger is adjusted once
+ * per interval from what the producer reports:
+ * <ul>
+ *     <li>{@code record-queue-time-avg} above the latency target: halve it</li>
+ *     <li>{@code batch-size-avg} short of the fill target: raise it by a tenth of {@code maxLinger}</li>
+ *     <li>fewer than two records expected per linger window: drop it to zero, since
+ *     waiting cannot coalesce anything and only adds latency</li>
+ * </ul>
+ * Quiet periods therefore send almost immediately, and spikes get the full linger and
+ * batch size. Linger and batch size cannot change on a live producer, so {@code maxLinger}
+ * must match the template's {@code linger.ms}.
+ * <p>
+ * Components that need the template itself, such as the dead letter recoverer, send on it
+ * and report each send through {@link #sent(KafkaOperations)}.
+ * <p>
+ * Adjustments start with the first send, so a coalescer nothing sends through never reads
+ * the producer's metrics. Each adjustment is counted in {@code kafka.producer.adaptive.decisions}
+ * by decision, and the current linger, send rate and batch fill are exposed as gauges.
+ */
+public class AdaptiveSendCoalescer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveSendCoalescer.class);
+
+    // Weight of the newest interval in the send-rate average
+    private static final double RATE_SMOOTHING = 0.3;
+
+    enum Decision {
+        DECREASE, INCREASE, HOLD, IDLE
+    }
+
+    private final KafkaTemplate<String, String> template;
+    private final long maxLingerNanos;
+    private final double targetLatencyMs;
+    private final double targetFill;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler;
+    private final LongAdder sends = new LongAdder();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicBoolean adjusting = new AtomicBoolean();
+    private final long adjustIntervalMs;
+    private final Counter flushes;
+    private final Map<Decision, Counter> decisions = new EnumMap<>(Decision.class);
+
+    private volatile long lingerNanos;
+    private volatile double sendRate;
+    private volatile double batchFill = Double.NaN;
+    private volatile double queueTimeMs = Double.NaN;
+    private long lastAdjustNanos;
+
+    public AdaptiveSendCoalescer(KafkaTemplate<String, String> template, MeterRegistry meterRegistry,
+                                 Duration maxLinger, Duration targetLatency, double targetFill, int batchSize,
+                                 Duration adjustInterval) {
+        if (targetFill <= 0 || targetFill > 1) {
+            throw new IllegalArgumentException("Target batch fill must be in (0, 1]");
+        }
+        this.template = template;
+        this.maxLingerNanos = maxLinger.toNanos();
+        this.targetLatencyMs = targetLatency.toMillis();
+        this.targetFill = targetFill;
+        this.batchSize = batchSize;
+        this.lingerNanos = maxLingerNanos;
+        this.adjustIntervalMs = adjustInterval.toMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "adaptive-send-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flushes = Counter.builder("kafka.producer.adaptive.flushes")
+                .description("Early flushes issued before the producer's own linger expired")
+                .register(meterRegistry);
+        for (Decision decision : Decision.values()) {
+            decisions.put(decision, Counter.builder("kafka.producer.adaptive.decisions")
+                    .description("Linger adjustments by decision")
+                    .tag("decision", decision.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        Gauge.builder("kafka.producer.adaptive.linger", this, coalescer -> coalescer.lingerNanos / 1_000_000.0)
+                .description("Effective linger in milliseconds")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("kafka.producer.adaptive.send.rate", this, coalescer -> coalescer.sendRate)
+                .description("Smoothed records sent per second")
+                .register(meterRegistry);
+        Gauge.builder("kafka.producer.adaptive.batch.fill", this, coalescer -> coalescer.batchFill)
+                .description("Average batch size as a fraction of batch.size")
+                .register(meterRegistry);
+        Gauge.builder("kafka.producer.adaptive.queue.time", this, coalescer -> coalescer.queueTimeMs)
+                .description("Average time records wait in the producer before being sent")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<SendResult<String, String>> send(String topic, String key, String value) {
+        CompletableFuture<SendResult<String, String>> future = template.send(topic, key, value);
+        sent();
+        return future;
+    }
+
+    /**
+     * Count a record that was already sent on {@code operations}, so it is flushed early like
+     * one sent through this class. Sends on any other template are ignored, as flushing this
+     * one would not help them.
+     */
+    public void sent(KafkaOperations<?, ?> operations) {
+        if (operations == template) {
+            sent();
+        }
+    }
+
+    public CompletableFuture<SendResult<String, String>> sendDefault(String key, String value) {
+        return send(template.getDefaultTopic(), key, value);
+    }
+
+    public Duration getLinger() {
+        return Duration.ofNanos(lingerNanos);
+    }
+
+    private void sent() {
+        sends.increment();
+        startAdjusting();
+        scheduleFlush();
+    }
+
+    private void startAdjusting() {
+        if (adjustIntervalMs <= 0 || adjusting.get() || !adjusting.compareAndSet(false, true)) {
+            return;
+        }
+        lastAdjustNanos = System.nanoTime();
+        try {
+            scheduler.scheduleWithFixedDelay(this::adjust, adjustIntervalMs, adjustIntervalMs, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // Closed: sends still go out at the producer's own linger
+        }
+    }
+
+    boolean isAdjusting() {
+        return adjusting.get();
+    }
+
+    private void scheduleFlush() {
+        long linger = lingerNanos;
+        // At full linger the producer sends on its own schedule
+        if (linger >= maxLingerNanos || !flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.schedule(this::flush, linger, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            // Closed: the producer's own linger still sends the record
+            flushScheduled.set(false);
+        }
+    }
+
+    private void flush() {
+        // Sends from here on schedule the next flush
+        flushScheduled.set(false);
+        try {
+            template.flush();
+            flushes.increment();
+        } catch (RuntimeException e) {
+            logger.warn("Early producer flush failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * One controller step from the send count since the last step and the producer's metrics
+     */
+    void adjust() {
+        long now = System.nanoTime();
+        double seconds = (now - lastAdjustNanos) / 1e9;
+        lastAdjustNanos = now;
+        double rate = seconds > 0 ? sends.sumThenReset() / seconds : 0;
+        double batchSizeAvg = Double.NaN;
+        double queueTime = Double.NaN;
+        for (Map.Entry<MetricName, ? extends Metric> entry : template.metrics().entrySet()) {
+            MetricName name = entry.getKey();
+            if (!"producer-metrics".equals(name.group())) {
+                continue;
+            }
+            if ("batch-size-avg".equals(name.name())) {
+                batchSizeAvg = value(entry.getValue());
+            } else if ("record-queue-time-avg".equals(name.name())) {
+                queueTime = value(entry.getValue());
+            }
+        }
+        adjust(rate, batchSizeAvg, queueTime);
+    }
+
+    Decision adjust(double observedRate, double batchSizeAvg, double queueTime) {
+        double rate = sendRate == 0 ? observedRate
+                : RATE_SMOOTHING * observedRate + (1 - RATE_SMOOTHING) * sendRate;
+        sendRate = rate;
+        batchFill = batchSizeAvg / batchSize;
+        queueTimeMs = queueTime;
+
+        Decision decision;
+        long linger = lingerNanos;
+        if (rate * maxLingerNanos / 1e9 < 2) {
+            decision = Decision.IDLE;
+            linger = 0;
+        } else if (!Double.isNaN(queueTime) && queueTime > targetLatencyMs) {
+            decision = Decision.DECREASE;
+            linger = linger / 2;
+        } else if (Double.isNaN(batchFill) || batchFill < targetFill) {
+            decision = linger < maxLingerNanos ? Decision.INCREASE : Decision.HOLD;
+            linger = Math.min(maxLingerNanos, linger + Math.max(maxLingerNanos / 10, 1_000_000));
+        } else {
+            decision = Decision.HOLD;
+        }
+        lingerNanos = linger;
+        decisions.get(decision).increment();
+        logger.debug("Send rate {}/s, batch fill {}, queue time {} ms: {} linger to {} ms", Math.round(rate),
+                batchFill, queueTime, decision, linger / 1_000_000.0);
+        return decision;
+    }
+
+    private static double value(Metric metric) {
+        Object value = metric.metricValue();
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,86 @@
+package com.java17.kafka.security.config;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Execution mode for the admin REST layer, selected with {@code kafka.admin.threads.mode}.
+ * <ul>
+ * <li>{@code platform} (default): async controller work runs on a bounded pool</li>
+ * <li>{@code virtual}: Tomcat request handling and async controller work run on virtual threads
+ * when the JVM supports them, otherwise the bounded pool is used</li>
+ * </ul>
+ */
+@Configuration
+public class AdminExecutionConfig implements WebMvcConfigurer {
+
+    private final ExecutorService adminTaskExecutor;
+    private final boolean virtualThreads;
+
+    public AdminExecutionConfig(@Value("${kafka.admin.threads.mode:platform}") String mode,
+                                @Value("${kafka.admin.threads.pool-size:32}") int poolSize,
+                                @Value("${kafka.admin.threads.queue-capacity:1000}") int queueCapacity) {
+        AdminTaskExecutors.Mode requested = AdminTaskExecutors.Mode.parse(mode);
+        this.virtualThreads = requested == AdminTaskExecutors.Mode.VIRTUAL
+                && AdminTaskExecutors.virtualThreadsSupported();
+        this.adminTaskExecutor = AdminTaskExecutors.create(requested, poolSize, queueCapacity);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService adminTaskExecutor() {
+        return adminTaskExecutor;
+    }
+
+    /**
+     * Controllers returning Callable run on the admin executor, with the MDC of the request thread
+     * so that logging and the audit trail still see the caller's principal
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        TaskExecutorAdapter taskExecutor = new TaskExecutorAdapter(adminTaskExecutor);
+        taskExecutor.setTaskDecorator(AdminExecutionConfig::withCallerContext);
+        configurer.setTaskExecutor(taskExecutor);
+    }
+
+    static Runnable withCallerContext(Runnable task) {
+        Map<String, String> callerContext = MDC.getCopyOfContextMap();
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            setContext(callerContext);
+            try {
+                task.run();
+            } finally {
+                setContext(previous);
+            }
+        };
+    }
+
+    private static void setContext(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+
+    /**
+     * In virtual mode Tomcat dispatches every request on a virtual thread as well
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> adminProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (virtualThreads) {
+                protocolHandler.setExecutor(adminTaskExecutor);
+            }
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package com.java17.kafka.security.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.acl.AclBinding;
+import org.apache.kafka.common.resource.ResourceType;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Latency of admin operations as one {@code kafka.admin.operation} timer, tagged by
+ * {@code operation}, {@code resource.type} and {@code outcome}. Percentiles and a histogram
+ * are published so p95/p99 show up in /actuator/metrics and Prometheus alike.
+ */
+public class AdminOperationMetrics {
+
+    public static final String METRIC_NAME = "kafka.admin.operation";
+
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+    /** Some items of a bulk operation failed */
+    public static final String PARTIAL = "partial";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public AdminOperationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void stop(Timer.Sample sample, String operation, String resourceType, String outcome) {
+        sample.stop(timer(operation, resourceType, outcome));
+    }
+
+    public void stop(Timer.Sample sample, String operation, String resourceType, Throwable error) {
+        stop(sample, operation, resourceType, error == null ? SUCCESS : FAILURE);
+    }
+
+    /**
+     * Time an asynchronous operation from submission until its future completes
+     */
+    public <T> CompletableFuture<T> timeAsync(String operation, String resourceType,
+                                              Supplier<CompletableFuture<T>> call) {
+        Timer.Sample sample = start();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            stop(sample, operation, resourceType, e);
+            throw e;
+        }
+        return future.whenComplete((value, error) -> stop(sample, operation, resourceType, error));
+    }
+
+    public Timer timer(String operation, String resourceType, String outcome) {
+        return timers.computeIfAbsent(operation + '|' + resourceType + '|' + outcome,
+                key -> Timer.builder(METRIC_NAME)
+                        .description("Latency of Kafka admin operations")
+                        .tag("operation", operation)
+                        .tag("resource.type", resourceType)
+                        .tag("outcome", outcome)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+    }
+
+    /**
+     * The resource type shared by all bindings, {@code mixed} when they differ
+     */
+    public static String resourceType(Collection<AclBinding> aclBindings) {
+        ResourceType type = null;
+        for (AclBinding aclBinding : aclBindings) {
+            ResourceType bindingType = aclBinding.pattern().resourceType();
+            if (type == null) {
+                type = bindingType;
+            } else if (type != bindingType) {
+                return "mixed";
+            }
+        }
+        return type == null ? "none" : resourceType(type);
+    }
+
+    public static String resourceType(ResourceType type) {
+        return type.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,79 @@
+package com.java17.kafka.security.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the executor that runs admin REST work and provisioning loops.
+ * The project compiles for Java 17, so virtual threads are looked up reflectively
+ * and only used when the running JVM provides them (21+).
+ */
+public final class AdminTaskExecutors {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminTaskExecutors.class);
+
+    public enum Mode {
+        PLATFORM,
+        VIRTUAL;
+
+        public static Mode parse(String value) {
+            return Mode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private AdminTaskExecutors() {
+    }
+
+    public static boolean virtualThreadsSupported() {
+        return virtualExecutorFactory() != null;
+    }
+
+    /**
+     * Virtual-thread-per-task executor when requested and supported, otherwise a bounded platform pool
+     */
+    public static ExecutorService create(Mode mode, int poolSize, int queueCapacity) {
+        if (mode == Mode.VIRTUAL) {
+            Method factory = virtualExecutorFactory();
+            if (factory != null) {
+                try {
+                    logger.info("Running admin work on virtual threads");
+                    return (ExecutorService) factory.invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    logger.warn("Could not create virtual thread executor, falling back to platform threads", e);
+                }
+            } else {
+                logger.warn("Virtual threads need Java 21+, running {}; falling back to a bounded platform pool",
+                        Runtime.version().feature());
+            }
+        }
+        return boundedPool(poolSize, queueCapacity);
+    }
+
+    public static ExecutorService boundedPool(int poolSize, int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("kafka-admin-"),
+                // Push back on the submitting thread rather than dropping admin work
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static Method virtualExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.java17.kafka.security.config;
+
+import com.java17.kafka.security.dto.NotificationEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.utils.ByteBufferOutputStream;
+import org.apache.kafka.common.utils.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Hand-written schema for {@link NotificationEvent}. Field names are not written, which puts a
+ * typical event at two thirds of its JSON size:
+ * <pre>
+ * magic    0x01
+ * version  0x01
+ * id       string
+ * userId   string
+ * type     string
+ * message  string
+ * timestamp zigzag varlong
+ * read     0x00 | 0x01
+ * </pre>
+ * A string is a zigzag varint byte length, -1 for null, followed by UTF-8 bytes. New fields
+ * go at the end under a new version, and older versions stay readable.
+ * <p>
+ * The size of an event is computed before encoding, so the serializer allocates the record's
+ * array once at its final size and strings are encoded straight into it.
+ */
+public class BinaryNotificationCodec implements NotificationCodec {
+
+    public static final String NAME = "binary";
+    public static final byte MAGIC = 0x01;
+    static final byte VERSION = 0x01;
+    /** Bytes before the first field */
+    static final int HEADER_SIZE = 2;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte magic() {
+        return MAGIC;
+    }
+
+    @Override
+    public int encodedSize(NotificationEvent event) {
+        return HEADER_SIZE
+                + stringSize(event.getId())
+                + stringSize(event.getUserId())
+                + stringSize(event.getType())
+                + stringSize(event.getMessage())
+                + ByteUtils.sizeOfVarlong(event.getTimestamp())
+                + 1;
+    }
+
+    @Override
+    public void encode(NotificationEvent event, ByteBuffer target) {
+        target.put(MAGIC).put(VERSION);
+        writeString(event.getId(), target);
+        writeString(event.getUserId(), target);
+        writeString(event.getType(), target);
+        writeString(event.getMessage(), target);
+        ByteUtils.writeVarlong(event.getTimestamp(), target);
+        target.put(event.isRead() ? (byte) 1 : (byte) 0);
+    }
+
+    @Override
+    public void encode(NotificationEvent event, ByteBufferOutputStream out) {
+        out.ensureRemaining(encodedSize(event));
+        encode(event, out.buffer());
+    }
+
+    @Override
+    public NotificationEvent decode(ByteBuffer in) {
+        checkHeader(in);
+        NotificationEvent event = new NotificationEvent();
+        event.setId(readString(in));
+        event.setUserId(readString(in));
+        event.setType(readString(in));
+        event.setMessage(readString(in));
+        event.setTimestamp(ByteUtils.readVarlong(in));
+        event.setRead(in.get() != 0);
+        return event;
+    }
+
+    /**
+     * Consume the magic and version bytes, failing on anything this codec cannot read
+     */
+    static void checkHeader(ByteBuffer in) {
+        if (in.get() != MAGIC) {
+            throw new SerializationException("Not a binary notification payload");
+        }
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new SerializationException("Unsupported binary notification version " + version);
+        }
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = readStringLength(in);
+        if (length < 0) {
+            return null;
+        }
+        String value = readUtf8(in, in.position(), length);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    /**
+     * Length prefix of the string at the buffer's position, -1 for null; leaves the buffer at its first byte
+     */
+    static int readStringLength(ByteBuffer in) {
+        int length = ByteUtils.readVarint(in);
+        if (length > in.remaining()) {
+            throw new SerializationException("String of " + length + " bytes overruns the payload");
+        }
+        return length;
+    }
+
+    /**
+     * Decode {@code length} bytes at absolute {@code offset} without moving the buffer
+     */
+    static String readUtf8(ByteBuffer in, int offset, int length) {
+        if (in.hasArray()) {
+            return new String(in.array(), in.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        in.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(String value) {
+        if (value == null) {
+            return ByteUtils.sizeOfVarint(-1);
+        }
+        int length = utf8Length(value);
+        return ByteUtils.sizeOfVarint(length) + length;
+    }
+
+    private static void writeString(String value, ByteBuffer out) {
+        if (value == null) {
+            ByteUtils.writeVarint(-1, out);
+            return;
+        }
+        ByteUtils.writeVarint(utf8Length(value), out);
+        putUtf8(value, out);
+    }
+
+    /**
+     * UTF-8 length as {@link String#getBytes} would produce it, unpaired surrogates becoming '?'
+     */
+    static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                // Two chars, four bytes
+                bytes += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    private static void putUtf8(String value, ByteBuffer out) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out.put((byte) (0xF0 | (codePoint >> 18)));
+                out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.java17.kafka.security.config;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link ErrorHandlingDeserializer} that also forwards the consumer's {@link ByteBuffer} call.
+ * The Spring wrapper only overrides the {@code byte[]} methods, so the consumer's buffer is
+ * otherwise copied into an array before the delegate sees it.
+ * <p>
+ * Only a record that fails is copied: it is handed to the {@code byte[]} path, which
+ * deserializes it again and records the failure in the headers as usual. No validator or
+ * failed-deserialization function is applied on the buffer path.
+ */
+public class ByteBufferErrorHandlingDeserializer<T> extends ErrorHandlingDeserializer<T> {
+
+    private final Deserializer<T> delegate;
+
+    public ByteBufferErrorHandlingDeserializer(Deserializer<T> delegate) {
+        super(delegate);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, ByteBuffer data) {
+        if (data == null) {
+            return deserialize(topic, headers, (byte[]) null);
+        }
+        try {
+            return delegate.deserialize(topic, headers, data.duplicate());
+        } catch (RuntimeException e) {
+            return deserialize(topic, headers, Utils.toNullableArray(data));
+        }
+    }
+}
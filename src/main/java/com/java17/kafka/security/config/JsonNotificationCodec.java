@@ -0,0 +1,59 @@
+package com.java17.kafka.security.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.java17.kafka.security.dto.NotificationEvent;
+import org.apache.kafka.common.utils.ByteBufferOutputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Plain JSON, the format Spring's JsonSerializer produced before the codecs existed. The magic
+ * byte is the opening brace, so those payloads decode without a migration.
+ */
+public class JsonNotificationCodec implements NotificationCodec {
+
+    public static final String NAME = "json";
+
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+
+    public JsonNotificationCodec() {
+        this(new ObjectMapper());
+    }
+
+    public JsonNotificationCodec(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writerFor(NotificationEvent.class);
+        this.reader = objectMapper.readerFor(NotificationEvent.class);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte magic() {
+        return '{';
+    }
+
+    @Override
+    public void encode(NotificationEvent event, ByteBufferOutputStream out) throws IOException {
+        writer.writeValue(out, event);
+    }
+
+    @Override
+    public NotificationEvent decode(ByteBuffer in) throws IOException {
+        if (in.hasArray()) {
+            int offset = in.arrayOffset() + in.position();
+            NotificationEvent event = reader.readValue(in.array(), offset, in.remaining());
+            in.position(in.limit());
+            return event;
+        }
+        byte[] copy = new byte[in.remaining()];
+        in.get(copy);
+        return reader.readValue(copy);
+    }
+}
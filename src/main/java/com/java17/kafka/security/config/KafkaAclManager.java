@@ -1,22 +1,219 @@
 package com.java17.kafka.security.config;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.apache.kafka.clients.admin.*;
+import org.apache.kafka.common.KafkaFuture;
 import org.apache.kafka.common.acl.*;
 import org.apache.kafka.common.resource.*;
 import org.apache.kafka.common.security.auth.KafkaPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class KafkaAclManager {
 
-    private final AdminClient adminClient;
+    private static final Logger logger = LoggerFactory.getLogger(KafkaAclManager.class);
 
+    private final KafkaAdminClientProvider adminClientProvider;
+    private final boolean ownsProvider;
+    private final List<AclChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Standalone manager with its own admin client, closed by {@link #close()}
+     */
     public KafkaAclManager(Properties adminProps) {
-        this.adminClient = AdminClient.create(adminProps);
+        this.adminClientProvider = new KafkaAdminClientProvider(adminProps, Metrics.globalRegistry, 3);
+        this.ownsProvider = true;
+    }
+
+    /**
+     * Manager using a shared admin client whose lifecycle belongs to the caller
+     */
+    public KafkaAclManager(KafkaAdminClientProvider adminClientProvider) {
+        this.adminClientProvider = adminClientProvider;
+        this.ownsProvider = false;
+    }
+
+    /**
+     * Register a listener that is told about every ACL written through this manager
+     */
+    public void addAclChangeListener(AclChangeListener listener) {
+        changeListeners.add(listener);
     }
 
     public void createProducerAcl(String principalName, String topicName) throws ExecutionException, InterruptedException {
+        // Create the ACL and wait for completion
+        createProducerAclAsync(principalName, topicName).get();
+        
+        logger.info("Producer ACL created for {} on topic {}", principalName, topicName);
+    }
+
+    public void createConsumerAcl(String principalName, String topicName, String groupId) 
+            throws ExecutionException, InterruptedException {
+        // Create the ACLs and wait for completion
+        createConsumerAclAsync(principalName, topicName, groupId).get();
+        
+        logger.info("Consumer ACLs created for {} on topic {}{}", principalName, topicName,
+                groupId != null ? " and group " + groupId : "");
+    }
+
+    public CompletableFuture<Void> createProducerAclAsync(String principalName, String topicName) {
+        return createAclsAsync(producerAclBindings(principalName, topicName));
+    }
+
+    public CompletableFuture<Void> createConsumerAclAsync(String principalName, String topicName, String groupId) {
+        return createAclsAsync(consumerAclBindings(principalName, topicName, groupId));
+    }
+
+    public CompletableFuture<Void> createAdminAclAsync(String adminUser) {
+        return createAclsAsync(adminAclBindings(adminUser));
+    }
+
+    /**
+     * Create ACLs without blocking the caller; the future completes when the broker has applied all of them
+     */
+    public CompletableFuture<Void> createAclsAsync(Collection<AclBinding> aclBindings) {
+        Map<String, String> callerContext = MDC.getCopyOfContextMap();
+        try {
+            return adminClientProvider.metrics().timeAsync("acl.create", AdminOperationMetrics.resourceType(aclBindings),
+                    () -> KafkaFutures.toCompletableFuture(adminClientProvider.get().createAcls(aclBindings).all()))
+                    .thenRun(() -> notifyCreated(aclBindings, callerContext));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Fetch the bindings matching a filter in a single DescribeAcls request
+     */
+    public CompletableFuture<Collection<AclBinding>> describeAclsAsync(AclBindingFilter filter) {
+        try {
+            ResourceType resourceType = filter.patternFilter().resourceType();
+            return adminClientProvider.metrics().timeAsync("acl.describe", AdminOperationMetrics.resourceType(resourceType),
+                    () -> KafkaFutures.toCompletableFuture(adminClientProvider.get().describeAcls(filter).values()));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Delete exactly the given bindings; the future holds the bindings the broker removed
+     */
+    public CompletableFuture<Collection<AclBinding>> deleteAclsAsync(Collection<AclBinding> aclBindings) {
+        List<AclBindingFilter> filters = new ArrayList<>(aclBindings.size());
+        for (AclBinding aclBinding : aclBindings) {
+            filters.add(aclBinding.toFilter());
+        }
+        Map<String, String> callerContext = MDC.getCopyOfContextMap();
+        try {
+            return adminClientProvider.metrics().timeAsync("acl.delete", AdminOperationMetrics.resourceType(aclBindings),
+                    () -> KafkaFutures.toCompletableFuture(adminClientProvider.get().deleteAcls(filters).all()))
+                    .thenApply(deleted -> {
+                        withContext(callerContext, () -> {
+                            for (AclChangeListener listener : changeListeners) {
+                                listener.onAclsDeleted(deleted);
+                            }
+                        });
+                        return deleted;
+                    });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Submit a batch of ACL bindings in a single CreateAcls request without waiting.
+     * The returned map holds one future per binding so callers can report partial failures.
+     */
+    public Map<AclBinding, KafkaFuture<Void>> createAcls(Collection<AclBinding> aclBindings) {
+        AdminOperationMetrics metrics = adminClientProvider.metrics();
+        String resourceType = AdminOperationMetrics.resourceType(aclBindings);
+        Timer.Sample sample = metrics.start();
+        Map<AclBinding, KafkaFuture<Void>> results;
+        try {
+            results = adminClientProvider.get().createAcls(aclBindings).values();
+        } catch (RuntimeException e) {
+            metrics.stop(sample, "acl.create", resourceType, e);
+            throw e;
+        }
+        recordBatch(sample, resourceType, results.values());
+        if (!changeListeners.isEmpty()) {
+            Map<String, String> callerContext = MDC.getCopyOfContextMap();
+            results.forEach((aclBinding, future) -> future.whenComplete((ignored, error) -> {
+                if (error == null) {
+                    notifyCreated(Collections.singletonList(aclBinding), callerContext);
+                }
+            }));
+        }
+        return results;
+    }
+
+    /**
+     * Stop the timer once every binding of the request has its result
+     */
+    private void recordBatch(Timer.Sample sample, String resourceType, Collection<KafkaFuture<Void>> futures) {
+        if (futures.isEmpty()) {
+            adminClientProvider.metrics().stop(sample, "acl.create", resourceType, AdminOperationMetrics.SUCCESS);
+            return;
+        }
+        AtomicInteger remaining = new AtomicInteger(futures.size());
+        AtomicInteger failed = new AtomicInteger();
+        for (KafkaFuture<Void> future : futures) {
+            future.whenComplete((ignored, error) -> {
+                if (error != null) {
+                    failed.incrementAndGet();
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    int failures = failed.get();
+                    String outcome = failures == 0 ? AdminOperationMetrics.SUCCESS
+                            : failures == futures.size() ? AdminOperationMetrics.FAILURE : AdminOperationMetrics.PARTIAL;
+                    adminClientProvider.metrics().stop(sample, "acl.create", resourceType, outcome);
+                }
+            });
+        }
+    }
+
+    private void notifyCreated(Collection<AclBinding> aclBindings, Map<String, String> callerContext) {
+        withContext(callerContext, () -> {
+            for (AclChangeListener listener : changeListeners) {
+                listener.onAclsCreated(aclBindings);
+            }
+        });
+    }
+
+    /**
+     * Run listeners with the MDC of the thread that requested the change. They are usually called
+     * on the admin client's thread, which would otherwise not know who made the change.
+     */
+    private static void withContext(Map<String, String> callerContext, Runnable notification) {
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        setContext(callerContext);
+        try {
+            notification.run();
+        } finally {
+            setContext(previous);
+        }
+    }
+
+    private static void setContext(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+
+    /**
+     * Bindings granting WRITE on a topic
+     */
+    public static List<AclBinding> producerAclBindings(String principalName, String topicName) {
         // Create a resource pattern for the topic
         ResourcePattern resourcePattern = new ResourcePattern(
                 ResourceType.TOPIC,
@@ -32,19 +229,13 @@ public class KafkaAclManager {
                 AclPermissionType.ALLOW     // Permission type
         );
 
-        AclBinding aclBinding = new AclBinding(resourcePattern, entry);
-        
-        // Create the ACL
-        CreateAclsResult result = adminClient.createAcls(Collections.singletonList(aclBinding));
-        
-        // Wait for completion
-        result.all().get();
-        
-        System.out.println("Producer ACL created for " + principalName + " on topic " + topicName);
+        return Collections.singletonList(new AclBinding(resourcePattern, entry));
     }
 
-    public void createConsumerAcl(String principalName, String topicName, String groupId) 
-            throws ExecutionException, InterruptedException {
+    /**
+     * Bindings granting READ on a topic and, when a group is given, READ on the consumer group
+     */
+    public static List<AclBinding> consumerAclBindings(String principalName, String topicName, String groupId) {
         // Create ACLs for both topic read and consumer group
         List<AclBinding> aclBindings = new ArrayList<>();
         
@@ -82,23 +273,13 @@ public class KafkaAclManager {
             aclBindings.add(new AclBinding(groupResource, groupEntry));
         }
         
-        // Create the ACLs
-        CreateAclsResult result = adminClient.createAcls(aclBindings);
-        
-        // Wait for completion
-        result.all().get();
-        
-        System.out.println("Consumer ACLs created for " + principalName + " on topic " + topicName +
-                (groupId != null ? " and group " + groupId : ""));
-    }
-    
-    public void close() {
-        if (adminClient != null) {
-            adminClient.close();
-        }
+        return aclBindings;
     }
 
-    public void createAdminAcl(String adminUser) throws ExecutionException, InterruptedException {
+    /**
+     * Bindings granting ALTER --cluster, which is needed to manage ACLs
+     */
+    public static List<AclBinding> adminAclBindings(String adminUser) {
         // Create a resource pattern for the Kafka cluster
         ResourcePattern resourcePattern = new ResourcePattern(
                 ResourceType.CLUSTER,
@@ -114,18 +295,43 @@ public class KafkaAclManager {
                 AclPermissionType.ALLOW // Permission type
         );
 
-        AclBinding aclBinding = new AclBinding(resourcePattern, entry);
-        
-        // Create the ACL
-        CreateAclsResult result = adminClient.createAcls(Collections.singletonList(aclBinding));
-        
-        // Wait for completion
-        result.all().get();
+        return Collections.singletonList(new AclBinding(resourcePattern, entry));
+    }
+    
+    public void close() {
+        if (ownsProvider) {
+            adminClientProvider.close();
+        }
+    }
+
+    public void createAdminAcl(String adminUser) throws ExecutionException, InterruptedException {
+        // Create the ACL and wait for completion
+        createAdminAclAsync(adminUser).get();
         
-        System.out.println("Admin ACL created for user: " + adminUser + " with ALTER --cluster permission");
+        logger.info("Admin ACL created for user: {} with ALTER --cluster permission", adminUser);
     }
     
+    /**
+     * Grant the super user every operation, creating only the bindings that do not exist yet
+     */
     public void createSuperUserAcl(String superUser) throws ExecutionException, InterruptedException {
+        List<AclBinding> aclBindings = superUserAclBindings(superUser);
+        
+        // Fetch what the principal already has in one describe call and submit only the delta
+        Collection<AclBinding> current = describeAclsAsync(principalFilter("User:" + superUser)).get();
+        AclDiff diff = AclDiff.between(aclBindings, current, false);
+        if (!diff.getToAdd().isEmpty()) {
+            createAclsAsync(diff.getToAdd()).get();
+        }
+        
+        logger.info("Super User ACLs created for {} with ALL permissions ({})", superUser, diff);
+    }
+
+    /**
+     * Bindings granting a super user every operation on all topics, groups, transactional ids,
+     * delegation tokens and the cluster
+     */
+    public static List<AclBinding> superUserAclBindings(String superUser) {
         List<AclBinding> aclBindings = new ArrayList<>();
         
         // Define all resource types that need permissions
@@ -185,17 +391,19 @@ public class KafkaAclManager {
             }
         }
         
-        // Create all ACLs
-        CreateAclsResult result = adminClient.createAcls(aclBindings);
-        
-        // Wait for completion
-        result.all().get();
-        
-        System.out.println("Super User ACLs created for " + superUser + " with ALL permissions");
+        return aclBindings;
+    }
+
+    /**
+     * Filter matching every binding of one principal
+     */
+    public static AclBindingFilter principalFilter(String principal) {
+        return new AclBindingFilter(ResourcePatternFilter.ANY,
+                new AccessControlEntryFilter(principal, null, AclOperation.ANY, AclPermissionType.ANY));
     }
 
     // Helper method to check if an operation is valid for a resource type
-    private boolean isOperationValidForResource(AclOperation operation, ResourceType resourceType) {
+    private static boolean isOperationValidForResource(AclOperation operation, ResourceType resourceType) {
         // Some operations only apply to specific resource types
         if (operation == AclOperation.CLUSTER_ACTION && resourceType != ResourceType.CLUSTER) {
             return false;
@@ -0,0 +1,195 @@
+package com.java17.kafka.security.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.DescribeClusterOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Owns the single AdminClient shared by the ACL and user managers.
+ * The client is created lazily, reused across calls and recreated when
+ * consecutive health checks fail, so the SASL_SSL handshake and metadata
+ * bootstrap are paid once instead of on every admin call.
+ */
+public class KafkaAdminClientProvider implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaAdminClientProvider.class);
+
+    private final Properties adminProps;
+    private final Supplier<AdminClient> clientFactory;
+    private final Object bootstrapServers;
+    private final int failureThreshold;
+    private final Timer creationTimer;
+    private final Counter creationFailures;
+    private final Counter reconnects;
+    private final AdminOperationMetrics operationMetrics;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private volatile AdminClient adminClient;
+    private volatile boolean healthy;
+    private volatile boolean closed;
+
+    public KafkaAdminClientProvider(Properties adminProps, MeterRegistry meterRegistry, int failureThreshold) {
+        this(adminProps, () -> AdminClient.create(adminProps), adminProps.get("bootstrap.servers"),
+                meterRegistry, failureThreshold);
+    }
+
+    /**
+     * Provider over a custom client factory, e.g. a MockAdminClient in benchmarks
+     */
+    public KafkaAdminClientProvider(Supplier<AdminClient> clientFactory, Object bootstrapServers,
+                                    MeterRegistry meterRegistry, int failureThreshold) {
+        this(null, clientFactory, bootstrapServers, meterRegistry, failureThreshold);
+    }
+
+    private KafkaAdminClientProvider(Properties adminProps, Supplier<AdminClient> clientFactory, Object bootstrapServers,
+                                     MeterRegistry meterRegistry, int failureThreshold) {
+        this.adminProps = adminProps;
+        this.clientFactory = clientFactory;
+        this.bootstrapServers = bootstrapServers;
+        this.failureThreshold = failureThreshold;
+        this.creationTimer = Timer.builder("kafka.admin.client.creation")
+                .description("Time taken to create a Kafka AdminClient")
+                .register(meterRegistry);
+        this.creationFailures = Counter.builder("kafka.admin.client.creation.failures")
+                .description("AdminClient creations that threw")
+                .register(meterRegistry);
+        this.reconnects = Counter.builder("kafka.admin.client.reconnects")
+                .description("AdminClients recreated after failed health checks")
+                .register(meterRegistry);
+        this.operationMetrics = new AdminOperationMetrics(meterRegistry);
+        Gauge.builder("kafka.admin.client.healthy", this, provider -> provider.healthy ? 1 : 0)
+                .description("1 when the last health check reached the cluster")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The shared client, created on first use
+     */
+    public AdminClient get() {
+        AdminClient client = adminClient;
+        if (client == null) {
+            synchronized (this) {
+                if (closed) {
+                    throw new IllegalStateException("Kafka admin client provider is closed");
+                }
+                client = adminClient;
+                if (client == null) {
+                    client = create();
+                    adminClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Timers for the operations issued through this client
+     */
+    public AdminOperationMetrics metrics() {
+        return operationMetrics;
+    }
+
+    /**
+     * Ask the cluster for its id. After {@code failureThreshold} consecutive
+     * failures the client is closed and recreated.
+     */
+    public boolean checkHealth(Duration timeout) {
+        try {
+            get().describeCluster(new DescribeClusterOptions().timeoutMs((int) timeout.toMillis()))
+                    .clusterId()
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            consecutiveFailures.set(0);
+            healthy = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            healthy = false;
+        } catch (Exception e) {
+            healthy = false;
+            int failures = consecutiveFailures.incrementAndGet();
+            logger.warn("Kafka admin health check failed ({} consecutive): {}", failures, e.getMessage());
+            if (failures >= failureThreshold) {
+                reconnect();
+            }
+        }
+        return healthy;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * Apply new client properties, e.g. rotated credentials, and reconnect with them.
+     * Calls already running on the old client complete before it closes.
+     *
+     * @return false when the provider was built from a custom client factory and has no properties to update
+     */
+    public boolean updateConfig(Map<String, Object> updates, Collection<String> removed) {
+        if (adminProps == null) {
+            return false;
+        }
+        synchronized (this) {
+            removed.forEach(adminProps::remove);
+            adminProps.putAll(updates);
+        }
+        reconnect();
+        return true;
+    }
+
+    /**
+     * Close the current client; the next {@link #get()} creates a new one
+     */
+    public void reconnect() {
+        AdminClient stale;
+        synchronized (this) {
+            stale = adminClient;
+            adminClient = null;
+            consecutiveFailures.set(0);
+        }
+        if (stale != null) {
+            reconnects.increment();
+            logger.info("Recreating Kafka admin client");
+            stale.close(Duration.ofSeconds(5));
+        }
+    }
+
+    private AdminClient create() {
+        long start = System.nanoTime();
+        try {
+            AdminClient client = clientFactory.get();
+            logger.info("Created Kafka admin client for {}", bootstrapServers);
+            return client;
+        } catch (RuntimeException e) {
+            creationFailures.increment();
+            throw e;
+        } finally {
+            creationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void close() {
+        AdminClient client;
+        synchronized (this) {
+            closed = true;
+            client = adminClient;
+            adminClient = null;
+        }
+        if (client != null) {
+            client.close();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.java17.kafka.security.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Periodically probes the shared admin client so a broken connection is replaced
+ * before the next admin call, and reports the last result under /actuator/health
+ */
+@Component
+public class KafkaAdminHealthIndicator implements HealthIndicator {
+
+    private final KafkaAdminClientProvider adminClientProvider;
+    private final Duration timeout;
+
+    public KafkaAdminHealthIndicator(KafkaAdminClientProvider adminClientProvider,
+                                     @Value("${kafka.admin.health-check.timeout-ms:5000}") long timeoutMs) {
+        this.adminClientProvider = adminClientProvider;
+        this.timeout = Duration.ofMillis(timeoutMs);
+    }
+
+    @Scheduled(fixedDelayString = "${kafka.admin.health-check.interval-ms:30000}")
+    public void probe() {
+        adminClientProvider.checkHealth(timeout);
+    }
+
+    @Override
+    public Health health() {
+        return adminClientProvider.isHealthy()
+                ? Health.up().build()
+                : Health.down().withDetail("reason", "Last admin health check did not reach the cluster").build();
+    }
+}
@@ -0,0 +1,150 @@
+package com.java17.kafka.security.config;
+
+import lombok.Data;
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.config.SaslConfigs;
+import org.apache.kafka.common.config.SslConfigs;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.FileNotFoundException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Connection and security settings shared by the producer, consumer and admin clients,
+ * bound from {@code kafka.client.*}. Each client gets its own SASL credentials; everything
+ * else is common. {@code KafkaClientReloader} rebinds these at runtime.
+ */
+@Data
+@ConfigurationProperties(prefix = "kafka.client")
+public class KafkaClientProperties {
+
+    public enum ClientRole {
+        PRODUCER, CONSUMER, ADMIN
+    }
+
+    private String bootstrapServers = "localhost:9092";
+
+    /** PLAINTEXT, SSL, SASL_PLAINTEXT or SASL_SSL */
+    private String securityProtocol = "SASL_SSL";
+
+    /**
+     * Static group membership for listener containers; each consumer gets this id plus its
+     * index. A consumer restarted within session.timeout.ms then keeps its partitions
+     * instead of triggering a rebalance. Must be unique per application instance.
+     */
+    private String groupInstanceId;
+
+    private final Ssl ssl = new Ssl();
+    private final Sasl sasl = new Sasl();
+    private final Credentials producer = new Credentials();
+    private final Credentials consumer = new Credentials();
+    private final Credentials admin = new Credentials();
+
+    @Data
+    public static class Ssl {
+        /** Spring resource location; file: and classpath: (exploded) are resolved to a path */
+        private String trustStoreLocation;
+        private String trustStorePassword;
+        private String trustStoreType;
+        private String keyStoreLocation;
+        private String keyStorePassword;
+        private String keyStoreType;
+        private String keyPassword;
+        private String protocol = "TLSv1.2";
+    }
+
+    @Data
+    public static class Sasl {
+        private String mechanism = "SCRAM-SHA-512";
+        private String loginModule = "org.apache.kafka.common.security.scram.ScramLoginModule";
+    }
+
+    @Data
+    public static class Credentials {
+        private String username;
+        private String password;
+    }
+
+    public Credentials credentials(ClientRole role) {
+        switch (role) {
+            case PRODUCER: return producer;
+            case CONSUMER: return consumer;
+            default: return admin;
+        }
+    }
+
+    /**
+     * Client properties for the security protocol, TLS stores and SASL login of {@code role}
+     */
+    public Map<String, Object> securityConfig(ClientRole role) {
+        Map<String, Object> props = new LinkedHashMap<>();
+        String protocol = securityProtocol.trim().toUpperCase(Locale.ROOT);
+        props.put(CommonClientConfigs.SECURITY_PROTOCOL_CONFIG, protocol);
+        if (protocol.endsWith("SSL")) {
+            putIfText(props, SslConfigs.SSL_TRUSTSTORE_LOCATION_CONFIG, path(ssl.getTrustStoreLocation()));
+            putIfText(props, SslConfigs.SSL_TRUSTSTORE_PASSWORD_CONFIG, ssl.getTrustStorePassword());
+            putIfText(props, SslConfigs.SSL_TRUSTSTORE_TYPE_CONFIG, ssl.getTrustStoreType());
+            putIfText(props, SslConfigs.SSL_KEYSTORE_LOCATION_CONFIG, path(ssl.getKeyStoreLocation()));
+            putIfText(props, SslConfigs.SSL_KEYSTORE_PASSWORD_CONFIG, ssl.getKeyStorePassword());
+            putIfText(props, SslConfigs.SSL_KEYSTORE_TYPE_CONFIG, ssl.getKeyStoreType());
+            putIfText(props, SslConfigs.SSL_KEY_PASSWORD_CONFIG, ssl.getKeyPassword());
+            putIfText(props, SslConfigs.SSL_PROTOCOL_CONFIG, ssl.getProtocol());
+        }
+        if (protocol.startsWith("SASL")) {
+            Credentials login = credentials(role);
+            props.put(SaslConfigs.SASL_MECHANISM, sasl.getMechanism());
+            props.put(SaslConfigs.SASL_JAAS_CONFIG, sasl.getLoginModule() + " required username=\""
+                    + escape(login.getUsername()) + "\" password=\"" + escape(login.getPassword()) + "\";");
+        }
+        return props;
+    }
+
+    /**
+     * Take every value from {@code source}, including unset ones, so a property removed from
+     * the environment falls back to its default on rebinding instead of keeping its old value
+     */
+    public void copyFrom(KafkaClientProperties source) {
+        BeanUtils.copyProperties(source, this);
+        BeanUtils.copyProperties(source.ssl, ssl);
+        BeanUtils.copyProperties(source.sasl, sasl);
+        BeanUtils.copyProperties(source.producer, producer);
+        BeanUtils.copyProperties(source.consumer, consumer);
+        BeanUtils.copyProperties(source.admin, admin);
+    }
+
+    /**
+     * Consumer-only settings on top of {@link #securityConfig}
+     */
+    public Map<String, Object> consumerConfig() {
+        Map<String, Object> props = securityConfig(ClientRole.CONSUMER);
+        putIfText(props, ConsumerConfig.GROUP_INSTANCE_ID_CONFIG, groupInstanceId);
+        return props;
+    }
+
+    private static void putIfText(Map<String, Object> props, String key, String value) {
+        if (StringUtils.hasText(value)) {
+            props.put(key, value.trim());
+        }
+    }
+
+    private static String path(String location) {
+        if (!StringUtils.hasText(location)) {
+            return null;
+        }
+        try {
+            return ResourceUtils.getFile(location.trim()).getAbsolutePath();
+        } catch (FileNotFoundException e) {
+            throw new IllegalStateException("Kafka store " + location + " is not a file on disk", e);
+        }
+    }
+
+    private static String escape(String value) {
+        return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
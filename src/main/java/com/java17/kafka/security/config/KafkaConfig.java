@@ -1,58 +1,131 @@
 package com.java17.kafka.security.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.admin.AdminClientConfig;
-import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaOperations;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.ResourceLoader;
-import java.io.File;
-import java.io.IOException;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Configuration
 @EnableKafka
+@EnableScheduling
+@EnableConfigurationProperties(KafkaClientProperties.class)
 public class KafkaConfig {
     public static final String NOTIFICATION_TOPIC = "notification-events";
     public static final String NOTIFICATION_GROUP = "notification-group";
     public static final String NOTIFICATION_DLQ = "notification-events-dlq";
+    // Typed NotificationEvent records; kept off NOTIFICATION_TOPIC, whose consumers read JSON strings
+    public static final String NOTIFICATION_EVENT_TOPIC = "notification-event-records";
     @Value("${spring.kafka.consumer.retry.max-attempts:3}")
     private int maxRetryAttempts;
 
+    @Bean
+    public NotificationRetryTopics notificationRetryTopics(
+            @Value("${kafka.notification.retry.delays-ms:1000,10000,60000}") String delaysMs,
+            MeterRegistry meterRegistry) {
+        List<Duration> delays = Arrays.stream(delaysMs.split(","))
+                .map(String::trim)
+                .filter(delay -> !delay.isEmpty())
+                .map(delay -> Duration.ofMillis(Long.parseLong(delay)))
+                .collect(Collectors.toList());
+        return new NotificationRetryTopics(delays, maxRetryAttempts, meterRegistry);
+    }
+
+    /**
+     * Sends failed notifications to the next retry tier, and to the DLQ once
+     * {@code spring.kafka.consumer.retry.max-attempts} retries are used up. Republishing is
+     * fire-and-forget, so it goes through the throughput template rather than opening a
+     * transaction per failed record. Records that could not be deserialized are republished as
+     * the raw bytes they arrived with. The recoverer waits for each send, so sends are reported
+     * to the coalescer, which flushes them early when the linger would not pay off.
+     */
     @Bean
     public DeadLetterPublishingRecoverer deadLetterPublishingRecoverer(
-            KafkaTemplate<String, String> template) {
-        return new DeadLetterPublishingRecoverer(template,
-                (record, ex) -> new TopicPartition(KafkaConfig.NOTIFICATION_DLQ, -1));
+            KafkaTemplateSelector templates, NotificationRetryTopics retryTopics, AdaptiveSendCoalescer coalescer) {
+        KafkaTemplate<String, String> throughput = templates.template(KafkaProducerProfile.THROUGHPUT);
+        Map<Class<?>, KafkaOperations<?, ?>> byValueType = new LinkedHashMap<>();
+        byValueType.put(byte[].class, new KafkaTemplate<>(throughput.getProducerFactory(),
+                Map.of(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class)));
+        byValueType.put(Object.class, throughput);
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(byValueType,
+                retryTopics::destination) {
+            @Override
+            protected void verifySendResult(KafkaOperations<Object, Object> template,
+                                            ProducerRecord<Object, Object> outRecord,
+                                            CompletableFuture<SendResult<Object, Object>> sendResult,
+                                            ConsumerRecord<?, ?> inRecord) {
+                // Called once the record is in the producer and before waiting on it
+                coalescer.sent(template);
+                super.verifySendResult(template, outRecord, sendResult, inRecord);
+            }
+        };
+        recoverer.setHeadersFunction(retryTopics::nextAttemptHeaders);
+        return recoverer;
     }
 
+    /**
+     * Retry tier, DLQ and typed notification topics, created by KafkaAdmin at startup when missing
+     */
     @Bean
-    public KafkaAclManager kafkaAclManager(
-            @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
-            @Value("${spring.kafka.security.protocol:PLAINTEXT}") String securityProtocol,
-            ResourceLoader resourceLoader) throws IOException {
-            
-        Properties props = new Properties();
-        props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        
-        if ("SASL_SSL".equals(securityProtocol)) {
-            Resource resource = resourceLoader.getResource("${spring.kafka.ssl.trust-store-location}");
-            File trustStoreFile = resource.getFile();
-            String absolutePath = trustStoreFile.getAbsolutePath();
-            
-            props.put(AdminClientConfig.SECURITY_PROTOCOL_CONFIG, securityProtocol);
-            props.put("ssl.truststore.location", absolutePath);
-            props.put("ssl.truststore.password", "${spring.kafka.ssl.trust-store-password}");
-            props.put("sasl.mechanism", "${spring.kafka.properties.sasl.mechanism}");
-            props.put("sasl.jaas.config", 
-                  "org.apache.kafka.common.security.scram.ScramLoginModule required " +
-                  "username=\"${kafka.admin.username}\" password=\"${kafka.admin.password}\";");
+    public KafkaAdmin.NewTopics notificationRetryTopicDefinitions(
+            NotificationRetryTopics retryTopics,
+            @Value("${kafka.notification.retry.partitions:3}") int partitions) {
+        List<NewTopic> topics = new ArrayList<>();
+        for (NotificationRetryTopics.Tier tier : retryTopics.getTiers()) {
+            topics.add(TopicBuilder.name(tier.getTopic()).partitions(partitions).build());
         }
-        
-        return new KafkaAclManager(props);
+        topics.add(TopicBuilder.name(NOTIFICATION_DLQ).partitions(partitions).build());
+        topics.add(TopicBuilder.name(NOTIFICATION_EVENT_TOPIC).partitions(partitions).build());
+        return new KafkaAdmin.NewTopics(topics.toArray(new NewTopic[0]));
+    }
+
+    /**
+     * Single AdminClient shared by KafkaAclManager, KafkaUserManager and KafkaAclService
+     */
+    @Bean
+    public KafkaAdminClientProvider kafkaAdminClientProvider(
+            KafkaClientProperties clientProperties,
+            @Value("${kafka.admin.health-check.failure-threshold:3}") int failureThreshold,
+            MeterRegistry meterRegistry) {
+        Properties props = new Properties();
+        props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, clientProperties.getBootstrapServers());
+        props.putAll(clientProperties.securityConfig(KafkaClientProperties.ClientRole.ADMIN));
+        return new KafkaAdminClientProvider(props, meterRegistry, failureThreshold);
+    }
+
+    @Bean
+    public KafkaAclManager kafkaAclManager(KafkaAdminClientProvider adminClientProvider) {
+        return new KafkaAclManager(adminClientProvider);
+    }
+
+    /**
+     * kafka.admin.operation timers, shared with the admin client so setup stages and admin calls report together
+     */
+    @Bean
+    public AdminOperationMetrics adminOperationMetrics(KafkaAdminClientProvider adminClientProvider) {
+        return adminClientProvider.metrics();
     }
 } 
\ No newline at end of file
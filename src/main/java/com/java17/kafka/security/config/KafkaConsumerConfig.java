@@ -2,13 +2,24 @@ package com.java17.kafka.security.config;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+import com.java17.kafka.security.service.KeyOrderedDispatcher;
+import com.java17.kafka.security.service.NotificationBatchListener;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 
 import java.util.HashMap;
@@ -16,47 +27,145 @@ import java.util.Map;
 
 @Configuration
 @EnableKafka
+@EnableConfigurationProperties(KafkaClientProperties.class)
 public class KafkaConsumerConfig {
 
-    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
-    private String bootstrapServers;
-
     @Value("${spring.kafka.consumer.group-id:notification-group}")
     private String groupId;
 
+    @Autowired
+    private KafkaClientProperties clientProperties;
+
+    // One consumer thread per partition of the notification topic; extra threads would sit idle
+    @Value("${kafka.notification.consumer.concurrency:3}")
+    private int concurrency;
+
+    @Value("${kafka.notification.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    // Let the broker wait for a worthwhile batch instead of answering every fetch with a few records
+    @Value("${kafka.notification.consumer.fetch-min-bytes:65536}")
+    private int fetchMinBytes;
+
+    @Value("${kafka.notification.consumer.fetch-max-wait-ms:100}")
+    private int fetchMaxWaitMs;
+
+    @Value("${kafka.notification.consumer.processing-mode:batch}")
+    private String processingMode;
+
+    // How long an idle key-ordered consumer waits before committing offsets its workers finished
+    @Value("${kafka.notification.consumer.key-ordered.commit-interval-ms:1000}")
+    private long keyOrderedCommitIntervalMs;
+
+    /**
+     * Value deserializers are wrapped in {@link ErrorHandlingDeserializer}: a record that cannot
+     * be read reaches the listener with a null value and the failure in a header, instead of
+     * failing every poll of its partition.
+     */
     @Bean
     public ConsumerFactory<String, String> consumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(
+            consumerProps(),
+            new StringDeserializer(),
+            new ErrorHandlingDeserializer<>(new JsonDeserializer<>(String.class, false))
+        );
+    }
+
+    /**
+     * Typed notification consumers get a {@link NotificationEventView} over the fetched bytes;
+     * the codec is picked per record from the payload, so JSON and binary producers can share
+     * the topic. The view is passed the consumer's buffer as is, without a copy.
+     */
+    @Bean
+    public ConsumerFactory<String, NotificationEventView> consumerFactoryNotificationEvent() {
+        return new DefaultKafkaConsumerFactory<>(
+            consumerProps(),
+            new StringDeserializer(),
+            new ByteBufferErrorHandlingDeserializer<>(new NotificationEventViewDeserializer())
+        );
+    }
+
+    private Map<String, Object> consumerProps() {
         Map<String, Object> props = new HashMap<>();
-        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, clientProperties.getBootstrapServers());
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
         
-        // Security configurations
-        props.put("security.protocol", "SASL_SSL");
-        props.put("ssl.truststore.location", "/path/to/client.truststore.jks");
-        props.put("ssl.truststore.password", "truststore_password");
-        props.put("ssl.protocol", "TLSv1.2");
-        props.put("sasl.mechanism", "SCRAM-SHA-512");
-        props.put("sasl.jaas.config", 
-                  "org.apache.kafka.common.security.scram.ScramLoginModule required username=\"consumer_name\" password=\"consumer_password\";");
+        // Batch fetching
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, fetchMaxWaitMs);
         
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        props.put(JsonDeserializer.TYPE_MAPPINGS, "notificationEvent:com.stream.institute.lms.dto.NotificationEvent");
-
-        return new DefaultKafkaConsumerFactory<>(
-            props,
-            new StringDeserializer(),
-            new JsonDeserializer<>(String.class, false)
-        );
+        // Security configurations and static membership, from kafka.client.*
+        props.putAll(clientProperties.consumerConfig());
+        
+        return props;
     }
 
+    /**
+     * Batch listener factory: each poll is handed to the listener as one list, and the
+     * listener acknowledges the whole batch once it is processed. A failed record is handed
+     * straight to the retry tiers instead of being retried in place, so it does not hold up
+     * the partition.
+     */
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactoryNotification(
-            ConsumerFactory<String, String> consumerFactory) {
+            ConsumerFactory<String, String> consumerFactory, KeyOrderedDispatcher keyOrderedDispatcher,
+            ObjectProvider<DeadLetterPublishingRecoverer> recoverer) {
         ConcurrentKafkaListenerContainerFactory<String, String> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        recoverer.ifAvailable(deadLetters -> factory.setCommonErrorHandler(noInPlaceRetries(deadLetters)));
+        if (NotificationBatchListener.ProcessingMode.parse(processingMode)
+                == NotificationBatchListener.ProcessingMode.KEY_ORDERED) {
+            // Drain and commit in-flight records before partitions move to another consumer
+            factory.getContainerProperties().setConsumerRebalanceListener(keyOrderedDispatcher);
+            factory.getContainerProperties().setIdleEventInterval(keyOrderedCommitIntervalMs);
+        }
+        return factory;
+    }
+
+    /**
+     * Factory for typed notification consumers on {@link KafkaConfig#NOTIFICATION_EVENT_TOPIC}.
+     * Records are handled one at a time; one that cannot be decoded or handled is logged and
+     * skipped, since the retry tiers and the DLQ carry JSON strings for the main topic.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, NotificationEventView>
+            kafkaListenerContainerFactoryNotificationEvent(
+            ConsumerFactory<String, NotificationEventView> consumerFactoryNotificationEvent) {
+        ConcurrentKafkaListenerContainerFactory<String, NotificationEventView> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactoryNotificationEvent);
+        factory.setConcurrency(concurrency);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(0L, 0L)));
         return factory;
     }
+
+    /**
+     * Factory for the retry tier consumers, one container per tier topic.
+     * Waiting for a record's delay pauses that tier's consumer only.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactoryNotificationRetry(
+            ConsumerFactory<String, String> consumerFactory,
+            ObjectProvider<DeadLetterPublishingRecoverer> recoverer,
+            @Value("${kafka.notification.retry.concurrency:1}") int retryConcurrency) {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(retryConcurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        recoverer.ifAvailable(deadLetters -> factory.setCommonErrorHandler(noInPlaceRetries(deadLetters)));
+        return factory;
+    }
+
+    private static DefaultErrorHandler noInPlaceRetries(DeadLetterPublishingRecoverer recoverer) {
+        return new DefaultErrorHandler(recoverer, new FixedBackOff(0L, 0L));
+    }
 }
\ No newline at end of file
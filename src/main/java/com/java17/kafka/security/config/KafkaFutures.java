@@ -0,0 +1,43 @@
+package com.java17.kafka.security.config;
+
+import org.apache.kafka.common.KafkaFuture;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Adapters between Kafka admin futures and {@link CompletableFuture}
+ */
+public final class KafkaFutures {
+
+    private KafkaFutures() {
+    }
+
+    /**
+     * Complete a CompletableFuture from the admin client's callback thread instead of blocking on get()
+     */
+    public static <T> CompletableFuture<T> toCompletableFuture(KafkaFuture<T> kafkaFuture) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        kafkaFuture.whenComplete((value, error) -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(value);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Strip the CompletionException/ExecutionException wrappers to reach the broker error
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
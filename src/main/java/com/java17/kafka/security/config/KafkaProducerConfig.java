@@ -1,8 +1,15 @@
 package com.java17.kafka.security.config;
 
+import com.java17.kafka.security.dto.NotificationEvent;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -14,36 +21,47 @@ import org.springframework.kafka.transaction.KafkaTransactionManager;
 import org.springframework.kafka.annotation.EnableKafka;
 
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.util.StringUtils;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @Configuration
 @EnableKafka
+@EnableConfigurationProperties(KafkaClientProperties.class)
 @EnableTransactionManagement
 public class KafkaProducerConfig {
 
-    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
-    private String bootstrapServers;
+    private static final Logger logger = LoggerFactory.getLogger(KafkaProducerConfig.class);
 
     @Value("${spring.kafka.producer.transaction-id-prefix:tx-}")
     private String transactionIdPrefix;
 
+    @Autowired
+    private KafkaClientProperties clientProperties;
+
     @Bean
     public Map<String, Object> producerConfig() {
+        return baseProducerConfig(clientProperties.getBootstrapServers(),
+                clientProperties.securityConfig(KafkaClientProperties.ClientRole.PRODUCER), transactionIdPrefix);
+    }
+
+    /**
+     * Settings of the transactional producer; {@link #throughputConfig} derives the other profile from it
+     */
+    public static Map<String, Object> baseProducerConfig(String bootstrapServers, Map<String, Object> securityConfig,
+                                                         String transactionIdPrefix) {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
 
-        // Security configurations
-        props.put("security.protocol", "SASL_SSL");
-        props.put("ssl.truststore.location", "/path/to/client.truststore.jks");
-        props.put("ssl.truststore.password", "truststore_password");
-        props.put("ssl.protocol", "TLSv1.2");
-        props.put("sasl.mechanism", "SCRAM-SHA-512");
-        props.put("sasl.jaas.config", 
-                  "org.apache.kafka.common.security.scram.ScramLoginModule required username=\"producer_name\" password=\"producer_password\";");
+        // Security configurations, from kafka.client.*
+        props.putAll(securityConfig);
 
         // Safe producer userSettings
         props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "true");
@@ -65,13 +83,32 @@ public class KafkaProducerConfig {
         return props;
     }
 
+    /**
+     * Non-transactional copy of {@code base} for fire-and-forget sends: still idempotent and
+     * acks=all, but with bigger batches, a longer linger and cheaper compression. Public so
+     * the benchmarks build the exact same configuration.
+     */
+    public static Map<String, Object> throughputConfig(Map<String, Object> base, String compressionType,
+                                                       int lingerMs, int batchSize, long bufferMemory) {
+        Map<String, Object> props = new HashMap<>(base);
+        props.remove(ProducerConfig.TRANSACTIONAL_ID_CONFIG);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, Integer.toString(lingerMs));
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, Integer.toString(batchSize));
+        props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, Long.toString(bufferMemory));
+        props.put(ProducerConfig.CLIENT_ID_CONFIG, "throughput-producer");
+        return props;
+    }
+
+    /**
+     * Transactional producers for the {@code @Primary} template and the transaction manager,
+     * lent out by {@link #transactionalProducerPool} so concurrent transactions do not contend
+     * on one prefix
+     */
     @Bean
     @Primary
-    public ProducerFactory<String, String> producerFactory() {
-        DefaultKafkaProducerFactory<String, String> factory =
-            new DefaultKafkaProducerFactory<>(producerConfig());
-        factory.setTransactionIdPrefix(transactionIdPrefix);
-        return factory;
+    public ProducerFactory<String, String> producerFactory(TransactionalProducerPool transactionalProducerPool) {
+        return new PooledTransactionalProducerFactory(transactionalProducerPool);
     }
 
    /* @Bean("producerFactoryPayRequest")
@@ -84,6 +121,7 @@ public class KafkaProducerConfig {
         return new DefaultKafkaProducerFactory<>(producerConfig());
     }*/
     @Bean
+    @Primary
     public KafkaTemplate<String, String> kafkaTemplate(
             ProducerFactory<String, String> producerFactory) {
         KafkaTemplate<String, String> template = new KafkaTemplate<>(producerFactory);
@@ -91,6 +129,75 @@ public class KafkaProducerConfig {
         return template;
     }
 
+    @Bean("producerFactoryThroughput")
+    public ProducerFactory<String, String> producerFactoryThroughput(
+            @Value("${kafka.producer.throughput.compression-type:lz4}") String compressionType,
+            @Value("${kafka.producer.throughput.linger-ms:50}") int lingerMs,
+            @Value("${kafka.producer.throughput.batch-size:262144}") int batchSize,
+            @Value("${kafka.producer.throughput.buffer-memory:67108864}") long bufferMemory) {
+        return new DefaultKafkaProducerFactory<>(
+                throughputConfig(producerConfig(), compressionType, lingerMs, batchSize, bufferMemory));
+    }
+
+    /**
+     * Fire-and-forget sends that must not wait on transaction coordination
+     */
+    @Bean("kafkaTemplateThroughput")
+    public KafkaTemplate<String, String> kafkaTemplateThroughput(
+            @Qualifier("producerFactoryThroughput") ProducerFactory<String, String> producerFactory) {
+        KafkaTemplate<String, String> template = new KafkaTemplate<>(producerFactory);
+        template.setDefaultTopic(KafkaConfig.NOTIFICATION_TOPIC);
+        return template;
+    }
+
+    /**
+     * Typed notification sends, encoded by kafka.notification.codec; uses the throughput settings.
+     * They go to their own topic, read by {@code NotificationEventListener}.
+     */
+    @Bean("producerFactoryNotificationEvent")
+    public ProducerFactory<String, NotificationEvent> producerFactoryNotificationEvent(
+            @Qualifier("producerFactoryThroughput") ProducerFactory<String, String> throughputFactory,
+            @Value("${kafka.notification.codec:binary}") String codec) {
+        Map<String, Object> props = new HashMap<>(throughputFactory.getConfigurationProperties());
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, NotificationEventSerializer.class);
+        props.put(NotificationEventSerializer.CODEC_CONFIG, NotificationCodecs.forName(codec).name());
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @Bean("kafkaTemplateNotificationEvent")
+    public KafkaTemplate<String, NotificationEvent> kafkaTemplateNotificationEvent(
+            @Qualifier("producerFactoryNotificationEvent") ProducerFactory<String, NotificationEvent> producerFactory) {
+        KafkaTemplate<String, NotificationEvent> template = new KafkaTemplate<>(producerFactory);
+        template.setDefaultTopic(KafkaConfig.NOTIFICATION_EVENT_TOPIC);
+        return template;
+    }
+
+    /**
+     * Linger that follows the traffic instead of the fixed linger-ms, for sends on the
+     * throughput template; the dead letter recoverer reports its retry and DLQ republishing
+     */
+    @Bean
+    public AdaptiveSendCoalescer adaptiveSendCoalescer(
+            @Qualifier("kafkaTemplateThroughput") KafkaTemplate<String, String> template,
+            MeterRegistry meterRegistry,
+            @Value("${kafka.producer.throughput.linger-ms:50}") long maxLingerMs,
+            @Value("${kafka.producer.throughput.batch-size:262144}") int batchSize,
+            @Value("${kafka.producer.adaptive.target-latency-ms:20}") long targetLatencyMs,
+            @Value("${kafka.producer.adaptive.target-batch-fill:0.7}") double targetFill,
+            @Value("${kafka.producer.adaptive.adjust-interval-ms:1000}") long adjustIntervalMs) {
+        return new AdaptiveSendCoalescer(template, meterRegistry, Duration.ofMillis(maxLingerMs),
+                Duration.ofMillis(targetLatencyMs), targetFill, batchSize, Duration.ofMillis(adjustIntervalMs));
+    }
+
+    @Bean
+    public KafkaTemplateSelector kafkaTemplateSelector(
+            KafkaTemplate<String, String> kafkaTemplate,
+            @Qualifier("kafkaTemplateThroughput") KafkaTemplate<String, String> kafkaTemplateThroughput) {
+        return new KafkaTemplateSelector(Map.of(
+                KafkaProducerProfile.TRANSACTIONAL, kafkaTemplate,
+                KafkaProducerProfile.THROUGHPUT, kafkaTemplateThroughput));
+    }
+
    /* @Bean("kafkaTemplateMoneyTransferEvent")
     public KafkaTemplate<String, MoneyTransferEvent> kafkaTemplateMoneyTransferEvent() {
         KafkaTemplate<String, MoneyTransferEvent> kafkaTemplate = new KafkaTemplate<>(producerFactoryMoneyTransferEvent());
@@ -105,6 +212,40 @@ public class KafkaProducerConfig {
         return kafkaTemplate;
     }*/
 
+    /**
+     * Bounded set of transactional producers with stable ids, behind the {@code @Primary}
+     * {@link #producerFactory}. The ids are {@code <prefix><instance>-<slot>}, so instances
+     * sharing a configuration do not fence each other.
+     */
+    @Bean
+    public TransactionalProducerPool transactionalProducerPool(
+            MeterRegistry meterRegistry,
+            @Value("${kafka.producer.pool.transaction-id-prefix:${spring.kafka.producer.transaction-id-prefix:tx-}pool-}") String prefix,
+            @Value("${kafka.producer.pool.size:8}") int size,
+            @Value("${kafka.producer.pool.max-wait-ms:5000}") long maxWaitMs,
+            @Value("${kafka.producer.pool.idle-timeout-ms:300000}") long idleTimeoutMs) {
+        return new TransactionalProducerPool(producerConfig(), prefix + instanceId() + "-", size,
+                Duration.ofMillis(maxWaitMs), Duration.ofMillis(idleTimeoutMs), meterRegistry);
+    }
+
+    /**
+     * This application instance: the static group instance id when one is set, otherwise the
+     * host name. Both survive a restart, which keeps the pool's ids stable.
+     */
+    private String instanceId() {
+        if (StringUtils.hasText(clientProperties.getGroupInstanceId())) {
+            return clientProperties.getGroupInstanceId().trim();
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            String random = UUID.randomUUID().toString();
+            logger.warn("Could not resolve the host name for transactional ids, using {}; set "
+                    + "kafka.client.group-instance-id to keep them stable across restarts", random);
+            return random;
+        }
+    }
+
     @Bean
     public KafkaTransactionManager<String, String> kafkaTransactionManager(
             ProducerFactory<String, String> producerFactory) {
@@ -0,0 +1,30 @@
+package com.java17.kafka.security.config;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The producer setups callers can pick from through {@link KafkaTemplateSelector}
+ */
+public enum KafkaProducerProfile {
+
+    /**
+     * The {@code @Primary} template: transactional, for sends that must commit together
+     * with other sends or with consumed offsets
+     */
+    TRANSACTIONAL,
+
+    /**
+     * Idempotent but non-transactional, with large lz4 batches, for fire-and-forget traffic
+     */
+    THROUGHPUT;
+
+    public static KafkaProducerProfile parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown producer profile '" + value + "', expected one of "
+                    + Arrays.toString(values()), e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.java17.kafka.security.config;
+
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Hands out the template for a {@link KafkaProducerProfile}, so a caller states whether it
+ * needs transactions instead of injecting one of the templates by bean name
+ */
+public class KafkaTemplateSelector {
+
+    private final Map<KafkaProducerProfile, KafkaTemplate<String, String>> templates;
+
+    public KafkaTemplateSelector(Map<KafkaProducerProfile, KafkaTemplate<String, String>> templates) {
+        this.templates = new EnumMap<>(templates);
+        for (KafkaProducerProfile profile : KafkaProducerProfile.values()) {
+            if (!this.templates.containsKey(profile)) {
+                throw new IllegalArgumentException("No KafkaTemplate for producer profile " + profile);
+            }
+        }
+    }
+
+    public KafkaTemplate<String, String> template(KafkaProducerProfile profile) {
+        return templates.get(profile);
+    }
+
+    public KafkaTemplate<String, String> transactional() {
+        return template(KafkaProducerProfile.TRANSACTIONAL);
+    }
+
+    public KafkaTemplate<String, String> throughput() {
+        return template(KafkaProducerProfile.THROUGHPUT);
+    }
+}
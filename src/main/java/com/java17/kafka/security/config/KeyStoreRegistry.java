@@ -0,0 +1,222 @@
+package com.java17.kafka.security.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads each keystore once and shares it. Decrypting a PKCS12 store runs its PBKDF for every
+ * load, tens of milliseconds, so the store and the key pairs and certificates read from it are
+ * cached per location and alias.
+ * <p>
+ * A store backed by a file is checked at most once per {@code checkInterval}: when the file's
+ * modification time or size changed, its content is hashed and the store is reloaded only if
+ * the SHA-256 differs. Lookups in between are map reads. Stores inside a jar never change and
+ * are loaded once.
+ * <p>
+ * The {@link KeyStore} returned by {@link Material#getKeyStore()} is shared; callers must not
+ * modify it.
+ */
+public class KeyStoreRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyStoreRegistry.class);
+
+    private static final KeyStoreRegistry DEFAULT = new KeyStoreRegistry(Duration.ofSeconds(1));
+
+    private final ResourceLoader resourceLoader = new DefaultResourceLoader();
+    private final Map<String, Holder> stores = new ConcurrentHashMap<>();
+    private final long checkIntervalNanos;
+
+    public KeyStoreRegistry(Duration checkInterval) {
+        this.checkIntervalNanos = checkInterval.toNanos();
+    }
+
+    /**
+     * The registry shared by the application, including code that cannot be injected
+     */
+    public static KeyStoreRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * The store at {@code location}, a Spring resource location, loaded with {@code password}.
+     * Loaded on first use and again only after its content changes.
+     */
+    public Material get(String location, String type, char[] password) {
+        Holder holder = stores.computeIfAbsent(type + '|' + location,
+                key -> new Holder(resourceLoader.getResource(location), type, password));
+        return holder.current(password);
+    }
+
+    /**
+     * Like {@link #get} but checks the file now instead of waiting for the check interval, so
+     * a replaced store is loaded by the caller rather than by the next lookup
+     */
+    public Material reload(String location, String type, char[] password) {
+        Holder holder = stores.computeIfAbsent(type + '|' + location,
+                key -> new Holder(resourceLoader.getResource(location), type, password));
+        holder.checkPassword(password);
+        return holder.refresh(true);
+    }
+
+    /**
+     * Drop every cached store; the next lookup loads from disk
+     */
+    public void invalidateAll() {
+        stores.clear();
+    }
+
+    /**
+     * One parsed version of a keystore with its entries cached by alias
+     */
+    public static final class Material {
+
+        private final KeyStore keyStore;
+        private final char[] password;
+        private final byte[] sha256;
+        private final Map<String, Optional<KeyPair>> keyPairs = new ConcurrentHashMap<>();
+        private final Map<String, Optional<Certificate>> certificates = new ConcurrentHashMap<>();
+
+        private Material(KeyStore keyStore, char[] password, byte[] sha256) {
+            this.keyStore = keyStore;
+            this.password = password;
+            this.sha256 = sha256;
+        }
+
+        public KeyStore getKeyStore() {
+            return keyStore;
+        }
+
+        /**
+         * Certificate stored under {@code alias}, or null if there is none
+         */
+        public Certificate getCertificate(String alias) {
+            return certificates.computeIfAbsent(alias, key -> {
+                try {
+                    return Optional.ofNullable(keyStore.getCertificate(key));
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("Could not read certificate " + key, e);
+                }
+            }).orElse(null);
+        }
+
+        /**
+         * Private key under {@code alias} with the public key of its certificate, or null if
+         * the alias holds no private key. The key is recovered with the store password.
+         */
+        public KeyPair getKeyPair(String alias) {
+            return keyPairs.computeIfAbsent(alias, key -> {
+                try {
+                    Key privateKey = keyStore.getKey(key, password);
+                    Certificate certificate = getCertificate(key);
+                    if (!(privateKey instanceof PrivateKey) || certificate == null) {
+                        return Optional.empty();
+                    }
+                    return Optional.of(new KeyPair(certificate.getPublicKey(), (PrivateKey) privateKey));
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("Could not recover key " + key, e);
+                }
+            }).orElse(null);
+        }
+    }
+
+    private final class Holder {
+
+        private final Resource resource;
+        private final String type;
+        private final char[] password;
+        private volatile Material material;
+        private volatile long checkedAtNanos;
+        private long lastModified;
+        private long length;
+
+        private Holder(Resource resource, String type, char[] password) {
+            this.resource = resource;
+            this.type = type;
+            this.password = password.clone();
+        }
+
+        private void checkPassword(char[] requestPassword) {
+            if (!Arrays.equals(password, requestPassword)) {
+                throw new IllegalArgumentException("Keystore " + resource + " is registered with a different password");
+            }
+        }
+
+        private Material current(char[] requestPassword) {
+            checkPassword(requestPassword);
+            Material loaded = material;
+            if (loaded != null && System.nanoTime() - checkedAtNanos < checkIntervalNanos) {
+                return loaded;
+            }
+            return refresh(false);
+        }
+
+        private synchronized Material refresh(boolean force) {
+            Material loaded = material;
+            long now = System.nanoTime();
+            if (!force && loaded != null && now - checkedAtNanos < checkIntervalNanos) {
+                return loaded;
+            }
+            try {
+                File file = resource.isFile() ? resource.getFile() : null;
+                // A forced check hashes even when the stat matches; mtime resolution can hide a quick replace
+                if (loaded != null && (file == null
+                        || (!force && file.lastModified() == lastModified && file.length() == length))) {
+                    checkedAtNanos = now;
+                    return loaded;
+                }
+                long modified = file != null ? file.lastModified() : 0;
+                long size = file != null ? file.length() : 0;
+                byte[] content;
+                try (InputStream in = resource.getInputStream()) {
+                    content = in.readAllBytes();
+                }
+                byte[] sha256 = MessageDigest.getInstance("SHA-256").digest(content);
+                if (loaded == null || !MessageDigest.isEqual(loaded.sha256, sha256)) {
+                    KeyStore keyStore = KeyStore.getInstance(type);
+                    keyStore.load(new ByteArrayInputStream(content), password);
+                    loaded = new Material(keyStore, password, sha256);
+                    material = loaded;
+                    logger.info("Loaded keystore {}", resource.getDescription());
+                }
+                lastModified = modified;
+                length = size;
+                checkedAtNanos = now;
+                return loaded;
+            } catch (IOException | GeneralSecurityException e) {
+                if (loaded != null) {
+                    // E.g. a file caught mid-write; keep the last good store and look again next interval
+                    logger.warn("Could not reload keystore {}, keeping the loaded one: {}",
+                            resource.getDescription(), e.getMessage());
+                    checkedAtNanos = now;
+                    return loaded;
+                }
+                if (e instanceof IOException) {
+                    throw new UncheckedIOException("Could not read keystore " + resource.getDescription(),
+                            (IOException) e);
+                }
+                throw new IllegalStateException("Could not load keystore " + resource.getDescription(), e);
+            }
+        }
+    }
+}
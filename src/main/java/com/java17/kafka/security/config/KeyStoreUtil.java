@@ -3,19 +3,14 @@ package com.java17.kafka.security.config;
 
 import org.springframework.beans.factory.annotation.Value;
 
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
-import org.springframework.context.support.ClassPathXmlApplicationContext;
-import org.springframework.core.io.Resource;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.security.*;
 import java.security.cert.Certificate;
-import java.security.cert.CertificateException;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
-import java.io.FileInputStream;
 
 @Configuration
 @PropertySource("classpath:application.properties")
@@ -24,12 +19,11 @@ public class KeyStoreUtil {
 
 
 
-  private  KeyStore keystore = null;
+  // The store in use; lookups go through the registry, so a rotated store is picked up
+  private record Store(String location, String type, char[] password, String alias) {
+  }
 
-  private  Certificate certificate = null;
-  private  KeyPair keyPair = null;
-  private  RSAPrivateKey rsaPrivateKey = null;
-  private  RSAPublicKey rsaPublicKey = null;
+  private volatile Store store;
   @Value("${app.jwt.keyStorePKCE12.location}")
   private  String keyStorePKCE12Path;
   //NOTE PLEASE SET app.jwt.keyStorePKCE12-location=classpath:/keys/keystore.p12 PROPERLY , ITS NOT READING THIS FILE, SO i DIRECTLY GIVEN PATH BELOW INTO FileInputStream ARGUMENT
@@ -48,132 +42,91 @@ public class KeyStoreUtil {
   private static final String KEYSTORE_PASSWORD = "your_keystore_password"; // Update with actual password
   private static final String ALIAS = "your_key_alias"; // Update with actual alias
 
-  public KeyStoreUtil() throws KeyStoreException, IOException, CertificateException, NoSuchAlgorithmException, UnrecoverableKeyException {
-
-    try (ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext()) {
-        Resource classpathResource = applicationContext.getResource("classpath:keys\\keystore.p12");
-        // Load the PKCS12 keystore
-        keystore = KeyStore.getInstance("PKCS12");
-
-        InputStream inputStream  = classpathResource.getInputStream();
-        char[] password = "abhimanyu".toCharArray(); // Replace with your actual password
-        keystore.load(inputStream, password);
-        inputStream.close();
-
-        // Get the alias for your key pair
-        //String alias = "signjwt"; // Replace with the correct alias
-
-        // Retrieve the private key
-        //PrivateKey rsaPrivateKey = (RSAPrivateKey) keystore.getKey(keypairPKCE12Alias, password);
-        rsaPrivateKey = (RSAPrivateKey) keystore.getKey("signjwt", password);
-        if (rsaPrivateKey instanceof RSAPrivateKey) {
-          // Get certificate of public key
-          certificate = keystore.getCertificate("signjwt");
-
-          // Get public key
-          rsaPublicKey = (RSAPublicKey) certificate.getPublicKey();
-
-          // Return a key pair
-          keyPair = new KeyPair(rsaPublicKey, rsaPrivateKey);
-        }
-
-        // Retrieve the certificate
-        Certificate certificate = keystore.getCertificate("signjwt");
-        //PublicKey rsaPublicKey = (RSAPublicKey) certificate.getPublicKey();
-        rsaPublicKey = (RSAPublicKey) certificate.getPublicKey();
-
-        // Now you have the private key, public key, and certificate
-        System.out.println("RSA Private Key: " + rsaPrivateKey);
-        System.out.println("RSA Public Key: " + rsaPublicKey);
-        System.out.println("Certificate: " + certificate);
-        System.out.println("KeyPair: " + keyPair);
-    }
+  public KeyStoreUtil() {
+    // Loaded once through the shared registry; the JWT keystore properties are not injected yet here
+    load("classpath:keys\\keystore.p12", "PKCS12", "abhimanyu", "signjwt");
   }
 
 
-  public void processKeystorep12() throws KeyStoreException, IOException, CertificateException, NoSuchAlgorithmException, UnrecoverableKeyException {
-
-    try (ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext()) {
-        Resource classpathResource = applicationContext.getResource(keyStorePKCE12Path);
-        // Load the PKCS12 keystore
-        keystore = KeyStore.getInstance(keyStoreType);
-
-        InputStream inputStream  = classpathResource.getInputStream();
-        char[] password = keyStorePKCE12Password.toCharArray(); // Replace with your actual password
-        keystore.load(inputStream, password);
-        inputStream.close();
-
-        // Get the alias for your key pair
-        //String alias = "signjwt"; // Replace with the correct alias
-
-        // Retrieve the private key
-        //PrivateKey rsaPrivateKey = (RSAPrivateKey) keystore.getKey(keypairPKCE12Alias, password);
-        rsaPrivateKey = (RSAPrivateKey) keystore.getKey(keypairPKCE12Alias, password);
-        if (rsaPrivateKey instanceof RSAPrivateKey) {
-          // Get certificate of public key
-          certificate = keystore.getCertificate(keypairPKCE12Alias);
-
-          // Get public key
-          rsaPublicKey = (RSAPublicKey) certificate.getPublicKey();
+  public void processKeystorep12() {
+    load(keyStorePKCE12Path, keyStoreType, keyStorePKCE12Password, keypairPKCE12Alias);
+  }
 
-          // Return a key pair
-          keyPair = new KeyPair(rsaPublicKey, rsaPrivateKey);
-        }
+  private void load(String location, String type, String password, String alias) {
+    KeyStoreRegistry.getDefault().get(location, type, password.toCharArray());
+    store = new Store(location, type, password.toCharArray(), alias);
+  }
 
-        // Retrieve the certificate
-        Certificate certificate = keystore.getCertificate(keypairPKCE12Alias);
-        //PublicKey rsaPublicKey = (RSAPublicKey) certificate.getPublicKey();
-        rsaPublicKey = (RSAPublicKey) certificate.getPublicKey();
+  private KeyStoreRegistry.Material material() {
+    Store current = store;
+    return KeyStoreRegistry.getDefault().get(current.location(), current.type(), current.password());
+  }
 
-        // Now you have the private key, public key, and certificate
-        System.out.println("RSA Private Key: " + rsaPrivateKey);
-        System.out.println("RSA Public Key: " + rsaPublicKey);
-        System.out.println("Certificate: " + certificate);
-        System.out.println("KeyPair: " + keyPair);
-    }
+  @Bean
+  public KeyStoreRegistry keyStoreRegistry() {
+    return KeyStoreRegistry.getDefault();
   }
 
 
 
   public  KeyStore getKeystore() {
-    return keystore;
+    return material().getKeyStore();
   }
 
   public   Certificate getCertificate() {
-    return certificate;
+    return material().getCertificate(store.alias());
   }
 
   public  KeyPair getKeyPair() {
-    return keyPair;
+    return material().getKeyPair(store.alias());
+  }
+
+  /** Key pair under another alias of the same store, e.g. an EC signing key */
+  public  KeyPair getKeyPair(String alias) {
+    return material().getKeyPair(alias);
   }
 
   public   RSAPrivateKey getRsaPrivateKey() {
-    return rsaPrivateKey;
+    KeyPair keyPair = getKeyPair();
+    return keyPair != null && keyPair.getPrivate() instanceof RSAPrivateKey ? (RSAPrivateKey) keyPair.getPrivate() : null;
   }
 
   public  RSAPublicKey getRsaPublicKey() {
-    return rsaPublicKey;
+    Certificate certificate = getCertificate();
+    return certificate != null && certificate.getPublicKey() instanceof RSAPublicKey
+        ? (RSAPublicKey) certificate.getPublicKey() : null;
+  }
+
+  /** Location of the store in use */
+  public  String getLocation() {
+    return store.location();
+  }
+
+  public  char[] getPassword() {
+    return store.password().clone();
+  }
+
+  /** Reload the store in use now, e.g. after its file was replaced */
+  public  KeyStoreRegistry.Material reload() {
+    Store current = store;
+    return KeyStoreRegistry.getDefault().reload(current.location(), current.type(), current.password());
   }
 
   public  String getKeyStoreType() {
     return keyStoreType;
   }
 
-  // Fix for resource leak in getKeyStore method
-  public static KeyStore getKeyStore() throws Exception {
-    try (FileInputStream applicationContext = new FileInputStream(KEYSTORE_PATH)) {
-        KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
-        keyStore.load(applicationContext, KEYSTORE_PASSWORD.toCharArray());
-        return keyStore;
-    }
+  // Shared, cached store; callers must not modify it
+  public static KeyStore getKeyStore() {
+    return KeyStoreRegistry.getDefault()
+        .get("file:" + KEYSTORE_PATH, KeyStore.getDefaultType(), KEYSTORE_PASSWORD.toCharArray())
+        .getKeyStore();
   }
 
-  // Fix for resource leak in getPrivateKey method
-  public static PrivateKey getPrivateKey() throws Exception {
-    try (FileInputStream applicationContext = new FileInputStream(KEYSTORE_PATH)) {
-        KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
-        keyStore.load(applicationContext, KEYSTORE_PASSWORD.toCharArray());
-        return (PrivateKey) keyStore.getKey(ALIAS, KEYSTORE_PASSWORD.toCharArray());
-    }
+  public static PrivateKey getPrivateKey() {
+    KeyPair keyPair = KeyStoreRegistry.getDefault()
+        .get("file:" + KEYSTORE_PATH, KeyStore.getDefaultType(), KEYSTORE_PASSWORD.toCharArray())
+        .getKeyPair(ALIAS);
+    return keyPair == null ? null : keyPair.getPrivate();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+package com.java17.kafka.security.config;
+
+import com.java17.kafka.security.dto.NotificationEvent;
+import org.apache.kafka.common.utils.ByteBufferOutputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Wire format of {@link NotificationEvent} payloads. The first byte a codec writes is its
+ * {@link #magic()}, which is how {@link NotificationEventDeserializer} picks the codec for a
+ * record, so topics can carry several formats while producers migrate.
+ * <p>
+ * Implementations beyond the built-in {@code json} and {@code binary} are found through
+ * {@link java.util.ServiceLoader}; see {@link NotificationCodecs}.
+ */
+public interface NotificationCodec {
+
+    /** Name used in {@link NotificationEventSerializer#CODEC_CONFIG} */
+    String name();
+
+    /** First byte of every payload this codec writes; must be unique among codecs */
+    byte magic();
+
+    /**
+     * Append the encoded event to {@code out}, magic byte first. {@code out} is reused across
+     * calls, so implementations must not keep a reference to it.
+     */
+    void encode(NotificationEvent event, ByteBufferOutputStream out) throws IOException;
+
+    /**
+     * Exact number of bytes {@link #encode(NotificationEvent, ByteBuffer)} will write, or -1
+     * when the size is only known after encoding
+     */
+    default int encodedSize(NotificationEvent event) {
+        return -1;
+    }
+
+    /**
+     * Encode straight into {@code target}, which has exactly {@link #encodedSize} bytes left.
+     * Only called when {@link #encodedSize} is not -1.
+     */
+    default void encode(NotificationEvent event, ByteBuffer target) {
+        throw new UnsupportedOperationException(name() + " does not know its encoded size up front");
+    }
+
+    /**
+     * Decode one event from {@code in}, positioned at the magic byte
+     */
+    NotificationEvent decode(ByteBuffer in) throws IOException;
+}
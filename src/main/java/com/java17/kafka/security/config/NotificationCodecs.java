@@ -0,0 +1,68 @@
+package com.java17.kafka.security.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.ServiceLoader;
+
+/**
+ * The built-in codecs plus those registered under
+ * {@code META-INF/services/com.java17.kafka.security.config.NotificationCodec}
+ */
+public final class NotificationCodecs {
+
+    private static final List<NotificationCodec> CODECS = load();
+    // Indexed by magic byte for the per-record lookup in the deserializer
+    private static final NotificationCodec[] BY_MAGIC = index(CODECS);
+
+    private NotificationCodecs() {
+    }
+
+    public static NotificationCodec forName(String name) {
+        String wanted = name.trim().toLowerCase(Locale.ROOT);
+        for (NotificationCodec codec : CODECS) {
+            if (codec.name().equals(wanted)) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("Unknown notification codec '" + name + "', expected one of " + names());
+    }
+
+    /**
+     * The codec whose payloads start with {@code magic}, or null
+     */
+    public static NotificationCodec forMagic(byte magic) {
+        return BY_MAGIC[magic & 0xFF];
+    }
+
+    public static List<String> names() {
+        List<String> names = new ArrayList<>();
+        for (NotificationCodec codec : CODECS) {
+            names.add(codec.name());
+        }
+        return names;
+    }
+
+    private static List<NotificationCodec> load() {
+        List<NotificationCodec> codecs = new ArrayList<>();
+        codecs.add(new JsonNotificationCodec());
+        codecs.add(new BinaryNotificationCodec());
+        for (NotificationCodec codec : ServiceLoader.load(NotificationCodec.class)) {
+            codecs.add(codec);
+        }
+        return List.copyOf(codecs);
+    }
+
+    private static NotificationCodec[] index(List<NotificationCodec> codecs) {
+        NotificationCodec[] byMagic = new NotificationCodec[256];
+        for (NotificationCodec codec : codecs) {
+            int slot = codec.magic() & 0xFF;
+            if (byMagic[slot] != null) {
+                throw new IllegalStateException("Notification codecs " + byMagic[slot].name() + " and "
+                        + codec.name() + " share magic byte " + slot);
+            }
+            byMagic[slot] = codec;
+        }
+        return byMagic;
+    }
+}
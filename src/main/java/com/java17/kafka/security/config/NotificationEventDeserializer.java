@@ -0,0 +1,54 @@
+package com.java17.kafka.security.config;
+
+import com.java17.kafka.security.dto.NotificationEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads {@link NotificationEvent}s in any registered format, chosen per record by the
+ * payload's first byte. No type headers and no trusted-package list are involved; the
+ * target type is fixed.
+ * <p>
+ * The consumer hands over a view of the fetched bytes; decoding from it directly skips the
+ * copy into a {@code byte[]} the default {@link Deserializer} method would make. Behind
+ * Spring's {@code ErrorHandlingDeserializer} that copy is made anyway; use
+ * {@link ByteBufferErrorHandlingDeserializer} to keep it.
+ */
+public class NotificationEventDeserializer implements Deserializer<NotificationEvent> {
+
+    @Override
+    public NotificationEvent deserialize(String topic, byte[] data) {
+        return data == null ? null : deserialize(topic, ByteBuffer.wrap(data));
+    }
+
+    @Override
+    public NotificationEvent deserialize(String topic, Headers headers, ByteBuffer data) {
+        return data == null ? null : deserialize(topic, data);
+    }
+
+    private NotificationEvent deserialize(String topic, ByteBuffer data) {
+        if (!data.hasRemaining()) {
+            return null;
+        }
+        NotificationCodec codec = codecFor(topic, data);
+        try {
+            return codec.decode(data);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Could not decode " + codec.name() + " notification on " + topic, e);
+        }
+    }
+
+    static NotificationCodec codecFor(String topic, ByteBuffer data) {
+        byte magic = data.get(data.position());
+        NotificationCodec codec = NotificationCodecs.forMagic(magic);
+        if (codec == null) {
+            throw new SerializationException("No notification codec for magic byte " + (magic & 0xFF)
+                    + " on " + topic);
+        }
+        return codec;
+    }
+}
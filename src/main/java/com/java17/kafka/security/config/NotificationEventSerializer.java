@@ -0,0 +1,83 @@
+package com.java17.kafka.security.config;
+
+import com.java17.kafka.security.dto.NotificationEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.ByteBufferOutputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Writes {@link NotificationEvent}s with the codec named by {@link #CODEC_CONFIG}, binary by
+ * default. Codecs that know their encoded size are written straight into an array of exactly
+ * that size; the others go through a per-thread scratch buffer and are copied out once. Either
+ * way a send allocates only the returned array.
+ * <p>
+ * The array is as far as zero-copy goes on the producer side: {@code Serializer} must return
+ * a {@code byte[]}, which the client then copies into its own pooled batch buffers.
+ */
+public class NotificationEventSerializer implements Serializer<NotificationEvent> {
+
+    public static final String CODEC_CONFIG = "notification.codec";
+
+    private static final int INITIAL_BUFFER = 512;
+    // A scratch buffer grown past this by one huge event is dropped rather than kept per thread
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<ByteBufferOutputStream> SCRATCH =
+            ThreadLocal.withInitial(() -> new ByteBufferOutputStream(INITIAL_BUFFER));
+
+    private NotificationCodec codec;
+
+    public NotificationEventSerializer() {
+        this(NotificationCodecs.forName(BinaryNotificationCodec.NAME));
+    }
+
+    public NotificationEventSerializer(NotificationCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object name = configs.get(CODEC_CONFIG);
+        if (name != null) {
+            codec = NotificationCodecs.forName(name.toString());
+        }
+    }
+
+    public NotificationCodec getCodec() {
+        return codec;
+    }
+
+    @Override
+    public byte[] serialize(String topic, NotificationEvent event) {
+        if (event == null) {
+            return null;
+        }
+        int size = codec.encodedSize(event);
+        if (size >= 0) {
+            byte[] bytes = new byte[size];
+            ByteBuffer target = ByteBuffer.wrap(bytes);
+            codec.encode(event, target);
+            if (target.hasRemaining()) {
+                throw new SerializationException(codec.name() + " wrote " + target.position() + " of " + size + " bytes");
+            }
+            return bytes;
+        }
+        ByteBufferOutputStream out = SCRATCH.get();
+        out.position(0);
+        try {
+            codec.encode(event, out);
+            return Arrays.copyOf(out.buffer().array(), out.position());
+        } catch (IOException e) {
+            throw new SerializationException("Could not encode notification " + event.getId() + " as " + codec.name(), e);
+        } finally {
+            if (out.buffer().capacity() > MAX_RETAINED_BUFFER) {
+                SCRATCH.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.java17.kafka.security.config;
+
+import com.java17.kafka.security.dto.NotificationEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.utils.ByteUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only notification backed by the record's bytes. Nothing is decoded until a getter
+ * asks for it, and then only that field: for a binary payload the first access records
+ * where each field starts, and strings are decoded one at a time. A listener that routes on
+ * {@link #getType()} never builds the message body. Payloads of other codecs are decoded
+ * in full on first access.
+ * <p>
+ * The view holds on to the fetched buffer it came from. Take {@link #toEvent()} before
+ * keeping notifications past the listener call.
+ */
+public final class NotificationEventView {
+
+    private static final int ID = 0;
+    private static final int USER_ID = 1;
+    private static final int TYPE = 2;
+    private static final int MESSAGE = 3;
+    private static final int STRINGS = 4;
+
+    private final ByteBuffer payload;
+    private final NotificationCodec codec;
+
+    // Binary layout, filled in on first access: absolute offset and length of each string
+    private int[] offsets;
+    private int[] lengths;
+    private long timestamp;
+    private boolean read;
+    private final String[] strings = new String[STRINGS];
+
+    // Other codecs, and toEvent()
+    private NotificationEvent decoded;
+
+    private NotificationEventView(ByteBuffer payload, NotificationCodec codec) {
+        this.payload = payload;
+        this.codec = codec;
+    }
+
+    /**
+     * View over {@code payload} from its position to its limit; only the magic byte is read here
+     */
+    public static NotificationEventView of(String topic, ByteBuffer payload) {
+        ByteBuffer view = payload.slice();
+        return new NotificationEventView(view, NotificationEventDeserializer.codecFor(topic, view));
+    }
+
+    public String getCodec() {
+        return codec.name();
+    }
+
+    /** Encoded size of the notification */
+    public int getPayloadSize() {
+        return payload.limit();
+    }
+
+    public String getId() {
+        return string(ID);
+    }
+
+    public String getUserId() {
+        return string(USER_ID);
+    }
+
+    public String getType() {
+        return string(TYPE);
+    }
+
+    public String getMessage() {
+        return string(MESSAGE);
+    }
+
+    /** Length of the message in encoded bytes, without decoding it; -1 for a null message */
+    public int getMessageSize() {
+        if (isBinary()) {
+            index();
+            return lengths[MESSAGE];
+        }
+        String message = decoded().getMessage();
+        return message == null ? -1 : BinaryNotificationCodec.utf8Length(message);
+    }
+
+    public long getTimestamp() {
+        if (isBinary()) {
+            index();
+            return timestamp;
+        }
+        return decoded().getTimestamp();
+    }
+
+    public boolean isRead() {
+        if (isBinary()) {
+            index();
+            return read;
+        }
+        return decoded().isRead();
+    }
+
+    /**
+     * The full event, detached from the record's buffer
+     */
+    public NotificationEvent toEvent() {
+        if (decoded == null && isBinary()) {
+            decoded = new NotificationEvent(getId(), getUserId(), getType(), getMessage(), getTimestamp(), isRead());
+        }
+        return decoded();
+    }
+
+    private boolean isBinary() {
+        return codec.magic() == BinaryNotificationCodec.MAGIC;
+    }
+
+    private String string(int field) {
+        if (!isBinary()) {
+            NotificationEvent event = decoded();
+            switch (field) {
+                case ID: return event.getId();
+                case USER_ID: return event.getUserId();
+                case TYPE: return event.getType();
+                default: return event.getMessage();
+            }
+        }
+        index();
+        String value = strings[field];
+        if (value == null && lengths[field] >= 0) {
+            value = BinaryNotificationCodec.readUtf8(payload, offsets[field], lengths[field]);
+            strings[field] = value;
+        }
+        return value;
+    }
+
+    private void index() {
+        if (offsets != null) {
+            return;
+        }
+        ByteBuffer in = payload.duplicate();
+        BinaryNotificationCodec.checkHeader(in);
+        int[] fieldOffsets = new int[STRINGS];
+        int[] fieldLengths = new int[STRINGS];
+        for (int i = 0; i < STRINGS; i++) {
+            int length = BinaryNotificationCodec.readStringLength(in);
+            fieldOffsets[i] = in.position();
+            fieldLengths[i] = length;
+            if (length > 0) {
+                in.position(in.position() + length);
+            }
+        }
+        timestamp = ByteUtils.readVarlong(in);
+        read = in.get() != 0;
+        lengths = fieldLengths;
+        offsets = fieldOffsets;
+    }
+
+    private NotificationEvent decoded() {
+        if (decoded == null) {
+            try {
+                decoded = codec.decode(payload.duplicate());
+            } catch (IOException e) {
+                throw new SerializationException("Could not decode " + codec.name() + " notification", e);
+            }
+        }
+        return decoded;
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationEventView(" + codec.name() + ", " + getPayloadSize() + " bytes)";
+    }
+}
@@ -0,0 +1,26 @@
+package com.java17.kafka.security.config;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wraps each record's value in a {@link NotificationEventView} without copying or decoding
+ * it. The consumer passes the value as a slice of the fetched batch, which the view keeps.
+ * <p>
+ * {@code consumerFactoryNotificationEvent} wraps it in a {@link ByteBufferErrorHandlingDeserializer},
+ * which passes that slice through.
+ */
+public class NotificationEventViewDeserializer implements Deserializer<NotificationEventView> {
+
+    @Override
+    public NotificationEventView deserialize(String topic, byte[] data) {
+        return data == null || data.length == 0 ? null : NotificationEventView.of(topic, ByteBuffer.wrap(data));
+    }
+
+    @Override
+    public NotificationEventView deserialize(String topic, Headers headers, ByteBuffer data) {
+        return data == null || !data.hasRemaining() ? null : NotificationEventView.of(topic, data);
+    }
+}
@@ -0,0 +1,174 @@
+package com.java17.kafka.security.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Retry tiers in front of the notification DLQ. A record that fails on attempt {@code n}
+ * is republished to tier {@code n} with a not-before timestamp; after {@code maxAttempts}
+ * retries it goes to {@link KafkaConfig#NOTIFICATION_DLQ}. Each tier is a topic of its own,
+ * e.g. {@code notification-events-retry-10s}, so records waiting out a long delay never sit
+ * in front of records with a short one.
+ * <p>
+ * When there are more attempts than delays, the last delay is reused. Records that could not
+ * be deserialized go straight to the DLQ, since no retry will make them readable.
+ */
+public class NotificationRetryTopics {
+
+    public static final String ATTEMPT_HEADER = "x-retry-attempt";
+    public static final String NOT_BEFORE_HEADER = "x-retry-not-before";
+
+    private final List<Tier> tiers;
+    private final int maxAttempts;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public NotificationRetryTopics(List<Duration> delays, int maxAttempts, MeterRegistry meterRegistry) {
+        if (delays.isEmpty() && maxAttempts > 0) {
+            throw new IllegalArgumentException("At least one retry delay is required when max-attempts > 0");
+        }
+        List<Tier> configured = new ArrayList<>();
+        for (int i = 0; i < Math.min(delays.size(), maxAttempts); i++) {
+            Duration delay = delays.get(i);
+            configured.add(new Tier(i, delay, KafkaConfig.NOTIFICATION_TOPIC + "-retry-" + format(delay)));
+        }
+        this.tiers = Collections.unmodifiableList(configured);
+        this.maxAttempts = maxAttempts;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public List<Tier> getTiers() {
+        return tiers;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Number of retries the record has been through, 0 for records from the main topic
+     */
+    public static int attempt(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(ATTEMPT_HEADER);
+        return header == null ? 0 : ByteBuffer.wrap(header.value()).getInt();
+    }
+
+    /**
+     * Epoch millis before which the record must not be processed, 0 when it has no delay
+     */
+    public static long notBefore(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(NOT_BEFORE_HEADER);
+        return header == null ? 0 : ByteBuffer.wrap(header.value()).getLong();
+    }
+
+    /**
+     * Destination resolver for the dead letter publisher: the next tier, or the DLQ once retries are used up
+     */
+    public TopicPartition destination(ConsumerRecord<?, ?> record, Exception exception) {
+        int attempt = attempt(record);
+        if (attempt < maxAttempts && !isPoisonPill(exception)) {
+            Tier tier = tierFor(attempt);
+            count(tier.getTopic(), "scheduled");
+            return new TopicPartition(tier.getTopic(), -1);
+        }
+        count(KafkaConfig.NOTIFICATION_DLQ, "dead_lettered");
+        return new TopicPartition(KafkaConfig.NOTIFICATION_DLQ, -1);
+    }
+
+    /**
+     * Headers added to the republished record: the attempt number and, for retry tiers, when it is due
+     */
+    public Headers nextAttemptHeaders(ConsumerRecord<?, ?> record, Exception exception) {
+        int attempt = attempt(record);
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(ATTEMPT_HEADER, ByteBuffer.allocate(Integer.BYTES).putInt(attempt + 1).array());
+        if (attempt < maxAttempts) {
+            long due = System.currentTimeMillis() + tierFor(attempt).getDelay().toMillis();
+            headers.add(NOT_BEFORE_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(due).array());
+        }
+        return headers;
+    }
+
+    /**
+     * Count a record leaving a tier: {@code succeeded} or {@code failed}
+     */
+    public void recordOutcome(Tier tier, String outcome) {
+        count(tier.getTopic(), outcome);
+    }
+
+    private static boolean isPoisonPill(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeserializationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Tier tierFor(int attempt) {
+        return tiers.get(Math.min(attempt, tiers.size() - 1));
+    }
+
+    private void count(String tier, String outcome) {
+        counters.computeIfAbsent(tier + '|' + outcome, key -> Counter.builder("kafka.notification.retry.records")
+                .description("Notification records entering and leaving retry tiers")
+                .tag("tier", tier)
+                .tag("outcome", outcome)
+                .register(meterRegistry)).increment();
+    }
+
+    private static String format(Duration delay) {
+        long millis = delay.toMillis();
+        if (millis % 60_000 == 0) {
+            return millis / 60_000 + "m";
+        }
+        if (millis % 1000 == 0) {
+            return millis / 1000 + "s";
+        }
+        return millis + "ms";
+    }
+
+    public static final class Tier {
+
+        private final int index;
+        private final Duration delay;
+        private final String topic;
+
+        Tier(int index, Duration delay, String topic) {
+            this.index = index;
+            this.delay = delay;
+            this.topic = topic;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Duration getDelay() {
+            return delay;
+        }
+
+        public String getTopic() {
+            return topic;
+        }
+
+        @Override
+        public String toString() {
+            return topic;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.java17.kafka.security.config;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.errors.InterruptException;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.Map;
+
+/**
+ * {@link ProducerFactory} that lends out the producers of a {@link TransactionalProducerPool},
+ * so {@code KafkaTemplate} and {@code KafkaTransactionManager} transactions, including
+ * {@code @Transactional} request threads, run on the pool's bounded set of stable ids.
+ * Each transaction takes the calling thread's slot and gives it back when Spring closes the
+ * producer. The pool owns the transactional ids, so a template's own prefix is ignored, and
+ * configuration updates go to the pool rather than to this factory.
+ */
+public class PooledTransactionalProducerFactory implements ProducerFactory<String, String> {
+
+    private final TransactionalProducerPool pool;
+
+    public PooledTransactionalProducerFactory(TransactionalProducerPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public Producer<String, String> createProducer() {
+        return createProducer(null);
+    }
+
+    @Override
+    public Producer<String, String> createProducer(String txIdPrefix) {
+        try {
+            return pool.borrow();
+        } catch (InterruptedException e) {
+            throw new InterruptException(e);
+        }
+    }
+
+    @Override
+    public boolean transactionCapable() {
+        return true;
+    }
+
+    @Override
+    public String getTransactionIdPrefix() {
+        return pool.getTransactionIdPrefix();
+    }
+
+    @Override
+    public Map<String, Object> getConfigurationProperties() {
+        return pool.getProducerConfig();
+    }
+}
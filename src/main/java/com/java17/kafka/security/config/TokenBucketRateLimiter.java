@@ -0,0 +1,49 @@
+package com.java17.kafka.security.config;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket refilled at {@code permitsPerSecond} and holding at most {@code burst} tokens.
+ * {@link #acquire(int)} blocks the caller until enough tokens are available, so a producer
+ * loop never runs faster than the configured rate on average.
+ */
+public class TokenBucketRateLimiter {
+
+    private final double permitsPerNano;
+    private final double burst;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Take {@code permits} tokens, waiting for the bucket to refill when it runs short.
+     * Requests larger than the burst are allowed and simply wait longer.
+     */
+    public void acquire(int permits) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            tokens -= permits;
+            // A negative balance is repaid by waiting before returning
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens / permitsPerNano);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,488 @@
+package com.java17.kafka.security.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.Uuid;
+import org.apache.kafka.common.errors.AuthorizationException;
+import org.apache.kafka.common.errors.OutOfOrderSequenceException;
+import org.apache.kafka.common.errors.ProducerFencedException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A fixed number of transactional producers, each owning the transactional id
+ * {@code prefix + slot}. Callers either pin work to a slot by partition, so all transactions
+ * for a partition reuse one id and fence their own zombies, or take the slot assigned to the
+ * calling thread. A slot runs one transaction at a time; callers wait up to {@code maxWait}
+ * for it, and that wait is what {@code kafka.producer.pool.wait} measures. Callers that drive
+ * the transaction themselves, such as Spring's transaction manager through
+ * {@link PooledTransactionalProducerFactory}, {@link #borrow()} the thread's producer instead.
+ * <p>
+ * Producers are created on first use and closed after {@code idleTimeout} without a
+ * transaction. The ids are stable across restarts, so the prefix must be unique per
+ * application instance or instances will fence each other; the application bean adds the
+ * instance id to the configured prefix.
+ */
+public class TransactionalProducerPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionalProducerPool.class);
+
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final Slot[] slots;
+    private final String transactionIdPrefix;
+    private final Map<String, Object> producerConfig;
+    private final Function<String, Producer<String, String>> producerFactory;
+    private final Duration maxWait;
+    private final Duration idleTimeout;
+    private final Timer waitTimer;
+    private final Counter waitTimeouts;
+    private final Counter evictions;
+    private final AtomicInteger nextThreadSlot = new AtomicInteger();
+    private final ThreadLocal<Integer> threadSlot;
+
+    private volatile boolean closed;
+    // Bumped by updateConfig; producers of an older generation are replaced on their next use
+    private volatile int generation;
+
+    public TransactionalProducerPool(Map<String, Object> producerConfig, String transactionIdPrefix, int size,
+                                     Duration maxWait, Duration idleTimeout, MeterRegistry meterRegistry) {
+        this(new ConcurrentHashMap<>(producerConfig), null, transactionIdPrefix, size, maxWait, idleTimeout,
+                meterRegistry);
+    }
+
+    /**
+     * Pool over a custom producer factory; the factory receives the transactional id and
+     * returns a producer that has already run {@code initTransactions()}
+     */
+    public TransactionalProducerPool(Function<String, Producer<String, String>> producerFactory,
+                                     String transactionIdPrefix, int size, Duration maxWait, Duration idleTimeout,
+                                     MeterRegistry meterRegistry) {
+        this(null, producerFactory, transactionIdPrefix, size, maxWait, idleTimeout, meterRegistry);
+    }
+
+    private TransactionalProducerPool(Map<String, Object> producerConfig,
+                                      Function<String, Producer<String, String>> producerFactory,
+                                      String transactionIdPrefix, int size, Duration maxWait, Duration idleTimeout,
+                                      MeterRegistry meterRegistry) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Producer pool size must be positive");
+        }
+        this.producerConfig = producerConfig;
+        this.transactionIdPrefix = transactionIdPrefix;
+        this.producerFactory = producerFactory != null ? producerFactory : this::createProducer;
+        this.maxWait = maxWait;
+        this.idleTimeout = idleTimeout;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(transactionIdPrefix + i);
+        }
+        this.threadSlot = ThreadLocal.withInitial(() -> Math.floorMod(nextThreadSlot.getAndIncrement(), size));
+        this.waitTimer = Timer.builder("kafka.producer.pool.wait")
+                .description("Time spent waiting for a transactional producer slot")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.waitTimeouts = Counter.builder("kafka.producer.pool.wait.timeouts")
+                .description("Transactions that gave up waiting for a producer slot")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("kafka.producer.pool.evictions")
+                .description("Transactional producers closed after being idle")
+                .register(meterRegistry);
+        Gauge.builder("kafka.producer.pool.active", this, TransactionalProducerPool::activeProducers)
+                .description("Transactional producers currently open")
+                .register(meterRegistry);
+        Gauge.builder("kafka.producer.pool.size", () -> slots.length)
+                .description("Maximum number of transactional producers")
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    public interface TransactionCallback<T> {
+        T doInTransaction(Producer<String, String> producer) throws Exception;
+    }
+
+    public int size() {
+        return slots.length;
+    }
+
+    public String getTransactionIdPrefix() {
+        return transactionIdPrefix;
+    }
+
+    /**
+     * Current producer properties; empty when the pool was built from a custom producer factory
+     */
+    public Map<String, Object> getProducerConfig() {
+        return producerConfig == null ? Collections.emptyMap() : Collections.unmodifiableMap(producerConfig);
+    }
+
+    /**
+     * Slot used for transactions on {@code partition}; the same partition always maps to the same id
+     */
+    public int slotFor(TopicPartition partition) {
+        return Utils.toPositive(31 * partition.topic().hashCode() + partition.partition()) % slots.length;
+    }
+
+    /**
+     * Run one transaction on the slot assigned to the calling thread
+     */
+    public <T> T executeInTransaction(TransactionCallback<T> callback) throws Exception {
+        return executeInTransaction(threadSlot.get(), callback);
+    }
+
+    /**
+     * Run one transaction on the slot owning {@code partition}
+     */
+    public <T> T executeInTransaction(TopicPartition partition, TransactionCallback<T> callback) throws Exception {
+        return executeInTransaction(slotFor(partition), callback);
+    }
+
+    /**
+     * Run one transaction on {@code slot}: begin, call back, commit; abort if the callback throws.
+     * A fenced or otherwise unusable producer is closed and replaced on the next call.
+     */
+    public <T> T executeInTransaction(int slot, TransactionCallback<T> callback) throws Exception {
+        if (slot < 0 || slot >= slots.length) {
+            throw new IllegalArgumentException("Slot " + slot + " is outside the pool of " + slots.length);
+        }
+        Slot target = slots[slot];
+        acquire(target);
+        try {
+            Producer<String, String> producer = target.producer();
+            producer.beginTransaction();
+            T result;
+            try {
+                result = callback.doInTransaction(producer);
+                producer.commitTransaction();
+            } catch (ProducerFencedException | OutOfOrderSequenceException | AuthorizationException e) {
+                // These leave the producer unusable, aborting would throw again
+                target.discard("fatal " + e.getClass().getSimpleName());
+                throw e;
+            } catch (Exception e) {
+                abort(target, producer);
+                throw e;
+            }
+            return result;
+        } finally {
+            release(target);
+        }
+    }
+
+    /**
+     * Take the producer of the slot assigned to the calling thread for a transaction the caller
+     * begins and ends itself. The slot stays taken until the returned producer is closed;
+     * closing it keeps the pooled producer open unless a transactional call on it failed or
+     * the transaction was left open.
+     */
+    public Producer<String, String> borrow() throws InterruptedException {
+        Slot target = slots[threadSlot.get()];
+        acquire(target);
+        try {
+            return new BorrowedProducer(target, target.producer());
+        } catch (RuntimeException e) {
+            release(target);
+            throw e;
+        }
+    }
+
+    /**
+     * Apply new producer properties, e.g. rotated credentials. Idle producers are closed now;
+     * producers inside a transaction finish it and are replaced on their next use.
+     *
+     * @return false when the pool was built from a custom producer factory and has no properties to update
+     */
+    public boolean updateConfig(Map<String, Object> updates, Collection<String> removed) {
+        if (producerConfig == null) {
+            return false;
+        }
+        removed.forEach(producerConfig::remove);
+        producerConfig.putAll(updates);
+        generation++;
+        for (Slot slot : slots) {
+            if (slot.lock.tryAcquire()) {
+                try {
+                    slot.discard("reconfigured");
+                } finally {
+                    slot.lock.release();
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Close producers that have not run a transaction for {@code idleTimeout}
+     */
+    @Scheduled(fixedDelayString = "${kafka.producer.pool.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Slot slot : slots) {
+            if (slot.producer == null || now - slot.lastUsedNanos < idleTimeout.toNanos()) {
+                continue;
+            }
+            // Skip slots in use; they are not idle
+            if (slot.lock.tryAcquire()) {
+                try {
+                    if (slot.producer != null && now - slot.lastUsedNanos >= idleTimeout.toNanos()) {
+                        slot.discard("idle");
+                        evictions.increment();
+                    }
+                } finally {
+                    slot.lock.release();
+                }
+            }
+        }
+    }
+
+    public int activeProducers() {
+        int active = 0;
+        for (Slot slot : slots) {
+            if (slot.producer != null) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    private Producer<String, String> createProducer(String transactionalId) {
+        Map<String, Object> props = new HashMap<>(producerConfig);
+        props.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, transactionalId);
+        props.put(ProducerConfig.CLIENT_ID_CONFIG, transactionalId);
+        KafkaProducer<String, String> producer = new KafkaProducer<>(props);
+        producer.initTransactions();
+        return producer;
+    }
+
+    private void acquire(Slot slot) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Transactional producer pool is closed");
+        }
+        long start = System.nanoTime();
+        boolean acquired = slot.lock.tryAcquire() || slot.lock.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            waitTimeouts.increment();
+            throw new TimeoutException("No transactional producer for " + slot.transactionalId + " within " + maxWait);
+        }
+    }
+
+    private static void release(Slot slot) {
+        slot.lastUsedNanos = System.nanoTime();
+        slot.lock.release();
+    }
+
+    private static void abort(Slot slot, Producer<String, String> producer) {
+        try {
+            producer.abortTransaction();
+        } catch (KafkaException e) {
+            logger.warn("Abort failed for {}, recreating the producer: {}", slot.transactionalId, e.getMessage());
+            slot.discard("failed abort");
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Slot slot : slots) {
+            slot.lock.acquireUninterruptibly();
+            try {
+                slot.discard("shutdown");
+            } finally {
+                slot.lock.release();
+            }
+        }
+    }
+
+    /**
+     * A slot's producer on loan; {@link #close()} hands the slot back
+     */
+    private static final class BorrowedProducer implements Producer<String, String> {
+
+        private final Slot slot;
+        private final Producer<String, String> delegate;
+        private boolean inTransaction;
+        private boolean failed;
+        private boolean returned;
+
+        private BorrowedProducer(Slot slot, Producer<String, String> delegate) {
+            this.slot = slot;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void initTransactions() {
+            // Pooled producers are initialised when they are created
+        }
+
+        @Override
+        public void beginTransaction() {
+            transactional(delegate()::beginTransaction);
+            inTransaction = true;
+        }
+
+        @Override
+        @Deprecated
+        public void sendOffsetsToTransaction(Map<TopicPartition, OffsetAndMetadata> offsets, String groupId) {
+            transactional(() -> delegate().sendOffsetsToTransaction(offsets, groupId));
+        }
+
+        @Override
+        public void sendOffsetsToTransaction(Map<TopicPartition, OffsetAndMetadata> offsets,
+                                             ConsumerGroupMetadata groupMetadata) {
+            transactional(() -> delegate().sendOffsetsToTransaction(offsets, groupMetadata));
+        }
+
+        @Override
+        public void commitTransaction() {
+            transactional(delegate()::commitTransaction);
+            inTransaction = false;
+        }
+
+        @Override
+        public void abortTransaction() {
+            transactional(delegate()::abortTransaction);
+            inTransaction = false;
+        }
+
+        @Override
+        public Future<RecordMetadata> send(ProducerRecord<String, String> record) {
+            return delegate().send(record);
+        }
+
+        @Override
+        public Future<RecordMetadata> send(ProducerRecord<String, String> record, Callback callback) {
+            return delegate().send(record, callback);
+        }
+
+        @Override
+        public void flush() {
+            delegate().flush();
+        }
+
+        @Override
+        public List<PartitionInfo> partitionsFor(String topic) {
+            return delegate().partitionsFor(topic);
+        }
+
+        @Override
+        public Map<MetricName, ? extends Metric> metrics() {
+            return delegate().metrics();
+        }
+
+        @Override
+        public Uuid clientInstanceId(Duration timeout) {
+            return delegate().clientInstanceId(timeout);
+        }
+
+        @Override
+        public void close() {
+            close(CLOSE_TIMEOUT);
+        }
+
+        @Override
+        public void close(Duration timeout) {
+            if (returned) {
+                return;
+            }
+            returned = true;
+            try {
+                if (failed || inTransaction) {
+                    slot.discard(failed ? "failed transaction" : "transaction left open");
+                }
+            } finally {
+                release(slot);
+            }
+        }
+
+        private Producer<String, String> delegate() {
+            if (returned) {
+                throw new IllegalStateException("Producer " + slot.transactionalId + " was returned to the pool");
+            }
+            return delegate;
+        }
+
+        private void transactional(Runnable call) {
+            try {
+                call.run();
+            } catch (KafkaException e) {
+                failed = true;
+                throw e;
+            }
+        }
+    }
+
+    private final class Slot {
+
+        private final String transactionalId;
+        // Held for the length of one transaction; a transactional producer cannot interleave them
+        private final Semaphore lock = new Semaphore(1, true);
+        private volatile Producer<String, String> producer;
+        private volatile long lastUsedNanos = System.nanoTime();
+        private int producerGeneration;
+
+        private Slot(String transactionalId) {
+            this.transactionalId = transactionalId;
+        }
+
+        // Callers hold the lock
+        private Producer<String, String> producer() {
+            Producer<String, String> current = producer;
+            if (current != null && producerGeneration != generation) {
+                discard("reconfigured");
+                current = null;
+            }
+            if (current == null) {
+                int currentGeneration = generation;
+                current = producerFactory.apply(transactionalId);
+                producer = current;
+                producerGeneration = currentGeneration;
+                logger.debug("Created transactional producer {}", transactionalId);
+            }
+            return current;
+        }
+
+        private void discard(String reason) {
+            Producer<String, String> current = producer;
+            producer = null;
+            if (current != null) {
+                logger.debug("Closing transactional producer {} ({})", transactionalId, reason);
+                try {
+                    current.close(CLOSE_TIMEOUT);
+                } catch (KafkaException e) {
+                    logger.warn("Closing producer {} failed: {}", transactionalId, e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.java17.kafka.security.controller;
+
+import org.apache.kafka.common.acl.AccessControlEntry;
+import org.apache.kafka.common.acl.AclBinding;
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.acl.AclPermissionType;
+import org.apache.kafka.common.resource.PatternType;
+import org.apache.kafka.common.resource.ResourcePattern;
+import org.apache.kafka.common.resource.ResourceType;
+
+import java.util.Locale;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One desired ACL in a reconcile request
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AclBindingRequest {
+
+    private String principal;
+    private String host = "*";
+    private String operation;
+    private String permissionType = "ALLOW";
+    private String resourceType;
+    private String resourceName;
+    private String patternType = "LITERAL";
+
+    /**
+     * @throws IllegalArgumentException when a field is missing, unknown, or a filter value
+     * such as {@code ANY} or {@code MATCH} that cannot be stored as an ACL
+     */
+    public AclBinding toAclBinding() {
+        String name = required("principal", principal);
+        String kafkaPrincipal = name.indexOf(':') > 0 ? name : "User:" + name;
+        ResourcePattern pattern = new ResourcePattern(
+                known("resourceType", ResourceType.fromString(required("resourceType", resourceType)),
+                        ResourceType.UNKNOWN),
+                required("resourceName", resourceName),
+                known("patternType",
+                        PatternType.fromString(required("patternType", patternType).toUpperCase(Locale.ROOT)),
+                        PatternType.UNKNOWN));
+        AccessControlEntry entry = new AccessControlEntry(
+                kafkaPrincipal,
+                required("host", host),
+                known("operation", AclOperation.fromString(required("operation", operation)), AclOperation.UNKNOWN),
+                known("permissionType", AclPermissionType.fromString(required("permissionType", permissionType)),
+                        AclPermissionType.UNKNOWN));
+        return new AclBinding(pattern, entry);
+    }
+
+    private static String required(String field, String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        return value.trim();
+    }
+
+    private static <T> T known(String field, T value, T unknown) {
+        if (value == unknown) {
+            throw new IllegalArgumentException("Unknown " + field);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,285 @@
+package com.java17.kafka.security.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.Resource;
+import org.apache.kafka.common.resource.ResourceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.java17.kafka.security.config.KafkaConfig;
+import com.java17.kafka.security.service.AuthorizationDecisionCache;
+import com.java17.kafka.security.service.JwtClaims;
+import com.java17.kafka.security.service.JwtTokenService;
+import com.java17.kafka.security.service.JwtValidationException;
+
+import javax.naming.InvalidNameException;
+import javax.naming.ldap.LdapName;
+import javax.naming.ldap.Rdn;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Authenticates and authorizes every call to the application, {@code /api/**} and
+ * {@code /actuator/**} included; only the paths in {@code app.security.admin-api.public-paths}
+ * are let through without credentials.
+ * <p>
+ * The caller is identified by a client certificate when the connection is mutual TLS, its CN
+ * becoming {@code User:<CN>} as with {@code ssl.principal.mapping.rules=RULE:^CN=([^,]+).*$/$1/},
+ * or else by a bearer access token from {@link JwtTokenService}, its subject becoming
+ * {@code User:<sub>}. Tokens come from {@code POST /api/auth/token}, which also accepts HTTP Basic
+ * with the bootstrap credentials ({@code app.security.admin-api.bootstrap.*}, by default the Kafka
+ * admin super user) so that the first token can be had before mutual TLS is set up.
+ * The principal then needs a Kafka ACL for the endpoint, in the same form
+ * brokers use, so one set of ACLs governs both:
+ * <ul>
+ *     <li>ACLs, SCRAM users, security setup and their audit trail: DESCRIBE on the cluster to
+ *     read, ALTER to change</li>
+ *     <li>Client reload and actuator: DESCRIBE_CONFIGS on the cluster to read, ALTER_CONFIGS to change</li>
+ *     <li>DLQ replays: DESCRIBE on the DLQ topic to read, READ to start or cancel a replay</li>
+ * </ul>
+ * Super users ({@code kafka.broker.superusers}) may call everything. Decisions come from
+ * {@link AuthorizationDecisionCache}, so a repeated call costs a map lookup. Paths listed in
+ * {@code app.security.admin-api.public-paths}, by default the health endpoint, are left open.
+ * <p>
+ * Unauthenticated calls get 401, unauthorized ones 403. The principal of an admitted call is
+ * available to controllers as the request attribute {@link #PRINCIPAL_ATTRIBUTE}, and to logging
+ * and the audit trail as the MDC entry {@link #PRINCIPAL_MDC_KEY}.
+ */
+@Component
+public class AdminApiAuthorizationFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminApiAuthorizationFilter.class);
+
+    public static final String PRINCIPAL_ATTRIBUTE = "com.java17.kafka.security.principal";
+    public static final String CREDENTIAL_ATTRIBUTE = "com.java17.kafka.security.credential";
+    public static final String PRINCIPAL_MDC_KEY = "principal";
+
+    public static final String CERTIFICATE = "certificate";
+    public static final String PASSWORD = "password";
+    public static final String ACCESS_TOKEN = "access-token";
+    public static final String REFRESH_TOKEN = "refresh-token";
+
+    static final String TOKEN_PATH = "/api/auth/token";
+
+    private static final String CLIENT_CERTIFICATES = "jakarta.servlet.request.X509Certificate";
+    private static final String BEARER = "Bearer ";
+    private static final String BASIC = "Basic ";
+
+    // Decodes, drops ;parameters and collapses duplicate slashes, as handler mapping does
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+    private final JwtTokenService jwtTokenService;
+    private final AuthorizationDecisionCache decisionCache;
+    private final boolean enabled;
+    private final List<String> publicPaths;
+    private final String bootstrapUsername;
+    private final byte[] bootstrapPassword;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Counter allowed;
+    private final Counter denied;
+    private final Counter unauthenticated;
+
+    @Autowired
+    public AdminApiAuthorizationFilter(JwtTokenService jwtTokenService, AuthorizationDecisionCache decisionCache,
+                                       @Value("${app.security.admin-api.enabled:true}") boolean enabled,
+                                       @Value("${app.security.admin-api.public-paths:/actuator/health,/actuator/health/**}")
+                                       String publicPaths,
+                                       @Value("${app.security.admin-api.bootstrap.username:}") String bootstrapUsername,
+                                       @Value("${app.security.admin-api.bootstrap.password:}") String bootstrapPassword,
+                                       MeterRegistry meterRegistry) {
+        this.jwtTokenService = jwtTokenService;
+        this.decisionCache = decisionCache;
+        this.enabled = enabled;
+        this.publicPaths = Arrays.stream(publicPaths.split(","))
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .toList();
+        this.bootstrapUsername = bootstrapUsername;
+        this.bootstrapPassword = bootstrapPassword.getBytes(StandardCharsets.UTF_8);
+        this.allowed = decisions(meterRegistry, "allowed");
+        this.denied = decisions(meterRegistry, "denied");
+        this.unauthenticated = decisions(meterRegistry, "unauthenticated");
+        if (!enabled) {
+            logger.warn("Admin API authorization is disabled; /api and /actuator are open to anyone");
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        String path = path(request);
+        return publicPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = path(request);
+        String principal;
+        String credential;
+        X509Certificate[] certificates = (X509Certificate[]) request.getAttribute(CLIENT_CERTIFICATES);
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        try {
+            if (certificates != null && certificates.length > 0) {
+                principal = "User:" + commonName(certificates[0]);
+                credential = CERTIFICATE;
+            } else if (authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+                JwtClaims claims = jwtTokenService.verify(authorization.substring(BEARER.length()).trim());
+                credential = JwtTokenService.REFRESH.equals(claims.getTokenType()) ? REFRESH_TOKEN : ACCESS_TOKEN;
+                // A refresh token is only good for getting a new access token
+                if (REFRESH_TOKEN.equals(credential) && !TOKEN_PATH.equals(path)) {
+                    throw new JwtValidationException("A refresh token cannot be used to call the API");
+                }
+                principal = "User:" + claims.getSubject();
+            } else if (authorization != null && authorization.regionMatches(true, 0, BASIC, 0, BASIC.length())
+                    && TOKEN_PATH.equals(path)) {
+                principal = "User:" + bootstrapUser(authorization.substring(BASIC.length()).trim());
+                credential = PASSWORD;
+            } else {
+                unauthenticated(response, "Authentication required: a client certificate or a bearer token");
+                return;
+            }
+        } catch (JwtValidationException | InvalidNameException e) {
+            unauthenticated(response, e.getMessage());
+            return;
+        }
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, principal);
+        request.setAttribute(CREDENTIAL_ATTRIBUTE, credential);
+
+        // Exchanging credentials for a token needs no permission beyond holding the credentials
+        if (!TOKEN_PATH.equals(path)) {
+            Permission permission = requiredPermission(request.getMethod(), path);
+            if (!decisionCache.isAllowed(principal, request.getRemoteAddr(), permission.operation(),
+                    permission.resourceType(), permission.resourceName())) {
+                denied.increment();
+                logger.debug("Denied {} {} to {}: requires {} on {} {}", request.getMethod(), path, principal,
+                        permission.operation(), permission.resourceType(), permission.resourceName());
+                write(response, HttpStatus.FORBIDDEN, principal + " is not allowed to " + permission.operation()
+                        + " " + permission.resourceType() + " " + permission.resourceName());
+                return;
+            }
+        }
+        allowed.increment();
+        MDC.put(PRINCIPAL_MDC_KEY, principal);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(PRINCIPAL_MDC_KEY);
+        }
+    }
+
+    /**
+     * The ACL an endpoint requires; see the class comment for the mapping
+     */
+    static Permission requiredPermission(String method, String path) {
+        boolean read = "GET".equalsIgnoreCase(method) || "HEAD".equalsIgnoreCase(method);
+        if (path.startsWith("/api/kafka/dlq/")) {
+            return new Permission(read ? AclOperation.DESCRIBE : AclOperation.READ, ResourceType.TOPIC,
+                    KafkaConfig.NOTIFICATION_DLQ);
+        }
+        if (path.startsWith("/api/kafka/client/") || path.equals("/actuator") || path.startsWith("/actuator/")) {
+            return cluster(read ? AclOperation.DESCRIBE_CONFIGS : AclOperation.ALTER_CONFIGS);
+        }
+        // ACLs, SCRAM users, security setup and anything added under /api later
+        return cluster(read ? AclOperation.DESCRIBE : AclOperation.ALTER);
+    }
+
+    private static Permission cluster(AclOperation operation) {
+        return new Permission(operation, ResourceType.CLUSTER, Resource.CLUSTER_NAME);
+    }
+
+    /**
+     * The bootstrap user named by HTTP Basic credentials
+     *
+     * @throws JwtValidationException if they are not the bootstrap credentials
+     */
+    private String bootstrapUser(String encoded) {
+        if (!StringUtils.hasText(bootstrapUsername) || bootstrapPassword.length == 0) {
+            throw new JwtValidationException("Password authentication is not configured");
+        }
+        String decoded;
+        try {
+            decoded = new String(Base64.getDecoder().decode(encoded), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new JwtValidationException("Malformed Basic credentials");
+        }
+        int colon = decoded.indexOf(':');
+        boolean valid = colon > 0
+                & MessageDigest.isEqual(bootstrapUsername.getBytes(StandardCharsets.UTF_8),
+                        decoded.substring(0, Math.max(colon, 0)).getBytes(StandardCharsets.UTF_8))
+                & MessageDigest.isEqual(bootstrapPassword,
+                        decoded.substring(colon + 1).getBytes(StandardCharsets.UTF_8));
+        if (!valid) {
+            logger.warn("Rejected bootstrap credentials for {}", colon > 0 ? decoded.substring(0, colon) : "?");
+            throw new JwtValidationException("Invalid credentials");
+        }
+        return bootstrapUsername;
+    }
+
+    private static String commonName(X509Certificate certificate) throws InvalidNameException {
+        String subject = certificate.getSubjectX500Principal().getName();
+        for (Rdn rdn : new LdapName(subject).getRdns()) {
+            if ("CN".equalsIgnoreCase(rdn.getType())) {
+                return rdn.getValue().toString();
+            }
+        }
+        // No CN: fall back to the whole DN, Kafka's default principal
+        return subject;
+    }
+
+    /**
+     * The path controllers are matched on. The raw request URI must not be used: {@code /api;x/kafka}
+     * or {@code /%61pi/kafka} would slip past a prefix check yet still reach the controller.
+     * Dot segments are resolved too, so {@code /actuator/health/../env} is not taken for a public path.
+     */
+    static String path(HttpServletRequest request) {
+        return StringUtils.cleanPath(URL_PATH_HELPER.getPathWithinApplication(request));
+    }
+
+    private void unauthenticated(HttpServletResponse response, String message) throws IOException {
+        unauthenticated.increment();
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        write(response, HttpStatus.UNAUTHORIZED, message);
+    }
+
+    private static void write(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(message);
+    }
+
+    private static Counter decisions(MeterRegistry meterRegistry, String decision) {
+        return Counter.builder("admin.api.authorization")
+                .description("Admin API requests by authorization outcome")
+                .tag("decision", decision)
+                .register(meterRegistry);
+    }
+
+    record Permission(AclOperation operation, ResourceType resourceType, String resourceName) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.java17.kafka.security.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PagedModel;
+import org.springframework.web.bind.annotation.*;
+
+import com.java17.kafka.security.entity.AclAuditRecord;
+import com.java17.kafka.security.entity.UserCredentialAuditRecord;
+import com.java17.kafka.security.repository.AclAuditRepository;
+import com.java17.kafka.security.repository.UserCredentialAuditRepository;
+
+/**
+ * Pages through the ACL and SCRAM user audit trail, newest first. Every filter is optional
+ * and matched exactly; {@code size} is capped at {@value #MAX_PAGE_SIZE}.
+ */
+@RestController
+@RequestMapping("/api/audit")
+public class AuditController {
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "occurredAt", "id");
+
+    @Autowired
+    private AclAuditRepository aclAuditRepository;
+
+    @Autowired
+    private UserCredentialAuditRepository userCredentialAuditRepository;
+
+    @GetMapping("/acls")
+    public PagedModel<AclAuditRecord> aclChanges(@RequestParam(required = false) String principal,
+                                                 @RequestParam(required = false) String resourceName,
+                                                 @RequestParam(required = false) AclAuditRecord.ChangeType changeType,
+                                                 @RequestParam(required = false) String actor,
+                                                 @RequestParam(defaultValue = "0") int page,
+                                                 @RequestParam(defaultValue = "50") int size) {
+        AclAuditRecord probe = new AclAuditRecord();
+        probe.setPrincipal(principal);
+        probe.setResourceName(resourceName);
+        probe.setChangeType(changeType);
+        probe.setActor(actor);
+        return new PagedModel<>(aclAuditRepository.findAll(Example.of(probe), pageRequest(page, size)));
+    }
+
+    @GetMapping("/users")
+    public PagedModel<UserCredentialAuditRecord> userChanges(@RequestParam(required = false) String username,
+                                                             @RequestParam(required = false) String actor,
+                                                             @RequestParam(defaultValue = "0") int page,
+                                                             @RequestParam(defaultValue = "50") int size) {
+        UserCredentialAuditRecord probe = new UserCredentialAuditRecord();
+        probe.setUsername(username);
+        probe.setActor(actor);
+        return new PagedModel<>(userCredentialAuditRepository.findAll(Example.of(probe), pageRequest(page, size)));
+    }
+
+    private static PageRequest pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), NEWEST_FIRST);
+    }
+}
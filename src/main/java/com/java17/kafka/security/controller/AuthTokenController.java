@@ -0,0 +1,47 @@
+package com.java17.kafka.security.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.java17.kafka.security.service.JwtTokenService;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Issues bearer tokens for the admin API. A caller presenting a client certificate, or the
+ * bootstrap credentials over HTTP Basic, gets an access and a refresh token; a refresh token can
+ * be exchanged for a new access token.
+ * The caller is authenticated by {@link AdminApiAuthorizationFilter}.
+ */
+@RestController
+@RequestMapping("/api/auth")
+public class AuthTokenController {
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    @PostMapping("/token")
+    public ResponseEntity<?> issueToken(
+            @RequestAttribute(name = AdminApiAuthorizationFilter.PRINCIPAL_ATTRIBUTE, required = false) String principal,
+            @RequestAttribute(name = AdminApiAuthorizationFilter.CREDENTIAL_ATTRIBUTE, required = false) String credential) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Admin API authorization is disabled");
+        }
+        if (AdminApiAuthorizationFilter.ACCESS_TOKEN.equals(credential)) {
+            return ResponseEntity.badRequest()
+                    .body("Present a client certificate, the bootstrap credentials or a refresh token");
+        }
+        String subject = principal.substring(principal.indexOf(':') + 1);
+        Map<String, Object> tokens = new LinkedHashMap<>();
+        tokens.put("accessToken", jwtTokenService.issueAccessToken(subject, Map.of()));
+        if (AdminApiAuthorizationFilter.CERTIFICATE.equals(credential)
+                || AdminApiAuthorizationFilter.PASSWORD.equals(credential)) {
+            tokens.put("refreshToken", jwtTokenService.issueRefreshToken(subject));
+        }
+        tokens.put("tokenType", "Bearer");
+        return ResponseEntity.ok(tokens);
+    }
+}
@@ -0,0 +1,54 @@
+package com.java17.kafka.security.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.java17.kafka.security.service.DlqReplayJob;
+import com.java17.kafka.security.service.DlqReplayService;
+
+import java.util.Collection;
+
+/**
+ * Replays the notification DLQ. A replay runs in the background; POST returns
+ * 202 with the job and GET reports its progress.
+ */
+@RestController
+@RequestMapping("/api/kafka/dlq/replays")
+public class DlqReplayController {
+
+    @Autowired
+    private DlqReplayService dlqReplayService;
+
+    @PostMapping
+    public ResponseEntity<?> startReplay(@RequestBody DlqReplayRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(dlqReplayService.start(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public Collection<DlqReplayJob> listReplays() {
+        return dlqReplayService.list();
+    }
+
+    @GetMapping("/{replayId}")
+    public ResponseEntity<DlqReplayJob> getReplay(@PathVariable String replayId) {
+        DlqReplayJob job = dlqReplayService.get(replayId);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+    }
+
+    /**
+     * Stop after the batch in progress; starting the same replayId again resumes from there
+     */
+    @DeleteMapping("/{replayId}")
+    public ResponseEntity<DlqReplayJob> cancelReplay(@PathVariable String replayId) {
+        DlqReplayJob job = dlqReplayService.cancel(replayId);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+    }
+}
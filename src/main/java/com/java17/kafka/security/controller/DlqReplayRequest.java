@@ -0,0 +1,33 @@
+package com.java17.kafka.security.controller;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What to replay from the notification DLQ and where to. All filters are optional and combined with AND.
+ */
+@Data
+@NoArgsConstructor
+public class DlqReplayRequest {
+
+    /** Checkpoint name; a replay with the same id resumes where the last one stopped */
+    private String replayId;
+    /** Defaults to the notification topic */
+    private String targetTopic;
+    /** Header values the record must carry, compared as UTF-8 strings */
+    private Map<String, String> headers = new LinkedHashMap<>();
+    /** Fully qualified or simple name of the exception (or its cause) that sent the record to the DLQ */
+    private String exceptionClass;
+    /** Only records with a timestamp at or after this instant */
+    private Instant from;
+    /** Only records with a timestamp before this instant */
+    private Instant to;
+    /** Records per second; defaults to kafka.dlq.replay.rate-per-second */
+    private Double ratePerSecond;
+    /** Stop after this many records have been replayed */
+    private Long maxRecords;
+}
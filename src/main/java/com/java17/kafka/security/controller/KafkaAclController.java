@@ -4,8 +4,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import org.apache.kafka.common.acl.AclBinding;
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+
+import com.java17.kafka.security.config.KafkaFutures;
+import com.java17.kafka.security.service.AclCache;
+import com.java17.kafka.security.service.AclReconciler;
 import com.java17.kafka.security.service.KafkaAclService;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ACL endpoints return CompletableFutures so the servlet thread is released
+ * while the broker applies the ACLs
+ */
 @RestController
 @RequestMapping("/api/kafka/acls")
 public class KafkaAclController {
@@ -13,32 +31,96 @@ public class KafkaAclController {
     @Autowired
     private KafkaAclService kafkaAclService;
     
+    @Autowired
+    private AclCache aclCache;
+    
+    @Autowired
+    private AclReconciler aclReconciler;
+    
     @PostMapping("/producer")
-    public ResponseEntity<String> createProducerAcl(
+    public CompletableFuture<ResponseEntity<String>> createProducerAcl(
             @RequestParam String username,
             @RequestParam String topicName) {
         
-        kafkaAclService.createProducerAcl(username, topicName);
-        return ResponseEntity.ok("Producer ACL created successfully");
+        return respond(kafkaAclService.createProducerAclAsync(username, topicName),
+                "Producer ACL created successfully", "Failed to create producer ACL: ");
     }
     
     @PostMapping("/consumer")
-    public ResponseEntity<String> createConsumerAcl(
+    public CompletableFuture<ResponseEntity<String>> createConsumerAcl(
             @RequestParam String username,
             @RequestParam String topicName,
             @RequestParam String groupId) {
         
-        kafkaAclService.createConsumerAcl(username, topicName, groupId);
-        return ResponseEntity.ok("Consumer ACL created successfully");
+        return respond(kafkaAclService.createConsumerAclAsync(username, topicName, groupId),
+                "Consumer ACL created successfully", "Failed to create consumer ACL: ");
     }
     
     @PostMapping("/admin")
-    public ResponseEntity<String> createAdminAcl(@RequestParam String username) {
-        try {
-            kafkaAclService.createAdminAcl(username);
-            return ResponseEntity.ok("Admin ACL created successfully");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Failed to create admin ACL: " + e.getMessage());
+    public CompletableFuture<ResponseEntity<String>> createAdminAcl(@RequestParam String username) {
+        return respond(kafkaAclService.createAdminAclAsync(username),
+                "Admin ACL created successfully", "Failed to create admin ACL: ");
+    }
+
+    /**
+     * Apply only the difference between the desired ACLs and the cluster state.
+     * With dryRun the diff is returned without changing anything.
+     */
+    @PostMapping("/reconcile")
+    public Callable<ResponseEntity<?>> reconcile(
+            @RequestBody List<AclBindingRequest> desired,
+            @RequestParam(defaultValue = "false") boolean prune,
+            @RequestParam(defaultValue = "true") boolean dryRun) {
+        
+        return () -> {
+            List<AclBinding> aclBindings = new ArrayList<>(desired.size());
+            for (AclBindingRequest request : desired) {
+                if (request == null) {
+                    return ResponseEntity.badRequest().body("Invalid ACL: null");
+                }
+                try {
+                    aclBindings.add(request.toAclBinding());
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.badRequest().body("Invalid ACL " + request + ": " + e.getMessage());
+                }
+            }
+            try {
+                return ResponseEntity.ok(aclReconciler.reconcile(aclBindings, prune, dryRun));
+            } catch (Exception e) {
+                return ResponseEntity.badRequest()
+                        .body("Failed to reconcile ACLs: " + KafkaFutures.unwrap(e).getMessage());
+            }
+        };
+    }
+    
+    /**
+     * Authorization lookup answered from the local ACL cache, without a broker round trip
+     */
+    @GetMapping("/check")
+    public ResponseEntity<Map<String, Object>> checkAcl(
+            @RequestParam String principal,
+            @RequestParam String operation,
+            @RequestParam String resourceType,
+            @RequestParam String resourceName,
+            @RequestParam(defaultValue = "*") String host) {
+        
+        AclOperation aclOperation = AclOperation.fromString(operation);
+        ResourceType type = ResourceType.fromString(resourceType);
+        if (aclOperation == AclOperation.UNKNOWN || type == ResourceType.UNKNOWN) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown operation or resource type"));
         }
+        
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("allowed", aclCache.isAllowed(principal, host, aclOperation, type, resourceName));
+        body.put("cachedBindings", aclCache.size());
+        body.put("lastRefreshed", String.valueOf(aclCache.getLastRefreshed()));
+        return ResponseEntity.ok(body);
+    }
+
+    private CompletableFuture<ResponseEntity<String>> respond(CompletableFuture<Void> operation,
+                                                              String successMessage, String failurePrefix) {
+        return operation.handle((ignored, error) -> error == null
+                ? ResponseEntity.ok(successMessage)
+                : ResponseEntity.badRequest().body(failurePrefix + KafkaFutures.unwrap(error).getMessage()));
     }
 }
@@ -0,0 +1,29 @@
+package com.java17.kafka.security.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.java17.kafka.security.service.KafkaClientReloader;
+
+/**
+ * Applies changed kafka.client.* properties, e.g. rotated credentials, to the running
+ * producers, consumers and admin client
+ */
+@RestController
+@RequestMapping("/api/kafka/client")
+public class KafkaClientController {
+
+    @Autowired
+    private KafkaClientReloader kafkaClientReloader;
+
+    @PostMapping("/reload")
+    public ResponseEntity<?> reload() {
+        try {
+            return ResponseEntity.ok(kafkaClientReloader.reload());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body("Failed to reload Kafka client properties: " + e.getMessage());
+        }
+    }
+}
@@ -1,17 +1,31 @@
 package com.java17.kafka.security.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.apache.kafka.clients.admin.ScramMechanism;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import com.java17.kafka.security.config.KafkaAclManager;
+import com.java17.kafka.security.service.AclProvisioningReport;
 import com.java17.kafka.security.service.KafkaSecurityManagementService;
 import com.java17.kafka.security.service.KafkaUserManager;
+import com.java17.kafka.security.service.ScramUserBulkResult;
+import com.java17.kafka.security.service.ScramUserImporter;
+import com.java17.kafka.security.service.StreamingSetupService;
 
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
+/**
+ * Endpoints return Callables so the work runs on the admin executor
+ * (virtual threads or a bounded pool, see AdminExecutionConfig)
+ */
 @RestController
 @RequestMapping("/api/kafka/security")
 public class KafkaSecurityController {
@@ -19,20 +33,86 @@ public class KafkaSecurityController {
     private final KafkaSecurityManagementService securityService;
     private final KafkaUserManager userManager;
     private final KafkaAclManager aclManager;
+    private final ScramUserImporter userImporter;
+    private final StreamingSetupService streamingSetupService;
     
     @Autowired
     public KafkaSecurityController(KafkaSecurityManagementService securityService,
                                  KafkaUserManager userManager,
-                                 KafkaAclManager aclManager) {
+                                 KafkaAclManager aclManager,
+                                 ScramUserImporter userImporter,
+                                 StreamingSetupService streamingSetupService) {
         this.securityService = securityService;
         this.userManager = userManager;
         this.aclManager = aclManager;
+        this.userImporter = userImporter;
+        this.streamingSetupService = streamingSetupService;
     }
     
     @PostMapping("/setup")
-    public ResponseEntity<String> setupKafkaSecurity(@RequestBody KafkaSecuritySetupRequest request) {
+    public Callable<ResponseEntity<?>> setupKafkaSecurity(@RequestBody KafkaSecuritySetupRequest request) {
+        return () -> setup(request);
+    }
+    
+    /**
+     * Setup for large manifests: the body is parsed incrementally and ACLs are provisioned while it is read
+     */
+    @PostMapping(value = "/setup/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Callable<ResponseEntity<?>> setupKafkaSecurityStreaming(InputStream body) {
+        return () -> {
+            try {
+                return respond(streamingSetupService.setup(body));
+            } catch (Exception e) {
+                return ResponseEntity.badRequest()
+                    .body("Failed to setup Kafka security: " + e.getMessage());
+            }
+        };
+    }
+    
+    @PostMapping("/users")
+    public Callable<ResponseEntity<String>> createUser(@RequestParam String username, @RequestParam String password) {
+        return () -> {
+            try {
+                userManager.createScramUser(username, password);
+                return ResponseEntity.ok("User created successfully");
+            } catch (Exception e) {
+                return ResponseEntity.badRequest()
+                    .body("Failed to create user: " + e.getMessage());
+            }
+        };
+    }
+
+    /**
+     * Bulk SCRAM upsert streamed from a JSON array or CSV body, processed in bounded chunks
+     */
+    @PostMapping(value = "/users/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    public Callable<ResponseEntity<?>> createUsersBulk(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestParam(defaultValue = "SCRAM-SHA-512") String mechanism,
+            @RequestParam(defaultValue = "${kafka.users.scram.iterations:8192}") int iterations) {
+        return () -> {
+            ScramMechanism scramMechanism = ScramMechanism.fromMechanismName(mechanism);
+            if (scramMechanism == ScramMechanism.UNKNOWN) {
+                return ResponseEntity.badRequest().body("Unsupported SCRAM mechanism: " + mechanism);
+            }
+            try {
+                ScramUserBulkResult result = MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                        ? userImporter.importJson(body, scramMechanism, iterations)
+                        : userImporter.importCsv(body, scramMechanism, iterations);
+                return result.hasFailures()
+                        ? ResponseEntity.status(HttpStatus.MULTI_STATUS).body(result)
+                        : ResponseEntity.ok(result);
+            } catch (Exception e) {
+                return ResponseEntity.badRequest()
+                    .body("Failed to import users: " + e.getMessage());
+            }
+        };
+    }
+
+    private ResponseEntity<?> setup(KafkaSecuritySetupRequest request) {
         try {
-            securityService.setupKafkaSecurity(
+            Map<String, Object> result = securityService.setupKafkaSecurity(
                 request.getBrokerConfigPath(),
                 request.getJaasConfigPath(),
                 request.getSuperUsers(),
@@ -40,22 +120,22 @@ public class KafkaSecurityController {
                 request.getProducerTopics(),
                 request.getConsumerTopicsGroups()
             );
-            return ResponseEntity.ok("Kafka security setup completed successfully");
+            return respond(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body("Failed to setup Kafka security: " + e.getMessage());
         }
     }
     
-    @PostMapping("/users")
-    public ResponseEntity<String> createUser(@RequestParam String username, @RequestParam String password) {
-        try {
-            userManager.createScramUser(username, password);
-            return ResponseEntity.ok("User created successfully");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                .body("Failed to create user: " + e.getMessage());
-        }
+    /**
+     * 207 when any ACL or user failed, with the per-item results either way
+     */
+    private static ResponseEntity<?> respond(Map<String, Object> result) {
+        AclProvisioningReport aclReport = (AclProvisioningReport) result.get("acls");
+        ScramUserBulkResult userResult = (ScramUserBulkResult) result.get("users");
+        return aclReport.hasFailures() || userResult.hasFailures()
+                ? ResponseEntity.status(HttpStatus.MULTI_STATUS).body(result)
+                : ResponseEntity.ok(result);
     }
 
     private Map<String, String> convertUsersListToMap(List<String> users) {
@@ -0,0 +1,24 @@
+package com.java17.kafka.security.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Payload of the notification topic. Field order is the order of the binary codec's schema,
+ * see {@code BinaryNotificationCodec}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationEvent {
+
+    private String id;
+    private String userId;
+    /** e.g. COURSE_REMINDER; kept as a string so producers can add types without a consumer release */
+    private String type;
+    private String message;
+    /** Epoch millis */
+    private long timestamp;
+    private boolean read;
+}
@@ -0,0 +1,78 @@
+package com.java17.kafka.security.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One ACL binding created or deleted through {@code KafkaAclManager}. Rows are inserted in
+ * batches by {@code AuditTrail}, which writes the columns named here directly.
+ */
+@Entity
+@Table(name = "kafka_acl_audit", indexes = {
+        @Index(name = "idx_acl_audit_occurred_at", columnList = "occurred_at"),
+        @Index(name = "idx_acl_audit_principal", columnList = "principal, occurred_at"),
+        @Index(name = "idx_acl_audit_resource", columnList = "resource_name, occurred_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class AclAuditRecord {
+
+    public enum ChangeType {
+        CREATED,
+        DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private ChangeType changeType;
+
+    /** e.g. User:producer_name */
+    @Column(name = "principal", nullable = false)
+    private String principal;
+
+    @Column(name = "host", nullable = false)
+    private String host;
+
+    /** Kafka AclOperation, e.g. WRITE */
+    @Column(name = "operation", nullable = false, length = 32)
+    private String operation;
+
+    /** ALLOW or DENY */
+    @Column(name = "permission_type", nullable = false, length = 16)
+    private String permissionType;
+
+    /** Kafka ResourceType, e.g. TOPIC */
+    @Column(name = "resource_type", nullable = false, length = 32)
+    private String resourceType;
+
+    @Column(name = "resource_name", nullable = false)
+    private String resourceName;
+
+    /** LITERAL or PREFIXED */
+    @Column(name = "pattern_type", nullable = false, length = 16)
+    private String patternType;
+
+    /** Admin API principal that made the change, when it was made on the request thread */
+    @Column(name = "actor")
+    private String actor;
+}
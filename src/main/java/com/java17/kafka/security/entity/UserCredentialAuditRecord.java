@@ -0,0 +1,61 @@
+package com.java17.kafka.security.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One SCRAM credential written through {@code KafkaUserManager}. Only the user, mechanism and
+ * iteration count are kept, never the password. Rows are inserted in batches by
+ * {@code AuditTrail}, which writes the columns named here directly.
+ */
+@Entity
+@Table(name = "kafka_user_audit", indexes = {
+        @Index(name = "idx_user_audit_occurred_at", columnList = "occurred_at"),
+        @Index(name = "idx_user_audit_username", columnList = "username, occurred_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserCredentialAuditRecord {
+
+    public enum ChangeType {
+        UPSERTED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private ChangeType changeType;
+
+    @Column(name = "username", nullable = false)
+    private String username;
+
+    /** e.g. SCRAM_SHA_512 */
+    @Column(name = "mechanism", nullable = false, length = 32)
+    private String mechanism;
+
+    @Column(name = "iterations", nullable = false)
+    private Integer iterations;
+
+    /** Admin API principal that made the change, when it was made on the request thread */
+    @Column(name = "actor")
+    private String actor;
+}
@@ -0,0 +1,12 @@
+package com.java17.kafka.security.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.java17.kafka.security.entity.AclAuditRecord;
+
+/**
+ * Read side of the ACL audit trail; filtered pages come from {@code findAll(Example, Pageable)}.
+ * Rows are written by {@code AuditTrail}, not through this repository.
+ */
+public interface AclAuditRepository extends JpaRepository<AclAuditRecord, Long> {
+}
@@ -0,0 +1,13 @@
+package com.java17.kafka.security.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.java17.kafka.security.entity.UserCredentialAuditRecord;
+
+/**
+ * Read side of the SCRAM user audit trail; filtered pages come from
+ * {@code findAll(Example, Pageable)}. Rows are written by {@code AuditTrail}, not through this
+ * repository.
+ */
+public interface UserCredentialAuditRepository extends JpaRepository<UserCredentialAuditRecord, Long> {
+}
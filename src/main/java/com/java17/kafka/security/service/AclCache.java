@@ -0,0 +1,281 @@
+package com.java17.kafka.security.service;
+
+import org.apache.kafka.common.acl.AccessControlEntry;
+import org.apache.kafka.common.acl.AclBinding;
+import org.apache.kafka.common.acl.AclBindingFilter;
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.acl.AclPermissionType;
+import org.apache.kafka.common.resource.PatternType;
+import org.apache.kafka.common.resource.ResourcePattern;
+import org.apache.kafka.common.resource.ResourceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.java17.kafka.security.config.AclChangeListener;
+import com.java17.kafka.security.config.KafkaAclManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local copy of the cluster's ACLs, indexed by principal and resource, that answers
+ * "may principal X do operation O on resource R?" without a broker round trip.
+ * <p>
+ * The index is loaded with one DescribeAcls call, reloaded on a schedule and kept current
+ * between reloads by applying the writes made through {@link KafkaAclManager}.
+ * Decisions follow Kafka's authorizer: DENY wins over ALLOW, ALL matches every operation,
+ * READ/WRITE/DELETE/ALTER imply DESCRIBE, ALTER_CONFIGS implies DESCRIBE_CONFIGS,
+ * and configured super users are always allowed.
+ */
+@Service
+public class AclCache implements AclChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(AclCache.class);
+
+    private static final String WILDCARD_PRINCIPAL = "User:*";
+
+    private final KafkaAclManager aclManager;
+    private final Set<String> superUsers = new HashSet<>();
+    private final long describeTimeoutMs;
+
+    private volatile Index index = new Index();
+    private volatile Instant lastRefreshed;
+    private final AtomicLong version = new AtomicLong();
+    private boolean refreshing;
+    private final List<Runnable> changesDuringRefresh = new ArrayList<>();
+
+    @Autowired
+    public AclCache(KafkaAclManager aclManager,
+                    @Value("${kafka.broker.superusers:admin_user}") String superusers,
+                    @Value("${kafka.acl.cache.describe-timeout-ms:30000}") long describeTimeoutMs) {
+        this.aclManager = aclManager;
+        this.describeTimeoutMs = describeTimeoutMs;
+        for (String superUser : superusers.split(",")) {
+            if (!superUser.isBlank()) {
+                this.superUsers.add(normalizePrincipal(superUser.trim()));
+            }
+        }
+        aclManager.addAclChangeListener(this);
+    }
+
+    /**
+     * Reload the whole index with a single DescribeAcls call. Runs once at startup and then on a schedule.
+     */
+    @Scheduled(fixedDelayString = "${kafka.acl.cache.refresh-interval-ms:300000}")
+    public void refresh() {
+        synchronized (changesDuringRefresh) {
+            refreshing = true;
+        }
+        Index loaded = null;
+        try {
+            Collection<AclBinding> aclBindings = aclManager.describeAclsAsync(AclBindingFilter.ANY)
+                    .get(describeTimeoutMs, TimeUnit.MILLISECONDS);
+            loaded = new Index();
+            aclBindings.forEach(loaded::add);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("ACL cache refresh failed, keeping {} cached bindings: {}", index.size(), e.getMessage());
+        } finally {
+            synchronized (changesDuringRefresh) {
+                if (loaded != null) {
+                    index = loaded;
+                    lastRefreshed = Instant.now();
+                    // Writes that raced with the describe call may be missing from the new snapshot
+                    changesDuringRefresh.forEach(Runnable::run);
+                    version.incrementAndGet();
+                }
+                changesDuringRefresh.clear();
+                refreshing = false;
+            }
+        }
+        if (loaded != null) {
+            logger.info("ACL cache loaded {} bindings", loaded.size());
+        }
+    }
+
+    @Override
+    public void onAclsCreated(Collection<AclBinding> aclBindings) {
+        apply(() -> aclBindings.forEach(aclBinding -> index.add(aclBinding)));
+    }
+
+    @Override
+    public void onAclsDeleted(Collection<AclBinding> aclBindings) {
+        apply(() -> aclBindings.forEach(aclBinding -> index.remove(aclBinding)));
+    }
+
+    private void apply(Runnable change) {
+        synchronized (changesDuringRefresh) {
+            change.run();
+            version.incrementAndGet();
+            if (refreshing) {
+                changesDuringRefresh.add(change);
+            }
+        }
+    }
+
+    /**
+     * Whether the principal may perform the operation on the named resource from the given host
+     */
+    public boolean isAllowed(String principal, String host, AclOperation operation,
+                             ResourceType resourceType, String resourceName) {
+        String normalized = normalizePrincipal(principal);
+        if (superUsers.contains(normalized)) {
+            return true;
+        }
+        Index current = index;
+        List<AccessControlEntry> entries = new ArrayList<>();
+        current.collect(normalized, resourceType, resourceName, entries);
+        current.collect(WILDCARD_PRINCIPAL, resourceType, resourceName, entries);
+
+        String requestHost = host == null || host.isEmpty() ? "*" : host;
+        boolean allowed = false;
+        for (AccessControlEntry entry : entries) {
+            if (!"*".equals(entry.host()) && !entry.host().equals(requestHost)) {
+                continue;
+            }
+            if (entry.permissionType() == AclPermissionType.DENY) {
+                if (entry.operation() == operation || entry.operation() == AclOperation.ALL) {
+                    return false;
+                }
+            } else if (entry.permissionType() == AclPermissionType.ALLOW && grants(entry.operation(), operation)) {
+                allowed = true;
+            }
+        }
+        return allowed;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public Instant getLastRefreshed() {
+        return lastRefreshed;
+    }
+
+    /**
+     * Incremented whenever the index changes, by a reload or a write; decisions computed under an
+     * older version may be out of date
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    private static boolean grants(AclOperation granted, AclOperation requested) {
+        if (granted == requested || granted == AclOperation.ALL) {
+            return true;
+        }
+        if (requested == AclOperation.DESCRIBE) {
+            return granted == AclOperation.READ || granted == AclOperation.WRITE
+                    || granted == AclOperation.DELETE || granted == AclOperation.ALTER;
+        }
+        return requested == AclOperation.DESCRIBE_CONFIGS && granted == AclOperation.ALTER_CONFIGS;
+    }
+
+    static String normalizePrincipal(String principal) {
+        return principal.indexOf(':') > 0 ? principal : "User:" + principal;
+    }
+
+    /**
+     * principal -> resource type -> literal names and prefixed patterns
+     */
+    private static final class Index {
+
+        private final Map<String, Map<ResourceType, Resources>> byPrincipal = new ConcurrentHashMap<>();
+
+        void add(AclBinding aclBinding) {
+            byPrincipal.computeIfAbsent(aclBinding.entry().principal(), principal -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(aclBinding.pattern().resourceType(), resourceType -> new Resources())
+                    .add(aclBinding);
+        }
+
+        void remove(AclBinding aclBinding) {
+            Map<ResourceType, Resources> types = byPrincipal.get(aclBinding.entry().principal());
+            Resources resources = types == null ? null : types.get(aclBinding.pattern().resourceType());
+            if (resources != null) {
+                resources.remove(aclBinding);
+            }
+        }
+
+        void collect(String principal, ResourceType resourceType, String resourceName,
+                     List<AccessControlEntry> into) {
+            Map<ResourceType, Resources> types = byPrincipal.get(principal);
+            Resources resources = types == null ? null : types.get(resourceType);
+            if (resources != null) {
+                resources.collect(resourceName, into);
+            }
+        }
+
+        int size() {
+            int size = 0;
+            for (Map<ResourceType, Resources> types : byPrincipal.values()) {
+                for (Resources resources : types.values()) {
+                    size += resources.size();
+                }
+            }
+            return size;
+        }
+    }
+
+    private static final class Resources {
+
+        private final Map<String, Set<AccessControlEntry>> literal = new ConcurrentHashMap<>();
+        private final Map<String, Set<AccessControlEntry>> prefixed = new ConcurrentHashMap<>();
+
+        void add(AclBinding aclBinding) {
+            patterns(aclBinding.pattern())
+                    .computeIfAbsent(aclBinding.pattern().name(), name -> ConcurrentHashMap.newKeySet())
+                    .add(aclBinding.entry());
+        }
+
+        void remove(AclBinding aclBinding) {
+            patterns(aclBinding.pattern()).computeIfPresent(aclBinding.pattern().name(), (name, entries) -> {
+                entries.remove(aclBinding.entry());
+                return entries.isEmpty() ? null : entries;
+            });
+        }
+
+        void collect(String resourceName, List<AccessControlEntry> into) {
+            addAll(literal.get(resourceName), into);
+            addAll(literal.get(ResourcePattern.WILDCARD_RESOURCE), into);
+            for (Map.Entry<String, Set<AccessControlEntry>> prefix : prefixed.entrySet()) {
+                if (resourceName.startsWith(prefix.getKey())) {
+                    into.addAll(prefix.getValue());
+                }
+            }
+        }
+
+        int size() {
+            int size = 0;
+            for (Set<AccessControlEntry> entries : literal.values()) {
+                size += entries.size();
+            }
+            for (Set<AccessControlEntry> entries : prefixed.values()) {
+                size += entries.size();
+            }
+            return size;
+        }
+
+        private Map<String, Set<AccessControlEntry>> patterns(ResourcePattern pattern) {
+            return pattern.patternType() == PatternType.PREFIXED ? prefixed : literal;
+        }
+
+        private static void addAll(Set<AccessControlEntry> entries, List<AccessControlEntry> into) {
+            if (entries != null) {
+                into.addAll(entries);
+            }
+        }
+    }
+}
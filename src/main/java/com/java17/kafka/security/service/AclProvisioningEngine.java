@@ -0,0 +1,147 @@
+package com.java17.kafka.security.service;
+
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.acl.AclBinding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.java17.kafka.security.config.KafkaAclManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provisions ACL bindings in size-bounded CreateAcls batches with several batches in flight.
+ * Bindings are deduplicated per run and every binding gets its own success or failure entry
+ * in the {@link AclProvisioningReport}, so one bad binding does not stop the rest.
+ */
+@Service
+public class AclProvisioningEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(AclProvisioningEngine.class);
+
+    private final KafkaAclManager aclManager;
+    private final int batchSize;
+    private final int maxInFlight;
+
+    @Autowired
+    public AclProvisioningEngine(KafkaAclManager aclManager,
+                                 @Value("${kafka.acl.provisioning.batch-size:500}") int batchSize,
+                                 @Value("${kafka.acl.provisioning.max-in-flight:4}") int maxInFlight) {
+        if (batchSize < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("batch-size and max-in-flight must be positive");
+        }
+        this.aclManager = aclManager;
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Provision all bindings and wait until every batch has completed
+     */
+    public AclProvisioningReport provision(Collection<AclBinding> aclBindings) throws InterruptedException {
+        Session session = openSession();
+        for (AclBinding aclBinding : aclBindings) {
+            session.add(aclBinding);
+        }
+        return session.finish();
+    }
+
+    /**
+     * Open a session that accepts bindings one at a time, e.g. while a request is still being read.
+     * A session is meant to be fed from a single thread.
+     */
+    public Session openSession() {
+        return new Session();
+    }
+
+    public class Session {
+
+        private final Set<AclBinding> seen = new HashSet<>();
+        private final Semaphore inFlight = new Semaphore(maxInFlight);
+        private final AclProvisioningReport report = new AclProvisioningReport();
+        private List<AclBinding> batch = new ArrayList<>(batchSize);
+        private boolean finished;
+
+        /**
+         * Queue a binding. Blocks while {@code max-in-flight} batches are outstanding.
+         */
+        public void add(AclBinding aclBinding) throws InterruptedException {
+            if (finished) {
+                throw new IllegalStateException("Provisioning session already finished");
+            }
+            if (!seen.add(aclBinding)) {
+                report.recordDuplicate();
+                return;
+            }
+            batch.add(aclBinding);
+            if (batch.size() >= batchSize) {
+                submit();
+            }
+        }
+
+        public void addAll(Collection<AclBinding> aclBindings) throws InterruptedException {
+            for (AclBinding aclBinding : aclBindings) {
+                add(aclBinding);
+            }
+        }
+
+        /**
+         * Submit the last partial batch and wait for all outstanding batches
+         */
+        public AclProvisioningReport finish() throws InterruptedException {
+            if (!finished) {
+                if (!batch.isEmpty()) {
+                    submit();
+                }
+                finished = true;
+                inFlight.acquire(maxInFlight);
+                inFlight.release(maxInFlight);
+                logger.info("ACL provisioning finished: {}", report);
+            }
+            return report;
+        }
+
+        private void submit() throws InterruptedException {
+            List<AclBinding> toSubmit = batch;
+            batch = new ArrayList<>(batchSize);
+
+            inFlight.acquire();
+            report.recordSubmitted(toSubmit.size());
+
+            Map<AclBinding, KafkaFuture<Void>> results;
+            try {
+                results = aclManager.createAcls(toSubmit);
+            } catch (RuntimeException e) {
+                toSubmit.forEach(aclBinding -> report.recordFailure(aclBinding, e));
+                inFlight.release();
+                return;
+            }
+
+            if (results.isEmpty()) {
+                inFlight.release();
+                return;
+            }
+            AtomicInteger remaining = new AtomicInteger(results.size());
+            results.forEach((aclBinding, future) -> future.whenComplete((ignored, error) -> {
+                if (error == null) {
+                    report.recordSuccess();
+                } else {
+                    report.recordFailure(aclBinding, error);
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    inFlight.release();
+                }
+            }));
+        }
+    }
+}
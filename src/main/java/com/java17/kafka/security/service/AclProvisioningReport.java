@@ -0,0 +1,70 @@
+package com.java17.kafka.security.service;
+
+import org.apache.kafka.common.acl.AclBinding;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-binding outcome of an ACL provisioning run
+ */
+public class AclProvisioningReport {
+
+    private final AtomicInteger submitted = new AtomicInteger();
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger duplicates = new AtomicInteger();
+    private final Map<AclBinding, String> failures = new ConcurrentHashMap<>();
+
+    void recordSubmitted(int count) {
+        submitted.addAndGet(count);
+    }
+
+    void recordSuccess() {
+        succeeded.incrementAndGet();
+    }
+
+    void recordFailure(AclBinding binding, Throwable error) {
+        failures.put(binding, error.getClass().getSimpleName() + ": " + error.getMessage());
+    }
+
+    void recordDuplicate() {
+        duplicates.incrementAndGet();
+    }
+
+    public int getSubmitted() {
+        return submitted.get();
+    }
+
+    public int getSucceeded() {
+        return succeeded.get();
+    }
+
+    public int getFailed() {
+        return failures.size();
+    }
+
+    public int getDuplicates() {
+        return duplicates.get();
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    /**
+     * Failed bindings rendered as strings so the report can be returned as JSON
+     */
+    public Map<String, String> getFailures() {
+        Map<String, String> rendered = new LinkedHashMap<>();
+        failures.forEach((binding, error) -> rendered.put(binding.toString(), error));
+        return rendered;
+    }
+
+    @Override
+    public String toString() {
+        return "submitted=" + getSubmitted() + ", succeeded=" + getSucceeded()
+                + ", failed=" + getFailed() + ", duplicates=" + getDuplicates();
+    }
+}
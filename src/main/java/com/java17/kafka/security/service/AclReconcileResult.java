@@ -0,0 +1,56 @@
+package com.java17.kafka.security.service;
+
+import org.apache.kafka.common.acl.AclBinding;
+
+import com.java17.kafka.security.config.AclDiff;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a reconcile run; on a dry run only the diff is filled in
+ */
+public class AclReconcileResult {
+
+    private final AclDiff diff;
+    private final boolean dryRun;
+    private final AclProvisioningReport provisioning;
+    private final int removed;
+
+    AclReconcileResult(AclDiff diff, boolean dryRun, AclProvisioningReport provisioning, int removed) {
+        this.diff = diff;
+        this.dryRun = dryRun;
+        this.provisioning = provisioning;
+        this.removed = removed;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public List<String> getToAdd() {
+        return render(diff.getToAdd());
+    }
+
+    public List<String> getToRemove() {
+        return render(diff.getToRemove());
+    }
+
+    public int getUnchanged() {
+        return diff.getUnchanged();
+    }
+
+    public AclProvisioningReport getProvisioning() {
+        return provisioning;
+    }
+
+    public int getRemoved() {
+        return removed;
+    }
+
+    private static List<String> render(List<AclBinding> aclBindings) {
+        List<String> rendered = new ArrayList<>(aclBindings.size());
+        aclBindings.forEach(aclBinding -> rendered.add(aclBinding.toString()));
+        return rendered;
+    }
+}
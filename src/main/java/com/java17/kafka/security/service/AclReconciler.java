@@ -0,0 +1,100 @@
+package com.java17.kafka.security.service;
+
+import org.apache.kafka.common.acl.AclBinding;
+import org.apache.kafka.common.acl.AclBindingFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.java17.kafka.security.config.AclDiff;
+import com.java17.kafka.security.config.KafkaAclManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Brings the cluster's ACLs in line with a desired set by applying only the difference.
+ * The current state of the affected principals is fetched with a single DescribeAcls call
+ * and compared locally; additions go through the batched {@link AclProvisioningEngine}.
+ */
+@Service
+public class AclReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(AclReconciler.class);
+
+    private final KafkaAclManager aclManager;
+    private final AclProvisioningEngine provisioningEngine;
+
+    @Autowired
+    public AclReconciler(KafkaAclManager aclManager, AclProvisioningEngine provisioningEngine) {
+        this.aclManager = aclManager;
+        this.provisioningEngine = provisioningEngine;
+    }
+
+    /**
+     * Compute the diff between the desired bindings and the current bindings of the same principals
+     */
+    public AclDiff diff(Collection<AclBinding> desired, boolean prune) throws ExecutionException, InterruptedException {
+        return AclDiff.between(desired, currentBindings(desired), prune);
+    }
+
+    /**
+     * Apply the diff unless {@code dryRun} is set. With {@code prune}, bindings of the desired
+     * principals that are not in the desired set are deleted.
+     */
+    public AclReconcileResult reconcile(Collection<AclBinding> desired, boolean prune, boolean dryRun)
+            throws ExecutionException, InterruptedException {
+        AclDiff diff = diff(desired, prune);
+        logger.info("ACL reconcile ({}): {}", dryRun ? "dry run" : "apply", diff);
+        if (dryRun || diff.isEmpty()) {
+            return new AclReconcileResult(diff, dryRun, new AclProvisioningReport(), 0);
+        }
+
+        AclProvisioningReport report = provisioningEngine.provision(diff.getToAdd());
+        int removed = 0;
+        if (!diff.getToRemove().isEmpty()) {
+            removed = aclManager.deleteAclsAsync(diff.getToRemove()).get().size();
+        }
+        return new AclReconcileResult(diff, false, report, removed);
+    }
+
+    /**
+     * Bindings of {@code principal} currently on the cluster, from one describe call. For callers
+     * that receive the desired set piecemeal and compare each binding as it arrives.
+     */
+    public Set<AclBinding> currentBindings(String principal) throws ExecutionException, InterruptedException {
+        return new HashSet<>(aclManager.describeAclsAsync(KafkaAclManager.principalFilter(principal)).get());
+    }
+
+    /**
+     * One describe call: filtered by principal when there is only one, otherwise everything
+     * filtered locally to the desired principals
+     */
+    private Collection<AclBinding> currentBindings(Collection<AclBinding> desired)
+            throws ExecutionException, InterruptedException {
+        Set<String> principals = new HashSet<>();
+        for (AclBinding aclBinding : desired) {
+            principals.add(aclBinding.entry().principal());
+        }
+        if (principals.isEmpty()) {
+            return List.of();
+        }
+        AclBindingFilter filter = principals.size() == 1
+                ? KafkaAclManager.principalFilter(principals.iterator().next())
+                : AclBindingFilter.ANY;
+
+        Collection<AclBinding> described = aclManager.describeAclsAsync(filter).get();
+        List<AclBinding> current = new ArrayList<>(described.size());
+        for (AclBinding aclBinding : described) {
+            if (principals.contains(aclBinding.entry().principal())) {
+                current.add(aclBinding);
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,312 @@
+package com.java17.kafka.security.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.admin.ScramMechanism;
+import org.apache.kafka.common.acl.AclBinding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.stereotype.Service;
+
+import com.java17.kafka.security.config.AclChangeListener;
+import com.java17.kafka.security.config.KafkaAclManager;
+import com.java17.kafka.security.entity.AclAuditRecord;
+import com.java17.kafka.security.entity.UserCredentialAuditRecord;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records every ACL and SCRAM user change made through {@link KafkaAclManager} and
+ * {@link KafkaUserManager} in MySQL ({@link AclAuditRecord}, {@link UserCredentialAuditRecord}).
+ * <p>
+ * Auditing is write-behind: the change callbacks only put a record in a bounded buffer, and a
+ * single writer thread inserts them with JDBC batch inserts, one batch of up to
+ * {@code app.audit.batch-size} rows per table, waiting at most {@code app.audit.flush-interval-ms}
+ * for a batch to fill. An admin call therefore never waits for the database. A failed batch is
+ * retried; when the database is away for longer than the buffer lasts, new records are dropped
+ * and counted in {@code audit.records{outcome=dropped}} rather than slowing down the admin calls.
+ * <p>
+ * On shutdown the buffer is drained, for at most {@code app.audit.shutdown-timeout-ms}, before the
+ * datasource closes.
+ */
+@Service
+public class AuditTrail implements AclChangeListener, ScramUserChangeListener, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditTrail.class);
+
+    /** MDC entry holding the admin API principal, set by the admin API authorization filter */
+    static final String ACTOR_MDC_KEY = "principal";
+
+    static final String ACL_INSERT = "INSERT INTO kafka_acl_audit (occurred_at, change_type, principal, host, "
+            + "operation, permission_type, resource_type, resource_name, pattern_type, actor) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String USER_INSERT = "INSERT INTO kafka_user_audit (occurred_at, change_type, username, "
+            + "mechanism, iterations, actor) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    // Instants are stored in UTC, as Hibernate binds them, so JPA reads return what was written
+    private static final ThreadLocal<Calendar> UTC = ThreadLocal.withInitial(
+            () -> Calendar.getInstance(TimeZone.getTimeZone("UTC")));
+
+    private final JdbcOperations jdbcOperations;
+    private final BlockingQueue<Object> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long shutdownTimeoutMs;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Timer flushTimer;
+    private final AtomicBoolean dropWarned = new AtomicBoolean();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    @Autowired
+    public AuditTrail(JdbcOperations jdbcOperations, KafkaAclManager aclManager, KafkaUserManager userManager,
+                      @Value("${app.audit.buffer-capacity:10000}") int bufferCapacity,
+                      @Value("${app.audit.batch-size:200}") int batchSize,
+                      @Value("${app.audit.flush-interval-ms:500}") long flushIntervalMs,
+                      @Value("${app.audit.shutdown-timeout-ms:10000}") long shutdownTimeoutMs,
+                      MeterRegistry meterRegistry) {
+        this(jdbcOperations, bufferCapacity, batchSize, flushIntervalMs, shutdownTimeoutMs, meterRegistry);
+        aclManager.addAclChangeListener(this);
+        userManager.addScramUserChangeListener(this);
+    }
+
+    public AuditTrail(JdbcOperations jdbcOperations, int bufferCapacity, int batchSize, long flushIntervalMs,
+                      long shutdownTimeoutMs, MeterRegistry meterRegistry) {
+        this.jdbcOperations = jdbcOperations;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.written = records(meterRegistry, "written");
+        this.dropped = records(meterRegistry, "dropped");
+        this.failed = records(meterRegistry, "failed");
+        this.flushTimer = Timer.builder("audit.flush")
+                .description("Time to insert one batch of audit records")
+                .register(meterRegistry);
+        Gauge.builder("audit.buffer.size", buffer, BlockingQueue::size)
+                .description("Audit records waiting to be written")
+                .register(meterRegistry);
+        this.writer = new Thread(this::run, "audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void onAclsCreated(Collection<AclBinding> aclBindings) {
+        record(aclBindings, AclAuditRecord.ChangeType.CREATED);
+    }
+
+    @Override
+    public void onAclsDeleted(Collection<AclBinding> aclBindings) {
+        record(aclBindings, AclAuditRecord.ChangeType.DELETED);
+    }
+
+    @Override
+    public void onScramUsersUpserted(Collection<String> usernames, ScramMechanism mechanism, int iterations) {
+        Instant now = Instant.now();
+        String actor = MDC.get(ACTOR_MDC_KEY);
+        for (String username : usernames) {
+            UserCredentialAuditRecord record = new UserCredentialAuditRecord();
+            record.setOccurredAt(now);
+            record.setChangeType(UserCredentialAuditRecord.ChangeType.UPSERTED);
+            record.setUsername(username);
+            record.setMechanism(mechanism.name());
+            record.setIterations(iterations);
+            record.setActor(actor);
+            enqueue(record);
+        }
+    }
+
+    /**
+     * Records accepted but not yet written
+     */
+    public int getPending() {
+        return buffer.size();
+    }
+
+    private void record(Collection<AclBinding> aclBindings, AclAuditRecord.ChangeType changeType) {
+        Instant now = Instant.now();
+        String actor = MDC.get(ACTOR_MDC_KEY);
+        for (AclBinding aclBinding : aclBindings) {
+            AclAuditRecord record = new AclAuditRecord();
+            record.setOccurredAt(now);
+            record.setChangeType(changeType);
+            record.setPrincipal(aclBinding.entry().principal());
+            record.setHost(aclBinding.entry().host());
+            record.setOperation(aclBinding.entry().operation().name());
+            record.setPermissionType(aclBinding.entry().permissionType().name());
+            record.setResourceType(aclBinding.pattern().resourceType().name());
+            record.setResourceName(aclBinding.pattern().name());
+            record.setPatternType(aclBinding.pattern().patternType().name());
+            record.setActor(actor);
+            enqueue(record);
+        }
+    }
+
+    private void enqueue(Object record) {
+        if (running && buffer.offer(record)) {
+            return;
+        }
+        dropped.increment();
+        if (dropWarned.compareAndSet(false, true)) {
+            logger.warn("Audit buffer is full or closed, dropping audit records until it drains");
+        }
+    }
+
+    private void run() {
+        List<Object> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !buffer.isEmpty()) {
+                Object first = buffer.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            logger.warn("Audit writer stopped with {} records unwritten", batch.size() + buffer.size());
+        }
+    }
+
+    /**
+     * Top the batch up until it is full or a flush interval has passed since its first record
+     */
+    private void fill(List<Object> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            Object next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<Object> batch) throws InterruptedException {
+        List<AclAuditRecord> aclRecords = new ArrayList<>();
+        List<UserCredentialAuditRecord> userRecords = new ArrayList<>();
+        for (Object record : batch) {
+            if (record instanceof AclAuditRecord) {
+                aclRecords.add((AclAuditRecord) record);
+            } else {
+                userRecords.add((UserCredentialAuditRecord) record);
+            }
+        }
+        if (!aclRecords.isEmpty()) {
+            insert(ACL_INSERT, aclRecords, AuditTrail::bindAcl);
+        }
+        if (!userRecords.isEmpty()) {
+            insert(USER_INSERT, userRecords, AuditTrail::bindUser);
+        }
+        dropWarned.set(false);
+    }
+
+    private <T> void insert(String sql, List<T> records, Binder<T> binder) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            Timer.Sample sample = Timer.start();
+            try {
+                jdbcOperations.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        binder.bind(ps, records.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return records.size();
+                    }
+                });
+                sample.stop(flushTimer);
+                written.increment(records.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    failed.increment(records.size());
+                    logger.error("Could not write {} audit records after {} attempts: {}", records.size(),
+                            attempt, e.getMessage());
+                    return;
+                }
+                logger.warn("Audit batch insert failed, attempt {} of {}: {}", attempt, MAX_ATTEMPTS,
+                        e.getMessage());
+                if (running) {
+                    Thread.sleep(1000L * attempt);
+                }
+            }
+        }
+    }
+
+    private static void bindAcl(PreparedStatement ps, AclAuditRecord record) throws SQLException {
+        ps.setTimestamp(1, Timestamp.from(record.getOccurredAt()), UTC.get());
+        ps.setString(2, record.getChangeType().name());
+        ps.setString(3, record.getPrincipal());
+        ps.setString(4, record.getHost());
+        ps.setString(5, record.getOperation());
+        ps.setString(6, record.getPermissionType());
+        ps.setString(7, record.getResourceType());
+        ps.setString(8, record.getResourceName());
+        ps.setString(9, record.getPatternType());
+        ps.setString(10, record.getActor());
+    }
+
+    private static void bindUser(PreparedStatement ps, UserCredentialAuditRecord record) throws SQLException {
+        ps.setTimestamp(1, Timestamp.from(record.getOccurredAt()), UTC.get());
+        ps.setString(2, record.getChangeType().name());
+        ps.setString(3, record.getUsername());
+        ps.setString(4, record.getMechanism());
+        ps.setInt(5, record.getIterations());
+        ps.setString(6, record.getActor());
+    }
+
+    private static Counter records(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("audit.records")
+                .description("ACL and SCRAM user audit records by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        writer.join(shutdownTimeoutMs);
+        if (writer.isAlive()) {
+            writer.interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Binder<T> {
+        void bind(PreparedStatement ps, T record) throws SQLException;
+    }
+}
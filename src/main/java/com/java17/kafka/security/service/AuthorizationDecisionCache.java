@@ -0,0 +1,174 @@
+package com.java17.kafka.security.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers allow/deny decisions per (principal, host, operation, resource) so that an
+ * authorized request costs one map lookup instead of an ACL evaluation.
+ * <p>
+ * The cache is bounded both ways: a decision is kept for at most {@code ttl}, and once
+ * {@code maxSize} decisions are held, expired ones are swept and then the oldest tenth is
+ * dropped. A decision is also discarded as soon as {@link AclCache#getVersion()} moves, so an
+ * ACL created or deleted through this application takes effect on the next request; changes
+ * made elsewhere are picked up by the ACL cache reload and, at the latest, after {@code ttl}.
+ */
+@Service
+public class AuthorizationDecisionCache {
+
+    /**
+     * Evaluates a decision on a miss; {@link AclCache#isAllowed} in the application
+     */
+    @FunctionalInterface
+    public interface Authorizer {
+        boolean isAllowed(String principal, String host, AclOperation operation,
+                          ResourceType resourceType, String resourceName);
+    }
+
+    private final Authorizer authorizer;
+    private final LongSupplier aclVersion;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<DecisionKey, Decision> decisions = new ConcurrentHashMap<>();
+    private final Object evictionLock = new Object();
+    private final Counter hits;
+    private final Counter misses;
+    private volatile long seenVersion;
+
+    @Autowired
+    public AuthorizationDecisionCache(AclCache aclCache,
+                                      @Value("${app.security.decision-cache.max-size:10000}") int maxSize,
+                                      @Value("${app.security.decision-cache.ttl-ms:60000}") long ttlMs,
+                                      MeterRegistry meterRegistry) {
+        this(aclCache::isAllowed, aclCache::getVersion, maxSize, Duration.ofMillis(ttlMs), meterRegistry);
+    }
+
+    public AuthorizationDecisionCache(Authorizer authorizer, LongSupplier aclVersion, int maxSize, Duration ttl,
+                                      MeterRegistry meterRegistry) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Decision cache max-size must be at least 1, got " + maxSize);
+        }
+        this.authorizer = authorizer;
+        this.aclVersion = aclVersion;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.seenVersion = aclVersion.getAsLong();
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        Gauge.builder("admin.api.authorization.cache.size", decisions, Map::size)
+                .description("Authorization decisions currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the principal may perform the operation on the named resource from the given host
+     */
+    public boolean isAllowed(String principal, String host, AclOperation operation,
+                             ResourceType resourceType, String resourceName) {
+        long version = aclVersion.getAsLong();
+        if (version != seenVersion) {
+            // Every cached decision predates the change; drop them now rather than one by one
+            seenVersion = version;
+            decisions.clear();
+        }
+        long now = System.nanoTime();
+        DecisionKey key = new DecisionKey(principal, host, operation, resourceType, resourceName);
+        Decision decision = decisions.get(key);
+        if (decision != null && decision.version == version && now - decision.expiresAtNanos < 0) {
+            hits.increment();
+            return decision.allowed;
+        }
+        misses.increment();
+        boolean allowed = authorizer.isAllowed(principal, host, operation, resourceType, resourceName);
+        if (decisions.size() >= maxSize) {
+            evict(now);
+        }
+        decisions.put(key, new Decision(allowed, now + ttlNanos, version));
+        return allowed;
+    }
+
+    /**
+     * Drop every cached decision
+     */
+    public void invalidateAll() {
+        decisions.clear();
+    }
+
+    public int size() {
+        return decisions.size();
+    }
+
+    /**
+     * Drop expired decisions so that an idle cache does not hold principals until it fills up
+     */
+    @Scheduled(fixedDelayString = "${app.security.decision-cache.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        decisions.values().removeIf(decision -> now - decision.expiresAtNanos >= 0);
+    }
+
+    private void evict(long now) {
+        synchronized (evictionLock) {
+            if (decisions.size() < maxSize) {
+                // Another thread made room while this one waited
+                return;
+            }
+            decisions.values().removeIf(decision -> now - decision.expiresAtNanos >= 0);
+            // Still full: drop the decisions closest to expiry, i.e. the oldest, down to 90%
+            int excess = decisions.size() - (maxSize - Math.max(1, maxSize / 10));
+            if (excess <= 0) {
+                return;
+            }
+            long cutoff = decisions.values().stream()
+                    .mapToLong(decision -> decision.expiresAtNanos - now)
+                    .sorted()
+                    .skip(excess - 1)
+                    .findFirst()
+                    .orElse(Long.MAX_VALUE);
+            Iterator<Decision> iterator = decisions.values().iterator();
+            while (iterator.hasNext() && excess > 0) {
+                if (iterator.next().expiresAtNanos - now <= cutoff) {
+                    iterator.remove();
+                    excess--;
+                }
+            }
+        }
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("admin.api.authorization.cache")
+                .description("Authorization decision cache lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record DecisionKey(String principal, String host, AclOperation operation,
+                               ResourceType resourceType, String resourceName) {
+    }
+
+    private static final class Decision {
+
+        private final boolean allowed;
+        private final long expiresAtNanos;
+        private final long version;
+
+        private Decision(boolean allowed, long expiresAtNanos, long version) {
+            this.allowed = allowed;
+            this.expiresAtNanos = expiresAtNanos;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.java17.kafka.security.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.config.SslConfigs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+import com.java17.kafka.security.config.KafkaClientProperties;
+import com.java17.kafka.security.config.KeyStoreUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Watches the Kafka truststore and keystore and the JWT signing keystore, and rotates them in
+ * without a restart. Changes are debounced, since copying a file produces several events;
+ * the new file is then loaded and checked on the rotation thread, away from request threads,
+ * and only a store that opens with its password, holds the expected entries and whose key
+ * certificates are currently valid is applied:
+ * <ul>
+ *     <li>Kafka stores: every producer, consumer and admin client reading the store is
+ *     recreated through {@link KafkaClientReloader#rotate}, which drains in-flight sends and
+ *     restarts consumers one at a time</li>
+ *     <li>JWT keystore: the shared registry swaps in the new keys; lookups keep returning the
+ *     old ones until the swap</li>
+ * </ul>
+ * A rejected store is logged and left alone; the clients keep the material they loaded.
+ * {@code ssl.rotation.latency}, tagged by store and outcome, times each rotation from the
+ * first file event to the last client switched over.
+ */
+@Component
+public class CertificateRotationWatcher implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CertificateRotationWatcher.class);
+
+    static final String OUTCOME_APPLIED = "applied";
+    static final String OUTCOME_UNCHANGED = "unchanged";
+    static final String OUTCOME_REJECTED = "rejected";
+
+    private final KafkaClientProperties clientProperties;
+    private final KafkaClientReloader reloader;
+    private final KeyStoreUtil keyStoreUtil;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long debounceMs;
+    private final Map<Path, WatchedStore> stores = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService rotationExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "certificate-rotation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private WatchService watchService;
+    private Thread watchThread;
+
+    @Autowired
+    public CertificateRotationWatcher(KafkaClientProperties clientProperties, KafkaClientReloader reloader,
+                                      KeyStoreUtil keyStoreUtil, MeterRegistry meterRegistry,
+                                      @Value("${kafka.client.rotation.enabled:true}") boolean enabled,
+                                      @Value("${kafka.client.rotation.debounce-ms:2000}") long debounceMs) {
+        this.clientProperties = clientProperties;
+        this.reloader = reloader;
+        this.keyStoreUtil = keyStoreUtil;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.debounceMs = debounceMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() throws IOException {
+        if (!enabled || watchService != null) {
+            return;
+        }
+        KafkaClientProperties.Ssl ssl = clientProperties.getSsl();
+        register("kafka-truststore", ssl::getTrustStoreLocation, ssl::getTrustStoreType, ssl::getTrustStorePassword,
+                false, () -> reloader.rotate(Set.of(SslConfigs.SSL_TRUSTSTORE_LOCATION_CONFIG)));
+        register("kafka-keystore", ssl::getKeyStoreLocation, ssl::getKeyStoreType, ssl::getKeyStorePassword,
+                true, () -> reloader.rotate(Set.of(SslConfigs.SSL_KEYSTORE_LOCATION_CONFIG)));
+        register("jwt-keystore", keyStoreUtil::getLocation, keyStoreUtil::getKeyStoreType,
+                () -> new String(keyStoreUtil.getPassword()), true, keyStoreUtil::reload);
+        if (stores.isEmpty()) {
+            logger.info("No keystore or truststore on disk to watch for rotation");
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        Set<Path> directories = new HashSet<>();
+        for (Path file : stores.keySet()) {
+            if (directories.add(file.getParent())) {
+                file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+        WatchService service = watchService;
+        watchThread = new Thread(() -> watch(service), "certificate-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        logger.info("Watching {} for certificate rotation", stores.keySet());
+    }
+
+    /**
+     * Paths currently watched, for diagnostics
+     */
+    public Set<Path> getWatchedFiles() {
+        return Collections.unmodifiableSet(stores.keySet());
+    }
+
+    private void register(String name, Supplier<String> location, Supplier<String> type, Supplier<String> password,
+                          boolean requirePrivateKey, Runnable apply) {
+        Path file = resolve(location.get());
+        if (file == null) {
+            return;
+        }
+        WatchedStore store = new WatchedStore(name, file, type, password, requirePrivateKey, apply);
+        try {
+            store.appliedHash = sha256(Files.readAllBytes(file));
+        } catch (IOException e) {
+            logger.warn("Could not read {} at {}, it is watched but was never validated: {}", name, file,
+                    e.getMessage());
+        }
+        stores.put(file, store);
+    }
+
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                Path directory = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Events were lost; check every store in this directory
+                        stores.values().stream()
+                                .filter(store -> store.file.getParent().equals(directory))
+                                .forEach(this::changed);
+                    } else {
+                        WatchedStore store = stores.get(directory.resolve((Path) event.context()));
+                        if (store != null) {
+                            changed(store);
+                        }
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.debug("Certificate watcher stopped");
+        }
+    }
+
+    private void changed(WatchedStore store) {
+        synchronized (store) {
+            if (store.pendingSinceNanos != 0) {
+                return;
+            }
+            store.pendingSinceNanos = System.nanoTime();
+        }
+        rotationExecutor.schedule(() -> rotate(store), debounceMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Validate the store's current file and apply it if its content changed
+     */
+    void rotate(WatchedStore store) {
+        long since;
+        synchronized (store) {
+            since = store.pendingSinceNanos != 0 ? store.pendingSinceNanos : System.nanoTime();
+            store.pendingSinceNanos = 0;
+        }
+        String outcome;
+        try {
+            byte[] content = Files.readAllBytes(store.file);
+            byte[] hash = sha256(content);
+            if (store.appliedHash != null && MessageDigest.isEqual(store.appliedHash, hash)) {
+                outcome = OUTCOME_UNCHANGED;
+            } else {
+                validate(store, content);
+                logger.info("Rotating {} from {}", store.name, store.file);
+                store.apply.run();
+                store.appliedHash = hash;
+                outcome = OUTCOME_APPLIED;
+            }
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            logger.error("Rejected new {} at {}, keeping the current one: {}", store.name, store.file,
+                    e.getMessage());
+            outcome = OUTCOME_REJECTED;
+        }
+        Timer.builder("ssl.rotation.latency")
+                .description("Time from a keystore or truststore change on disk to every client using it")
+                .tag("store", store.name)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - since, TimeUnit.NANOSECONDS);
+    }
+
+    private static void validate(WatchedStore store, byte[] content) throws IOException, GeneralSecurityException {
+        String password = store.password.get();
+        KeyStore keyStore = KeyStore.getInstance(storeType(store));
+        keyStore.load(new ByteArrayInputStream(content), password == null ? null : password.toCharArray());
+        if (keyStore.size() == 0) {
+            throw new GeneralSecurityException("the store is empty");
+        }
+        boolean hasPrivateKey = false;
+        boolean hasValidCertificate = false;
+        for (String alias : Collections.list(keyStore.aliases())) {
+            Certificate certificate = keyStore.getCertificate(alias);
+            if (keyStore.isKeyEntry(alias)) {
+                hasPrivateKey = true;
+                if (certificate instanceof X509Certificate) {
+                    // A key whose certificate expired would fail every handshake; throws in that case
+                    ((X509Certificate) certificate).checkValidity();
+                }
+            }
+            hasValidCertificate |= isValid(certificate);
+        }
+        if (store.requirePrivateKey && !hasPrivateKey) {
+            throw new GeneralSecurityException("the store holds no private key");
+        }
+        // Truststores may carry expired CAs, but one that trusts nothing would break every connection
+        if (!hasValidCertificate) {
+            throw new GeneralSecurityException("the store holds no currently valid certificate");
+        }
+    }
+
+    private static boolean isValid(Certificate certificate) {
+        if (!(certificate instanceof X509Certificate)) {
+            return certificate != null;
+        }
+        try {
+            ((X509Certificate) certificate).checkValidity();
+            return true;
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    private static String storeType(WatchedStore store) {
+        String type = store.type.get();
+        if (StringUtils.hasText(type)) {
+            return type.trim();
+        }
+        String name = store.file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".jks") ? "JKS" : "PKCS12";
+    }
+
+    private static Path resolve(String location) {
+        if (!StringUtils.hasText(location)) {
+            return null;
+        }
+        try {
+            Path file = ResourceUtils.getFile(location.trim()).toPath().toAbsolutePath();
+            return Files.isRegularFile(file) ? file : null;
+        } catch (IOException | RuntimeException e) {
+            // Inside a jar or otherwise not a file; it cannot change at runtime
+            return null;
+        }
+    }
+
+    private static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        rotationExecutor.shutdownNow();
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+    }
+
+    static final class WatchedStore {
+
+        private final String name;
+        private final Path file;
+        private final Supplier<String> type;
+        private final Supplier<String> password;
+        private final boolean requirePrivateKey;
+        private final Runnable apply;
+        private volatile byte[] appliedHash;
+        private long pendingSinceNanos;
+
+        private WatchedStore(String name, Path file, Supplier<String> type, Supplier<String> password,
+                             boolean requirePrivateKey, Runnable apply) {
+            this.name = name;
+            this.file = file;
+            this.type = type;
+            this.password = password;
+            this.requirePrivateKey = requirePrivateKey;
+            this.apply = apply;
+        }
+    }
+}
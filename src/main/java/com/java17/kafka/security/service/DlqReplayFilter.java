@@ -0,0 +1,69 @@
+package com.java17.kafka.security.service;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import com.java17.kafka.security.controller.DlqReplayRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Record filter for a DLQ replay: required header values, the exception recorded by the
+ * dead letter publisher, and a timestamp range
+ */
+public class DlqReplayFilter {
+
+    private final Map<String, String> headers;
+    private final String exceptionClass;
+    private final long fromMillis;
+    private final long toMillis;
+
+    public DlqReplayFilter(Map<String, String> headers, String exceptionClass, Instant from, Instant to) {
+        this.headers = headers == null ? Map.of() : Map.copyOf(headers);
+        this.exceptionClass = exceptionClass == null || exceptionClass.isBlank() ? null : exceptionClass.trim();
+        this.fromMillis = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+        this.toMillis = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+    }
+
+    public static DlqReplayFilter from(DlqReplayRequest request) {
+        return new DlqReplayFilter(request.getHeaders(), request.getExceptionClass(), request.getFrom(), request.getTo());
+    }
+
+    public boolean matches(ConsumerRecord<byte[], byte[]> record) {
+        if (record.timestamp() < fromMillis || isPastEnd(record)) {
+            return false;
+        }
+        for (Map.Entry<String, String> required : headers.entrySet()) {
+            if (!required.getValue().equals(header(record, required.getKey()))) {
+                return false;
+            }
+        }
+        return exceptionClass == null
+                || matchesException(header(record, KafkaHeaders.DLT_EXCEPTION_FQCN))
+                || matchesException(header(record, KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN));
+    }
+
+    /**
+     * Records are roughly in timestamp order per partition, so a partition is done once it passes {@code to}
+     */
+    public boolean isPastEnd(ConsumerRecord<byte[], byte[]> record) {
+        return record.timestamp() >= toMillis;
+    }
+
+    public long getFromMillis() {
+        return fromMillis;
+    }
+
+    private boolean matchesException(String recorded) {
+        return recorded != null
+                && (recorded.equals(exceptionClass) || recorded.endsWith("." + exceptionClass));
+    }
+
+    private static String header(ConsumerRecord<byte[], byte[]> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,100 @@
+package com.java17.kafka.security.service;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one DLQ replay, serialized as the replay endpoint's response
+ */
+public class DlqReplayJob {
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private final String replayId;
+    private final String targetTopic;
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong transactions = new AtomicLong();
+    private volatile State state = State.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile boolean cancelRequested;
+
+    DlqReplayJob(String replayId, String targetTopic) {
+        this.replayId = replayId;
+        this.targetTopic = targetTopic;
+    }
+
+    public String getReplayId() {
+        return replayId;
+    }
+
+    public String getTargetTopic() {
+        return targetTopic;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getScanned() {
+        return scanned.get();
+    }
+
+    public long getReplayed() {
+        return replayed.get();
+    }
+
+    /** Records read but not matching the filters */
+    public long getSkipped() {
+        return scanned.get() - replayed.get();
+    }
+
+    public long getTransactions() {
+        return transactions.get();
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isDone() {
+        return state == State.COMPLETED || state == State.CANCELLED || state == State.FAILED;
+    }
+
+    void cancel() {
+        cancelRequested = true;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    void started() {
+        startedAt = Instant.now();
+        state = State.RUNNING;
+    }
+
+    void batchCommitted(long scannedRecords, long replayedRecords) {
+        scanned.addAndGet(scannedRecords);
+        replayed.addAndGet(replayedRecords);
+        transactions.incrementAndGet();
+    }
+
+    void finished(State finalState, String failure) {
+        error = failure;
+        finishedAt = Instant.now();
+        state = finalState;
+    }
+}
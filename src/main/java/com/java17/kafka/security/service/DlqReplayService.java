@@ -0,0 +1,351 @@
+package com.java17.kafka.security.service;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.java17.kafka.security.config.KafkaConfig;
+import com.java17.kafka.security.config.TokenBucketRateLimiter;
+import com.java17.kafka.security.controller.DlqReplayRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads {@link KafkaConfig#NOTIFICATION_DLQ} back into the notification topic, or another target.
+ * <p>
+ * Each poll is replayed in one producer transaction that also commits the consumed DLQ offsets
+ * to the replay's consumer group ({@code notification-dlq-replay-<replayId>}), so a batch is
+ * either replayed and checkpointed together or not at all, and a replay started again with the
+ * same id resumes after the last committed batch. Sends go through a token bucket so a large
+ * DLQ cannot flood the consumers of the target topic.
+ * <p>
+ * A replay stops at the DLQ end offsets seen when it started, so records failing again
+ * during the replay are not picked up by the same run. Finished replays stay listed for
+ * {@code kafka.dlq.replay.retention-ms}.
+ */
+@Service
+public class DlqReplayService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(DlqReplayService.class);
+
+    static final String GROUP_PREFIX = "notification-dlq-replay-";
+    public static final String REPLAYED_FROM_HEADER = "x-replayed-from";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+
+    private final ConsumerFactory<String, String> consumerFactory;
+    private final ProducerFactory<String, String> producerFactory;
+    private final double defaultRatePerSecond;
+    private final int batchSize;
+    private final Duration retention;
+    private final ExecutorService executor;
+    private final Map<String, DlqReplayJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DlqReplayService(ConsumerFactory<String, String> consumerFactory,
+                            ProducerFactory<String, String> producerFactory,
+                            @Value("${kafka.dlq.replay.rate-per-second:200}") double defaultRatePerSecond,
+                            @Value("${kafka.dlq.replay.batch-size:500}") int batchSize,
+                            @Value("${kafka.dlq.replay.max-concurrent:2}") int maxConcurrent,
+                            @Value("${kafka.dlq.replay.retention-ms:3600000}") long retentionMs) {
+        this.consumerFactory = consumerFactory;
+        this.producerFactory = producerFactory;
+        this.defaultRatePerSecond = defaultRatePerSecond;
+        this.batchSize = batchSize;
+        this.retention = Duration.ofMillis(retentionMs);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "dlq-replay-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queue a replay; the returned job reports progress while it runs
+     */
+    public DlqReplayJob start(DlqReplayRequest request) {
+        String replayId = request.getReplayId() == null || request.getReplayId().isBlank()
+                ? UUID.randomUUID().toString() : request.getReplayId().trim();
+        String target = request.getTargetTopic() == null || request.getTargetTopic().isBlank()
+                ? KafkaConfig.NOTIFICATION_TOPIC : request.getTargetTopic().trim();
+        if (target.equals(KafkaConfig.NOTIFICATION_DLQ)) {
+            throw new IllegalArgumentException("Cannot replay the DLQ into itself");
+        }
+        double rate = request.getRatePerSecond() != null ? request.getRatePerSecond() : defaultRatePerSecond;
+        if (rate <= 0) {
+            throw new IllegalArgumentException("ratePerSecond must be positive");
+        }
+        DlqReplayJob job = new DlqReplayJob(replayId, target);
+        DlqReplayJob running = jobs.compute(replayId, (id, existing) ->
+                existing != null && !existing.isDone() ? existing : job);
+        if (running != job) {
+            throw new IllegalStateException("Replay " + replayId + " is already " + running.getState());
+        }
+        DlqReplayFilter filter = DlqReplayFilter.from(request);
+        long maxRecords = request.getMaxRecords() != null ? request.getMaxRecords() : Long.MAX_VALUE;
+        // A tenth of a second of records may go out back to back; the rest are paced one by one
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(rate, (int) Math.max(1, Math.ceil(rate / 10)));
+        executor.execute(() -> run(job, filter, rateLimiter, rate, maxRecords));
+        return job;
+    }
+
+    public DlqReplayJob get(String replayId) {
+        return jobs.get(replayId);
+    }
+
+    public Collection<DlqReplayJob> list() {
+        return jobs.values();
+    }
+
+    /**
+     * Stop after the batch in progress; its transaction still completes, so the checkpoint stays consistent
+     */
+    public DlqReplayJob cancel(String replayId) {
+        DlqReplayJob job = jobs.get(replayId);
+        if (job != null) {
+            job.cancel();
+        }
+        return job;
+    }
+
+    /**
+     * Forget replays that finished longer than the retention ago; their checkpoints stay in
+     * Kafka, so starting the same replay id again still resumes
+     */
+    @Scheduled(fixedDelayString = "${kafka.dlq.replay.eviction-interval-ms:60000}")
+    public void evictFinished() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.isDone() && !job.getFinishedAt().isAfter(cutoff));
+    }
+
+    private void run(DlqReplayJob job, DlqReplayFilter filter, TokenBucketRateLimiter rateLimiter, double rate,
+                     long maxRecords) {
+        if (job.isCancelRequested()) {
+            job.finished(DlqReplayJob.State.CANCELLED, null);
+            return;
+        }
+        job.started();
+        logger.info("Replaying {} into {} (replay {})", KafkaConfig.NOTIFICATION_DLQ, job.getTargetTopic(),
+                job.getReplayId());
+        try (KafkaConsumer<byte[], byte[]> consumer = createConsumer(job.getReplayId(), rate);
+             KafkaProducer<byte[], byte[]> producer = createProducer(job.getReplayId())) {
+            producer.initTransactions();
+            DlqReplayJob.State state = replay(job, filter, rateLimiter, maxRecords, consumer, producer);
+            job.finished(state, null);
+            logger.info("Replay {} {}: {} replayed, {} skipped", job.getReplayId(), state,
+                    job.getReplayed(), job.getSkipped());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finished(DlqReplayJob.State.CANCELLED, "interrupted");
+        } catch (Exception e) {
+            logger.error("Replay {} failed", job.getReplayId(), e);
+            job.finished(DlqReplayJob.State.FAILED, e.getMessage());
+        }
+    }
+
+    private DlqReplayJob.State replay(DlqReplayJob job, DlqReplayFilter filter, TokenBucketRateLimiter rateLimiter,
+                                      long maxRecords, KafkaConsumer<byte[], byte[]> consumer,
+                                      KafkaProducer<byte[], byte[]> producer) throws InterruptedException {
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (PartitionInfo info : consumer.partitionsFor(KafkaConfig.NOTIFICATION_DLQ)) {
+            partitions.add(new TopicPartition(info.topic(), info.partition()));
+        }
+        consumer.assign(partitions);
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        seekToStart(consumer, partitions, filter);
+
+        Set<TopicPartition> remaining = new HashSet<>(partitions);
+        remaining.removeIf(partition -> consumer.position(partition) >= endOffsets.get(partition));
+        consumer.pause(difference(partitions, remaining));
+        byte[] replayedFrom = job.getReplayId().getBytes(StandardCharsets.UTF_8);
+
+        while (!remaining.isEmpty()) {
+            if (job.isCancelRequested()) {
+                return DlqReplayJob.State.CANCELLED;
+            }
+            ConsumerRecords<byte[], byte[]> records = consumer.poll(POLL_TIMEOUT);
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+            List<ProducerRecord<byte[], byte[]>> batch = new ArrayList<>();
+            int scanned = 0;
+            boolean limitReached = false;
+            for (ConsumerRecord<byte[], byte[]> record : records) {
+                TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                if (!remaining.contains(partition)) {
+                    continue;
+                }
+                if (record.offset() >= endOffsets.get(partition) || filter.isPastEnd(record)) {
+                    finish(consumer, remaining, partition);
+                    continue;
+                }
+                if (job.getReplayed() + batch.size() >= maxRecords) {
+                    limitReached = true;
+                    break;
+                }
+                scanned++;
+                offsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                if (filter.matches(record)) {
+                    batch.add(toTarget(record, job.getTargetTopic(), replayedFrom));
+                }
+                if (record.offset() + 1 >= endOffsets.get(partition)) {
+                    finish(consumer, remaining, partition);
+                }
+            }
+            if (!offsets.isEmpty()) {
+                commitBatch(producer, consumer, batch, offsets, rateLimiter);
+                job.batchCommitted(scanned, batch.size());
+            }
+            if (limitReached) {
+                return DlqReplayJob.State.COMPLETED;
+            }
+            // Transaction markers take offsets too, so the last record of a partition may sit below its end offset
+            for (TopicPartition partition : new ArrayList<>(remaining)) {
+                if (consumer.position(partition) >= endOffsets.get(partition)) {
+                    finish(consumer, remaining, partition);
+                }
+            }
+        }
+        return DlqReplayJob.State.COMPLETED;
+    }
+
+    /**
+     * Send the batch and checkpoint the DLQ offsets in one transaction, taking a rate limiter
+     * token before each record so the target sees an even rate rather than one burst per poll
+     */
+    private void commitBatch(KafkaProducer<byte[], byte[]> producer, KafkaConsumer<byte[], byte[]> consumer,
+                             List<ProducerRecord<byte[], byte[]>> batch, Map<TopicPartition, OffsetAndMetadata> offsets,
+                             TokenBucketRateLimiter rateLimiter) throws InterruptedException {
+        producer.beginTransaction();
+        try {
+            for (ProducerRecord<byte[], byte[]> record : batch) {
+                rateLimiter.acquire(1);
+                producer.send(record);
+            }
+            producer.sendOffsetsToTransaction(offsets, consumer.groupMetadata());
+            producer.commitTransaction();
+        } catch (RuntimeException | InterruptedException e) {
+            producer.abortTransaction();
+            throw e;
+        }
+    }
+
+    private void seekToStart(KafkaConsumer<byte[], byte[]> consumer, List<TopicPartition> partitions,
+                             DlqReplayFilter filter) {
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+        Map<TopicPartition, Long> byTime = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata checkpoint = committed.get(partition);
+            if (checkpoint != null) {
+                consumer.seek(partition, checkpoint.offset());
+            } else if (filter.getFromMillis() != Long.MIN_VALUE) {
+                byTime.put(partition, filter.getFromMillis());
+            } else {
+                consumer.seekToBeginning(List.of(partition));
+            }
+        }
+        if (!byTime.isEmpty()) {
+            Map<TopicPartition, OffsetAndTimestamp> found = consumer.offsetsForTimes(byTime);
+            for (TopicPartition partition : byTime.keySet()) {
+                OffsetAndTimestamp offset = found.get(partition);
+                if (offset != null) {
+                    consumer.seek(partition, offset.offset());
+                } else {
+                    consumer.seekToEnd(List.of(partition));
+                }
+            }
+        }
+    }
+
+    private static ProducerRecord<byte[], byte[]> toTarget(ConsumerRecord<byte[], byte[]> record, String target,
+                                                           byte[] replayedFrom) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            // Dead letter and retry bookkeeping would send the record straight back to the DLQ on the next failure
+            if (!header.key().startsWith("kafka_dlt-") && !header.key().startsWith("x-retry-")) {
+                headers.add(header);
+            }
+        }
+        headers.add(REPLAYED_FROM_HEADER, replayedFrom);
+        return new ProducerRecord<>(target, null, record.key(), record.value(), headers);
+    }
+
+    private static void finish(KafkaConsumer<byte[], byte[]> consumer, Set<TopicPartition> remaining,
+                               TopicPartition partition) {
+        if (remaining.remove(partition)) {
+            consumer.pause(List.of(partition));
+        }
+    }
+
+    private static List<TopicPartition> difference(List<TopicPartition> all, Set<TopicPartition> remaining) {
+        List<TopicPartition> done = new ArrayList<>(all);
+        done.removeAll(remaining);
+        return done;
+    }
+
+    /**
+     * Polls are capped at about a second's worth of records at the replay rate, so pacing
+     * never holds a transaction open much longer than that
+     */
+    private KafkaConsumer<byte[], byte[]> createConsumer(String replayId, double rate) {
+        Map<String, Object> props = new HashMap<>(consumerFactory.getConfigurationProperties());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, GROUP_PREFIX + replayId);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, (int) Math.min(batchSize, Math.max(1, Math.ceil(rate))));
+        props.put(ConsumerConfig.CLIENT_ID_CONFIG, "dlq-replay-" + replayId);
+        return new KafkaConsumer<>(props, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+    }
+
+    private KafkaProducer<byte[], byte[]> createProducer(String replayId) {
+        Map<String, Object> props = new HashMap<>(producerFactory.getConfigurationProperties());
+        // One transactional id per replay id fences a stale run of the same replay
+        props.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, "dlq-replay-" + replayId);
+        props.put(ProducerConfig.CLIENT_ID_CONFIG, "dlq-replay-" + replayId);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        return new KafkaProducer<>(props, new ByteArraySerializer(), new ByteArraySerializer());
+    }
+
+    @Override
+    public void destroy() {
+        jobs.values().forEach(DlqReplayJob::cancel);
+        executor.shutdownNow();
+    }
+}
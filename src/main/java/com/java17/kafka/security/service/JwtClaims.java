@@ -0,0 +1,50 @@
+package com.java17.kafka.security.service;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Claims of a verified token. Instances are shared by the verification cache and are immutable.
+ */
+public class JwtClaims {
+
+    private final Map<String, Object> claims;
+
+    JwtClaims(Map<String, Object> claims) {
+        this.claims = Collections.unmodifiableMap(claims);
+    }
+
+    public String getSubject() {
+        return (String) claims.get(JwtTokenService.SUBJECT);
+    }
+
+    public String getIssuer() {
+        return (String) claims.get(JwtTokenService.ISSUER);
+    }
+
+    public String getTokenId() {
+        return (String) claims.get(JwtTokenService.TOKEN_ID);
+    }
+
+    /** {@code access} or {@code refresh} */
+    public String getTokenType() {
+        return (String) claims.get(JwtTokenService.TOKEN_TYPE);
+    }
+
+    public Instant getIssuedAt() {
+        return Instant.ofEpochSecond(((Number) claims.get(JwtTokenService.ISSUED_AT)).longValue());
+    }
+
+    public Instant getExpiresAt() {
+        return Instant.ofEpochSecond(((Number) claims.get(JwtTokenService.EXPIRES_AT)).longValue());
+    }
+
+    public Object get(String name) {
+        return claims.get(name);
+    }
+
+    public Map<String, Object> asMap() {
+        return claims;
+    }
+}
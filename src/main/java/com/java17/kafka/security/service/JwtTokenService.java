@@ -0,0 +1,406 @@
+package com.java17.kafka.security.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.java17.kafka.security.config.KeyStoreUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Issues and verifies compact JWS tokens signed with RS256, using the {@code signjwt} key pair
+ * from {@link KeyStoreUtil}, or ES256. ES256 signs faster than RSA-2048 and its tokens are
+ * about 40% shorter, but it verifies more than ten times slower; the verification cache below
+ * hides that for repeated tokens.
+ * <p>
+ * Hot path costs kept off each call:
+ * <ul>
+ *     <li>{@link Signature} and SHA-256 instances are created once per thread and algorithm
+ *     and only re-initialized with the key</li>
+ *     <li>the encoded header and key id are computed once per key</li>
+ *     <li>verified tokens are cached by the SHA-256 of the token until their {@code exp}, up to
+ *     {@code verifyCacheSize} entries, so a client presenting the same token again costs a
+ *     hash and a map lookup instead of a signature check</li>
+ * </ul>
+ * The key id ({@code kid}) is derived from the public key. Tokens signed with the key in use
+ * before the last rotation still verify, so rotating the keystore does not log everyone out.
+ */
+@Service
+public class JwtTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtTokenService.class);
+
+    static final String SUBJECT = "sub";
+    static final String ISSUER = "iss";
+    static final String ISSUED_AT = "iat";
+    static final String EXPIRES_AT = "exp";
+    static final String TOKEN_ID = "jti";
+    static final String TOKEN_TYPE = "token_type";
+
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP = new TypeReference<>() {
+    };
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    public enum Algorithm {
+        RS256("SHA256withRSA"),
+        // Raw r||s as JWS requires, rather than the DER encoding of SHA256withECDSA
+        ES256("SHA256withECDSAinP1363Format");
+
+        private final ThreadLocal<Signature> signatures;
+
+        Algorithm(String jcaName) {
+            this.signatures = ThreadLocal.withInitial(() -> {
+                try {
+                    return Signature.getInstance(jcaName);
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        private Signature signature() {
+            return signatures.get();
+        }
+    }
+
+    private final Map<Algorithm, Supplier<KeyPair>> keys;
+    private final Map<Algorithm, KeyHistory> keyHistory = new ConcurrentHashMap<>();
+    private final Algorithm signingAlgorithm;
+    private final String issuer;
+    private final Duration accessTtl;
+    private final Duration refreshTtl;
+    private final int verifyCacheSize;
+    private final Map<ByteBuffer, CachedToken> verified = new ConcurrentHashMap<>();
+    private final Timer signTimer;
+    private final Counter cacheHits;
+    private final Counter verifiedTokens;
+    private final Counter rejectedTokens;
+
+    @Autowired
+    public JwtTokenService(KeyStoreUtil keyStoreUtil,
+                           @Value("${app.jwt.algorithm:RS256}") String algorithm,
+                           @Value("${app.jwt.ec.alias:}") String ecAlias,
+                           @Value("${app.jwt.issuer:${spring.application.name}}") String issuer,
+                           @Value("${app.jwtExpirationMs}") long accessTtlMs,
+                           @Value("${app.jwtRefreshExpirationMs}") long refreshTtlMs,
+                           @Value("${app.jwt.verify-cache.max-size:10000}") int verifyCacheSize,
+                           MeterRegistry meterRegistry) {
+        this(keyStoreUtil::getKeyPair, ecKeys(keyStoreUtil, ecAlias),
+                Algorithm.valueOf(algorithm.trim().toUpperCase(Locale.ROOT)), issuer,
+                Duration.ofMillis(accessTtlMs), Duration.ofMillis(refreshTtlMs), verifyCacheSize, meterRegistry);
+    }
+
+    /**
+     * @param rsaKeys called for every signature so a rotated key pair is picked up; should be cheap
+     * @param ecKeys  same for ES256
+     */
+    public JwtTokenService(Supplier<KeyPair> rsaKeys, Supplier<KeyPair> ecKeys, Algorithm signingAlgorithm,
+                           String issuer, Duration accessTtl, Duration refreshTtl, int verifyCacheSize,
+                           MeterRegistry meterRegistry) {
+        this.keys = Map.of(Algorithm.RS256, rsaKeys, Algorithm.ES256, ecKeys);
+        this.signingAlgorithm = signingAlgorithm;
+        this.issuer = issuer;
+        this.accessTtl = accessTtl;
+        this.refreshTtl = refreshTtl;
+        this.verifyCacheSize = verifyCacheSize;
+        this.signTimer = Timer.builder("jwt.sign")
+                .description("Time to build and sign a token")
+                .tag("algorithm", signingAlgorithm.name())
+                .register(meterRegistry);
+        this.cacheHits = verifications(meterRegistry, "cache_hit");
+        this.verifiedTokens = verifications(meterRegistry, "verified");
+        this.rejectedTokens = verifications(meterRegistry, "rejected");
+        Gauge.builder("jwt.verify.cache.size", verified, Map::size)
+                .description("Verified tokens cached until they expire")
+                .register(meterRegistry);
+    }
+
+    public String issueAccessToken(String subject, Map<String, Object> claims) {
+        return issue(subject, ACCESS, accessTtl, claims);
+    }
+
+    public String issueRefreshToken(String subject) {
+        return issue(subject, REFRESH, refreshTtl, Map.of());
+    }
+
+    /**
+     * Check the signature, issuer and expiry of {@code token}
+     *
+     * @throws JwtValidationException if any of them does not hold
+     */
+    public JwtClaims verify(String token) {
+        if (!StringUtils.hasText(token)) {
+            rejectedTokens.increment();
+            throw new JwtValidationException("Missing token");
+        }
+        long now = System.currentTimeMillis();
+        ByteBuffer cacheKey = null;
+        if (verifyCacheSize > 0) {
+            cacheKey = ByteBuffer.wrap(SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+            CachedToken cached = verified.get(cacheKey);
+            if (cached != null) {
+                if (cached.expiresAtMillis > now) {
+                    cacheHits.increment();
+                    return cached.claims;
+                }
+                verified.remove(cacheKey, cached);
+            }
+        }
+        JwtClaims claims;
+        try {
+            claims = verifyUncached(token, now);
+        } catch (JwtValidationException e) {
+            rejectedTokens.increment();
+            throw e;
+        }
+        verifiedTokens.increment();
+        if (cacheKey != null && verified.size() < verifyCacheSize) {
+            verified.put(cacheKey, new CachedToken(claims, claims.getExpiresAt().toEpochMilli()));
+        }
+        return claims;
+    }
+
+    /**
+     * Drop expired tokens from the verification cache
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.verify-cache.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        verified.values().removeIf(cached -> cached.expiresAtMillis <= now);
+    }
+
+    public Algorithm getSigningAlgorithm() {
+        return signingAlgorithm;
+    }
+
+    private String issue(String subject, String type, Duration ttl, Map<String, Object> extraClaims) {
+        long start = System.nanoTime();
+        SigningKey key = currentKey(signingAlgorithm);
+        long issuedAt = System.currentTimeMillis() / 1000;
+        Map<String, Object> claims = new LinkedHashMap<>(extraClaims);
+        claims.put(ISSUER, issuer);
+        claims.put(SUBJECT, subject);
+        claims.put(TOKEN_TYPE, type);
+        claims.put(ISSUED_AT, issuedAt);
+        claims.put(EXPIRES_AT, issuedAt + ttl.toSeconds());
+        claims.put(TOKEN_ID, UUID.randomUUID().toString());
+        try {
+            String signingInput = key.encodedHeader + '.' + ENCODER.encodeToString(JSON.writeValueAsBytes(claims));
+            Signature signature = signingAlgorithm.signature();
+            signature.initSign(key.keyPair.getPrivate());
+            signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            String token = signingInput + '.' + ENCODER.encodeToString(signature.sign());
+            signTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return token;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Claims are not serializable to JSON", e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign token with " + signingAlgorithm, e);
+        }
+    }
+
+    private JwtClaims verifyUncached(String token, long now) {
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            throw new JwtValidationException("Malformed token");
+        }
+        Map<String, Object> header = readJson(token.substring(0, headerEnd));
+        Algorithm algorithm = algorithm(header.get("alg"));
+        PublicKey publicKey = verificationKey(algorithm, header.get("kid"));
+        try {
+            Signature signature = algorithm.signature();
+            signature.initVerify(publicKey);
+            signature.update(token.getBytes(StandardCharsets.US_ASCII), 0, payloadEnd);
+            if (!signature.verify(DECODER.decode(token.substring(payloadEnd + 1)))) {
+                throw new JwtValidationException("Invalid signature");
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new JwtValidationException("Invalid signature", e);
+        }
+        Map<String, Object> claims = readJson(token.substring(headerEnd + 1, payloadEnd));
+        if (!issuer.equals(claims.get(ISSUER))) {
+            throw new JwtValidationException("Token issued by " + claims.get(ISSUER));
+        }
+        if (!(claims.get(EXPIRES_AT) instanceof Number) || !(claims.get(ISSUED_AT) instanceof Number)) {
+            throw new JwtValidationException("Token has no expiry");
+        }
+        if (((Number) claims.get(EXPIRES_AT)).longValue() * 1000 <= now) {
+            throw new JwtValidationException("Token expired");
+        }
+        return new JwtClaims(claims);
+    }
+
+    private static Algorithm algorithm(Object name) {
+        // Only the algorithms signed here; in particular never "none"
+        for (Algorithm algorithm : Algorithm.values()) {
+            if (algorithm.name().equals(name)) {
+                return algorithm;
+            }
+        }
+        throw new JwtValidationException("Unsupported algorithm " + name);
+    }
+
+    private PublicKey verificationKey(Algorithm algorithm, Object kid) {
+        SigningKey current = currentKey(algorithm);
+        if (current.kid.equals(kid)) {
+            return current.keyPair.getPublic();
+        }
+        SigningKey previous = keyHistory.get(algorithm).previous;
+        if (previous != null && previous.kid.equals(kid)) {
+            return previous.keyPair.getPublic();
+        }
+        throw new JwtValidationException("Unknown signing key " + kid);
+    }
+
+    /**
+     * Key pair in use for {@code algorithm}; a new pair from the supplier becomes current and
+     * the one before it is kept for verification
+     */
+    private SigningKey currentKey(Algorithm algorithm) {
+        KeyPair keyPair = keys.get(algorithm).get();
+        if (keyPair == null) {
+            throw new IllegalStateException("No key pair for " + algorithm);
+        }
+        KeyHistory history = keyHistory.get(algorithm);
+        if (history != null && history.current.keyPair == keyPair) {
+            return history.current;
+        }
+        synchronized (keyHistory) {
+            history = keyHistory.get(algorithm);
+            if (history != null && history.current.keyPair == keyPair) {
+                return history.current;
+            }
+            SigningKey key = new SigningKey(algorithm, keyPair);
+            if (history != null && history.current.kid.equals(key.kid)) {
+                // Same key reloaded from an unchanged store
+                keyHistory.put(algorithm, new KeyHistory(key, history.previous));
+            } else {
+                keyHistory.put(algorithm, new KeyHistory(key, history == null ? null : history.current));
+                if (history != null) {
+                    logger.info("JWT {} signing key changed to {}", algorithm, key.kid);
+                }
+            }
+            return key;
+        }
+    }
+
+    private static Map<String, Object> readJson(String encoded) {
+        try {
+            return JSON.readValue(DECODER.decode(encoded), MAP);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new JwtValidationException("Malformed token", e);
+        }
+    }
+
+    private static Supplier<KeyPair> ecKeys(KeyStoreUtil keyStoreUtil, String alias) {
+        if (StringUtils.hasText(alias)) {
+            return () -> keyStoreUtil.getKeyPair(alias.trim());
+        }
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            KeyPair generated = generator.generateKeyPair();
+            logger.info("No app.jwt.ec.alias configured; ES256 uses a key generated at startup, so its tokens "
+                    + "verify only on this instance until it restarts");
+            return () -> generated;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not generate a P-256 key pair", e);
+        }
+    }
+
+    private static Counter verifications(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("jwt.verifications")
+                .description("Token verifications by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static final class SigningKey {
+
+        private final KeyPair keyPair;
+        private final String kid;
+        private final String encodedHeader;
+
+        private SigningKey(Algorithm algorithm, KeyPair keyPair) {
+            this.keyPair = keyPair;
+            byte[] digest = SHA256.get().digest(keyPair.getPublic().getEncoded());
+            this.kid = ENCODER.encodeToString(Arrays.copyOf(digest, 12));
+            Map<String, Object> header = new LinkedHashMap<>();
+            header.put("alg", algorithm.name());
+            header.put("typ", "JWT");
+            header.put("kid", kid);
+            try {
+                this.encodedHeader = ENCODER.encodeToString(JSON.writeValueAsBytes(header));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static final class KeyHistory {
+
+        private final SigningKey current;
+        private final SigningKey previous;
+
+        private KeyHistory(SigningKey current, SigningKey previous) {
+            this.current = current;
+            this.previous = previous;
+        }
+    }
+
+    private static final class CachedToken {
+
+        private final JwtClaims claims;
+        private final long expiresAtMillis;
+
+        private CachedToken(JwtClaims claims, long expiresAtMillis) {
+            this.claims = claims;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
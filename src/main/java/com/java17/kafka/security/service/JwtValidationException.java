@@ -0,0 +1,15 @@
+package com.java17.kafka.security.service;
+
+/**
+ * A token that is malformed, badly signed, expired or issued by someone else
+ */
+public class JwtValidationException extends RuntimeException {
+
+    public JwtValidationException(String message) {
+        super(message);
+    }
+
+    public JwtValidationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
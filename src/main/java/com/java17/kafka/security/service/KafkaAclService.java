@@ -1,27 +1,17 @@
 package com.java17.kafka.security.service;
 
-import org.apache.kafka.clients.admin.*;
 import org.apache.kafka.common.acl.*;
-import org.apache.kafka.common.resource.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.ResourceLoader;
 
 import com.java17.kafka.security.config.KafkaAclManager;
 
 import jakarta.annotation.PostConstruct;
-import jakarta.annotation.PreDestroy;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -31,28 +21,9 @@ import java.util.concurrent.ExecutionException;
 @Service
 public class KafkaAclService {
 
-    private KafkaAclManager aclManager;
-    
-    @Value("${spring.kafka.bootstrap-servers}")
-    private String bootstrapServers;
-    
-    @Value("${spring.kafka.security.protocol}")
-    private String securityProtocol;
-    //spring.kafka.ssl.trust-store-location
-    @Value("${spring.kafka.ssl.trust-store-location}")
-    private String trustStoreLocation;
-    
-    @Value("${spring.kafka.ssl.trust-store-password}")
-    private String trustStorePassword;
-    
-    @Value("${spring.kafka.properties.sasl.mechanism}")
-    private String saslMechanism;
-    
-    @Value("${kafka.admin.username}")
-    private String adminUsername;
-    
-    @Value("${kafka.admin.password}")
-    private String adminPassword;
+    private static final Logger logger = LoggerFactory.getLogger(KafkaAclService.class);
+
+    private final KafkaAclManager aclManager;
     
     @Value("${kafka.broker.superusers:admin_user}")
     private String superusers;
@@ -61,42 +32,17 @@ public class KafkaAclService {
     private boolean skipPermissionCheck;
     
     @Autowired
-    private ResourceLoader resourceLoader;
+    public KafkaAclService(KafkaAclManager aclManager) {
+        this.aclManager = aclManager;
+    }
     
     @PostConstruct
-    public void init() throws IOException {
-        // Convert Spring resource to actual file path
-        Resource resource = resourceLoader.getResource(trustStoreLocation);
-        File trustStoreFile = resource.getFile();
-        String absolutePath = trustStoreFile.getAbsolutePath();
-        /**For bundled resources in JAR files, you may need to copy the resource to a temporary file first:
-         * 
-         *  File tempFile = File.createTempFile("keystore", ".p12");
-        tempFile.deleteOnExit();
-        try (InputStream is = resource.getInputStream();
-             FileOutputStream fos = new FileOutputStream(tempFile)) {
-            IOUtils.copy(is, fos);
-        }
-        String absolutePath = tempFile.getAbsolutePath();
-         */
-        
-        Properties props = new Properties();
-        props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(AdminClientConfig.SECURITY_PROTOCOL_CONFIG, securityProtocol);
-        props.put("ssl.truststore.location", absolutePath); // Use actual file path
-        props.put("ssl.truststore.password", trustStorePassword);
-        props.put("sasl.mechanism", saslMechanism);
-        props.put("sasl.jaas.config", 
-                "org.apache.kafka.common.security.scram.ScramLoginModule required " +
-                "username=\"" + adminUsername + "\" password=\"" + adminPassword + "\";");
-        
-        aclManager = new KafkaAclManager(props);
-        
+    public void init() {
         // Use the skip permission flag from properties
         if (skipPermissionCheck) {
-            System.out.println("Skipping admin permission verification");
+            logger.info("Skipping admin permission verification");
         } else if (!verifyAdminPermissions()) {
-            System.out.println("Warning: Admin lacks ALTER permission, attempting bootstrap");
+            logger.warn("Admin lacks ALTER permission, attempting bootstrap");
             bootstrapSuperUserPermissions();
         }
     }
@@ -108,11 +54,11 @@ public class KafkaAclService {
         try {
             for (String superUser : superUserArray) {
                 // Create admin permissions for each superuser
-                System.out.println("Setting up superuser permissions for: " + superUser);
+                logger.info("Setting up superuser permissions for: {}", superUser);
                 createAdminAcl(superUser.trim());
             }
         } catch (Exception e) {
-            System.out.println("Could not create superuser permissions: " + e.getMessage());
+            logger.warn("Could not create superuser permissions: {}", e.getMessage());
         }
     }
     
@@ -123,9 +69,7 @@ public class KafkaAclService {
     private boolean verifyAdminPermissions() {
         try {
             // Try to describe cluster ACLs - this will fail if we don't have ALTER --cluster permission
-            AdminClient adminClient = AdminClient.create(createAdminConfig());
-            adminClient.describeAcls(AclBindingFilter.ANY).values().get();
-            adminClient.close();
+            aclManager.describeAclsAsync(AclBindingFilter.ANY).get();
             return true;
         } catch (ExecutionException e) {
             if (e.getCause() instanceof org.apache.kafka.common.errors.SecurityDisabledException) {
@@ -135,10 +79,10 @@ public class KafkaAclService {
             if (e.getCause() instanceof org.apache.kafka.common.errors.ClusterAuthorizationException) {
                 return false;
             }
-            e.printStackTrace();
+            logger.warn("Admin permission check failed", e.getCause());
             return false;
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.warn("Admin permission check failed", e);
             return false;
         }
     }
@@ -166,50 +110,31 @@ public class KafkaAclService {
     }
     
     /**
-     * Create admin ACL for a specified user
-     * This grants ALTER --cluster permission needed to manage ACLs
+     * Non-blocking variant of {@link #createProducerAcl(String, String)}
      */
-    public void createAdminAcl(String username) throws ExecutionException, InterruptedException {
-        ResourcePattern resourcePattern = new ResourcePattern(
-                ResourceType.CLUSTER,
-                "kafka-cluster",  // The name doesn't matter for CLUSTER type
-                PatternType.LITERAL
-        );
-
-        AccessControlEntry entry = new AccessControlEntry(
-                "User:" + username,
-                "*",
-                AclOperation.ALTER,
-                AclPermissionType.ALLOW
-        );
-
-        AclBinding aclBinding = new AclBinding(resourcePattern, entry);
-        
-        AdminClient adminClient = AdminClient.create(createAdminConfig());
-        CreateAclsResult result = adminClient.createAcls(Collections.singletonList(aclBinding));
-        result.all().get();
-        adminClient.close();
-        
-        System.out.println("Admin ACL created for " + username + " with ALTER --cluster permission");
+    public CompletableFuture<Void> createProducerAclAsync(String username, String topicName) {
+        return aclManager.createProducerAclAsync(username, topicName);
     }
     
-    private Properties createAdminConfig() {
-        Properties props = new Properties();
-        props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(AdminClientConfig.SECURITY_PROTOCOL_CONFIG, securityProtocol);
-        props.put("ssl.truststore.location", trustStoreLocation);
-        props.put("ssl.truststore.password", trustStorePassword);
-        props.put("sasl.mechanism", saslMechanism);
-        props.put("sasl.jaas.config", 
-                "org.apache.kafka.common.security.scram.ScramLoginModule required " +
-                "username=\"" + adminUsername + "\" password=\"" + adminPassword + "\";");
-        return props;
+    /**
+     * Non-blocking variant of {@link #createConsumerAcl(String, String, String)}
+     */
+    public CompletableFuture<Void> createConsumerAclAsync(String username, String topicName, String groupId) {
+        return aclManager.createConsumerAclAsync(username, topicName, groupId);
     }
     
-    @PreDestroy
-    public void cleanup() {
-        if (aclManager != null) {
-            aclManager.close();
-        }
+    /**
+     * Non-blocking variant of {@link #createAdminAcl(String)}
+     */
+    public CompletableFuture<Void> createAdminAclAsync(String username) {
+        return aclManager.createAdminAclAsync(username);
+    }
+    
+    /**
+     * Create admin ACL for a specified user
+     * This grants ALTER --cluster permission needed to manage ACLs
+     */
+    public void createAdminAcl(String username) throws ExecutionException, InterruptedException {
+        aclManager.createAdminAcl(username);
     }
 }
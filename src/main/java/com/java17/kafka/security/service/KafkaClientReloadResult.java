@@ -0,0 +1,62 @@
+package com.java17.kafka.security.service;
+
+import java.util.List;
+
+/**
+ * Outcome of a client property reload. Only the names of changed properties are
+ * reported, never their values, since most of them are credentials.
+ */
+public class KafkaClientReloadResult {
+
+    private final List<String> changedProperties;
+    private final int producerFactories;
+    private final int consumerFactories;
+    private final int restartedContainers;
+    private final boolean adminReconnected;
+    private final long durationMs;
+
+    KafkaClientReloadResult(List<String> changedProperties, int producerFactories, int consumerFactories,
+                            int restartedContainers, boolean adminReconnected, long durationMs) {
+        this.changedProperties = changedProperties;
+        this.producerFactories = producerFactories;
+        this.consumerFactories = consumerFactories;
+        this.restartedContainers = restartedContainers;
+        this.adminReconnected = adminReconnected;
+        this.durationMs = durationMs;
+    }
+
+    static KafkaClientReloadResult unchanged(long durationMs) {
+        return new KafkaClientReloadResult(List.of(), 0, 0, 0, false, durationMs);
+    }
+
+    public boolean isChanged() {
+        return !changedProperties.isEmpty();
+    }
+
+    public List<String> getChangedProperties() {
+        return changedProperties;
+    }
+
+    public int getProducerFactories() {
+        return producerFactories;
+    }
+
+    public int getConsumerFactories() {
+        return consumerFactories;
+    }
+
+    /**
+     * Consumers restarted; a concurrent listener container counts once per child consumer
+     */
+    public int getRestartedContainers() {
+        return restartedContainers;
+    }
+
+    public boolean isAdminReconnected() {
+        return adminReconnected;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+}
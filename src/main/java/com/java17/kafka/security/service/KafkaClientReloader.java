@@ -0,0 +1,296 @@
+package com.java17.kafka.security.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.java17.kafka.security.config.KafkaAdminClientProvider;
+import com.java17.kafka.security.config.KafkaClientProperties;
+import com.java17.kafka.security.config.KafkaClientProperties.ClientRole;
+import com.java17.kafka.security.config.TransactionalProducerPool;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies changed {@code kafka.client.*} properties to the running clients without
+ * restarting the application context:
+ * <ul>
+ *     <li>the properties are rebound from the environment, after re-reading
+ *     {@code kafka.client.reload.file} when one is configured</li>
+ *     <li>producer factories get the new settings and are reset; cached producers finish
+ *     their in-flight sends and transactions before they close, and the next send opens a
+ *     producer with the new settings</li>
+ *     <li>the transactional producer pool and the shared admin client do the same</li>
+ *     <li>consumers are restarted one at a time, including each consumer of a concurrent
+ *     listener container, so only one consumer is ever down; with {@code kafka.client.group-instance-id} set, a restarted consumer rejoins as
+ *     the same static member and keeps its partitions without a group rebalance</li>
+ * </ul>
+ * Nothing is touched when the rebound properties produce the same client settings.
+ */
+@Component
+public class KafkaClientReloader {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaClientReloader.class);
+
+    static final String RELOAD_PROPERTY_SOURCE = "kafkaClientReload";
+
+    private final ConfigurableEnvironment environment;
+    private final KafkaClientProperties properties;
+    private final List<ProducerFactory<?, ?>> producerFactories;
+    private final List<ConsumerFactory<?, ?>> consumerFactories;
+    private final ObjectProvider<TransactionalProducerPool> producerPool;
+    private final ObjectProvider<KafkaAdminClientProvider> adminClientProvider;
+    private final ObjectProvider<KafkaListenerEndpointRegistry> listenerRegistry;
+    private final ObjectProvider<NotificationRetryTierListener> retryTierListener;
+    private final MeterRegistry meterRegistry;
+    private final Timer reloadTimer;
+
+    @Value("${kafka.client.reload.file:}")
+    private String reloadFile;
+
+    @Value("${kafka.client.reload.restart-pause-ms:2000}")
+    private long restartPauseMs;
+
+    @Autowired
+    public KafkaClientReloader(ConfigurableEnvironment environment, KafkaClientProperties properties,
+                               List<ProducerFactory<?, ?>> producerFactories,
+                               List<ConsumerFactory<?, ?>> consumerFactories,
+                               ObjectProvider<TransactionalProducerPool> producerPool,
+                               ObjectProvider<KafkaAdminClientProvider> adminClientProvider,
+                               ObjectProvider<KafkaListenerEndpointRegistry> listenerRegistry,
+                               ObjectProvider<NotificationRetryTierListener> retryTierListener,
+                               MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.properties = properties;
+        this.producerFactories = producerFactories;
+        this.consumerFactories = consumerFactories;
+        this.producerPool = producerPool;
+        this.adminClientProvider = adminClientProvider;
+        this.listenerRegistry = listenerRegistry;
+        this.retryTierListener = retryTierListener;
+        this.meterRegistry = meterRegistry;
+        this.reloadTimer = Timer.builder("kafka.client.reload.duration")
+                .description("Time to apply reloaded Kafka client properties, including consumer restarts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rebind {@code kafka.client.*} and push whatever changed to the producers, consumers and admin client
+     */
+    public synchronized KafkaClientReloadResult reload() {
+        return reload(Set.of());
+    }
+
+    /**
+     * Recreate every client whose configuration contains one of {@code rotatedKeys}, even though
+     * the value is unchanged; used when the file behind e.g. {@code ssl.truststore.location}
+     * was replaced in place. Other changes are picked up as in {@link #reload()}.
+     */
+    public synchronized KafkaClientReloadResult rotate(Set<String> rotatedKeys) {
+        return reload(rotatedKeys);
+    }
+
+    private KafkaClientReloadResult reload(Set<String> rotatedKeys) {
+        long start = System.nanoTime();
+        try {
+            KafkaClientReloadResult result = apply(rotatedKeys);
+            count(result.isChanged() ? "applied" : "unchanged");
+            return result;
+        } catch (RuntimeException e) {
+            count("failed");
+            throw e;
+        } finally {
+            reloadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private KafkaClientReloadResult apply(Set<String> rotatedKeys) {
+        long start = System.nanoTime();
+        Map<String, Object> oldProducer = clientConfig(ClientRole.PRODUCER);
+        Map<String, Object> oldConsumer = clientConfig(ClientRole.CONSUMER);
+        Map<String, Object> oldAdmin = clientConfig(ClientRole.ADMIN);
+
+        refreshReloadFile();
+        // Bound fresh so keys that were removed go back to their defaults
+        properties.copyFrom(Binder.get(environment).bindOrCreate("kafka.client", KafkaClientProperties.class));
+
+        Map<String, Object> newProducer = clientConfig(ClientRole.PRODUCER);
+        Map<String, Object> newConsumer = clientConfig(ClientRole.CONSUMER);
+        Map<String, Object> newAdmin = clientConfig(ClientRole.ADMIN);
+
+        Set<String> changed = new TreeSet<>();
+        changed.addAll(changedKeys(oldProducer, newProducer, rotatedKeys));
+        changed.addAll(changedKeys(oldConsumer, newConsumer, rotatedKeys));
+        changed.addAll(changedKeys(oldAdmin, newAdmin, rotatedKeys));
+        if (changed.isEmpty()) {
+            logger.info("Kafka client properties reloaded, nothing changed");
+            return KafkaClientReloadResult.unchanged(elapsedMs(start));
+        }
+        logger.info("Kafka client properties changed: {}", changed);
+
+        int producers = 0;
+        if (!changedKeys(oldProducer, newProducer, rotatedKeys).isEmpty()) {
+            Set<String> removed = removedKeys(oldProducer, newProducer);
+            for (ProducerFactory<?, ?> factory : producerFactories) {
+                removed.forEach(factory::removeConfig);
+                factory.updateConfigs(newProducer);
+                // Closes idle producers now and in-use ones when they are returned
+                factory.reset();
+                producers++;
+            }
+            TransactionalProducerPool pool = producerPool.getIfAvailable();
+            if (pool != null) {
+                pool.updateConfig(newProducer, removed);
+            }
+        }
+
+        boolean adminReconnected = false;
+        KafkaAdminClientProvider admin = adminClientProvider.getIfAvailable();
+        if (admin != null && !changedKeys(oldAdmin, newAdmin, rotatedKeys).isEmpty()) {
+            adminReconnected = admin.updateConfig(newAdmin, removedKeys(oldAdmin, newAdmin));
+        }
+
+        int consumers = 0;
+        int restarted = 0;
+        if (!changedKeys(oldConsumer, newConsumer, rotatedKeys).isEmpty()) {
+            Set<String> removed = removedKeys(oldConsumer, newConsumer);
+            for (ConsumerFactory<?, ?> factory : consumerFactories) {
+                removed.forEach(factory::removeConfig);
+                factory.updateConfigs(newConsumer);
+                consumers++;
+            }
+            restarted = restartContainers();
+        }
+        return new KafkaClientReloadResult(new ArrayList<>(changed), producers, consumers, restarted,
+                adminReconnected, elapsedMs(start));
+    }
+
+    private Map<String, Object> clientConfig(ClientRole role) {
+        Map<String, Object> config = new HashMap<>(role == ClientRole.CONSUMER
+                ? properties.consumerConfig() : properties.securityConfig(role));
+        config.put(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, properties.getBootstrapServers());
+        return config;
+    }
+
+    /**
+     * Rolling restart: each consumer is stopped, which commits its offsets, and started again
+     * with a consumer built from the updated factory before the next one goes down. A concurrent
+     * container is restarted child by child, so its other consumers keep their partitions.
+     */
+    private int restartContainers() {
+        List<MessageListenerContainer> containers = new ArrayList<>();
+        KafkaListenerEndpointRegistry registry = listenerRegistry.getIfAvailable();
+        if (registry != null) {
+            containers.addAll(registry.getListenerContainers());
+        }
+        NotificationRetryTierListener retryTiers = retryTierListener.getIfAvailable();
+        if (retryTiers != null) {
+            containers.addAll(retryTiers.getContainers());
+        }
+        int restarted = 0;
+        for (MessageListenerContainer container : containers) {
+            if (!container.isRunning()) {
+                continue;
+            }
+            for (MessageListenerContainer consumer : consumersOf(container)) {
+                if (!consumer.isRunning()) {
+                    continue;
+                }
+                if (restarted > 0) {
+                    pause();
+                }
+                logger.info("Restarting consumer {} of listener container {} with the reloaded client properties",
+                        consumer.getListenerId(), container.getListenerId());
+                consumer.stop();
+                consumer.start();
+                restarted++;
+            }
+        }
+        return restarted;
+    }
+
+    private static List<? extends MessageListenerContainer> consumersOf(MessageListenerContainer container) {
+        if (container instanceof ConcurrentMessageListenerContainer) {
+            return ((ConcurrentMessageListenerContainer<?, ?>) container).getContainers();
+        }
+        return List.of(container);
+    }
+
+    private void refreshReloadFile() {
+        if (!StringUtils.hasText(reloadFile)) {
+            return;
+        }
+        try {
+            Properties fileProperties = PropertiesLoaderUtils.loadProperties(new FileSystemResource(reloadFile.trim()));
+            PropertiesPropertySource source = new PropertiesPropertySource(RELOAD_PROPERTY_SOURCE, fileProperties);
+            if (environment.getPropertySources().contains(RELOAD_PROPERTY_SOURCE)) {
+                environment.getPropertySources().replace(RELOAD_PROPERTY_SOURCE, source);
+            } else {
+                environment.getPropertySources().addFirst(source);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read Kafka client properties from " + reloadFile, e);
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(restartPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during the rolling consumer restart", e);
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("kafka.client.reloads", "outcome", outcome).increment();
+    }
+
+    private static Set<String> changedKeys(Map<String, Object> before, Map<String, Object> after,
+                                           Set<String> rotatedKeys) {
+        Set<String> changed = removedKeys(before, after);
+        after.forEach((key, value) -> {
+            if (!Objects.equals(before.get(key), value) || rotatedKeys.contains(key)) {
+                changed.add(key);
+            }
+        });
+        return changed;
+    }
+
+    private static Set<String> removedKeys(Map<String, Object> before, Map<String, Object> after) {
+        Set<String> removed = new TreeSet<>(before.keySet());
+        removed.removeAll(after.keySet());
+        return removed;
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
@@ -1,8 +1,14 @@
 package com.java17.kafka.security.service;
 
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.admin.ScramMechanism;
+import org.apache.kafka.common.acl.AclBinding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.java17.kafka.security.config.AdminOperationMetrics;
 import com.java17.kafka.security.config.KafkaAclManager;
 
 import java.util.*;
@@ -10,55 +16,82 @@ import java.util.*;
 @Service
 public class KafkaSecurityManagementService {
 
+    private static final Logger logger = LoggerFactory.getLogger(KafkaSecurityManagementService.class);
+
     private final KafkaUserManager userManager;
-    private final KafkaAclManager aclManager;
     private final KafkaBrokerSecurityService brokerSecurityService;
+    private final AclReconciler aclReconciler;
+    private final AdminOperationMetrics metrics;
     
     @Autowired
     public KafkaSecurityManagementService(KafkaUserManager userManager, 
-                                        KafkaAclManager aclManager,
-                                        KafkaBrokerSecurityService brokerSecurityService) {
+                                        KafkaBrokerSecurityService brokerSecurityService,
+                                        AclReconciler aclReconciler,
+                                        AdminOperationMetrics metrics) {
         this.userManager = userManager;
-        this.aclManager = aclManager;
         this.brokerSecurityService = brokerSecurityService;
+        this.aclReconciler = aclReconciler;
+        this.metrics = metrics;
     }
     
     /**
      * Complete Kafka security setup for a new environment
-     * This handles broker config, user creation, and ACL setup
+     * This handles broker config, user creation, and ACL setup.
+     * ACL bindings that already exist are skipped; the rest are provisioned in batches and reported per binding.
+     * The result holds the ACL report under {@code acls} and the per-user result under {@code users}.
      */
-    public void setupKafkaSecurity(String brokerConfigPath, String jaasConfigPath, 
+    public Map<String, Object> setupKafkaSecurity(String brokerConfigPath, String jaasConfigPath, 
                                  List<String> superUsers, Map<String, String> users,
                                  Map<String, List<String>> producerTopics,
                                  Map<String, Map<String, String>> consumerTopicsGroups) throws Exception {
         
         // 1. Generate broker security config (to be applied manually before broker start)
-        brokerSecurityService.generateBrokerJaasConfig(jaasConfigPath, 
-                                                    superUsers.get(0), // First user as admin
-                                                    users.get(superUsers.get(0)), 
-                                                    superUsers);
-        
-        brokerSecurityService.generateSuperUserConfig(superUsers);
+        Timer.Sample brokerConfigSample = metrics.start();
+        try {
+            brokerSecurityService.generateBrokerJaasConfig(jaasConfigPath, 
+                                                        superUsers.get(0), // First user as admin
+                                                        users.get(superUsers.get(0)), 
+                                                        superUsers);
+            
+            brokerSecurityService.generateSuperUserConfig(superUsers);
+        } catch (Exception e) {
+            metrics.stop(brokerConfigSample, "setup.broker_config", "broker", e);
+            throw e;
+        }
+        metrics.stop(brokerConfigSample, "setup.broker_config", "broker", AdminOperationMetrics.SUCCESS);
         
-        System.out.println("\n==== IMPORTANT MANUAL STEPS ====");
-        System.out.println("1. Add the generated super.users config to server.properties");
-        System.out.println("2. Configure your broker to use the JAAS file: -Djava.security.auth.login.config=" + jaasConfigPath);
-        System.out.println("3. Restart your Kafka broker");
-        System.out.println("4. Run this application again with setupBrokerSecurityOnly=false");
-        System.out.println("===============================\n");
+        logger.info("\n==== IMPORTANT MANUAL STEPS ====\n"
+                + "1. Add the generated super.users config to server.properties\n"
+                + "2. Configure your broker to use the JAAS file: -Djava.security.auth.login.config={}\n"
+                + "3. Restart your Kafka broker\n"
+                + "4. Run this application again with setupBrokerSecurityOnly=false\n"
+                + "===============================", jaasConfigPath);
         
         // For existing brokers, continue with user and ACL setup
         
-        // 2. Create SCRAM users
-        for (Map.Entry<String, String> userEntry : users.entrySet()) {
-            userManager.createScramUser(userEntry.getKey(), userEntry.getValue());
+        // 2. Create SCRAM users in batched AlterUserScramCredentials requests
+        Timer.Sample usersSample = metrics.start();
+        ScramUserBulkResult userResult;
+        try {
+            userResult = userManager.upsertScramUsers(users, ScramMechanism.SCRAM_SHA_512);
+        } catch (Exception e) {
+            metrics.stop(usersSample, "setup.users", "user", e);
+            throw e;
+        }
+        metrics.stop(usersSample, "setup.users", "user", KafkaUserManager.outcome(userResult));
+        if (userResult.hasFailures()) {
+            logger.warn("SCRAM user creation failures: {}", userResult.getFailures());
         }
         
+        // 3-5. Collect producer, consumer and admin ACLs and apply only the ones that are missing
+        Timer.Sample aclsSample = metrics.start();
+        Set<AclBinding> desired = new LinkedHashSet<>();
+        
         // 3. Setup ACLs for producers
         for (Map.Entry<String, List<String>> producerEntry : producerTopics.entrySet()) {
             String username = producerEntry.getKey();
             for (String topic : producerEntry.getValue()) {
-                aclManager.createProducerAcl(username, topic);
+                desired.addAll(KafkaAclManager.producerAclBindings(username, topic));
             }
         }
         
@@ -66,15 +99,30 @@ public class KafkaSecurityManagementService {
         for (Map.Entry<String, Map<String, String>> consumerEntry : consumerTopicsGroups.entrySet()) {
             String username = consumerEntry.getKey();
             for (Map.Entry<String, String> topicGroup : consumerEntry.getValue().entrySet()) {
-                aclManager.createConsumerAcl(username, topicGroup.getKey(), topicGroup.getValue());
+                desired.addAll(KafkaAclManager.consumerAclBindings(username, topicGroup.getKey(), topicGroup.getValue()));
             }
         }
         
         // 5. Grant admin permissions to super users
         for (String adminUser : superUsers) {
             if (!adminUser.equals(superUsers.get(0))) { // Skip the first one who already has admin rights
-                aclManager.createAdminAcl(adminUser);
+                desired.addAll(KafkaAclManager.adminAclBindings(adminUser));
             }
         }
+        
+        AclProvisioningReport report;
+        try {
+            report = aclReconciler.reconcile(desired, false, false).getProvisioning();
+        } catch (Exception e) {
+            metrics.stop(aclsSample, "setup.acls", AdminOperationMetrics.resourceType(desired), e);
+            throw e;
+        }
+        metrics.stop(aclsSample, "setup.acls", AdminOperationMetrics.resourceType(desired),
+                report.hasFailures() ? AdminOperationMetrics.PARTIAL : AdminOperationMetrics.SUCCESS);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("acls", report);
+        result.put("users", userResult);
+        return result;
     }
 }
@@ -1,87 +1,147 @@
 package com.java17.kafka.security.service;
 
+import io.micrometer.core.instrument.Timer;
 import org.apache.kafka.clients.admin.*;
-import org.apache.kafka.common.config.ConfigResource;
-import org.apache.kafka.common.config.SaslConfigs;
-import org.apache.kafka.common.config.ConfigResource.Type;
+import org.apache.kafka.common.KafkaFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.IOException;
+import com.java17.kafka.security.config.AdminOperationMetrics;
+import com.java17.kafka.security.config.KafkaAdminClientProvider;
+
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 
 @Service
 public class KafkaUserManager {
 
-    private final AdminClient adminClient;
+    private static final Logger logger = LoggerFactory.getLogger(KafkaUserManager.class);
+
+    private final KafkaAdminClientProvider adminClientProvider;
+    private final int scramIterations;
+    private final int batchSize;
+    private final List<ScramUserChangeListener> changeListeners = new CopyOnWriteArrayList<>();
 
     @Autowired
-    public KafkaUserManager(@Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
-                           @Value("${spring.kafka.security.protocol}") String securityProtocol,
-                           @Value("${spring.kafka.ssl.trust-store-location}") String trustStorePath,
-                           @Value("${spring.kafka.ssl.trust-store-password}") String trustStorePassword,
-                           @Value("${spring.kafka.properties.sasl.mechanism}") String saslMechanism,
-                           @Value("${kafka.admin.username}") String adminUsername,
-                           @Value("${kafka.admin.password}") String adminPassword,
-                           ResourceLoader resourceLoader) {
-                           
-        try {
-            // Convert Spring resource path to physical file path
-            Resource resource = resourceLoader.getResource(trustStorePath);
-            File trustStoreFile = resource.getFile();
-            String absolutePath = trustStoreFile.getAbsolutePath();
-            
-            Properties props = new Properties();
-            props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-            props.put(AdminClientConfig.SECURITY_PROTOCOL_CONFIG, securityProtocol);
-            props.put("ssl.truststore.location", absolutePath);  // Use resolved path
-            props.put("ssl.truststore.password", trustStorePassword);
-            props.put("sasl.mechanism", saslMechanism);
-            props.put("sasl.jaas.config", 
-                    "org.apache.kafka.common.security.scram.ScramLoginModule required " +
-                    "username=\"" + adminUsername + "\" password=\"" + adminPassword + "\";");
-            
-            this.adminClient = AdminClient.create(props);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to initialize Kafka user manager: " + e.getMessage(), e);
-        }
+    public KafkaUserManager(KafkaAdminClientProvider adminClientProvider,
+                            @Value("${kafka.users.scram.iterations:8192}") int scramIterations,
+                            @Value("${kafka.users.bulk.batch-size:500}") int batchSize) {
+        this.adminClientProvider = adminClientProvider;
+        this.scramIterations = scramIterations;
+        this.batchSize = batchSize;
     }
-    
+
+    public void addScramUserChangeListener(ScramUserChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
     /**
      * Create or update a Kafka user with SCRAM-SHA-512 credentials
-     * Equivalent to: kafka-configs.sh --bootstrap-server localhost:9092 --alter --add-config 
+     * Equivalent to: kafka-configs.sh --bootstrap-server localhost:9092 --alter --add-config
      * 'SCRAM-SHA-512=[password=password]' --entity-type users --entity-name username
      */
     public void createScramUser(String username, String password) throws ExecutionException, InterruptedException {
-        // Define the configuration resource for the user
-        ConfigResource userResource = new ConfigResource(Type.TOPIC, username);
-        
-        // Create the SCRAM config with the encoded password
-        String saslScramConfig = String.format("SCRAM-SHA-512=[password=%s]", password);
-        // Create the AlterConfigOp operation
-        Map<ConfigResource, Collection<AlterConfigOp>> alterConfigs = new HashMap<>();
-        AlterConfigOp configOp = new AlterConfigOp(
-                new ConfigEntry("SCRAM-SHA-512", "[password=" + password + "]"),
-                AlterConfigOp.OpType.SET
+        UserScramCredentialUpsertion upsertion = new UserScramCredentialUpsertion(
+                username,
+                new ScramCredentialInfo(ScramMechanism.SCRAM_SHA_512, scramIterations),
+                password
         );
-        
-        alterConfigs.put(userResource, Collections.singletonList(configOp));
-        
+
         // Execute the operation
-        AlterConfigsResult result = adminClient.incrementalAlterConfigs(alterConfigs);
-        result.all().get(); // Wait for completion
-        
-        System.out.println("Created SCRAM-SHA-512 credentials for user: " + username);
+        Timer.Sample sample = adminClientProvider.metrics().start();
+        try {
+            AlterUserScramCredentialsResult result = adminClientProvider.get()
+                    .alterUserScramCredentials(Collections.singletonList(upsertion));
+            result.all().get(); // Wait for completion
+            adminClientProvider.metrics().stop(sample, "scram.upsert", "user", AdminOperationMetrics.SUCCESS);
+        } catch (ExecutionException | RuntimeException e) {
+            adminClientProvider.metrics().stop(sample, "scram.upsert", "user", AdminOperationMetrics.FAILURE);
+            throw e;
+        }
+
+        logger.info("Created SCRAM-SHA-512 credentials for user: {}", username);
+        notifyUpserted(Collections.singletonList(username), ScramMechanism.SCRAM_SHA_512, scramIterations);
     }
-    
-    public void close() {
-        if (adminClient != null) {
-            adminClient.close();
+
+    /**
+     * Upsert many SCRAM users with the configured iteration count
+     */
+    public ScramUserBulkResult upsertScramUsers(Map<String, String> users, ScramMechanism mechanism)
+            throws InterruptedException {
+        return upsertScramUsers(users, mechanism, scramIterations);
+    }
+
+    /**
+     * Upsert many SCRAM users with one AlterUserScramCredentials request per
+     * {@code kafka.users.bulk.batch-size} users. All batches are sent before any is awaited,
+     * and each user gets its own result.
+     */
+    public ScramUserBulkResult upsertScramUsers(Map<String, String> users, ScramMechanism mechanism, int iterations)
+            throws InterruptedException {
+        ScramCredentialInfo credentialInfo = new ScramCredentialInfo(mechanism, iterations);
+        ScramUserBulkResult bulkResult = new ScramUserBulkResult();
+        Timer.Sample sample = adminClientProvider.metrics().start();
+
+        Map<String, KafkaFuture<Void>> pending = new LinkedHashMap<>();
+        List<UserScramCredentialAlteration> batch = new ArrayList<>(Math.min(batchSize, users.size()));
+        for (Map.Entry<String, String> user : users.entrySet()) {
+            batch.add(new UserScramCredentialUpsertion(user.getKey(), credentialInfo, user.getValue()));
+            if (batch.size() >= batchSize) {
+                submit(batch, pending, bulkResult);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            submit(batch, pending, bulkResult);
+        }
+
+        List<String> upserted = new ArrayList<>(pending.size());
+        for (Map.Entry<String, KafkaFuture<Void>> result : pending.entrySet()) {
+            try {
+                result.getValue().get();
+                bulkResult.recordSuccess();
+                upserted.add(result.getKey());
+            } catch (ExecutionException e) {
+                bulkResult.recordFailure(result.getKey(), e.getCause());
+            }
+        }
+        if (!upserted.isEmpty()) {
+            notifyUpserted(upserted, mechanism, iterations);
+        }
+        adminClientProvider.metrics().stop(sample, "scram.upsert", "user", outcome(bulkResult));
+        return bulkResult;
+    }
+
+    private void notifyUpserted(Collection<String> usernames, ScramMechanism mechanism, int iterations) {
+        for (ScramUserChangeListener listener : changeListeners) {
+            try {
+                listener.onScramUsersUpserted(usernames, mechanism, iterations);
+            } catch (RuntimeException e) {
+                logger.warn("SCRAM user change listener {} failed: {}", listener, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * {@code failure} when no user succeeded, {@code partial} when only some did
+     */
+    static String outcome(ScramUserBulkResult bulkResult) {
+        if (!bulkResult.hasFailures()) {
+            return AdminOperationMetrics.SUCCESS;
+        }
+        return bulkResult.getSucceeded() == 0 ? AdminOperationMetrics.FAILURE : AdminOperationMetrics.PARTIAL;
+    }
+
+    private void submit(List<UserScramCredentialAlteration> batch, Map<String, KafkaFuture<Void>> pending,
+                        ScramUserBulkResult bulkResult) {
+        try {
+            pending.putAll(adminClientProvider.get().alterUserScramCredentials(batch).values());
+        } catch (RuntimeException e) {
+            batch.forEach(alteration -> bulkResult.recordFailure(alteration.user(), e));
         }
     }
 }
@@ -0,0 +1,224 @@
+package com.java17.kafka.security.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes records of one consumer in parallel while keeping per-key order. Each record goes
+ * to one of {@code lanes} single-threaded workers chosen by key hash, so records with the same
+ * key run one after another and different keys run side by side, beyond the partition count.
+ * <p>
+ * Offsets are committed from the consumer thread, per partition, up to the lowest offset that
+ * has not completed yet. The dispatcher is shared by the container's consumers, so each one
+ * only commits the partitions assigned to it. At most {@code max-in-flight} records are outstanding; past that the
+ * consumer thread waits for workers before dispatching more. On revocation the revoked
+ * partitions are drained and committed before they move to another consumer.
+ * <p>
+ * A record whose handler throws is passed to the {@link ConsumerRecordRecoverer} (the dead
+ * letter publisher when one is configured) and then counts as completed.
+ */
+@Component
+public class KeyOrderedDispatcher implements ConsumerAwareRebalanceListener, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyOrderedDispatcher.class);
+
+    private final int laneCount;
+    private final Semaphore inFlight;
+    private final Duration drainTimeout;
+    private final ConsumerRecordRecoverer recoverer;
+    private final Counter failures;
+    private final Map<TopicPartition, PartitionOffsetTracker> trackers = new ConcurrentHashMap<>();
+
+    private volatile ExecutorService[] lanes;
+
+    @Autowired
+    public KeyOrderedDispatcher(@Value("${kafka.notification.consumer.key-ordered.lanes:16}") int laneCount,
+                                @Value("${kafka.notification.consumer.key-ordered.max-in-flight:5000}") int maxInFlight,
+                                @Value("${kafka.notification.consumer.key-ordered.drain-timeout-ms:30000}") long drainTimeoutMs,
+                                ObjectProvider<ConsumerRecordRecoverer> recoverer,
+                                MeterRegistry meterRegistry) {
+        this.laneCount = laneCount;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.drainTimeout = Duration.ofMillis(drainTimeoutMs);
+        this.recoverer = recoverer.getIfUnique(() -> (record, e) ->
+                logger.error("Dropping notification {}-{}@{} after failure",
+                        record.topic(), record.partition(), record.offset(), e));
+        this.failures = Counter.builder("kafka.notification.failures")
+                .description("Notification records whose handler failed")
+                .register(meterRegistry);
+        Gauge.builder("kafka.notification.inflight", inFlight, s -> maxInFlight - s.availablePermits())
+                .description("Records handed to key-ordered workers and not yet completed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hand a polled batch to the workers and commit whatever has completed so far.
+     * Must be called on the consumer thread.
+     */
+    public void dispatch(List<ConsumerRecord<String, String>> records, Consumer<?, ?> consumer,
+                         NotificationHandler handler) throws InterruptedException {
+        ExecutorService[] workers = lanes();
+        for (ConsumerRecord<String, String> record : records) {
+            PartitionOffsetTracker tracker = trackers.computeIfAbsent(
+                    new TopicPartition(record.topic(), record.partition()), tp -> new PartitionOffsetTracker());
+            inFlight.acquire();
+            tracker.dispatched(record.offset());
+            workers[lane(record)].execute(() -> {
+                try {
+                    handler.handle(record);
+                } catch (Exception e) {
+                    failures.increment();
+                    recover(record, e);
+                } finally {
+                    tracker.completed(record.offset());
+                    inFlight.release();
+                }
+            });
+        }
+        commit(consumer);
+    }
+
+    /**
+     * Commit completed offsets of the consumer's partitions; called between polls when no records arrive.
+     * Must be called on the consumer thread.
+     */
+    public void commit(Consumer<?, ?> consumer) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = committable(consumer.assignment());
+        if (!offsets.isEmpty()) {
+            consumer.commitAsync(offsets, (committed, e) -> {
+                if (e != null) {
+                    logger.warn("Commit of {} failed, retrying on the next commit: {}", committed, e.getMessage());
+                }
+                committed.forEach((partition, offset) -> {
+                    PartitionOffsetTracker tracker = trackers.get(partition);
+                    if (tracker == null) {
+                        return;
+                    }
+                    if (e != null) {
+                        tracker.commitFailed(offset.offset());
+                    } else {
+                        tracker.commitSucceeded(offset.offset());
+                    }
+                });
+            });
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            PartitionOffsetTracker tracker = trackers.get(partition);
+            try {
+                if (tracker != null && !tracker.awaitDrained(drainTimeout)) {
+                    logger.warn("{} records of {} still running after {}; they may be redelivered",
+                            tracker.pendingCount(), partition, drainTimeout);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        Map<TopicPartition, OffsetAndMetadata> offsets = committable(partitions);
+        if (!offsets.isEmpty()) {
+            try {
+                consumer.commitSync(offsets);
+            } catch (RuntimeException e) {
+                logger.warn("Commit on revocation of {} failed: {}", partitions, e.getMessage());
+            }
+        }
+        partitions.forEach(trackers::remove);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        // The partitions already belong to someone else; their offsets can no longer be committed
+        partitions.forEach(trackers::remove);
+    }
+
+    @Override
+    public void destroy() {
+        ExecutorService[] workers = lanes;
+        if (workers != null) {
+            for (ExecutorService worker : workers) {
+                worker.shutdown();
+            }
+        }
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> committable(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            PartitionOffsetTracker tracker = trackers.get(partition);
+            long offset = tracker == null ? -1 : tracker.advance();
+            if (offset >= 0) {
+                offsets.put(partition, new OffsetAndMetadata(offset));
+            }
+        }
+        return offsets;
+    }
+
+    private int lane(ConsumerRecord<String, String> record) {
+        // Keyless records carry no ordering requirement beyond their partition
+        int hash = record.key() != null ? record.key().hashCode() : record.partition();
+        return Math.floorMod(hash, laneCount);
+    }
+
+    private void recover(ConsumerRecord<String, String> record, Exception e) {
+        try {
+            recoverer.accept(record, e);
+        } catch (RuntimeException recoveryFailure) {
+            logger.error("Recovery of notification {}-{}@{} failed", record.topic(), record.partition(),
+                    record.offset(), recoveryFailure);
+        }
+    }
+
+    private ExecutorService[] lanes() {
+        ExecutorService[] workers = lanes;
+        if (workers == null) {
+            synchronized (this) {
+                workers = lanes;
+                if (workers == null) {
+                    workers = new ExecutorService[laneCount];
+                    for (int i = 0; i < laneCount; i++) {
+                        String name = "notification-lane-" + i;
+                        // The in-flight semaphore bounds the queues
+                        workers[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                                new LinkedBlockingQueue<>(), runnable -> {
+                                    Thread thread = new Thread(runnable, name);
+                                    thread.setDaemon(true);
+                                    return thread;
+                                });
+                    }
+                    lanes = workers;
+                }
+            }
+        }
+        return workers;
+    }
+}
@@ -0,0 +1,168 @@
+package com.java17.kafka.security.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import com.java17.kafka.security.config.KafkaConfig;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Consumes the notification topic one poll at a time. Records are handed to every
+ * {@link NotificationHandler} in order and the batch is acknowledged once all of them are
+ * processed, so offsets are committed once per poll instead of once per record.
+ * <p>
+ * When a record fails, the container commits the records before it and redelivers the
+ * rest of the batch starting with the failed one.
+ * <p>
+ * With {@code processing-mode=key-ordered} the batch is handed to the {@link KeyOrderedDispatcher}
+ * instead, which runs different keys in parallel and commits offsets itself.
+ * <p>
+ * The container is started once the application is ready, and a consumer that cannot be
+ * created is logged rather than failing startup, so the admin API stays available without a broker.
+ */
+@Component
+public class NotificationBatchListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationBatchListener.class);
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(NotificationBatchListener.class);
+
+    public static final String LISTENER_ID = "notificationBatchListener";
+
+    public enum ProcessingMode {
+        /** Records of a batch run one after another on the container thread */
+        BATCH,
+        /** Records are fanned out to workers by key, see {@link KeyOrderedDispatcher} */
+        KEY_ORDERED;
+
+        public static ProcessingMode parse(String value) {
+            return ProcessingMode.valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final List<NotificationHandler> handlers;
+    private final Counter recordsProcessed;
+    private final DistributionSummary batchSize;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final KeyOrderedDispatcher dispatcher;
+    private final ProcessingMode processingMode;
+    private final boolean enabled;
+
+    @Autowired
+    public NotificationBatchListener(ObjectProvider<NotificationHandler> handlers, MeterRegistry meterRegistry,
+                                     KafkaListenerEndpointRegistry listenerRegistry,
+                                     KeyOrderedDispatcher dispatcher,
+                                     @Value("${kafka.notification.consumer.processing-mode:batch}") String processingMode,
+                                     @Value("${kafka.notification.consumer.enabled:true}") boolean enabled) {
+        this.listenerRegistry = listenerRegistry;
+        this.dispatcher = dispatcher;
+        this.processingMode = ProcessingMode.parse(processingMode);
+        this.enabled = enabled;
+        List<NotificationHandler> configured = handlers.orderedStream().collect(Collectors.toList());
+        this.handlers = configured.isEmpty() ? List.of(NotificationBatchListener::log) : configured;
+        this.recordsProcessed = Counter.builder("kafka.notification.records")
+                .description("Notification records processed")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("kafka.notification.batch.size")
+                .description("Records delivered per poll")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            logger.info("Notification consumer disabled");
+            return;
+        }
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        try {
+            container.start();
+            logger.info("Notification consumer started on {} ({})", KafkaConfig.NOTIFICATION_TOPIC, processingMode);
+        } catch (RuntimeException e) {
+            logger.error("Could not start the notification consumer", e);
+        }
+    }
+
+    @KafkaListener(id = LISTENER_ID,
+            topics = KafkaConfig.NOTIFICATION_TOPIC,
+            groupId = KafkaConfig.NOTIFICATION_GROUP,
+            containerFactory = "kafkaListenerContainerFactoryNotification",
+            autoStartup = "false")
+    public void onBatch(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment,
+                        Consumer<?, ?> consumer) throws InterruptedException {
+        batchSize.record(records.size());
+        if (processingMode == ProcessingMode.KEY_ORDERED) {
+            // No acknowledge(): the dispatcher commits up to the lowest offset still running
+            dispatcher.dispatch(records, consumer, this::process);
+            return;
+        }
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, String> record = records.get(i);
+            try {
+                process(record);
+            } catch (Exception e) {
+                throw new BatchListenerFailedException("Failed to process notification at "
+                        + record.topic() + "-" + record.partition() + "@" + record.offset(), e, i);
+            }
+        }
+        acknowledgment.acknowledge();
+    }
+
+    /**
+     * Between polls of an idle consumer, commit what the key-ordered workers finished since the last batch
+     */
+    @EventListener(condition = "event.listenerId.startsWith('" + LISTENER_ID + "')")
+    public void onIdle(ListenerContainerIdleEvent event) {
+        if (processingMode == ProcessingMode.KEY_ORDERED) {
+            dispatcher.commit(event.getConsumer());
+        }
+    }
+
+    /**
+     * Run one record through the handlers; also used by the retry tiers. A record whose value
+     * could not be deserialized fails with the {@link DeserializationException}, which sends it
+     * straight to the DLQ.
+     */
+    public void process(ConsumerRecord<String, String> record) throws Exception {
+        DeserializationException unreadable = SerializationUtils.getExceptionFromHeader(record,
+                SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+        if (unreadable != null) {
+            throw unreadable;
+        }
+        for (NotificationHandler handler : handlers) {
+            handler.handle(record);
+        }
+        recordsProcessed.increment();
+    }
+
+    public double getRecordsProcessed() {
+        return recordsProcessed.count();
+    }
+
+    private static void log(ConsumerRecord<String, String> record) {
+        logger.debug("Notification {}-{}@{} key={}: {}",
+                record.topic(), record.partition(), record.offset(), record.key(), record.value());
+    }
+}
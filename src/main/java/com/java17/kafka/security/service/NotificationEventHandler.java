@@ -0,0 +1,16 @@
+package com.java17.kafka.security.service;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import com.java17.kafka.security.config.NotificationEventView;
+
+/**
+ * Processes one typed record from the notification event topic. Implementations are picked up
+ * as beans by {@link NotificationEventListener}; throwing logs and skips the record.
+ * The view is only valid during the call; keep {@link NotificationEventView#toEvent()} instead.
+ */
+@FunctionalInterface
+public interface NotificationEventHandler {
+
+    void handle(ConsumerRecord<String, NotificationEventView> record) throws Exception;
+}
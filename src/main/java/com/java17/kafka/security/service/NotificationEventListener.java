@@ -0,0 +1,90 @@
+package com.java17.kafka.security.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.stereotype.Component;
+
+import com.java17.kafka.security.config.KafkaConfig;
+import com.java17.kafka.security.config.NotificationEventView;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Consumes the typed notification topic written by {@code kafkaTemplateNotificationEvent}.
+ * Each record arrives as a {@link NotificationEventView} over the fetched bytes and is handed
+ * to every {@link NotificationEventHandler} in order; fields are only decoded when a handler
+ * reads them.
+ * <p>
+ * Like {@link NotificationBatchListener}, the container is started once the application is
+ * ready and a consumer that cannot be created is logged rather than failing startup.
+ */
+@Component
+public class NotificationEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationEventListener.class);
+
+    public static final String LISTENER_ID = "notificationEventListener";
+
+    private final List<NotificationEventHandler> handlers;
+    private final Counter recordsProcessed;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final boolean enabled;
+
+    @Autowired
+    public NotificationEventListener(ObjectProvider<NotificationEventHandler> handlers, MeterRegistry meterRegistry,
+                                     KafkaListenerEndpointRegistry listenerRegistry,
+                                     @Value("${kafka.notification.consumer.enabled:true}") boolean enabled) {
+        this.listenerRegistry = listenerRegistry;
+        this.enabled = enabled;
+        List<NotificationEventHandler> configured = handlers.orderedStream().collect(Collectors.toList());
+        this.handlers = configured.isEmpty() ? List.of(NotificationEventListener::log) : configured;
+        this.recordsProcessed = Counter.builder("kafka.notification.event.records")
+                .description("Typed notification records processed")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            listenerRegistry.getListenerContainer(LISTENER_ID).start();
+            logger.info("Notification event consumer started on {}", KafkaConfig.NOTIFICATION_EVENT_TOPIC);
+        } catch (RuntimeException e) {
+            logger.error("Could not start the notification event consumer", e);
+        }
+    }
+
+    @KafkaListener(id = LISTENER_ID,
+            topics = KafkaConfig.NOTIFICATION_EVENT_TOPIC,
+            groupId = KafkaConfig.NOTIFICATION_GROUP,
+            containerFactory = "kafkaListenerContainerFactoryNotificationEvent",
+            autoStartup = "false")
+    public void onEvent(ConsumerRecord<String, NotificationEventView> record) throws Exception {
+        for (NotificationEventHandler handler : handlers) {
+            handler.handle(record);
+        }
+        recordsProcessed.increment();
+    }
+
+    public double getRecordsProcessed() {
+        return recordsProcessed.count();
+    }
+
+    private static void log(ConsumerRecord<String, NotificationEventView> record) {
+        logger.debug("Notification event {}-{}@{} key={}: {}",
+                record.topic(), record.partition(), record.offset(), record.key(), record.value());
+    }
+}
@@ -0,0 +1,13 @@
+package com.java17.kafka.security.service;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+/**
+ * Processes one record from the notification topic. Implementations are picked up as beans
+ * by {@link NotificationBatchListener}; throwing fails the record and everything after it in the batch.
+ */
+@FunctionalInterface
+public interface NotificationHandler {
+
+    void handle(ConsumerRecord<String, String> record) throws Exception;
+}
@@ -0,0 +1,112 @@
+package com.java17.kafka.security.service;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.BatchAcknowledgingMessageListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import com.java17.kafka.security.config.KafkaConfig;
+import com.java17.kafka.security.config.NotificationRetryTopics;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consumes the retry tier topics, one container and consumer group per tier. Records are
+ * ordered by due time within a tier, so when the first one is not due yet the batch is nacked
+ * back to it and that tier's consumer is paused for the remaining delay; the main consumer and
+ * the other tiers keep going. Due records run through the normal notification handlers, and a
+ * failure moves the record on to the next tier or the DLQ.
+ */
+@Component
+public class NotificationRetryTierListener implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRetryTierListener.class);
+
+    private final NotificationRetryTopics retryTopics;
+    private final ConcurrentKafkaListenerContainerFactory<String, String> containerFactory;
+    private final NotificationBatchListener pipeline;
+    private final boolean enabled;
+    private final List<ConcurrentMessageListenerContainer<String, String>> containers = new ArrayList<>();
+
+    @Autowired
+    public NotificationRetryTierListener(NotificationRetryTopics retryTopics,
+                                         @Qualifier("kafkaListenerContainerFactoryNotificationRetry")
+                                         ConcurrentKafkaListenerContainerFactory<String, String> containerFactory,
+                                         NotificationBatchListener pipeline,
+                                         @Value("${kafka.notification.consumer.enabled:true}") boolean enabled) {
+        this.retryTopics = retryTopics;
+        this.containerFactory = containerFactory;
+        this.pipeline = pipeline;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || !containers.isEmpty()) {
+            return;
+        }
+        for (NotificationRetryTopics.Tier tier : retryTopics.getTiers()) {
+            ConcurrentMessageListenerContainer<String, String> container = containerFactory.createContainer(tier.getTopic());
+            container.getContainerProperties().setGroupId(KafkaConfig.NOTIFICATION_GROUP + "-" + tier.getTopic());
+            container.setBeanName("notificationRetry-" + tier.getTopic());
+            container.setupMessageListener((BatchAcknowledgingMessageListener<String, String>)
+                    (records, acknowledgment) -> onBatch(tier, records, acknowledgment));
+            containers.add(container);
+            try {
+                container.start();
+                logger.info("Retry tier consumer started on {} (delay {})", tier.getTopic(), tier.getDelay());
+            } catch (RuntimeException e) {
+                logger.error("Could not start the retry tier consumer on {}", tier.getTopic(), e);
+            }
+        }
+    }
+
+    /**
+     * The running tier containers; they are created here rather than through the listener registry
+     */
+    public synchronized List<ConcurrentMessageListenerContainer<String, String>> getContainers() {
+        return List.copyOf(containers);
+    }
+
+    void onBatch(NotificationRetryTopics.Tier tier, List<ConsumerRecord<String, String>> records,
+                 Acknowledgment acknowledgment) {
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, String> record = records.get(i);
+            long wait = NotificationRetryTopics.notBefore(record) - System.currentTimeMillis();
+            if (wait > 0) {
+                // Commit what ran, then pause this tier until the record is due
+                acknowledgment.nack(i, Duration.ofMillis(wait));
+                return;
+            }
+            try {
+                pipeline.process(record);
+                retryTopics.recordOutcome(tier, "succeeded");
+            } catch (Exception e) {
+                retryTopics.recordOutcome(tier, "failed");
+                throw new BatchListenerFailedException("Retry " + NotificationRetryTopics.attempt(record)
+                        + " of notification " + record.topic() + "-" + record.partition() + "@" + record.offset()
+                        + " failed", e, i);
+            }
+        }
+        acknowledgment.acknowledge();
+    }
+
+    @Override
+    public synchronized void destroy() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        containers.clear();
+    }
+}
@@ -0,0 +1,98 @@
+package com.java17.kafka.security.service;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Offsets of one partition that were handed to workers but have not finished yet.
+ * Offsets are dispatched in increasing order from the consumer thread and complete in any
+ * order on worker threads; the committable offset is the first one still pending, so a slow
+ * record holds back the commit of everything behind it but never lets it be skipped.
+ */
+class PartitionOffsetTracker {
+
+    private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<>();
+    private final Object drained = new Object();
+    private volatile long nextOffset = -1;
+    // Advanced by whichever consumer thread owns the partition at the time; lastCommitted
+    // when a commit is sent, lastConfirmed when the broker acknowledges it
+    private volatile long lastCommitted = -1;
+    private volatile long lastConfirmed = -1;
+
+    /**
+     * Called on the consumer thread before the record is handed to a worker
+     */
+    void dispatched(long offset) {
+        pending.add(offset);
+        nextOffset = offset + 1;
+    }
+
+    void completed(long offset) {
+        pending.remove(offset);
+        if (pending.isEmpty()) {
+            synchronized (drained) {
+                drained.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Offset to commit: everything below it has completed. -1 before the first dispatch.
+     */
+    long committableOffset() {
+        long next = nextOffset;
+        Long lowestPending = pending.ceiling(Long.MIN_VALUE);
+        return lowestPending != null ? lowestPending : next;
+    }
+
+    /**
+     * The committable offset if it moved since the last call that returned one, otherwise -1.
+     * Only called from the thread of the consumer the partition is assigned to, as are
+     * {@link #commitSucceeded} and {@link #commitFailed}.
+     */
+    long advance() {
+        long committable = committableOffset();
+        if (committable > lastCommitted) {
+            lastCommitted = committable;
+            return committable;
+        }
+        return -1;
+    }
+
+    void commitSucceeded(long offset) {
+        if (offset > lastConfirmed) {
+            lastConfirmed = offset;
+        }
+    }
+
+    /**
+     * Forget a commit that did not go through, so the next {@link #advance} returns its offset
+     * again. A later commit already sent is left alone; it carries a higher offset.
+     */
+    void commitFailed(long offset) {
+        if (lastCommitted == offset) {
+            lastCommitted = lastConfirmed;
+        }
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Wait until every dispatched record has completed
+     */
+    boolean awaitDrained(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (drained) {
+            while (!pending.isEmpty()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                drained.wait(Math.max(1, remaining / 1_000_000));
+            }
+        }
+        return true;
+    }
+}
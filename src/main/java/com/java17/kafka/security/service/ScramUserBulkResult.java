@@ -0,0 +1,47 @@
+package com.java17.kafka.security.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-user outcome of a bulk SCRAM upsert
+ */
+public class ScramUserBulkResult {
+
+    private int succeeded;
+    private final Map<String, String> failures = new LinkedHashMap<>();
+
+    void recordSuccess() {
+        succeeded++;
+    }
+
+    void recordFailure(String username, Throwable error) {
+        failures.put(username, error.getClass().getSimpleName() + ": " + error.getMessage());
+    }
+
+    void merge(ScramUserBulkResult other) {
+        succeeded += other.succeeded;
+        failures.putAll(other.failures);
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failures.size();
+    }
+
+    public Map<String, String> getFailures() {
+        return failures;
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "succeeded=" + succeeded + ", failed=" + failures.size();
+    }
+}
@@ -0,0 +1,15 @@
+package com.java17.kafka.security.service;
+
+import org.apache.kafka.clients.admin.ScramMechanism;
+
+import java.util.Collection;
+
+/**
+ * Callback for SCRAM credential writes made through {@link KafkaUserManager}.
+ * Invoked on the calling thread once the broker has applied the change, with the users that
+ * succeeded; passwords are never passed on. Implementations must be quick and must not block.
+ */
+public interface ScramUserChangeListener {
+
+    void onScramUsersUpserted(Collection<String> usernames, ScramMechanism mechanism, int iterations);
+}
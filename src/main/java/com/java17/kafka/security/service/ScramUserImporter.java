@@ -0,0 +1,134 @@
+package com.java17.kafka.security.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.admin.ScramMechanism;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads large user lists from a request body and upserts them in bounded chunks, so only
+ * one chunk of credentials is held in memory at a time.
+ * <p>
+ * JSON: {@code [{"username":"alice","password":"..."}, ...]}<br>
+ * CSV: one {@code username,password} per line; an optional header line, blank lines
+ * and lines starting with {@code #} are skipped.
+ */
+@Service
+public class ScramUserImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScramUserImporter.class);
+
+    private final KafkaUserManager userManager;
+    private final JsonFactory jsonFactory;
+    private final int chunkSize;
+
+    @Autowired
+    public ScramUserImporter(KafkaUserManager userManager, ObjectMapper objectMapper,
+                             @Value("${kafka.users.bulk.batch-size:500}") int chunkSize) {
+        this.userManager = userManager;
+        this.jsonFactory = objectMapper.getFactory();
+        this.chunkSize = chunkSize;
+    }
+
+    public ScramUserBulkResult importJson(InputStream body, ScramMechanism mechanism, int iterations)
+            throws IOException, InterruptedException {
+        ScramUserBulkResult result = new ScramUserBulkResult();
+        Map<String, String> chunk = new LinkedHashMap<>();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of {\"username\", \"password\"} objects");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String username = null;
+                String password = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    if ("username".equals(field)) {
+                        username = parser.getValueAsString();
+                    } else if ("password".equals(field)) {
+                        password = parser.getValueAsString();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                add(chunk, username, password, result, mechanism, iterations);
+            }
+        }
+        flush(chunk, result, mechanism, iterations);
+        return result;
+    }
+
+    public ScramUserBulkResult importCsv(InputStream body, ScramMechanism mechanism, int iterations)
+            throws IOException, InterruptedException {
+        ScramUserBulkResult result = new ScramUserBulkResult();
+        Map<String, String> chunk = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            boolean first = true;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (first && trimmed.equalsIgnoreCase("username,password")) {
+                    first = false;
+                    continue;
+                }
+                first = false;
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                // Passwords may contain commas, user names may not
+                int comma = trimmed.indexOf(',');
+                if (comma < 0) {
+                    add(chunk, trimmed, null, result, mechanism, iterations);
+                } else {
+                    add(chunk, trimmed.substring(0, comma).trim(), trimmed.substring(comma + 1),
+                            result, mechanism, iterations);
+                }
+            }
+        }
+        flush(chunk, result, mechanism, iterations);
+        return result;
+    }
+
+    private void add(Map<String, String> chunk, String username, String password, ScramUserBulkResult result,
+                     ScramMechanism mechanism, int iterations) throws InterruptedException {
+        if (username == null || username.isEmpty() || password == null || password.isEmpty()) {
+            result.recordFailure(String.valueOf(username),
+                    new IllegalArgumentException("username and password are required"));
+            return;
+        }
+        if (chunk.containsKey(username)) {
+            // The broker rejects the same user twice in one request; send the earlier entry first
+            flush(chunk, result, mechanism, iterations);
+        }
+        chunk.put(username, password);
+        if (chunk.size() >= chunkSize) {
+            flush(chunk, result, mechanism, iterations);
+        }
+    }
+
+    private void flush(Map<String, String> chunk, ScramUserBulkResult result,
+                       ScramMechanism mechanism, int iterations) throws InterruptedException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        ScramUserBulkResult chunkResult = userManager.upsertScramUsers(chunk, mechanism, iterations);
+        result.merge(chunkResult);
+        logger.info("Upserted {} SCRAM users ({})", chunk.size(), chunkResult);
+        chunk.clear();
+    }
+}
@@ -0,0 +1,287 @@
+package com.java17.kafka.security.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.admin.ScramMechanism;
+import org.apache.kafka.common.acl.AclBinding;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.java17.kafka.security.config.AdminOperationMetrics;
+import com.java17.kafka.security.config.KafkaAclManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Setup for very large manifests. The body has the shape of {@code KafkaSecuritySetupRequest}
+ * but is read token by token: every producer/consumer entry becomes ACL bindings that go
+ * straight into a provisioning session, so the first ACLs are created while the rest of the
+ * body is still arriving. When the session has {@code max-in-flight} batches outstanding the
+ * parser blocks, which stops reading the request and pushes back on the client. As with
+ * {@link AclReconciler}, bindings that already exist are counted as unchanged rather than
+ * created again; the cluster's ACLs are described one principal at a time, when the manifest
+ * moves on to that principal, so only one principal's bindings are held.
+ * <p>
+ * {@code users} entries are {@code {"username": "...", "password": "..."}} objects and are
+ * upserted in chunks; no password is kept beyond its chunk except the broker admin's. An
+ * entry without a username or password is reported as a failed user. Broker
+ * JAAS config is generated at the end, once {@code superUsers} and {@code jaasConfigPath} are
+ * known. The admin is the first super user, so with {@code jaasConfigPath} the
+ * {@code superUsers} field must come before {@code users}.
+ */
+@Service
+public class StreamingSetupService {
+
+    private final AclProvisioningEngine provisioningEngine;
+    private final AclReconciler aclReconciler;
+    private final KafkaUserManager userManager;
+    private final KafkaBrokerSecurityService brokerSecurityService;
+    private final JsonFactory jsonFactory;
+    private final AdminOperationMetrics metrics;
+    private final int userChunkSize;
+
+    @Autowired
+    public StreamingSetupService(AclProvisioningEngine provisioningEngine,
+                                 AclReconciler aclReconciler,
+                                 KafkaUserManager userManager,
+                                 KafkaBrokerSecurityService brokerSecurityService,
+                                 ObjectMapper objectMapper,
+                                 AdminOperationMetrics metrics,
+                                 @Value("${kafka.users.bulk.batch-size:500}") int userChunkSize) {
+        this.provisioningEngine = provisioningEngine;
+        this.aclReconciler = aclReconciler;
+        this.userManager = userManager;
+        this.brokerSecurityService = brokerSecurityService;
+        this.jsonFactory = objectMapper.getFactory();
+        this.metrics = metrics;
+        this.userChunkSize = userChunkSize;
+    }
+
+    public Map<String, Object> setup(InputStream body) throws IOException, InterruptedException {
+        Timer.Sample sample = metrics.start();
+        try {
+            Map<String, Object> result = doSetup(body);
+            metrics.stop(sample, "setup.stream", "mixed", outcome(result));
+            return result;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            metrics.stop(sample, "setup.stream", "mixed", e);
+            throw e;
+        }
+    }
+
+    private static String outcome(Map<String, Object> result) {
+        boolean failures = ((AclProvisioningReport) result.get("acls")).hasFailures()
+                || ((ScramUserBulkResult) result.get("users")).hasFailures();
+        return failures ? AdminOperationMetrics.PARTIAL : AdminOperationMetrics.SUCCESS;
+    }
+
+    private Map<String, Object> doSetup(InputStream body) throws IOException, InterruptedException {
+        State state = new State(provisioningEngine.openSession());
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT, parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "brokerConfigPath" -> state.brokerConfigPath = parser.getValueAsString();
+                    case "jaasConfigPath" -> {
+                        state.jaasConfigPath = parser.getValueAsString();
+                        requireAdminPassword(state, parser);
+                    }
+                    case "superUsers" -> readSuperUsers(parser, value, state);
+                    case "users" -> readUsers(parser, value, state);
+                    case "producerTopics" -> readProducerTopics(parser, value, state);
+                    case "consumerTopicsGroups" -> readConsumerTopicsGroups(parser, value, state);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        flushUsers(state);
+        AclProvisioningReport aclReport = state.session.finish();
+        generateBrokerConfig(state);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("acls", aclReport);
+        result.put("aclsUnchanged", state.unchangedAcls);
+        result.put("users", state.userResult);
+        return result;
+    }
+
+    private void readSuperUsers(JsonParser parser, JsonToken value, State state)
+            throws IOException, InterruptedException {
+        expect(value, JsonToken.START_ARRAY, parser);
+        List<String> superUsers = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            String superUser = parser.getValueAsString();
+            // The first super user is the broker admin and already has ALTER --cluster
+            if (!superUsers.isEmpty()) {
+                addAcls(KafkaAclManager.adminAclBindings(superUser), state);
+            }
+            superUsers.add(superUser);
+        }
+        state.superUsers = superUsers;
+        requireAdminPassword(state, parser);
+    }
+
+    /**
+     * Passwords are not kept once their chunk is upserted, so the admin's can only be picked
+     * up if the admin is known before the users are read
+     */
+    private static void requireAdminPassword(State state, JsonParser parser) throws IOException {
+        if (state.jaasConfigPath != null && state.superUsers != null && state.usersReadBeforeSuperUsers) {
+            throw new IOException("superUsers must come before users when jaasConfigPath is set, at "
+                    + parser.currentLocation());
+        }
+    }
+
+    private void readUsers(JsonParser parser, JsonToken value, State state) throws IOException, InterruptedException {
+        expect(value, JsonToken.START_ARRAY, parser);
+        if (state.superUsers == null) {
+            state.usersReadBeforeSuperUsers = true;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                // Plain user names carry no credentials and are ignored, as in /setup
+                parser.skipChildren();
+                continue;
+            }
+            String username = null;
+            String password = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("username".equals(field)) {
+                    username = parser.getValueAsString();
+                } else if ("password".equals(field)) {
+                    password = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (username == null || username.isEmpty() || password == null || password.isEmpty()) {
+                state.userResult.recordFailure(String.valueOf(username),
+                        new IllegalArgumentException("username and password are required"));
+                continue;
+            }
+            if (state.superUsers != null && !state.superUsers.isEmpty()
+                    && username.equals(state.superUsers.get(0))) {
+                state.adminPassword = password;
+            }
+            if (state.userChunk.containsKey(username)) {
+                flushUsers(state);
+            }
+            state.userChunk.put(username, password);
+            if (state.userChunk.size() >= userChunkSize) {
+                flushUsers(state);
+            }
+        }
+    }
+
+    private void readProducerTopics(JsonParser parser, JsonToken value, State state)
+            throws IOException, InterruptedException {
+        expect(value, JsonToken.START_OBJECT, parser);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String username = parser.currentName();
+            expect(parser.nextToken(), JsonToken.START_ARRAY, parser);
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                addAcls(KafkaAclManager.producerAclBindings(username, parser.getValueAsString()), state);
+            }
+        }
+    }
+
+    private void readConsumerTopicsGroups(JsonParser parser, JsonToken value, State state)
+            throws IOException, InterruptedException {
+        expect(value, JsonToken.START_OBJECT, parser);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String username = parser.currentName();
+            expect(parser.nextToken(), JsonToken.START_OBJECT, parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String topic = parser.currentName();
+                parser.nextToken();
+                addAcls(KafkaAclManager.consumerAclBindings(username, topic, parser.getValueAsString()), state);
+            }
+        }
+    }
+
+    /**
+     * Queue the bindings that are not on the cluster yet. A principal's current bindings are
+     * described when its first binding arrives and dropped when another principal's arrives;
+     * repeats within the manifest are left to the session's duplicate check.
+     */
+    private void addAcls(Collection<AclBinding> aclBindings, State state) throws InterruptedException {
+        for (AclBinding aclBinding : aclBindings) {
+            String principal = aclBinding.entry().principal();
+            if (!principal.equals(state.principal)) {
+                try {
+                    state.existingAcls = aclReconciler.currentBindings(principal);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Could not describe the current ACLs of " + principal,
+                            e.getCause());
+                }
+                state.principal = principal;
+            }
+            if (state.existingAcls.contains(aclBinding)) {
+                state.unchangedAcls++;
+            } else {
+                state.session.add(aclBinding);
+            }
+        }
+    }
+
+    private void flushUsers(State state) throws InterruptedException {
+        if (!state.userChunk.isEmpty()) {
+            state.userResult.merge(userManager.upsertScramUsers(state.userChunk, ScramMechanism.SCRAM_SHA_512));
+            state.userChunk.clear();
+        }
+    }
+
+    private void generateBrokerConfig(State state) throws IOException {
+        if (state.superUsers == null || state.superUsers.isEmpty()) {
+            return;
+        }
+        if (state.jaasConfigPath != null) {
+            brokerSecurityService.generateBrokerJaasConfig(state.jaasConfigPath,
+                    state.superUsers.get(0), state.adminPassword, state.superUsers);
+        }
+        brokerSecurityService.generateSuperUserConfig(state.superUsers);
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected, JsonParser parser) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Expected " + expected + " but found " + actual
+                    + " at " + parser.currentLocation());
+        }
+    }
+
+    private static final class State {
+
+        private final AclProvisioningEngine.Session session;
+        private final ScramUserBulkResult userResult = new ScramUserBulkResult();
+        private final Map<String, String> userChunk = new LinkedHashMap<>();
+        // Current bindings of the principal whose entries are being read
+        private String principal;
+        private Set<AclBinding> existingAcls;
+        private int unchangedAcls;
+        private boolean usersReadBeforeSuperUsers;
+        private String brokerConfigPath;
+        private String jaasConfigPath;
+        private List<String> superUsers;
+        private String adminPassword;
+
+        private State(AclProvisioningEngine.Session session) {
+            this.session = session;
+        }
+    }
+}
@@ -3,7 +3,8 @@ package com.java17.kafka.security;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Schema update needs a running MySQL; the context must load without one
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.hbm2ddl.auto=none")
 class ApplicationTests {
 
 	@Test
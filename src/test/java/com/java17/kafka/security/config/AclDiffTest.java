@@ -0,0 +1,48 @@
+package com.java17.kafka.security.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.kafka.common.acl.AclBinding;
+import org.junit.jupiter.api.Test;
+
+class AclDiffTest {
+
+	private final List<AclBinding> producer = KafkaAclManager.producerAclBindings("app", "orders");
+	private final List<AclBinding> consumer = KafkaAclManager.consumerAclBindings("app", "orders", "app-group");
+
+	@Test
+	void addsOnlyWhatIsMissing() {
+		List<AclBinding> desired = new ArrayList<>(producer);
+		desired.addAll(consumer);
+
+		AclDiff diff = AclDiff.between(desired, producer, false);
+
+		assertThat(diff.getToAdd()).containsExactlyElementsOf(consumer);
+		assertThat(diff.getToRemove()).isEmpty();
+		assertThat(diff.getUnchanged()).isEqualTo(producer.size());
+	}
+
+	@Test
+	void removesUndesiredBindingsOnlyWhenPruning() {
+		assertThat(AclDiff.between(producer, consumer, false).getToRemove()).isEmpty();
+
+		AclDiff pruned = AclDiff.between(producer, consumer, true);
+
+		assertThat(pruned.getToAdd()).containsExactlyElementsOf(producer);
+		assertThat(pruned.getToRemove()).containsExactlyElementsOf(consumer);
+	}
+
+	@Test
+	void duplicatesAndMatchingStateAreNoChange() {
+		List<AclBinding> desired = new ArrayList<>(producer);
+		desired.addAll(producer);
+
+		AclDiff diff = AclDiff.between(desired, producer, true);
+
+		assertThat(diff.isEmpty()).isTrue();
+		assertThat(diff.getUnchanged()).isEqualTo(producer.size());
+	}
+}
@@ -0,0 +1,114 @@
+package com.java17.kafka.security.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.mock.MockProducerFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdaptiveSendCoalescerTest {
+
+	private static final Duration MAX_LINGER = Duration.ofMillis(50);
+
+	private final MockProducer<String, String> producer = new MockProducer<>(false, new StringSerializer(),
+			new StringSerializer());
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AdaptiveSendCoalescer coalescer = new AdaptiveSendCoalescer(
+			new KafkaTemplate<>(new MockProducerFactory<>(() -> producer)), meterRegistry, MAX_LINGER,
+			Duration.ofMillis(20), 0.7, 1000, Duration.ZERO);
+
+	@Test
+	void lingerFollowsQueueTimeBatchFillAndRate() {
+		// Queue time over the 20 ms target halves the linger
+		assertThat(coalescer.adjust(10_000, 900, 35)).isEqualTo(AdaptiveSendCoalescer.Decision.DECREASE);
+		assertThat(coalescer.getLinger()).isEqualTo(Duration.ofMillis(25));
+
+		// Underfilled batches within the latency target raise it step by step, up to the maximum
+		assertThat(coalescer.adjust(10_000, 300, 10)).isEqualTo(AdaptiveSendCoalescer.Decision.INCREASE);
+		assertThat(coalescer.getLinger()).isEqualTo(Duration.ofMillis(30));
+		for (int i = 0; i < 10; i++) {
+			coalescer.adjust(10_000, 300, 10);
+		}
+		assertThat(coalescer.getLinger()).isEqualTo(MAX_LINGER);
+
+		// A trickle cannot be coalesced, so records go out right away once the smoothed rate has caught up
+		for (int i = 0; i < 30; i++) {
+			coalescer.adjust(1, Double.NaN, Double.NaN);
+		}
+		assertThat(coalescer.getLinger()).isZero();
+		assertThat(meterRegistry.get("kafka.producer.adaptive.decisions").tag("decision", "idle").counter().count())
+				.isPositive();
+	}
+
+	@Test
+	void adjustsOnlyOnceSomethingIsSent() throws Exception {
+		AtomicInteger metricsReads = new AtomicInteger();
+		KafkaTemplate<String, String> template = new KafkaTemplate<>(new MockProducerFactory<>(() -> producer)) {
+			@Override
+			public Map<MetricName, ? extends Metric> metrics() {
+				metricsReads.incrementAndGet();
+				return super.metrics();
+			}
+		};
+		try (AdaptiveSendCoalescer scheduled = new AdaptiveSendCoalescer(template, new SimpleMeterRegistry(),
+				MAX_LINGER, Duration.ofMillis(20), 0.7, 1000, Duration.ofMillis(10))) {
+			Thread.sleep(100);
+			assertThat(scheduled.isAdjusting()).isFalse();
+			assertThat(metricsReads).hasValue(0);
+
+			scheduled.send("t", "k", "v");
+
+			assertThat(scheduled.isAdjusting()).isTrue();
+			await().atMost(Duration.ofSeconds(5)).until(() -> metricsReads.get() > 0);
+		}
+	}
+
+	@Test
+	void sendsAreFlushedEarlyOnceLingerIsBelowTheProducers() {
+		for (int i = 0; i < 10; i++) {
+			coalescer.adjust(0, Double.NaN, Double.NaN);
+		}
+		assertThat(coalescer.getLinger()).isZero();
+
+		coalescer.send("t", "k", "v");
+
+		await().atMost(Duration.ofSeconds(5)).until(() -> producer.flushed());
+		assertThat(meterRegistry.get("kafka.producer.adaptive.flushes").counter().count()).isEqualTo(1);
+		coalescer.close();
+	}
+
+	@Test
+	void flushesSendsReportedByComponentsUsingTheTemplate() throws Exception {
+		KafkaTemplate<String, String> template = new KafkaTemplate<>(new MockProducerFactory<>(() -> producer));
+		try (AdaptiveSendCoalescer reported = new AdaptiveSendCoalescer(template, meterRegistry, MAX_LINGER,
+				Duration.ofMillis(20), 0.7, 1000, Duration.ofMillis(10))) {
+			for (int i = 0; i < 10; i++) {
+				reported.adjust(0, Double.NaN, Double.NaN);
+			}
+
+			// Another template's send is not this coalescer's to flush
+			reported.sent(new KafkaTemplate<>(new MockProducerFactory<>(() -> producer)));
+			assertThat(reported.isAdjusting()).isFalse();
+
+			// As the dead letter recoverer does: send on the template, then report it
+			template.send(new ProducerRecord<>("t", "k", "v"));
+			reported.sent(template);
+
+			assertThat(reported.isAdjusting()).isTrue();
+			await().atMost(Duration.ofSeconds(5)).until(() -> producer.flushed());
+			assertThat(meterRegistry.get("kafka.producer.adaptive.flushes").counter().count()).isEqualTo(1);
+		}
+	}
+}
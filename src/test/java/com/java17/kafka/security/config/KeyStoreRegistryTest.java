@@ -0,0 +1,57 @@
+package com.java17.kafka.security.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class KeyStoreRegistryTest {
+
+	private static final char[] PASSWORD = "abhimanyu".toCharArray();
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void reloadsOnlyWhenTheContentChanges() throws Exception {
+		Path file = dir.resolve("keystore.p12");
+		try (InputStream in = getClass().getClassLoader().getResourceAsStream("keys/keystore.p12")) {
+			Files.write(file, in.readAllBytes());
+		}
+		String location = file.toUri().toString();
+		KeyStoreRegistry registry = new KeyStoreRegistry(Duration.ZERO);
+
+		KeyStoreRegistry.Material first = registry.get(location, "PKCS12", PASSWORD);
+		KeyPair keyPair = first.getKeyPair("signjwt");
+		assertThat(keyPair).isNotNull();
+		assertThat(first.getCertificate("signjwt").getPublicKey()).isEqualTo(keyPair.getPublic());
+		assertThat(registry.get(location, "PKCS12", PASSWORD).getKeyPair("signjwt")).isSameAs(keyPair);
+
+		// Touched but identical: the hash matches, nothing is reloaded
+		Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+		assertThat(registry.get(location, "PKCS12", PASSWORD)).isSameAs(first);
+
+		// Stored again under a new salt: same keys, different bytes
+		KeyStore copy = first.getKeyStore();
+		try (OutputStream out = Files.newOutputStream(file)) {
+			copy.store(out, PASSWORD);
+		}
+		Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 20_000));
+		KeyStoreRegistry.Material reloaded = registry.get(location, "PKCS12", PASSWORD);
+		assertThat(reloaded).isNotSameAs(first);
+		assertThat(reloaded.getKeyPair("signjwt").getPrivate()).isEqualTo(keyPair.getPrivate());
+
+		// A broken file keeps the last good store
+		Files.write(file, new byte[] { 1, 2, 3 });
+		assertThat(registry.get(location, "PKCS12", PASSWORD)).isSameAs(reloaded);
+	}
+}
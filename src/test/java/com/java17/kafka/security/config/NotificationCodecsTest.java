@@ -0,0 +1,135 @@
+package com.java17.kafka.security.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import com.java17.kafka.security.dto.NotificationEvent;
+
+class NotificationCodecsTest {
+
+	private final NotificationEventDeserializer deserializer = new NotificationEventDeserializer();
+
+	@Test
+	void everyCodecRoundTripsThroughTheSharedDeserializer() {
+		NotificationEvent event = new NotificationEvent("8c1f5b7e-62a4", "student_4711", "COURSE_REMINDER",
+				"Kurs 'Verteilte Systeme' beginnt um 09:00 – Raum 4.12", 1729155600000L, true);
+		NotificationEvent withNulls = new NotificationEvent(null, "student_1", null, null, -5L, false);
+
+		for (String name : NotificationCodecs.names()) {
+			NotificationEventSerializer serializer = new NotificationEventSerializer();
+			serializer.configure(Map.of(NotificationEventSerializer.CODEC_CONFIG, name), false);
+
+			assertThat(deserializer.deserialize("t", serializer.serialize("t", event))).isEqualTo(event);
+			assertThat(deserializer.deserialize("t", serializer.serialize("t", withNulls))).isEqualTo(withNulls);
+		}
+	}
+
+	@Test
+	void binaryIsSmallerThanJsonAndJsonFromSpringStillDecodes() {
+		NotificationEvent event = new NotificationEvent("8c1f5b7e-62a4-4f0c-9d0e-0d7f1a3b2c11", "student_4711",
+				"COURSE_REMINDER", "Course 'Distributed Systems' starts on Monday at 09:00, room 4.12",
+				1729155600000L, false);
+		byte[] binary = new NotificationEventSerializer().serialize("t", event);
+		try (JsonSerializer<NotificationEvent> spring = new JsonSerializer<>()) {
+			byte[] json = spring.serialize("t", event);
+			assertThat(binary.length).isLessThan(json.length);
+			assertThat(deserializer.deserialize("t", json)).isEqualTo(event);
+		}
+	}
+
+	@Test
+	void unknownFormatIsRejected() {
+		assertThatThrownBy(() -> deserializer.deserialize("t", new byte[] { 0x7F, 1, 2 }))
+				.isInstanceOf(SerializationException.class);
+		assertThatThrownBy(() -> NotificationCodecs.forName("avro")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void binaryEncodesUtf8LikeStringGetBytes() {
+		String message = "emoji \uD83D\uDE80, umlaut \u00FC, cjk \u4E2D, lone surrogate \uD800!";
+		NotificationEvent event = new NotificationEvent("id", "user", "T", message, 1L, false);
+		byte[] bytes = new NotificationEventSerializer().serialize("t", event);
+
+		assertThat(bytes).hasSize(new BinaryNotificationCodec().encodedSize(event));
+		assertThat(deserializer.deserialize("t", bytes).getMessage())
+				.isEqualTo(new String(message.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void viewReadsFieldsInPlaceFromASliceOfTheFetchedBuffer() {
+		NotificationEvent event = new NotificationEvent("id-1", "student_4711", "COURSE_REMINDER", "x".repeat(10_000),
+				42L, true);
+		byte[] payload = new NotificationEventSerializer().serialize("t", event);
+		// Records reach the deserializer as a slice of a larger fetch buffer
+		ByteBuffer fetched = ByteBuffer.allocate(payload.length + 20);
+		fetched.position(10);
+		fetched.put(payload);
+		ByteBuffer value = fetched.position(10).slice().limit(payload.length);
+
+		NotificationEventView view = new NotificationEventViewDeserializer().deserialize("t", new RecordHeaders(), value);
+
+		assertThat(view.getType()).isEqualTo("COURSE_REMINDER");
+		assertThat(view.getMessageSize()).isEqualTo(10_000);
+		assertThat(view.getTimestamp()).isEqualTo(42L);
+		assertThat(view.isRead()).isTrue();
+		assertThat(view.toEvent()).isEqualTo(event);
+		assertThat(value.position()).isZero();
+
+		NotificationEventSerializer json = new NotificationEventSerializer();
+		json.configure(Map.of(NotificationEventSerializer.CODEC_CONFIG, "json"), false);
+		NotificationEventView jsonView = new NotificationEventViewDeserializer().deserialize("t", json.serialize("t", event));
+		assertThat(jsonView.getCodec()).isEqualTo("json");
+		assertThat(jsonView.getUserId()).isEqualTo("student_4711");
+		assertThat(jsonView.getMessageSize()).isEqualTo(10_000);
+	}
+
+	@Test
+	void errorHandlingWrapperPassesTheFetchedBufferThrough() {
+		byte[] payload = new NotificationEventSerializer().serialize("t",
+				new NotificationEvent("id-1", "student_4711", "COURSE_REMINDER", "hello", 42L, true));
+		ByteBuffer fetched = ByteBuffer.wrap(payload);
+		AtomicReference<ByteBuffer> seen = new AtomicReference<>();
+		Deserializer<NotificationEventView> recording = new NotificationEventViewDeserializer() {
+			@Override
+			public NotificationEventView deserialize(String topic, Headers headers, ByteBuffer data) {
+				seen.set(data);
+				return super.deserialize(topic, headers, data);
+			}
+		};
+
+		// Spring's wrapper only has the byte[] methods: the delegate gets a copy, never the buffer
+		new ErrorHandlingDeserializer<>(recording).deserialize("t", new RecordHeaders(), fetched);
+		assertThat(seen.get()).isNull();
+
+		NotificationEventView view = new ByteBufferErrorHandlingDeserializer<>(recording)
+				.deserialize("t", new RecordHeaders(), fetched);
+		assertThat(seen.get().array()).isSameAs(payload);
+		assertThat(view.getType()).isEqualTo("COURSE_REMINDER");
+		assertThat(fetched.position()).isZero();
+	}
+
+	@Test
+	void errorHandlingWrapperRecordsFailuresInTheHeaders() {
+		RecordHeaders headers = new RecordHeaders();
+
+		NotificationEventView view = new ByteBufferErrorHandlingDeserializer<>(new NotificationEventViewDeserializer())
+				.deserialize("t", headers, ByteBuffer.wrap(new byte[] { (byte) 0x7F, 1, 2 }));
+
+		assertThat(view).isNull();
+		assertThat(headers.lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER)).isNotNull();
+	}
+}
@@ -0,0 +1,73 @@
+package com.java17.kafka.security.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.kafka.support.serializer.DeserializationException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class NotificationRetryTopicsTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final NotificationRetryTopics retryTopics = new NotificationRetryTopics(
+			List.of(Duration.ofSeconds(1), Duration.ofSeconds(10), Duration.ofSeconds(60)), 3, meterRegistry);
+
+	@Test
+	void walksTiersThenDeadLetters() {
+		assertThat(retryTopics.getTiers()).extracting(NotificationRetryTopics.Tier::getTopic).containsExactly(
+				"notification-events-retry-1s", "notification-events-retry-10s", "notification-events-retry-1m");
+
+		ConsumerRecord<String, String> record = new ConsumerRecord<>(KafkaConfig.NOTIFICATION_TOPIC, 0, 0, "k", "v");
+		String[] expected = { "notification-events-retry-1s", "notification-events-retry-10s",
+				"notification-events-retry-1m", KafkaConfig.NOTIFICATION_DLQ };
+		for (int attempt = 0; attempt < expected.length; attempt++) {
+			assertThat(NotificationRetryTopics.attempt(record)).isEqualTo(attempt);
+			assertThat(retryTopics.destination(record, new IllegalStateException()).topic()).isEqualTo(expected[attempt]);
+			record = republish(record, retryTopics.nextAttemptHeaders(record, new IllegalStateException()));
+		}
+
+		assertThat(meterRegistry.get("kafka.notification.retry.records").tag("outcome", "scheduled").counters())
+				.hasSize(3);
+		assertThat(meterRegistry.get("kafka.notification.retry.records").tag("outcome", "dead_lettered").counter()
+				.count()).isEqualTo(1);
+	}
+
+	@Test
+	void unreadableRecordsSkipTheRetryTiers() {
+		ConsumerRecord<String, String> record = new ConsumerRecord<>(KafkaConfig.NOTIFICATION_TOPIC, 0, 0, "k", null);
+		Exception failure = new ListenerExecutionFailedException("Listener failed",
+				new DeserializationException("Could not decode", new byte[] { 2, 0 }, false, new IllegalStateException()));
+
+		assertThat(retryTopics.destination(record, failure).topic()).isEqualTo(KafkaConfig.NOTIFICATION_DLQ);
+	}
+
+	@Test
+	void scheduledRecordsCarryTheirTierDelay() {
+		ConsumerRecord<String, String> record = new ConsumerRecord<>(KafkaConfig.NOTIFICATION_TOPIC, 0, 0, "k", "v");
+		long before = System.currentTimeMillis();
+		ConsumerRecord<String, String> retried = republish(record,
+				retryTopics.nextAttemptHeaders(record, new IllegalStateException()));
+
+		assertThat(NotificationRetryTopics.notBefore(retried)).isBetween(before + 1000, System.currentTimeMillis() + 1000);
+	}
+
+	// What the dead letter publisher does: keep the original headers and append the new ones
+	private static ConsumerRecord<String, String> republish(ConsumerRecord<String, String> record, Headers added) {
+		ConsumerRecord<String, String> next = new ConsumerRecord<>("retry", 0, 0, record.key(), record.value());
+		for (Header header : record.headers()) {
+			next.headers().add(header);
+		}
+		for (Header header : added) {
+			next.headers().add(header);
+		}
+		return next;
+	}
+}
@@ -0,0 +1,197 @@
+package com.java17.kafka.security.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@EmbeddedKafka(partitions = 4, topics = TransactionalProducerPoolTest.TOPIC, brokerProperties = {
+		"transaction.state.log.replication.factor=1", "transaction.state.log.min.isr=1" })
+class TransactionalProducerPoolTest {
+
+	static final String TOPIC = "pool-events";
+
+	private static final int THREADS = 8;
+	private static final int TRANSACTIONS_PER_THREAD = 25;
+	private static final int RECORDS_PER_TRANSACTION = 10;
+
+	private static final Map<String, Object> PLAINTEXT = Map.of(CommonClientConfigs.SECURITY_PROTOCOL_CONFIG, "PLAINTEXT");
+
+	@Test
+	void concurrentSendersShareBoundedPoolWithoutLosingOrDuplicatingRecords(EmbeddedKafkaBroker broker) throws Exception {
+		String brokers = broker.getBrokersAsString();
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		Map<String, Object> config = KafkaProducerConfig.baseProducerConfig(brokers, PLAINTEXT, "unused-");
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try (TransactionalProducerPool pool = new TransactionalProducerPool(config, "pool-test-", 3,
+				Duration.ofSeconds(30), Duration.ofMinutes(5), meterRegistry)) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				int thread = t;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < TRANSACTIONS_PER_THREAD; i++) {
+						int transaction = i;
+						// Half of the threads pin transactions to the partition's slot, the rest use their own slot
+						if (thread % 2 == 0) {
+							int partition = transaction % 4;
+							pool.executeInTransaction(new TopicPartition(TOPIC, partition),
+									producer -> send(producer, thread, transaction, partition));
+						} else {
+							pool.executeInTransaction(producer -> send(producer, thread, transaction, null));
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+			assertThat(pool.activeProducers()).isLessThanOrEqualTo(3);
+			assertThat(meterRegistry.get("kafka.producer.pool.wait").timer().count())
+					.isEqualTo(THREADS * TRANSACTIONS_PER_THREAD);
+			assertThat(meterRegistry.get("kafka.producer.pool.wait.timeouts").counter().count()).isZero();
+
+			int expected = THREADS * TRANSACTIONS_PER_THREAD * RECORDS_PER_TRANSACTION;
+			List<String> values = readCommitted(brokers, expected);
+			assertThat(values).hasSize(expected);
+			assertThat(new HashSet<>(values)).hasSize(expected);
+
+			pool.evictIdle();
+			assertThat(pool.activeProducers()).isPositive();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void idleProducersAreClosedAndRecreatedOnDemand(EmbeddedKafkaBroker broker) throws Exception {
+		Map<String, Object> config = KafkaProducerConfig.baseProducerConfig(broker.getBrokersAsString(), PLAINTEXT,
+				"unused-");
+		try (TransactionalProducerPool pool = new TransactionalProducerPool(config, "pool-idle-", 2,
+				Duration.ofSeconds(30), Duration.ZERO, new SimpleMeterRegistry())) {
+			pool.executeInTransaction(0, producer -> producer.send(new ProducerRecord<>(TOPIC, "k", "v")));
+			assertThat(pool.activeProducers()).isEqualTo(1);
+
+			pool.evictIdle();
+			assertThat(pool.activeProducers()).isZero();
+
+			pool.executeInTransaction(0, producer -> producer.send(new ProducerRecord<>(TOPIC, "k", "v")));
+			assertThat(pool.activeProducers()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	void transactionManagerRunsTransactionsOnPooledProducers() throws Exception {
+		List<MockProducer<String, String>> created = new CopyOnWriteArrayList<>();
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try (TransactionalProducerPool pool = new TransactionalProducerPool(id -> mockProducer(created), "pool-tm-", 2,
+				Duration.ofSeconds(30), Duration.ofMinutes(5), meterRegistry)) {
+			ProducerFactory<String, String> factory = new PooledTransactionalProducerFactory(pool);
+			KafkaTemplate<String, String> template = new KafkaTemplate<>(factory);
+			TransactionTemplate transactions = new TransactionTemplate(new KafkaTransactionManager<>(factory));
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < TRANSACTIONS_PER_THREAD; i++) {
+						transactions.executeWithoutResult(status -> template.send(TOPIC, "k", "v"));
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+
+			// Every transaction ran on one of the two pooled producers, which stay open between them
+			assertThat(created).hasSize(2).noneMatch(MockProducer::closed);
+			assertThat(created.stream().mapToLong(MockProducer::commitCount).sum())
+					.isEqualTo(THREADS * TRANSACTIONS_PER_THREAD);
+			assertThat(meterRegistry.get("kafka.producer.pool.wait").timer().count())
+					.isEqualTo(THREADS * TRANSACTIONS_PER_THREAD);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void fencedBorrowedProducerIsReplaced() throws Exception {
+		List<MockProducer<String, String>> created = new CopyOnWriteArrayList<>();
+		try (TransactionalProducerPool pool = new TransactionalProducerPool(id -> mockProducer(created), "pool-fenced-",
+				1, Duration.ofSeconds(30), Duration.ofMinutes(5), new SimpleMeterRegistry())) {
+			ProducerFactory<String, String> factory = new PooledTransactionalProducerFactory(pool);
+			KafkaTemplate<String, String> template = new KafkaTemplate<>(factory);
+			TransactionTemplate transactions = new TransactionTemplate(new KafkaTransactionManager<>(factory));
+			transactions.executeWithoutResult(status -> template.send(TOPIC, "k", "v"));
+			created.get(0).fenceProducer();
+
+			assertThatThrownBy(() -> transactions.executeWithoutResult(status -> template.send(TOPIC, "k", "v")))
+					.isInstanceOf(CannotCreateTransactionException.class);
+			transactions.executeWithoutResult(status -> template.send(TOPIC, "k", "v"));
+
+			assertThat(created).hasSize(2);
+			assertThat(created.get(1).commitCount()).isEqualTo(1);
+			assertThat(pool.activeProducers()).isEqualTo(1);
+		}
+	}
+
+	private static MockProducer<String, String> mockProducer(List<MockProducer<String, String>> created) {
+		MockProducer<String, String> producer = new MockProducer<>(true, new StringSerializer(), new StringSerializer());
+		producer.initTransactions();
+		created.add(producer);
+		return producer;
+	}
+
+	private static Object send(Producer<String, String> producer, int thread,
+			int transaction, Integer partition) {
+		for (int r = 0; r < RECORDS_PER_TRANSACTION; r++) {
+			producer.send(new ProducerRecord<>(TOPIC, partition, "t" + thread, thread + "-" + transaction + "-" + r));
+		}
+		return null;
+	}
+
+	private static List<String> readCommitted(String brokers, int expected) {
+		List<String> values = new ArrayList<>();
+		try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(Map.of(
+				ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers,
+				ConsumerConfig.GROUP_ID_CONFIG, "pool-verifier",
+				ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+				ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed"), new StringDeserializer(), new StringDeserializer())) {
+			consumer.subscribe(Set.of(TOPIC));
+			long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+			while (values.size() < expected && System.nanoTime() < deadline) {
+				consumer.poll(Duration.ofMillis(200)).forEach(record -> values.add(record.value()));
+			}
+			consumer.poll(Duration.ofMillis(500)).forEach(record -> values.add(record.value()));
+		}
+		return values;
+	}
+}
@@ -0,0 +1,125 @@
+package com.java17.kafka.security.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.java17.kafka.security.config.KeyStoreUtil;
+import com.java17.kafka.security.service.AuthorizationDecisionCache;
+import com.java17.kafka.security.service.JwtTokenService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdminApiAuthorizationFilterTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AtomicInteger evaluations = new AtomicInteger();
+	private final AtomicLong aclVersion = new AtomicLong();
+	private volatile boolean aliceMayAlter;
+
+	@Test
+	void authenticatesAuthorizesAndCachesDecisions() throws Exception {
+		KeyPairGenerator ec = KeyPairGenerator.getInstance("EC");
+		ec.initialize(new ECGenParameterSpec("secp256r1"));
+		JwtTokenService tokens = new JwtTokenService(new KeyStoreUtil()::getKeyPair, ec::generateKeyPair,
+				JwtTokenService.Algorithm.RS256, "test", Duration.ofMinutes(5), Duration.ofHours(1), 100, meterRegistry);
+		AuthorizationDecisionCache decisions = new AuthorizationDecisionCache(
+				(principal, host, operation, resourceType, resourceName) -> {
+					evaluations.incrementAndGet();
+					return principal.equals("User:alice") && resourceType == ResourceType.CLUSTER
+							&& (operation == AclOperation.DESCRIBE || aliceMayAlter && operation == AclOperation.ALTER);
+				}, aclVersion::get, 100, Duration.ofMinutes(1), meterRegistry);
+		AdminApiAuthorizationFilter filter = new AdminApiAuthorizationFilter(tokens, decisions, true,
+				"/actuator/health,/actuator/health/**", "admin_user", "admin_password", meterRegistry);
+		String alice = "Bearer " + tokens.issueAccessToken("alice", Map.of());
+
+		assertThat(call(filter, "GET", "/actuator/health", null).getStatus()).isEqualTo(200);
+		// Spellings of protected paths that handler mapping resolves to the same controller
+		for (String uri : new String[] { "/api;x/kafka/acls", "/actuator;x/env", "/%61pi/kafka/acls",
+				"//api/kafka/acls", "/actuator/health/../env", "/unmapped" }) {
+			assertThat(call(filter, "GET", uri, null).getStatus()).as(uri).isEqualTo(401);
+		}
+		// The bootstrap credentials are only good for getting a token
+		String basic = "Basic " + Base64.getEncoder().encodeToString("admin_user:admin_password".getBytes());
+		MockHttpServletRequest bootstrap = new MockHttpServletRequest("POST", "/api/auth/token");
+		bootstrap.addHeader("Authorization", basic);
+		MockFilterChain bootstrapChain = new MockFilterChain();
+		filter.doFilter(bootstrap, new MockHttpServletResponse(), bootstrapChain);
+		assertThat(bootstrapChain.getRequest()).isNotNull();
+		assertThat(bootstrap.getAttribute(AdminApiAuthorizationFilter.PRINCIPAL_ATTRIBUTE)).isEqualTo("User:admin_user");
+		assertThat(call(filter, "POST", "/api/auth/token",
+				"Basic " + Base64.getEncoder().encodeToString("admin_user:guess".getBytes())).getStatus()).isEqualTo(401);
+		assertThat(call(filter, "GET", "/api/kafka/acls/check", basic).getStatus()).isEqualTo(401);
+
+		MockHttpServletResponse anonymous = call(filter, "GET", "/api/kafka/acls/check", null);
+		assertThat(anonymous.getStatus()).isEqualTo(401);
+		assertThat(anonymous.getHeader("WWW-Authenticate")).isEqualTo("Bearer");
+		assertThat(call(filter, "GET", "/api/kafka/acls/check", "Bearer not.a.token").getStatus()).isEqualTo(401);
+		assertThat(call(filter, "GET", "/api/kafka/acls/check",
+				"Bearer " + tokens.issueRefreshToken("alice")).getStatus()).isEqualTo(401);
+
+		// Reads are allowed, and the second one is answered from the cache
+		assertThat(call(filter, "GET", "/api/kafka/acls/check", alice).getStatus()).isEqualTo(200);
+		assertThat(call(filter, "GET", "/api/kafka/acls/check", alice).getStatus()).isEqualTo(200);
+		assertThat(evaluations).hasValue(1);
+		assertThat(call(filter, "POST", "/api/kafka/acls/producer", alice).getStatus()).isEqualTo(403);
+		assertThat(call(filter, "POST", "/api/kafka/acls/producer", alice).getStatus()).isEqualTo(403);
+		assertThat(evaluations).hasValue(2);
+
+		// An ACL change invalidates the cached denial
+		aliceMayAlter = true;
+		aclVersion.incrementAndGet();
+		assertThat(call(filter, "POST", "/api/kafka/acls/producer", alice).getStatus()).isEqualTo(200);
+		assertThat(evaluations).hasValue(3);
+		assertThat(meterRegistry.get("admin.api.authorization.cache").tag("result", "hit").counter().count())
+				.isEqualTo(2);
+	}
+
+	@Test
+	void decisionCacheStaysWithinItsBound() {
+		AuthorizationDecisionCache decisions = new AuthorizationDecisionCache(
+				(principal, host, operation, resourceType, resourceName) -> true, aclVersion::get, 50,
+				Duration.ofMinutes(1), meterRegistry);
+		for (int i = 0; i < 1_000; i++) {
+			decisions.isAllowed("User:user-" + i, "127.0.0.1", AclOperation.DESCRIBE, ResourceType.CLUSTER,
+					"kafka-cluster");
+			assertThat(decisions.size()).isLessThanOrEqualTo(50);
+		}
+	}
+
+	@Test
+	void mapsEndpointsToKafkaAcls() {
+		assertThat(AdminApiAuthorizationFilter.requiredPermission("POST", "/api/kafka/security/users"))
+				.isEqualTo(new AdminApiAuthorizationFilter.Permission(AclOperation.ALTER, ResourceType.CLUSTER,
+						"kafka-cluster"));
+		assertThat(AdminApiAuthorizationFilter.requiredPermission("GET", "/actuator/env").operation())
+				.isEqualTo(AclOperation.DESCRIBE_CONFIGS);
+		assertThat(AdminApiAuthorizationFilter.requiredPermission("DELETE", "/api/kafka/dlq/replays/r1"))
+				.isEqualTo(new AdminApiAuthorizationFilter.Permission(AclOperation.READ, ResourceType.TOPIC,
+						"notification-events-dlq"));
+	}
+
+	private static MockHttpServletResponse call(AdminApiAuthorizationFilter filter, String method, String path,
+			String authorization) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+		if (authorization != null) {
+			request.addHeader("Authorization", authorization);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+}
@@ -0,0 +1,233 @@
+package com.java17.kafka.security.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.admin.AlterUserScramCredentialsOptions;
+import org.apache.kafka.clients.admin.AlterUserScramCredentialsResult;
+import org.apache.kafka.clients.admin.MockAdminClient;
+import org.apache.kafka.clients.admin.UserScramCredentialAlteration;
+import org.apache.kafka.common.KafkaFuture;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java17.kafka.security.config.AdminExecutionConfig;
+import com.java17.kafka.security.config.AdminOperationMetrics;
+import com.java17.kafka.security.config.AdminTaskExecutors;
+import com.java17.kafka.security.config.KafkaAclManager;
+import com.java17.kafka.security.config.KafkaAdminClientProvider;
+import com.java17.kafka.security.service.AclProvisioningEngine;
+import com.java17.kafka.security.service.AclReconciler;
+import com.java17.kafka.security.service.KafkaBrokerSecurityService;
+import com.java17.kafka.security.service.KafkaSecurityManagementService;
+import com.java17.kafka.security.service.KafkaUserManager;
+import com.java17.kafka.security.service.ScramUserImporter;
+import com.java17.kafka.security.service.StreamingSetupService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Compares thread count and p99 latency of the two admin execution modes under a burst of
+ * {@code POST /api/kafka/security/users} requests, each waiting on a slow SCRAM upsert.
+ * On Java 17 the virtual mode falls back to the bounded pool, so both runs use the pool.
+ */
+class AdminEndpointsLoadTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(AdminEndpointsLoadTest.class);
+
+	private static final int REQUESTS = 2000;
+	private static final long ADMIN_CALL_MILLIS = 20;
+	private static final int POOL_SIZE = 32;
+	private static final int QUEUE_CAPACITY = 1000;
+
+	@Test
+	void compareExecutionModes() throws Exception {
+		Result platform = run(AdminTaskExecutors.Mode.PLATFORM);
+		Result virtual = run(AdminTaskExecutors.Mode.VIRTUAL);
+
+		logger.info("mode=platform peakThreads={} p99={}ms", platform.peakThreads, platform.p99Millis);
+		logger.info("mode=virtual peakThreads={} p99={}ms (virtual threads supported: {})",
+				virtual.peakThreads, virtual.p99Millis, AdminTaskExecutors.virtualThreadsSupported());
+
+		assertThat(platform.completed).isEqualTo(REQUESTS);
+		assertThat(virtual.completed).isEqualTo(REQUESTS);
+		// Every request waits on the admin call, so none can finish faster than it
+		assertThat(platform.p99Millis).isGreaterThanOrEqualTo(ADMIN_CALL_MILLIS);
+		// The bounded pool never grows past its size, whatever the burst
+		assertThat(platform.peakThreads).isLessThanOrEqualTo(POOL_SIZE + 4);
+		if (!AdminTaskExecutors.virtualThreadsSupported()) {
+			assertThat(virtual.peakThreads).isLessThanOrEqualTo(POOL_SIZE + 4);
+		}
+	}
+
+	private Result run(AdminTaskExecutors.Mode mode) throws Exception {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		Map<String, Long> completedAt = new ConcurrentHashMap<>();
+		try (AnnotationConfigWebApplicationContext context = context(mode, completedAt)) {
+			MockMvc mvc = MockMvcBuilders.webAppContextSetup(context).build();
+			int baseline = threads.getThreadCount();
+			threads.resetPeakThreadCount();
+
+			long[] submitted = new long[REQUESTS];
+			List<MvcResult> requests = new ArrayList<>(REQUESTS);
+			for (int i = 0; i < REQUESTS; i++) {
+				submitted[i] = System.nanoTime();
+				requests.add(mvc.perform(post("/api/kafka/security/users")
+						.param("username", "user-" + i)
+						.param("password", "secret")).andReturn());
+			}
+			int completed = 0;
+			for (MvcResult request : requests) {
+				request.getAsyncResult(TimeUnit.MINUTES.toMillis(2));
+				mvc.perform(asyncDispatch(request)).andExpect(status().isOk());
+				completed++;
+			}
+			int peak = Math.max(0, threads.getPeakThreadCount() - baseline);
+
+			long[] latencies = new long[REQUESTS];
+			for (int i = 0; i < REQUESTS; i++) {
+				latencies[i] = completedAt.get("user-" + i) - submitted[i];
+			}
+			Arrays.sort(latencies);
+			long p99 = TimeUnit.NANOSECONDS.toMillis(latencies[(int) Math.ceil(REQUESTS * 0.99) - 1]);
+			return new Result(peak, p99, completed);
+		}
+	}
+
+	private static AnnotationConfigWebApplicationContext context(AdminTaskExecutors.Mode mode,
+			Map<String, Long> completedAt) {
+		AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+		context.setServletContext(new MockServletContext());
+		context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("load", Map.of(
+				"kafka.admin.threads.mode", mode.name().toLowerCase(),
+				"kafka.admin.threads.pool-size", POOL_SIZE,
+				"kafka.admin.threads.queue-capacity", QUEUE_CAPACITY)));
+		context.addBeanFactoryPostProcessor(beanFactory -> beanFactory.registerSingleton("completedAt", completedAt));
+		context.register(Config.class);
+		context.refresh();
+		return context;
+	}
+
+	/**
+	 * A SCRAM upsert that takes {@link #ADMIN_CALL_MILLIS} and records when each user was done
+	 */
+	private static class SlowAdminClient extends MockAdminClient {
+
+		private final Map<String, Long> completedAt;
+
+		SlowAdminClient(Map<String, Long> completedAt) {
+			this.completedAt = completedAt;
+		}
+
+		@Override
+		public AlterUserScramCredentialsResult alterUserScramCredentials(
+				List<UserScramCredentialAlteration> alterations, AlterUserScramCredentialsOptions options) {
+			try {
+				Thread.sleep(ADMIN_CALL_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			Map<String, KafkaFuture<Void>> results = new ConcurrentHashMap<>();
+			for (UserScramCredentialAlteration alteration : alterations) {
+				completedAt.put(alteration.user(), System.nanoTime());
+				results.put(alteration.user(), KafkaFuture.completedFuture(null));
+			}
+			return new AlterUserScramCredentialsResult(results);
+		}
+	}
+
+	@Configuration
+	@EnableWebMvc
+	@Import({ AdminExecutionConfig.class, KafkaSecurityController.class })
+	static class Config {
+
+		@Bean(destroyMethod = "close")
+		KafkaAdminClientProvider adminClientProvider(@Value("#{completedAt}") Map<String, Long> completedAt) {
+			SlowAdminClient admin = new SlowAdminClient(completedAt);
+			return new KafkaAdminClientProvider(() -> admin, "mock", new SimpleMeterRegistry(), 3);
+		}
+
+		@Bean
+		KafkaAclManager aclManager(KafkaAdminClientProvider adminClientProvider) {
+			return new KafkaAclManager(adminClientProvider);
+		}
+
+		@Bean
+		KafkaUserManager userManager(KafkaAdminClientProvider adminClientProvider) {
+			return new KafkaUserManager(adminClientProvider, 4096, 100);
+		}
+
+		@Bean
+		AclProvisioningEngine provisioningEngine(KafkaAclManager aclManager) {
+			return new AclProvisioningEngine(aclManager, 100, 2);
+		}
+
+		@Bean
+		AclReconciler aclReconciler(KafkaAclManager aclManager, AclProvisioningEngine provisioningEngine) {
+			return new AclReconciler(aclManager, provisioningEngine);
+		}
+
+		@Bean
+		KafkaBrokerSecurityService brokerSecurityService() {
+			return new KafkaBrokerSecurityService();
+		}
+
+		@Bean
+		AdminOperationMetrics adminOperationMetrics() {
+			return new AdminOperationMetrics(new SimpleMeterRegistry());
+		}
+
+		@Bean
+		ObjectMapper objectMapper() {
+			return new ObjectMapper();
+		}
+
+		@Bean
+		KafkaSecurityManagementService securityService(KafkaUserManager userManager,
+				KafkaBrokerSecurityService brokerSecurityService, AclReconciler aclReconciler,
+				AdminOperationMetrics metrics) {
+			return new KafkaSecurityManagementService(userManager, brokerSecurityService, aclReconciler, metrics);
+		}
+
+		@Bean
+		ScramUserImporter userImporter(KafkaUserManager userManager, ObjectMapper objectMapper) {
+			return new ScramUserImporter(userManager, objectMapper, 100);
+		}
+
+		@Bean
+		StreamingSetupService streamingSetupService(AclProvisioningEngine provisioningEngine,
+				AclReconciler aclReconciler, KafkaUserManager userManager,
+				KafkaBrokerSecurityService brokerSecurityService, ObjectMapper objectMapper,
+				AdminOperationMetrics metrics) {
+			return new StreamingSetupService(provisioningEngine, aclReconciler, userManager, brokerSecurityService,
+					objectMapper, metrics, 100);
+		}
+	}
+
+	private record Result(int peakThreads, long p99Millis, int completed) {
+	}
+}
@@ -0,0 +1,64 @@
+package com.java17.kafka.security.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.kafka.clients.admin.InMemoryAclAdminClient;
+import org.apache.kafka.common.acl.AclBinding;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.java17.kafka.security.config.KafkaAclManager;
+import com.java17.kafka.security.config.KafkaAdminClientProvider;
+import com.java17.kafka.security.service.AclProvisioningEngine;
+import com.java17.kafka.security.service.AclReconciler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class KafkaAclControllerTest {
+
+	private final InMemoryAclAdminClient admin = new InMemoryAclAdminClient(List.of());
+	private final KafkaAclController controller = new KafkaAclController();
+
+	KafkaAclControllerTest() {
+		KafkaAclManager aclManager = new KafkaAclManager(
+				new KafkaAdminClientProvider(() -> admin, "mock", new SimpleMeterRegistry(), 3));
+		ReflectionTestUtils.setField(controller, "aclReconciler",
+				new AclReconciler(aclManager, new AclProvisioningEngine(aclManager, 100, 2)));
+	}
+
+	@Test
+	void malformedBindingsAreRejectedWithBadRequest() throws Exception {
+		AclBindingRequest[] malformed = {
+				null,
+				new AclBindingRequest(null, "*", "READ", "ALLOW", "TOPIC", "orders", "LITERAL"),
+				new AclBindingRequest("app", "*", "READ", "ALLOW", null, "orders", "LITERAL"),
+				new AclBindingRequest("app", "*", "READ", "ALLOW", "TOPIC", null, "LITERAL"),
+				new AclBindingRequest("app", null, "READ", "ALLOW", "TOPIC", "orders", "LITERAL"),
+				new AclBindingRequest("app", "*", "FLY", "ALLOW", "TOPIC", "orders", "LITERAL"),
+				new AclBindingRequest("app", "*", "ANY", "ALLOW", "TOPIC", "orders", "LITERAL"),
+				new AclBindingRequest("app", "*", "READ", "ANY", "TOPIC", "orders", "LITERAL"),
+				new AclBindingRequest("app", "*", "READ", "ALLOW", "ANY", "orders", "LITERAL"),
+				new AclBindingRequest("app", "*", "READ", "ALLOW", "TOPIC", "orders", "MATCH") };
+		for (AclBindingRequest request : malformed) {
+			ResponseEntity<?> response = controller.reconcile(Arrays.asList(request), false, false).call();
+			assertThat(response.getStatusCode().value()).as(String.valueOf(request)).isEqualTo(400);
+		}
+		assertThat(admin.acls()).isEmpty();
+	}
+
+	@Test
+	void validBindingsAreReconciled() throws Exception {
+		AclBindingRequest request = new AclBindingRequest("app", "*", "read", "allow", "topic", "orders", "prefixed");
+
+		ResponseEntity<?> response = controller.reconcile(List.of(request), false, false).call();
+
+		assertThat(response.getStatusCode().value()).isEqualTo(200);
+		AclBinding created = admin.acls().iterator().next();
+		assertThat(created).isEqualTo(request.toAclBinding());
+		assertThat(created.entry().principal()).isEqualTo("User:app");
+	}
+}
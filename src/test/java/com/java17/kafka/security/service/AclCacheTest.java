@@ -0,0 +1,139 @@
+package com.java17.kafka.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.apache.kafka.clients.admin.InMemoryAclAdminClient;
+import org.apache.kafka.common.acl.AccessControlEntry;
+import org.apache.kafka.common.acl.AclBinding;
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.acl.AclPermissionType;
+import org.apache.kafka.common.resource.PatternType;
+import org.apache.kafka.common.resource.ResourcePattern;
+import org.apache.kafka.common.resource.ResourceType;
+import org.junit.jupiter.api.Test;
+
+import com.java17.kafka.security.config.KafkaAclManager;
+import com.java17.kafka.security.config.KafkaAdminClientProvider;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AclCacheTest {
+
+	@Test
+	void denyWinsOverAllow() throws Exception {
+		AclCache cache = cache(List.of(
+				topic("User:app", "orders", PatternType.LITERAL, AclOperation.ALL, AclPermissionType.ALLOW),
+				topic("User:app", "orders", PatternType.LITERAL, AclOperation.WRITE, AclPermissionType.DENY),
+				topic("User:app", "payments", PatternType.LITERAL, AclOperation.READ, AclPermissionType.ALLOW),
+				topic("User:*", "payments", PatternType.LITERAL, AclOperation.ALL, AclPermissionType.DENY)));
+
+		assertThat(allowed(cache, "app", AclOperation.READ, "orders")).isTrue();
+		assertThat(allowed(cache, "app", AclOperation.WRITE, "orders")).isFalse();
+		// A DENY ALL for every principal overrides the principal's own ALLOW
+		assertThat(allowed(cache, "app", AclOperation.READ, "payments")).isFalse();
+	}
+
+	@Test
+	void describeIsImpliedByReadWriteDeleteAndAlter() throws Exception {
+		AclCache cache = cache(List.of(
+				topic("User:reader", "orders", PatternType.LITERAL, AclOperation.READ, AclPermissionType.ALLOW),
+				topic("User:writer", "orders", PatternType.LITERAL, AclOperation.WRITE, AclPermissionType.ALLOW),
+				topic("User:configurer", "orders", PatternType.LITERAL, AclOperation.ALTER_CONFIGS,
+						AclPermissionType.ALLOW),
+				topic("User:hidden", "orders", PatternType.LITERAL, AclOperation.READ, AclPermissionType.ALLOW),
+				topic("User:hidden", "orders", PatternType.LITERAL, AclOperation.DESCRIBE, AclPermissionType.DENY)));
+
+		assertThat(allowed(cache, "reader", AclOperation.DESCRIBE, "orders")).isTrue();
+		assertThat(allowed(cache, "reader", AclOperation.WRITE, "orders")).isFalse();
+		assertThat(allowed(cache, "writer", AclOperation.DESCRIBE, "orders")).isTrue();
+		assertThat(allowed(cache, "writer", AclOperation.READ, "orders")).isFalse();
+		assertThat(allowed(cache, "configurer", AclOperation.DESCRIBE_CONFIGS, "orders")).isTrue();
+		assertThat(allowed(cache, "configurer", AclOperation.DESCRIBE, "orders")).isFalse();
+		// An implied DESCRIBE does not survive an explicit DENY
+		assertThat(allowed(cache, "hidden", AclOperation.DESCRIBE, "orders")).isFalse();
+		assertThat(allowed(cache, "hidden", AclOperation.READ, "orders")).isTrue();
+	}
+
+	@Test
+	void matchesPrefixedAndWildcardResourcesAndPrincipals() throws Exception {
+		AclCache cache = cache(List.of(
+				topic("User:app", "orders-", PatternType.PREFIXED, AclOperation.WRITE, AclPermissionType.ALLOW),
+				topic("User:auditor", ResourcePattern.WILDCARD_RESOURCE, PatternType.LITERAL, AclOperation.READ,
+						AclPermissionType.ALLOW),
+				topic("User:*", "public", PatternType.LITERAL, AclOperation.READ, AclPermissionType.ALLOW)));
+
+		assertThat(allowed(cache, "app", AclOperation.WRITE, "orders-eu")).isTrue();
+		assertThat(allowed(cache, "app", AclOperation.WRITE, "orders-")).isTrue();
+		assertThat(allowed(cache, "app", AclOperation.WRITE, "orders")).isFalse();
+		assertThat(allowed(cache, "app", AclOperation.WRITE, "eu-orders-1")).isFalse();
+		assertThat(allowed(cache, "auditor", AclOperation.READ, "anything")).isTrue();
+		assertThat(allowed(cache, "app", AclOperation.READ, "anything")).isFalse();
+		assertThat(allowed(cache, "someone", AclOperation.READ, "public")).isTrue();
+		assertThat(allowed(cache, "someone", AclOperation.WRITE, "public")).isFalse();
+		assertThat(cache.isAllowed("User:app", "10.0.0.1", AclOperation.WRITE, ResourceType.GROUP, "orders-eu"))
+				.isFalse();
+	}
+
+	@Test
+	void matchesHosts() throws Exception {
+		AclBinding fromOneHost = new AclBinding(
+				new ResourcePattern(ResourceType.TOPIC, "orders", PatternType.LITERAL),
+				new AccessControlEntry("User:app", "10.0.0.1", AclOperation.READ, AclPermissionType.ALLOW));
+		AclCache cache = cache(List.of(fromOneHost));
+
+		assertThat(cache.isAllowed("User:app", "10.0.0.1", AclOperation.READ, ResourceType.TOPIC, "orders")).isTrue();
+		assertThat(cache.isAllowed("User:app", "10.0.0.2", AclOperation.READ, ResourceType.TOPIC, "orders")).isFalse();
+	}
+
+	@Test
+	void superUsersAreAlwaysAllowed() throws Exception {
+		AclCache cache = cache(List.of(
+				topic("User:admin_user", "orders", PatternType.LITERAL, AclOperation.ALL, AclPermissionType.DENY)));
+
+		assertThat(allowed(cache, "admin_user", AclOperation.ALTER, "orders")).isTrue();
+		assertThat(cache.isAllowed("User:ops", null, AclOperation.ALTER, ResourceType.CLUSTER, "kafka-cluster"))
+				.isTrue();
+		assertThat(allowed(cache, "app", AclOperation.READ, "orders")).isFalse();
+	}
+
+	@Test
+	void appliesWritesMadeThroughTheManagerBetweenReloads() throws Exception {
+		InMemoryAclAdminClient admin = new InMemoryAclAdminClient(List.of());
+		KafkaAclManager aclManager = aclManager(admin);
+		AclCache cache = new AclCache(aclManager, "admin_user", 5_000);
+		cache.refresh();
+		long version = cache.getVersion();
+
+		List<AclBinding> producer = KafkaAclManager.producerAclBindings("app", "orders");
+		aclManager.createAclsAsync(producer).get();
+		assertThat(allowed(cache, "app", AclOperation.WRITE, "orders")).isTrue();
+		assertThat(cache.getVersion()).isGreaterThan(version);
+
+		aclManager.deleteAclsAsync(producer).get();
+		assertThat(allowed(cache, "app", AclOperation.WRITE, "orders")).isFalse();
+		assertThat(cache.size()).isZero();
+	}
+
+	private static boolean allowed(AclCache cache, String user, AclOperation operation, String topic) {
+		return cache.isAllowed(user, "10.0.0.1", operation, ResourceType.TOPIC, topic);
+	}
+
+	private static AclBinding topic(String principal, String name, PatternType patternType, AclOperation operation,
+			AclPermissionType permissionType) {
+		return new AclBinding(new ResourcePattern(ResourceType.TOPIC, name, patternType),
+				new AccessControlEntry(principal, "*", operation, permissionType));
+	}
+
+	private static AclCache cache(List<AclBinding> existing) {
+		AclCache cache = new AclCache(aclManager(new InMemoryAclAdminClient(existing)), "admin_user, User:ops", 5_000);
+		cache.refresh();
+		assertThat(cache.size()).isEqualTo(existing.size());
+		return cache;
+	}
+
+	private static KafkaAclManager aclManager(InMemoryAclAdminClient admin) {
+		return new KafkaAclManager(new KafkaAdminClientProvider(() -> admin, "mock", new SimpleMeterRegistry(), 3));
+	}
+}
@@ -0,0 +1,66 @@
+package com.java17.kafka.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.kafka.clients.admin.InMemoryAclAdminClient;
+import org.apache.kafka.common.acl.AclBinding;
+import org.junit.jupiter.api.Test;
+
+import com.java17.kafka.security.config.KafkaAclManager;
+import com.java17.kafka.security.config.KafkaAdminClientProvider;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AclReconcilerTest {
+
+	private final List<AclBinding> producer = KafkaAclManager.producerAclBindings("app", "orders");
+	private final List<AclBinding> consumer = KafkaAclManager.consumerAclBindings("app", "orders", "app-group");
+	private final List<AclBinding> otherPrincipal = KafkaAclManager.producerAclBindings("billing", "invoices");
+
+	@Test
+	void dryRunReportsTheDiffWithoutChangingAnything() throws Exception {
+		InMemoryAclAdminClient admin = new InMemoryAclAdminClient(producer);
+		AclReconcileResult result = reconciler(admin).reconcile(consumer, true, true);
+
+		assertThat(result.isDryRun()).isTrue();
+		assertThat(result.getToAdd()).hasSize(consumer.size());
+		assertThat(result.getToRemove()).hasSize(producer.size());
+		assertThat(admin.acls()).containsExactlyInAnyOrderElementsOf(producer);
+	}
+
+	@Test
+	void appliesAdditionsAndPrunesOnlyTheDesiredPrincipals() throws Exception {
+		List<AclBinding> existing = new ArrayList<>(producer);
+		existing.addAll(otherPrincipal);
+		InMemoryAclAdminClient admin = new InMemoryAclAdminClient(existing);
+
+		AclReconcileResult result = reconciler(admin).reconcile(consumer, true, false);
+
+		assertThat(result.getProvisioning().getSucceeded()).isEqualTo(consumer.size());
+		assertThat(result.getRemoved()).isEqualTo(producer.size());
+		List<AclBinding> expected = new ArrayList<>(consumer);
+		expected.addAll(otherPrincipal);
+		assertThat(admin.acls()).containsExactlyInAnyOrderElementsOf(expected);
+		assertThat(admin.describeCalls()).isEqualTo(1);
+	}
+
+	@Test
+	void matchingStateIsLeftAlone() throws Exception {
+		InMemoryAclAdminClient admin = new InMemoryAclAdminClient(producer);
+
+		AclReconcileResult result = reconciler(admin).reconcile(producer, true, false);
+
+		assertThat(result.getToAdd()).isEmpty();
+		assertThat(result.getToRemove()).isEmpty();
+		assertThat(result.getUnchanged()).isEqualTo(producer.size());
+	}
+
+	private static AclReconciler reconciler(InMemoryAclAdminClient admin) {
+		KafkaAclManager aclManager = new KafkaAclManager(
+				new KafkaAdminClientProvider(() -> admin, "mock", new SimpleMeterRegistry(), 3));
+		return new AclReconciler(aclManager, new AclProvisioningEngine(aclManager, 100, 2));
+	}
+}
@@ -0,0 +1,322 @@
+package com.java17.kafka.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Proxy;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.apache.kafka.clients.admin.AlterUserScramCredentialsOptions;
+import org.apache.kafka.clients.admin.AlterUserScramCredentialsResult;
+import org.apache.kafka.clients.admin.CreateAclsOptions;
+import org.apache.kafka.clients.admin.CreateAclsResult;
+import org.apache.kafka.clients.admin.InMemoryAclAdminClient;
+import org.apache.kafka.clients.admin.MockAdminClient;
+import org.apache.kafka.clients.admin.ScramMechanism;
+import org.apache.kafka.clients.admin.UserScramCredentialAlteration;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.acl.AclBinding;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java17.kafka.security.config.AdminExecutionConfig;
+import com.java17.kafka.security.config.AdminOperationMetrics;
+import com.java17.kafka.security.config.KafkaAclManager;
+import com.java17.kafka.security.config.KafkaAdminClientProvider;
+import com.java17.kafka.security.config.KeyStoreUtil;
+import com.java17.kafka.security.controller.AdminApiAuthorizationFilter;
+import com.java17.kafka.security.controller.KafkaSecurityController;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuditTrailTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void batchesRecordsPerTableAndDrainsOnShutdown() throws Exception {
+		RecordingJdbcTemplate jdbc = new RecordingJdbcTemplate();
+		AuditTrail auditTrail = new AuditTrail(jdbc, 1_000, 50, 200, 5_000, meterRegistry);
+
+		List<AclBinding> aclBindings = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			aclBindings.addAll(KafkaAclManager.producerAclBindings("user_" + i, "topic_" + i));
+		}
+		auditTrail.onAclsCreated(aclBindings);
+		auditTrail.onScramUsersUpserted(IntStream.range(0, 30).mapToObj(i -> "user_" + i).toList(),
+				ScramMechanism.SCRAM_SHA_512, 8192);
+		auditTrail.destroy();
+
+		assertThat(jdbc.rows(AuditTrail.ACL_INSERT)).isEqualTo(aclBindings.size());
+		assertThat(jdbc.rows(AuditTrail.USER_INSERT)).isEqualTo(30);
+		assertThat(jdbc.batchSizes).allMatch(size -> size <= 50);
+		assertThat(jdbc.batchSizes.size()).isLessThan(aclBindings.size() + 30);
+		assertThat(meterRegistry.get("audit.records").tag("outcome", "written").counter().count())
+				.isEqualTo(aclBindings.size() + 30);
+	}
+
+	@Test
+	void recordsTheRequestingPrincipalAsActor() throws Exception {
+		RecordingJdbcTemplate jdbc = new RecordingJdbcTemplate();
+		AuditTrail auditTrail = new AuditTrail(jdbc, 1_000, 50, 10, 5_000, meterRegistry);
+		KafkaFutureImpl<Void> brokerResponse = new KafkaFutureImpl<>();
+		MockAdminClient admin = new MockAdminClient() {
+			@Override
+			public synchronized CreateAclsResult createAcls(Collection<AclBinding> acls, CreateAclsOptions options) {
+				Map<AclBinding, KafkaFuture<Void>> futures = new HashMap<>();
+				acls.forEach(acl -> futures.put(acl, brokerResponse));
+				try {
+					Constructor<CreateAclsResult> result = CreateAclsResult.class.getDeclaredConstructor(Map.class);
+					result.setAccessible(true);
+					return result.newInstance(futures);
+				} catch (ReflectiveOperationException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+		KafkaAclManager aclManager = new KafkaAclManager(
+				new KafkaAdminClientProvider(() -> admin, "mock", meterRegistry, 3));
+		aclManager.addAclChangeListener(auditTrail);
+
+		// The broker answers on the admin client's thread, after the request thread has moved on
+		MDC.put(AuditTrail.ACTOR_MDC_KEY, "User:alice");
+		try {
+			aclManager.createAclsAsync(KafkaAclManager.producerAclBindings("app", "orders"));
+			auditTrail.onScramUsersUpserted(List.of("app"), ScramMechanism.SCRAM_SHA_512, 8192);
+		} finally {
+			MDC.clear();
+		}
+		Thread adminThread = new Thread(() -> brokerResponse.complete(null));
+		adminThread.start();
+		adminThread.join();
+		auditTrail.destroy();
+
+		assertThat(jdbc.values(AuditTrail.ACL_INSERT, 10)).isNotEmpty().containsOnly("User:alice");
+		assertThat(jdbc.values(AuditTrail.USER_INSERT, 6)).containsExactly("User:alice");
+		admin.close();
+	}
+
+	@Test
+	void recordsThePrincipalOfCallableEndpoints() throws Exception {
+		RecordingJdbcTemplate jdbc = new RecordingJdbcTemplate();
+		KeyPairGenerator ec = KeyPairGenerator.getInstance("EC");
+		ec.initialize(new ECGenParameterSpec("secp256r1"));
+		JwtTokenService tokens = new JwtTokenService(new KeyStoreUtil()::getKeyPair, ec::generateKeyPair,
+				JwtTokenService.Algorithm.RS256, "test", Duration.ofMinutes(5), Duration.ofHours(1), 100,
+				meterRegistry);
+		AdminApiAuthorizationFilter filter = new AdminApiAuthorizationFilter(tokens,
+				new AuthorizationDecisionCache((principal, host, operation, resourceType, resourceName) -> true,
+						() -> 0L, 100, Duration.ofMinutes(1), meterRegistry),
+				true, "/actuator/health", "", "", meterRegistry);
+		String alice = "Bearer " + tokens.issueAccessToken("alice", Map.of());
+
+		AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+		context.setServletContext(new MockServletContext());
+		context.addBeanFactoryPostProcessor(beanFactory -> beanFactory.registerSingleton("jdbc", jdbc));
+		context.register(AdminApiConfig.class);
+		context.refresh();
+		try {
+			MockMvc mvc = MockMvcBuilders.webAppContextSetup(context).addFilters(filter).build();
+			// Both endpoints return Callables, which run on the admin executor rather than the request thread
+			call(mvc, post("/api/kafka/security/users").param("username", "app").param("password", "secret")
+					.header("Authorization", alice));
+			call(mvc, post("/api/kafka/security/setup/stream").contentType(MediaType.APPLICATION_JSON)
+					.content("{\"producerTopics\": {\"app\": [\"orders\"]}}").header("Authorization", alice));
+			context.getBean(AuditTrail.class).destroy();
+		} finally {
+			context.close();
+		}
+
+		assertThat(jdbc.values(AuditTrail.USER_INSERT, 6)).containsExactly("User:alice");
+		assertThat(jdbc.values(AuditTrail.ACL_INSERT, 10)).isNotEmpty().containsOnly("User:alice");
+	}
+
+	private static void call(MockMvc mvc, RequestBuilder request) throws Exception {
+		MvcResult started = mvc.perform(request).andReturn();
+		started.getAsyncResult(5_000);
+		mvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+	}
+
+	@Test
+	void dropsRecordsInsteadOfBlockingWhenTheBufferIsFull() throws Exception {
+		CountDownLatch inDatabase = new CountDownLatch(1);
+		CountDownLatch databaseBack = new CountDownLatch(1);
+		RecordingJdbcTemplate jdbc = new RecordingJdbcTemplate() {
+			@Override
+			public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) {
+				inDatabase.countDown();
+				try {
+					databaseBack.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.batchUpdate(sql, pss);
+			}
+		};
+		AuditTrail auditTrail = new AuditTrail(jdbc, 10, 5, 10, 5_000, meterRegistry);
+
+		// The writer takes the first batch and waits on the database; then the buffer fills up
+		auditTrail.onScramUsersUpserted(List.of("first"), ScramMechanism.SCRAM_SHA_256, 4096);
+		assertThat(inDatabase.await(5, TimeUnit.SECONDS)).isTrue();
+		long started = System.nanoTime();
+		auditTrail.onScramUsersUpserted(IntStream.range(0, 25).mapToObj(i -> "user_" + i).toList(),
+				ScramMechanism.SCRAM_SHA_256, 4096);
+		assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+		assertThat(auditTrail.getPending()).isEqualTo(10);
+		assertThat(meterRegistry.get("audit.records").tag("outcome", "dropped").counter().count()).isEqualTo(15);
+
+		databaseBack.countDown();
+		auditTrail.destroy();
+		assertThat(jdbc.rows(AuditTrail.USER_INSERT)).isEqualTo(11);
+	}
+
+	@Configuration
+	@EnableWebMvc
+	@Import({ AdminExecutionConfig.class, KafkaSecurityController.class })
+	static class AdminApiConfig {
+
+		private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+		@Bean(destroyMethod = "close")
+		KafkaAdminClientProvider adminClientProvider() {
+			InMemoryAclAdminClient admin = new InMemoryAclAdminClient(List.of()) {
+				@Override
+				public synchronized AlterUserScramCredentialsResult alterUserScramCredentials(
+						List<UserScramCredentialAlteration> alterations, AlterUserScramCredentialsOptions options) {
+					Map<String, KafkaFuture<Void>> results = new HashMap<>();
+					for (UserScramCredentialAlteration alteration : alterations) {
+						results.put(alteration.user(), KafkaFuture.completedFuture(null));
+					}
+					return new AlterUserScramCredentialsResult(results);
+				}
+			};
+			return new KafkaAdminClientProvider(() -> admin, "mock", meterRegistry, 3);
+		}
+
+		@Bean
+		KafkaAclManager aclManager(KafkaAdminClientProvider adminClientProvider) {
+			return new KafkaAclManager(adminClientProvider);
+		}
+
+		@Bean
+		KafkaUserManager userManager(KafkaAdminClientProvider adminClientProvider) {
+			return new KafkaUserManager(adminClientProvider, 4096, 100);
+		}
+
+		@Bean
+		AuditTrail auditTrail(JdbcTemplate jdbc, KafkaAclManager aclManager, KafkaUserManager userManager) {
+			return new AuditTrail(jdbc, aclManager, userManager, 1_000, 50, 10, 5_000, meterRegistry);
+		}
+
+		@Bean
+		AclProvisioningEngine provisioningEngine(KafkaAclManager aclManager) {
+			return new AclProvisioningEngine(aclManager, 100, 2);
+		}
+
+		@Bean
+		AclReconciler aclReconciler(KafkaAclManager aclManager, AclProvisioningEngine provisioningEngine) {
+			return new AclReconciler(aclManager, provisioningEngine);
+		}
+
+		@Bean
+		KafkaBrokerSecurityService brokerSecurityService() {
+			return new KafkaBrokerSecurityService();
+		}
+
+		@Bean
+		AdminOperationMetrics adminOperationMetrics() {
+			return new AdminOperationMetrics(meterRegistry);
+		}
+
+		@Bean
+		KafkaSecurityManagementService securityService(KafkaUserManager userManager,
+				KafkaBrokerSecurityService brokerSecurityService, AclReconciler aclReconciler,
+				AdminOperationMetrics metrics) {
+			return new KafkaSecurityManagementService(userManager, brokerSecurityService, aclReconciler, metrics);
+		}
+
+		@Bean
+		ScramUserImporter userImporter(KafkaUserManager userManager) {
+			return new ScramUserImporter(userManager, new ObjectMapper(), 100);
+		}
+
+		@Bean
+		StreamingSetupService streamingSetupService(AclProvisioningEngine provisioningEngine,
+				AclReconciler aclReconciler, KafkaUserManager userManager,
+				KafkaBrokerSecurityService brokerSecurityService, AdminOperationMetrics metrics) {
+			return new StreamingSetupService(provisioningEngine, aclReconciler, userManager, brokerSecurityService,
+					new ObjectMapper(), metrics, 100);
+		}
+	}
+
+	private static class RecordingJdbcTemplate extends JdbcTemplate {
+
+		final Map<String, Integer> rowsBySql = new ConcurrentHashMap<>();
+		final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+		final Map<String, List<Map<Integer, Object>>> valuesBySql = new ConcurrentHashMap<>();
+
+		@Override
+		public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) {
+			int size = pss.getBatchSize();
+			rowsBySql.merge(sql, size, Integer::sum);
+			batchSizes.add(size);
+			for (int i = 0; i < size; i++) {
+				Map<Integer, Object> row = new HashMap<>();
+				PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+						new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+							if (method.getName().startsWith("set") && args != null && args.length >= 2) {
+								row.put((Integer) args[0], args[1]);
+							}
+							return null;
+						});
+				try {
+					pss.setValues(statement, i);
+				} catch (SQLException e) {
+					throw new IllegalStateException(e);
+				}
+				valuesBySql.computeIfAbsent(sql, key -> new CopyOnWriteArrayList<>()).add(row);
+			}
+			return new int[size];
+		}
+
+		int rows(String sql) {
+			return rowsBySql.getOrDefault(sql, 0);
+		}
+
+		List<Object> values(String sql, int parameterIndex) {
+			return valuesBySql.getOrDefault(sql, List.of()).stream().map(row -> row.get(parameterIndex)).toList();
+		}
+	}
+}
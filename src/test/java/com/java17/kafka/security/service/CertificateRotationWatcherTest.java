@@ -0,0 +1,103 @@
+package com.java17.kafka.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.common.config.SslConfigs;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.java17.kafka.security.config.KafkaAdminClientProvider;
+import com.java17.kafka.security.config.KafkaClientProperties;
+import com.java17.kafka.security.config.KeyStoreUtil;
+import com.java17.kafka.security.config.TransactionalProducerPool;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CertificateRotationWatcherTest {
+
+	private static final char[] PASSWORD = "abhimanyu".toCharArray();
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void rotatesValidTruststoresAndRejectsBrokenOnes() throws Exception {
+		Path truststore = dir.resolve("truststore.p12");
+		try (InputStream in = getClass().getClassLoader().getResourceAsStream("keys/keystore.p12")) {
+			Files.write(truststore, in.readAllBytes());
+		}
+		MockEnvironment environment = new MockEnvironment()
+				.withProperty("kafka.client.security-protocol", "SSL")
+				.withProperty("kafka.client.ssl.trust-store-location", truststore.toUri().toString())
+				.withProperty("kafka.client.ssl.trust-store-password", new String(PASSWORD));
+		KafkaClientProperties properties = new KafkaClientProperties();
+		properties.setSecurityProtocol("SSL");
+		properties.getSsl().setTrustStoreLocation(truststore.toUri().toString());
+		properties.getSsl().setTrustStorePassword(new String(PASSWORD));
+		DefaultKafkaProducerFactory<String, String> producerFactory = new DefaultKafkaProducerFactory<>(
+				Map.of(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, "broker:9093"));
+		producerFactory.updateConfigs(properties.securityConfig(KafkaClientProperties.ClientRole.PRODUCER));
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		StaticListableBeanFactory beans = new StaticListableBeanFactory();
+		KafkaClientReloader reloader = new KafkaClientReloader(environment, properties, List.of(producerFactory),
+				List.of(), beans.getBeanProvider(TransactionalProducerPool.class),
+				beans.getBeanProvider(KafkaAdminClientProvider.class),
+				beans.getBeanProvider(KafkaListenerEndpointRegistry.class),
+				beans.getBeanProvider(NotificationRetryTierListener.class), meterRegistry);
+		CertificateRotationWatcher watcher = new CertificateRotationWatcher(properties, reloader, new KeyStoreUtil(),
+				meterRegistry, true, 50);
+		try {
+			watcher.start();
+			assertThat(watcher.getWatchedFiles()).contains(truststore.toAbsolutePath());
+
+			// Same certificates stored again: new bytes, valid store
+			KeyStore store = KeyStore.getInstance("PKCS12");
+			try (InputStream in = Files.newInputStream(truststore)) {
+				store.load(in, PASSWORD);
+			}
+			Path replacement = dir.resolve("truststore.p12.new");
+			try (OutputStream out = Files.newOutputStream(replacement)) {
+				store.store(out, PASSWORD);
+			}
+			replace(replacement, truststore);
+			await().atMost(Duration.ofSeconds(20)).until(() -> rotations(meterRegistry, "applied") >= 1);
+			assertThat(meterRegistry.get("kafka.client.reloads").tag("outcome", "applied").counter().count())
+					.isEqualTo(1);
+
+			replace(Files.write(dir.resolve("broken.p12"), new byte[] { 1, 2, 3 }), truststore);
+			await().atMost(Duration.ofSeconds(20)).until(() -> rotations(meterRegistry, "rejected") >= 1);
+			assertThat(meterRegistry.get("kafka.client.reloads").tag("outcome", "applied").counter().count())
+					.isEqualTo(1);
+			assertThat(producerFactory.getConfigurationProperties()).containsKey(
+					SslConfigs.SSL_TRUSTSTORE_LOCATION_CONFIG);
+		} finally {
+			watcher.destroy();
+		}
+	}
+
+	// How rotation tooling should replace a store: readers never see a partly written file
+	private static void replace(Path source, Path target) throws Exception {
+		Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static long rotations(SimpleMeterRegistry meterRegistry, String outcome) {
+		return meterRegistry.find("ssl.rotation.latency").tag("store", "kafka-truststore").tag("outcome", outcome)
+				.timers().stream().mapToLong(timer -> timer.count()).sum();
+	}
+}
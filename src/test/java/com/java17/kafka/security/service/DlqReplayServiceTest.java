@@ -0,0 +1,118 @@
+package com.java17.kafka.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import com.java17.kafka.security.config.KafkaConfig;
+import com.java17.kafka.security.controller.DlqReplayRequest;
+
+@EmbeddedKafka(partitions = 2, topics = { KafkaConfig.NOTIFICATION_DLQ, DlqReplayServiceTest.TARGET }, brokerProperties = {
+		"transaction.state.log.replication.factor=1", "transaction.state.log.min.isr=1" })
+class DlqReplayServiceTest {
+
+	static final String TARGET = "notification-events-replayed";
+
+	@Test
+	void replaysMatchingRecordsTransactionallyAndResumesFromCheckpoint(EmbeddedKafkaBroker broker) throws Exception {
+		String brokers = broker.getBrokersAsString();
+		try (KafkaProducer<String, String> producer = new KafkaProducer<>(
+				Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers), new StringSerializer(), new StringSerializer())) {
+			for (int i = 0; i < 40; i++) {
+				ProducerRecord<String, String> record = new ProducerRecord<>(KafkaConfig.NOTIFICATION_DLQ, "k" + i, "v" + i);
+				String exception = i % 2 == 0 ? "java.lang.IllegalStateException" : "java.io.IOException";
+				record.headers().add(KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN, exception.getBytes(StandardCharsets.UTF_8));
+				record.headers().add("x-retry-attempt", new byte[] { 0, 0, 0, 3 });
+				producer.send(record);
+			}
+		}
+
+		DlqReplayService service = new DlqReplayService(
+				new DefaultKafkaConsumerFactory<>(Map.of(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers)),
+				new DefaultKafkaProducerFactory<>(Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers)),
+				1000, 7, 1, 0);
+		try {
+			DlqReplayRequest request = new DlqReplayRequest();
+			request.setReplayId("it");
+			request.setTargetTopic(TARGET);
+			request.setExceptionClass("IllegalStateException");
+			request.setRatePerSecond(500.0);
+			request.setMaxRecords(12L);
+
+			DlqReplayJob first = await(service.start(request));
+			assertThat(first.getState()).isEqualTo(DlqReplayJob.State.COMPLETED);
+			assertThat(first.getReplayed()).isEqualTo(12);
+
+			// Same replay id: continues after the checkpoint and picks up the remaining 8 matches
+			request.setMaxRecords(null);
+			request.setRatePerSecond(20.0);
+			DlqReplayJob second = await(service.start(request));
+			assertThat(second.getState()).isEqualTo(DlqReplayJob.State.COMPLETED);
+			assertThat(second.getReplayed()).isEqualTo(8);
+			assertThat(first.getScanned() + second.getScanned()).isLessThanOrEqualTo(40);
+
+			List<ConsumerRecord<String, String>> replayed = readTarget(brokers, 20);
+			assertThat(replayed).hasSize(20);
+			assertThat(replayed).allSatisfy(record -> {
+				assertThat(record.headers().lastHeader("x-retry-attempt")).isNull();
+				assertThat(record.headers().lastHeader(DlqReplayService.REPLAYED_FROM_HEADER)).isNotNull();
+				assertThat(Integer.parseInt(record.value().substring(1)) % 2).isZero();
+			});
+			// At 20/s the second run's records are spread out, not sent as one burst
+			List<Long> secondRun = replayed.stream().map(ConsumerRecord::timestamp).sorted().skip(12).toList();
+			assertThat(secondRun.get(secondRun.size() - 1) - secondRun.get(0)).isGreaterThanOrEqualTo(250);
+
+			// No retention: finished replays are forgotten on the next sweep
+			service.evictFinished();
+			assertThat(service.list()).isEmpty();
+			assertThat(service.get("it")).isNull();
+		} finally {
+			service.destroy();
+		}
+	}
+
+	private static DlqReplayJob await(DlqReplayJob job) throws InterruptedException {
+		long deadline = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+		while (!job.isDone() && System.nanoTime() < deadline) {
+			Thread.sleep(50);
+		}
+		return job;
+	}
+
+	private static List<ConsumerRecord<String, String>> readTarget(String brokers, int expected) {
+		List<ConsumerRecord<String, String>> records = new ArrayList<>();
+		try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(Map.of(
+				ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers,
+				ConsumerConfig.GROUP_ID_CONFIG, "replay-verifier",
+				ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+				ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed"), new StringDeserializer(), new StringDeserializer())) {
+			consumer.subscribe(List.of(TARGET));
+			long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+			while (records.size() < expected && System.nanoTime() < deadline) {
+				consumer.poll(Duration.ofMillis(200)).forEach(records::add);
+			}
+			// Anything beyond the expected count would be a duplicate
+			consumer.poll(Duration.ofMillis(500)).forEach(records::add);
+		}
+		return records;
+	}
+}
@@ -0,0 +1,95 @@
+package com.java17.kafka.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.java17.kafka.security.config.KeyStoreUtil;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtTokenServiceTest {
+
+	private final KeyStoreUtil keyStoreUtil = new KeyStoreUtil();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void signsAndVerifiesBothAlgorithmsAndCachesVerifiedTokens() throws Exception {
+		KeyPair ecKeys = ecKeyPair();
+		for (JwtTokenService.Algorithm algorithm : JwtTokenService.Algorithm.values()) {
+			JwtTokenService service = service(keyStoreUtil::getKeyPair, () -> ecKeys, algorithm, Duration.ofMinutes(5));
+			String token = service.issueAccessToken("admin_user", Map.of("roles", List.of("ADMIN")));
+
+			JwtClaims claims = service.verify(token);
+			assertThat(claims.getSubject()).isEqualTo("admin_user");
+			assertThat(claims.getTokenType()).isEqualTo(JwtTokenService.ACCESS);
+			assertThat(claims.get("roles")).isEqualTo(List.of("ADMIN"));
+			assertThat(service.verify(token)).isSameAs(claims);
+		}
+		assertThat(meterRegistry.get("jwt.verifications").tag("result", "cache_hit").counter().count()).isEqualTo(2);
+	}
+
+	@Test
+	void rejectsTamperedExpiredAndUnsignedTokens() throws Exception {
+		JwtTokenService service = service(keyStoreUtil::getKeyPair, this::ecKeyPair, JwtTokenService.Algorithm.RS256,
+				Duration.ofMinutes(5));
+		String[] parts = service.issueAccessToken("user", Map.of()).split("\\.");
+		String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+				new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+						.replace("\"user\"", "\"admin_user\"").getBytes(StandardCharsets.UTF_8));
+		assertThatThrownBy(() -> service.verify(parts[0] + "." + forgedPayload + "." + parts[2]))
+				.isInstanceOf(JwtValidationException.class).hasMessage("Invalid signature");
+
+		String unsignedHeader = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString("{\"alg\":\"none\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+		assertThatThrownBy(() -> service.verify(unsignedHeader + "." + parts[1] + "."))
+				.isInstanceOf(JwtValidationException.class).hasMessageContaining("Unsupported algorithm");
+
+		JwtTokenService expiring = service(keyStoreUtil::getKeyPair, this::ecKeyPair, JwtTokenService.Algorithm.RS256,
+				Duration.ofSeconds(-1));
+		String expired = expiring.issueAccessToken("user", Map.of());
+		assertThatThrownBy(() -> expiring.verify(expired)).isInstanceOf(JwtValidationException.class)
+				.hasMessage("Token expired");
+	}
+
+	@Test
+	void tokensSignedBeforeAKeyRotationStillVerify() throws Exception {
+		AtomicReference<KeyPair> ecKeys = new AtomicReference<>(ecKeyPair());
+		JwtTokenService service = service(keyStoreUtil::getKeyPair, ecKeys::get, JwtTokenService.Algorithm.ES256,
+				Duration.ofMinutes(5));
+		String beforeRotation = service.issueAccessToken("user", Map.of());
+
+		ecKeys.set(ecKeyPair());
+		String afterRotation = service.issueAccessToken("user", Map.of());
+
+		assertThat(service.verify(beforeRotation).getSubject()).isEqualTo("user");
+		assertThat(service.verify(afterRotation).getSubject()).isEqualTo("user");
+	}
+
+	private JwtTokenService service(Supplier<KeyPair> rsaKeys,
+			Supplier<KeyPair> ecKeys, JwtTokenService.Algorithm algorithm, Duration ttl) {
+		return new JwtTokenService(rsaKeys, ecKeys, algorithm, "learn", ttl, Duration.ofHours(1), 100, meterRegistry);
+	}
+
+	private KeyPair ecKeyPair() {
+		try {
+			KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+			generator.initialize(new ECGenParameterSpec("secp256r1"));
+			return generator.generateKeyPair();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
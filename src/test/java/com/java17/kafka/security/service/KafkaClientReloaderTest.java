@@ -0,0 +1,175 @@
+package com.java17.kafka.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.config.SaslConfigs;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.java17.kafka.security.config.KafkaAdminClientProvider;
+import com.java17.kafka.security.config.KafkaClientProperties;
+import com.java17.kafka.security.config.TransactionalProducerPool;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class KafkaClientReloaderTest {
+
+	private final MockEnvironment environment = new MockEnvironment()
+			.withProperty("kafka.client.bootstrap-servers", "broker:9092")
+			.withProperty("kafka.client.security-protocol", "SASL_PLAINTEXT")
+			.withProperty("kafka.client.producer.username", "producer")
+			.withProperty("kafka.client.producer.password", "old-secret")
+			.withProperty("kafka.client.consumer.username", "consumer")
+			.withProperty("kafka.client.consumer.password", "consumer-secret");
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void appliesRotatedCredentialsOnlyWhenSomethingChanged() {
+		KafkaClientProperties properties = Binder.get(environment)
+				.bind("kafka.client", Bindable.of(KafkaClientProperties.class)).get();
+		DefaultKafkaProducerFactory<String, String> producerFactory = new DefaultKafkaProducerFactory<>(
+				Map.of(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, properties.getBootstrapServers()));
+		producerFactory.updateConfigs(properties.securityConfig(KafkaClientProperties.ClientRole.PRODUCER));
+		DefaultKafkaConsumerFactory<String, String> consumerFactory = new DefaultKafkaConsumerFactory<>(
+				Map.of(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, properties.getBootstrapServers()));
+		consumerFactory.updateConfigs(properties.consumerConfig());
+		StaticListableBeanFactory beans = new StaticListableBeanFactory();
+		KafkaClientReloader reloader = new KafkaClientReloader(environment, properties, List.of(producerFactory),
+				List.of(consumerFactory), beans.getBeanProvider(TransactionalProducerPool.class),
+				beans.getBeanProvider(KafkaAdminClientProvider.class),
+				beans.getBeanProvider(KafkaListenerEndpointRegistry.class),
+				beans.getBeanProvider(NotificationRetryTierListener.class), meterRegistry);
+
+		assertThat(reloader.reload().isChanged()).isFalse();
+
+		environment.setProperty("kafka.client.producer.password", "new-secret");
+		environment.setProperty("kafka.client.group-instance-id", "notifications-1");
+		KafkaClientReloadResult result = reloader.reload();
+
+		assertThat(result.getChangedProperties()).containsExactly(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG,
+				SaslConfigs.SASL_JAAS_CONFIG);
+		assertThat(result.getProducerFactories()).isEqualTo(1);
+		assertThat(result.getConsumerFactories()).isEqualTo(1);
+		assertThat((String) producerFactory.getConfigurationProperties().get(SaslConfigs.SASL_JAAS_CONFIG))
+				.contains("password=\"new-secret\"");
+		assertThat(consumerFactory.getConfigurationProperties().get(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG))
+				.isEqualTo("notifications-1");
+		assertThat((String) consumerFactory.getConfigurationProperties().get(SaslConfigs.SASL_JAAS_CONFIG))
+				.contains("password=\"consumer-secret\"");
+		assertThat(meterRegistry.get("kafka.client.reloads").tag("outcome", "applied").counter().count())
+				.isEqualTo(1);
+		assertThat(meterRegistry.get("kafka.client.reloads").tag("outcome", "unchanged").counter().count())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void reportsAndRemovesKeysDeletedFromTheReloadFile() throws Exception {
+		Path reloadFile = directory.resolve("kafka-client.properties");
+		Files.writeString(reloadFile, "kafka.client.group-instance-id=notifications-1\n");
+		KafkaClientProperties properties = Binder.get(environment)
+				.bind("kafka.client", Bindable.of(KafkaClientProperties.class)).get();
+		DefaultKafkaConsumerFactory<String, String> consumerFactory = new DefaultKafkaConsumerFactory<>(
+				Map.of(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, properties.getBootstrapServers()));
+		consumerFactory.updateConfigs(properties.consumerConfig());
+		StaticListableBeanFactory beans = new StaticListableBeanFactory();
+		KafkaClientReloader reloader = new KafkaClientReloader(environment, properties, List.of(),
+				List.of(consumerFactory), beans.getBeanProvider(TransactionalProducerPool.class),
+				beans.getBeanProvider(KafkaAdminClientProvider.class),
+				beans.getBeanProvider(KafkaListenerEndpointRegistry.class),
+				beans.getBeanProvider(NotificationRetryTierListener.class), meterRegistry);
+		ReflectionTestUtils.setField(reloader, "reloadFile", reloadFile.toString());
+
+		assertThat(reloader.reload().getChangedProperties()).containsExactly(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG);
+		assertThat(properties.getGroupInstanceId()).isEqualTo("notifications-1");
+
+		Files.writeString(reloadFile, "");
+		KafkaClientReloadResult result = reloader.reload();
+
+		assertThat(result.getChangedProperties()).containsExactly(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG);
+		assertThat(properties.getGroupInstanceId()).isNull();
+		assertThat(consumerFactory.getConfigurationProperties())
+				.doesNotContainKey(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG);
+	}
+
+	@Test
+	void restartsConcurrentContainersOneConsumerAtATime() {
+		KafkaClientProperties properties = Binder.get(environment)
+				.bind("kafka.client", Bindable.of(KafkaClientProperties.class)).get();
+		List<Integer> othersRunningAtCreation = new CopyOnWriteArrayList<>();
+		AtomicReference<ConcurrentMessageListenerContainer<String, String>> container = new AtomicReference<>();
+		DefaultKafkaConsumerFactory<String, String> consumerFactory = new DefaultKafkaConsumerFactory<>(
+				Map.of(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, properties.getBootstrapServers(),
+						ConsumerConfig.GROUP_ID_CONFIG, "notification-group")) {
+			@Override
+			protected Consumer<String, String> createRawConsumer(Map<String, Object> configProps) {
+				ConcurrentMessageListenerContainer<String, String> running = container.get();
+				if (running != null) {
+					othersRunningAtCreation.add((int) running.getContainers().stream()
+							.filter(MessageListenerContainer::isRunning).count());
+				}
+				return new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+			}
+		};
+		consumerFactory.updateConfigs(properties.consumerConfig());
+		ContainerProperties containerProperties = new ContainerProperties("notification-events");
+		containerProperties.setMessageListener((MessageListener<String, String>) record -> { });
+		containerProperties.setPollTimeout(10);
+		ConcurrentMessageListenerContainer<String, String> notifications =
+				new ConcurrentMessageListenerContainer<>(consumerFactory, containerProperties);
+		notifications.setConcurrency(3);
+		notifications.setBeanName("notifications");
+		notifications.start();
+		KafkaListenerEndpointRegistry registry = new KafkaListenerEndpointRegistry() {
+			@Override
+			public Collection<MessageListenerContainer> getListenerContainers() {
+				return List.of(notifications);
+			}
+		};
+		StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("registry", registry));
+		KafkaClientReloader reloader = new KafkaClientReloader(environment, properties, List.of(),
+				List.of(consumerFactory), beans.getBeanProvider(TransactionalProducerPool.class),
+				beans.getBeanProvider(KafkaAdminClientProvider.class),
+				beans.getBeanProvider(KafkaListenerEndpointRegistry.class),
+				beans.getBeanProvider(NotificationRetryTierListener.class), meterRegistry);
+		try {
+			container.set(notifications);
+			environment.setProperty("kafka.client.consumer.password", "rotated-secret");
+			KafkaClientReloadResult result = reloader.reload();
+
+			assertThat(result.getRestartedContainers()).isEqualTo(3);
+			// Each replacement consumer was created while the other two kept running
+			assertThat(othersRunningAtCreation).containsExactly(2, 2, 2);
+			assertThat(notifications.getContainers()).allMatch(MessageListenerContainer::isRunning);
+		} finally {
+			notifications.stop();
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package com.java17.kafka.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.admin.AlterUserScramCredentialsOptions;
+import org.apache.kafka.clients.admin.AlterUserScramCredentialsResult;
+import org.apache.kafka.clients.admin.InMemoryAclAdminClient;
+import org.apache.kafka.clients.admin.ScramMechanism;
+import org.apache.kafka.clients.admin.UserScramCredentialAlteration;
+import org.apache.kafka.common.errors.ClusterAuthorizationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.ResponseEntity;
+
+import com.java17.kafka.security.config.AdminOperationMetrics;
+import com.java17.kafka.security.config.KafkaAclManager;
+import com.java17.kafka.security.config.KafkaAdminClientProvider;
+import com.java17.kafka.security.controller.KafkaSecurityController;
+import com.java17.kafka.security.controller.KafkaSecuritySetupRequest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class KafkaSecurityManagementServiceTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AdminOperationMetrics metrics = new AdminOperationMetrics(meterRegistry);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void recordsFailedUserSetupWhenTheUpsertThrows() {
+		KafkaAdminClientProvider adminClientProvider = adminClientProvider(new InMemoryAclAdminClient(List.of()));
+		KafkaUserManager userManager = new KafkaUserManager(adminClientProvider, 4096, 100) {
+			@Override
+			public ScramUserBulkResult upsertScramUsers(Map<String, String> users, ScramMechanism mechanism) {
+				throw new IllegalStateException("admin client closed");
+			}
+		};
+		KafkaSecurityManagementService service = service(adminClientProvider, userManager);
+
+		assertThatThrownBy(() -> service.setupKafkaSecurity(null, jaasConfigPath(), List.of("admin"),
+				Map.of("admin", "secret"), Map.of(), Map.of()))
+				.isInstanceOf(IllegalStateException.class);
+
+		assertThat(metrics.timer("setup.users", "user", AdminOperationMetrics.FAILURE).count()).isEqualTo(1);
+		assertThat(meterRegistry.find(AdminOperationMetrics.METRIC_NAME).tag("operation", "setup.acls").timer())
+				.isNull();
+	}
+
+	@Test
+	void reportsUserFailuresAlongsideTheAclReport() throws Exception {
+		KafkaAdminClientProvider adminClientProvider = adminClientProvider(new InMemoryAclAdminClient(List.of()) {
+			@Override
+			public synchronized AlterUserScramCredentialsResult alterUserScramCredentials(
+					List<UserScramCredentialAlteration> alterations, AlterUserScramCredentialsOptions options) {
+				throw new ClusterAuthorizationException("not allowed");
+			}
+		});
+		KafkaSecurityManagementService service = service(adminClientProvider,
+				new KafkaUserManager(adminClientProvider, 4096, 100));
+
+		Map<String, Object> result = service.setupKafkaSecurity(null, jaasConfigPath(), List.of("admin"),
+				Map.of("admin", "secret", "app", "app-secret"), Map.of("app", List.of("orders")), Map.of());
+
+		assertThat(((ScramUserBulkResult) result.get("users")).getFailed()).isEqualTo(2);
+		assertThat(((AclProvisioningReport) result.get("acls")).hasFailures()).isFalse();
+		assertThat(metrics.timer("setup.users", "user", AdminOperationMetrics.FAILURE).count()).isEqualTo(1);
+
+		// The request's users carry no passwords, so hand the service some to fail on
+		KafkaSecurityManagementService withUsers = new KafkaSecurityManagementService(
+				new KafkaUserManager(adminClientProvider, 4096, 100), new KafkaBrokerSecurityService(),
+				aclReconciler(adminClientProvider), metrics) {
+			@Override
+			public Map<String, Object> setupKafkaSecurity(String brokerConfigPath, String jaasConfigPath,
+					List<String> superUsers, Map<String, String> users, Map<String, List<String>> producerTopics,
+					Map<String, Map<String, String>> consumerTopicsGroups) throws Exception {
+				return super.setupKafkaSecurity(brokerConfigPath, jaasConfigPath, superUsers,
+						Map.of("admin", "secret"), producerTopics, consumerTopicsGroups);
+			}
+		};
+		KafkaSecurityController controller = new KafkaSecurityController(withUsers, null, null, null, null);
+		KafkaSecuritySetupRequest request = new KafkaSecuritySetupRequest();
+		request.setJaasConfigPath(jaasConfigPath());
+		request.setSuperUsers(List.of("admin"));
+		request.setProducerTopics(Map.of());
+		request.setConsumerTopicsGroups(Map.of());
+
+		ResponseEntity<?> response = controller.setupKafkaSecurity(request).call();
+
+		assertThat(response.getStatusCode().value()).isEqualTo(207);
+	}
+
+	private String jaasConfigPath() {
+		return directory.resolve("jaas.conf").toString();
+	}
+
+	private KafkaAdminClientProvider adminClientProvider(InMemoryAclAdminClient admin) {
+		return new KafkaAdminClientProvider(() -> admin, "mock", meterRegistry, 3);
+	}
+
+	private KafkaSecurityManagementService service(KafkaAdminClientProvider adminClientProvider,
+			KafkaUserManager userManager) {
+		return new KafkaSecurityManagementService(userManager, new KafkaBrokerSecurityService(),
+				aclReconciler(adminClientProvider), metrics);
+	}
+
+	private static AclReconciler aclReconciler(KafkaAdminClientProvider adminClientProvider) {
+		KafkaAclManager aclManager = new KafkaAclManager(adminClientProvider);
+		return new AclReconciler(aclManager, new AclProvisioningEngine(aclManager, 100, 2));
+	}
+}
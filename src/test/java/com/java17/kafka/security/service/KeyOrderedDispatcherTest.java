@@ -0,0 +1,205 @@
+package com.java17.kafka.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.consumer.RetriableCommitFailedException;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class KeyOrderedDispatcherTest {
+
+	private static final String TOPIC = "notification-events";
+	private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+	private final MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+	private final List<ConsumerRecord<?, ?>> recovered = new CopyOnWriteArrayList<>();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final KeyOrderedDispatcher dispatcher = new KeyOrderedDispatcher(4, 100, 5000,
+			new StaticListableBeanFactory(Map.of("recoverer", (ConsumerRecordRecoverer) (r, e) -> recovered.add(r)))
+					.getBeanProvider(ConsumerRecordRecoverer.class),
+			meterRegistry);
+
+	@AfterEach
+	void tearDown() {
+		dispatcher.destroy();
+	}
+
+	@Test
+	void keepsPerKeyOrderAcrossLanes() throws Exception {
+		consumer.assign(List.of(PARTITION));
+		List<ConsumerRecord<String, String>> records = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			records.add(new ConsumerRecord<>(TOPIC, 0, i, "user-" + (i % 10), "n" + i));
+		}
+		Map<String, List<Long>> seen = new ConcurrentHashMap<>();
+		CountDownLatch done = new CountDownLatch(records.size());
+		dispatcher.dispatch(records, consumer, record -> {
+			seen.computeIfAbsent(record.key(), k -> new CopyOnWriteArrayList<>()).add(record.offset());
+			done.countDown();
+		});
+
+		assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+		seen.values().forEach(offsets -> assertThat(offsets).isSorted());
+		dispatcher.onPartitionsRevokedBeforeCommit(consumer, List.of(PARTITION));
+		assertThat(committed()).isEqualTo(1000);
+	}
+
+	@Test
+	void commitsOnlyUpToLowestRunningOffset() throws Exception {
+		consumer.assign(List.of(PARTITION));
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch fastDone = new CountDownLatch(9);
+		List<ConsumerRecord<String, String>> records = new ArrayList<>();
+		int key = 0;
+		for (int i = 0; i < 10; i++) {
+			if (i == 3) {
+				records.add(new ConsumerRecord<>(TOPIC, 0, i, "slow", "n" + i));
+				continue;
+			}
+			// Keys sharing the slow key's lane would rightly wait behind it
+			while (lane("fast-" + key) == lane("slow")) {
+				key++;
+			}
+			records.add(new ConsumerRecord<>(TOPIC, 0, i, "fast-" + key++, "n" + i));
+		}
+		dispatcher.dispatch(records, consumer, record -> {
+			if ("slow".equals(record.key())) {
+				release.await();
+			} else {
+				fastDone.countDown();
+			}
+		});
+
+		assertThat(fastDone.await(10, TimeUnit.SECONDS)).isTrue();
+		dispatcher.commit(consumer);
+		assertThat(committed()).isEqualTo(3);
+
+		release.countDown();
+		dispatcher.onPartitionsRevokedBeforeCommit(consumer, List.of(PARTITION));
+		assertThat(committed()).isEqualTo(10);
+	}
+
+	@Test
+	void failedRecordsAreRecoveredAndDoNotBlockCommits() throws Exception {
+		consumer.assign(List.of(PARTITION));
+		List<ConsumerRecord<String, String>> records = List.of(
+				new ConsumerRecord<>(TOPIC, 0, 0, "a", "ok"),
+				new ConsumerRecord<>(TOPIC, 0, 1, "a", "boom"),
+				new ConsumerRecord<>(TOPIC, 0, 2, "a", "ok"));
+		dispatcher.dispatch(records, consumer, record -> {
+			if ("boom".equals(record.value())) {
+				throw new IllegalStateException("boom");
+			}
+		});
+
+		dispatcher.onPartitionsRevokedBeforeCommit(consumer, List.of(PARTITION));
+		assertThat(recovered).extracting(ConsumerRecord::offset).containsExactly(1L);
+		assertThat(committed()).isEqualTo(3);
+	}
+
+	@Test
+	void consumersOnlyCommitTheirOwnPartitions() throws Exception {
+		// The container's consumer threads share one dispatcher, each with its own partitions
+		List<MockConsumer<String, String>> consumers = new ArrayList<>();
+		CountDownLatch done = new CountDownLatch(3 * 100);
+		for (int p = 0; p < 3; p++) {
+			MockConsumer<String, String> owner = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+			owner.assign(List.of(new TopicPartition(TOPIC, p)));
+			consumers.add(owner);
+			List<ConsumerRecord<String, String>> records = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				records.add(new ConsumerRecord<>(TOPIC, p, i, "user-" + (i % 7), "n" + i));
+			}
+			dispatcher.dispatch(records, owner, record -> done.countDown());
+		}
+		assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+
+		for (MockConsumer<String, String> owner : consumers) {
+			dispatcher.commit(owner);
+		}
+		for (int p = 0; p < 3; p++) {
+			for (int c = 0; c < 3; c++) {
+				TopicPartition partition = new TopicPartition(TOPIC, p);
+				OffsetAndMetadata offset = consumers.get(c)
+						.committed(java.util.Set.of(partition), Duration.ofSeconds(1)).get(partition);
+				if (c == p) {
+					assertThat(offset).as("consumer %d, partition %d", c, p).isNotNull();
+					assertThat(offset.offset()).isEqualTo(100);
+				} else {
+					assertThat(offset).as("consumer %d, partition %d", c, p).isNull();
+				}
+			}
+		}
+	}
+
+	@Test
+	void retriesAFailedCommitWithoutNewProgress() throws Exception {
+		AtomicBoolean failing = new AtomicBoolean(true);
+		MockConsumer<String, String> flaky = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+			@Override
+			public synchronized void commitAsync(Map<TopicPartition, OffsetAndMetadata> offsets,
+					OffsetCommitCallback callback) {
+				if (failing.get()) {
+					callback.onComplete(offsets, new RetriableCommitFailedException("coordinator moved"));
+				} else {
+					super.commitAsync(offsets, callback);
+				}
+			}
+		};
+		flaky.assign(List.of(PARTITION));
+		CountDownLatch done = new CountDownLatch(5);
+		List<ConsumerRecord<String, String>> records = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			records.add(new ConsumerRecord<>(TOPIC, 0, i, "a", "n" + i));
+		}
+		dispatcher.dispatch(records, flaky, record -> done.countDown());
+		assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+		// A record counts as completed just after its handler returns
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (meterRegistry.get("kafka.notification.inflight").gauge().value() > 0 && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+
+		dispatcher.commit(flaky);
+		assertThat(committed(flaky)).isEqualTo(-1);
+
+		// Nothing new completed, but the failed offset is sent again
+		failing.set(false);
+		dispatcher.commit(flaky);
+		assertThat(committed(flaky)).isEqualTo(5);
+	}
+
+	private static int lane(String key) {
+		return Math.floorMod(key.hashCode(), 4);
+	}
+
+	private long committed() {
+		return committed(consumer);
+	}
+
+	private static long committed(MockConsumer<String, String> owner) {
+		OffsetAndMetadata offset = owner.committed(Set.of(PARTITION), Duration.ofSeconds(1)).get(PARTITION);
+		return offset == null ? -1 : offset.offset();
+	}
+}
@@ -0,0 +1,125 @@
+package com.java17.kafka.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.java17.kafka.security.config.KafkaConfig;
+import com.java17.kafka.security.config.KafkaConsumerConfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Pushes a burst of notifications through the batch listener on an embedded broker and
+ * reports records/s and the average batch size; all offsets must end up committed.
+ */
+@SpringJUnitConfig(NotificationBatchListenerThroughputTest.Config.class)
+@EmbeddedKafka(partitions = 3, topics = KafkaConfig.NOTIFICATION_TOPIC)
+@TestPropertySource(properties = {
+		"kafka.client.bootstrap-servers=${spring.embedded.kafka.brokers}",
+		"kafka.client.security-protocol=PLAINTEXT",
+		"kafka.notification.consumer.concurrency=3" })
+class NotificationBatchListenerThroughputTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(NotificationBatchListenerThroughputTest.class);
+
+	private static final int RECORDS = 20_000;
+	private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+	@Autowired
+	private EmbeddedKafkaBroker broker;
+
+	@Autowired
+	private NotificationBatchListener listener;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void consumesBurstInBatchesAndCommitsOffsets() throws Exception {
+		produce();
+
+		long start = System.nanoTime();
+		listener.start();
+		long deadline = start + TIMEOUT.toNanos();
+		while (listener.getRecordsProcessed() < RECORDS && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+		long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+		double meanBatch = meterRegistry.get("kafka.notification.batch.size").summary().mean();
+
+		logger.info("records={} elapsed={}ms throughput={} records/s meanBatch={}",
+				(long) listener.getRecordsProcessed(), elapsedMillis, RECORDS * 1000L / elapsedMillis,
+				String.format("%.1f", meanBatch));
+
+		assertThat(listener.getRecordsProcessed()).isEqualTo(RECORDS);
+		assertThat(meanBatch).isGreaterThan(1.0);
+		assertThat(awaitCommittedOffsets()).isEqualTo(RECORDS);
+	}
+
+	private void produce() {
+		Properties props = new Properties();
+		props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+		props.put(ProducerConfig.LINGER_MS_CONFIG, 10);
+		try (KafkaProducer<String, Object> producer = new KafkaProducer<>(props, new StringSerializer(),
+				new JsonSerializer<>())) {
+			for (int i = 0; i < RECORDS; i++) {
+				producer.send(new ProducerRecord<>(KafkaConfig.NOTIFICATION_TOPIC, "user-" + (i % 500),
+						"notification " + i));
+			}
+			producer.flush();
+		}
+	}
+
+	private long awaitCommittedOffsets() throws Exception {
+		Properties props = new Properties();
+		props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+		long committed = 0;
+		try (AdminClient admin = AdminClient.create(props)) {
+			long deadline = System.nanoTime() + TIMEOUT.toNanos();
+			while (committed < RECORDS && System.nanoTime() < deadline) {
+				// The last batch is committed on the poll after it is acknowledged
+				Map<?, OffsetAndMetadata> offsets = admin.listConsumerGroupOffsets(KafkaConfig.NOTIFICATION_GROUP)
+						.partitionsToOffsetAndMetadata().get();
+				committed = offsets.values().stream().mapToLong(OffsetAndMetadata::offset).sum();
+				Thread.sleep(100);
+			}
+		}
+		return committed;
+	}
+
+	@Configuration
+	@EnableKafka
+	@Import({ KafkaConsumerConfig.class, NotificationBatchListener.class, KeyOrderedDispatcher.class })
+	static class Config {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+}
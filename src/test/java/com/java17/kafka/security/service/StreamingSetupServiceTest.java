@@ -0,0 +1,111 @@
+package com.java17.kafka.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.admin.InMemoryAclAdminClient;
+import org.apache.kafka.common.acl.AclBinding;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java17.kafka.security.config.AdminOperationMetrics;
+import com.java17.kafka.security.config.KafkaAclManager;
+import com.java17.kafka.security.config.KafkaAdminClientProvider;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class StreamingSetupServiceTest {
+
+	private final List<AclBinding> existing = KafkaAclManager.producerAclBindings("app", "orders");
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void onlyCreatesBindingsThatAreNotOnTheClusterYet() throws Exception {
+		List<AclBinding> unrelated = KafkaAclManager.producerAclBindings("audit", "orders");
+		List<AclBinding> onCluster = new ArrayList<>(existing);
+		onCluster.addAll(unrelated);
+		InMemoryAclAdminClient admin = new InMemoryAclAdminClient(onCluster);
+
+		Map<String, Object> result = service(admin).setup(body("""
+				{"producerTopics": {"app": ["orders", "payments"], "billing": ["invoices"]},
+				 "consumerTopicsGroups": {"app": {"orders": "app-group"}}}
+				"""));
+
+		int added = KafkaAclManager.producerAclBindings("app", "payments").size()
+				+ KafkaAclManager.producerAclBindings("billing", "invoices").size()
+				+ KafkaAclManager.consumerAclBindings("app", "orders", "app-group").size();
+		assertThat(((AclProvisioningReport) result.get("acls")).getSubmitted()).isEqualTo(added);
+		assertThat(result.get("aclsUnchanged")).isEqualTo(existing.size());
+		assertThat(admin.acls()).hasSize(onCluster.size() + added);
+		// One describe per run of a principal's entries: app, billing, then app again
+		assertThat(admin.describeCalls()).isEqualTo(3);
+	}
+
+	@Test
+	void reportsUsersWithoutCredentialsAsFailures() throws Exception {
+		Map<String, Object> result = service(new InMemoryAclAdminClient(List.of())).setup(body("""
+				{"users": [{"username": "app"},
+				           {"password": "orphan-secret"},
+				           {"username": "", "password": "empty-name"}]}
+				"""));
+
+		ScramUserBulkResult users = (ScramUserBulkResult) result.get("users");
+		assertThat(users.getFailed()).isEqualTo(3);
+		assertThat(users.getFailures()).containsKeys("app", "null", "");
+	}
+
+	@Test
+	void takesTheAdminPasswordFromUsersListedAfterSuperUsers() throws Exception {
+		Path jaas = directory.resolve("kafka_server_jaas.conf");
+
+		service(new InMemoryAclAdminClient(List.of())).setup(body("""
+				{"jaasConfigPath": "%s",
+				 "superUsers": ["admin"],
+				 "users": [{"username": "app", "password": "app-secret"},
+				           {"username": "admin", "password": "admin-secret"}]}
+				""".formatted(jaas)));
+
+		assertThat(Files.readString(jaas)).contains("password=\"admin-secret\"").doesNotContain("app-secret");
+	}
+
+	@Test
+	void rejectsSuperUsersAfterUsersWhenJaasConfigIsRequested() {
+		String manifest = """
+				{"users": [{"username": "admin", "password": "admin-secret"}],
+				 "superUsers": ["admin"],
+				 "jaasConfigPath": "%s"}
+				""".formatted(directory.resolve("kafka_server_jaas.conf"));
+
+		assertThatThrownBy(() -> service(new InMemoryAclAdminClient(List.of())).setup(body(manifest)))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("superUsers must come before users");
+	}
+
+	private static StreamingSetupService service(InMemoryAclAdminClient admin) {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		KafkaAdminClientProvider adminClientProvider = new KafkaAdminClientProvider(() -> admin, "mock",
+				meterRegistry, 3);
+		KafkaAclManager aclManager = new KafkaAclManager(adminClientProvider);
+		AclProvisioningEngine provisioningEngine = new AclProvisioningEngine(aclManager, 100, 2);
+		return new StreamingSetupService(provisioningEngine, new AclReconciler(aclManager, provisioningEngine),
+				new KafkaUserManager(adminClientProvider, 4096, 100), new KafkaBrokerSecurityService(),
+				new ObjectMapper(), new AdminOperationMetrics(meterRegistry), 100);
+	}
+
+	private static InputStream body(String json) {
+		return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,76 @@
+package org.apache.kafka.clients.admin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.acl.AclBinding;
+import org.apache.kafka.common.acl.AclBindingFilter;
+
+/**
+ * MockAdminClient with ACL calls backed by a set, for tests of the ACL services. Lives in
+ * this package because the result classes have package-private constructors.
+ */
+public class InMemoryAclAdminClient extends MockAdminClient {
+
+	private final Set<AclBinding> acls = new LinkedHashSet<>();
+	private final AtomicInteger describeCalls = new AtomicInteger();
+
+	public InMemoryAclAdminClient(Collection<AclBinding> existing) {
+		acls.addAll(existing);
+	}
+
+	@Override
+	public synchronized CreateAclsResult createAcls(Collection<AclBinding> bindings, CreateAclsOptions options) {
+		Map<AclBinding, KafkaFuture<Void>> results = new HashMap<>();
+		for (AclBinding binding : bindings) {
+			acls.add(binding);
+			results.put(binding, KafkaFuture.completedFuture(null));
+		}
+		return new CreateAclsResult(results);
+	}
+
+	@Override
+	public synchronized DescribeAclsResult describeAcls(AclBindingFilter filter, DescribeAclsOptions options) {
+		describeCalls.incrementAndGet();
+		return new DescribeAclsResult(KafkaFuture.completedFuture(matching(filter)));
+	}
+
+	@Override
+	public synchronized DeleteAclsResult deleteAcls(Collection<AclBindingFilter> filters, DeleteAclsOptions options) {
+		Map<AclBindingFilter, KafkaFuture<DeleteAclsResult.FilterResults>> results = new HashMap<>();
+		for (AclBindingFilter filter : filters) {
+			List<DeleteAclsResult.FilterResult> deleted = new ArrayList<>();
+			for (AclBinding binding : matching(filter)) {
+				acls.remove(binding);
+				deleted.add(new DeleteAclsResult.FilterResult(binding, null));
+			}
+			results.put(filter, KafkaFuture.completedFuture(new DeleteAclsResult.FilterResults(deleted)));
+		}
+		return new DeleteAclsResult(results);
+	}
+
+	public synchronized Set<AclBinding> acls() {
+		return new LinkedHashSet<>(acls);
+	}
+
+	public int describeCalls() {
+		return describeCalls.get();
+	}
+
+	private List<AclBinding> matching(AclBindingFilter filter) {
+		List<AclBinding> matching = new ArrayList<>();
+		for (AclBinding binding : acls) {
+			if (filter.matches(binding)) {
+				matching.add(binding);
+			}
+		}
+		return matching;
+	}
+}